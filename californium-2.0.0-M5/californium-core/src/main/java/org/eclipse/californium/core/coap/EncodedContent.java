@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.coap;
+
+import static org.eclipse.californium.core.coap.CoAP.MessageFormat.PAYLOAD_MARKER;
+
+import java.util.Arrays;
+
+/**
+ * The options and the payload of a received message, kept in the received
+ * datagram until they are accessed.
+ * <p>
+ * {@link #scan(byte[], int)} only checks the encoding of the options and
+ * locates the payload, so the messages dropped or answered from their header,
+ * e.g. duplicates and ACKs, don't create any {@link Option} nor copy their
+ * payload. {@link Message#getOptions()} and {@link Message#getPayload()}
+ * decode them on the first call.
+ */
+public final class EncodedContent {
+
+	private final byte[] datagram;
+	private final int optionsOffset;
+	/** The offset of the payload marker, the length of the datagram if none. */
+	private final int payloadMarker;
+
+	private EncodedContent(final byte[] datagram, final int optionsOffset, final int payloadMarker) {
+		this.datagram = datagram;
+		this.optionsOffset = optionsOffset;
+		this.payloadMarker = payloadMarker;
+	}
+
+	/**
+	 * Checks the options of a datagram and locates its payload.
+	 *
+	 * @param datagram the datagram, which must not be modified afterwards.
+	 * @param offset the offset of the options, after the header and the token.
+	 * @return the content.
+	 * @throws MessageFormatException if an option is malformed, or if a payload
+	 *             marker is not followed by a payload.
+	 */
+	public static EncodedContent scan(final byte[] datagram, final int offset) {
+		int position = offset;
+		while (position < datagram.length) {
+			byte nextByte = datagram[position];
+			if (nextByte == PAYLOAD_MARKER) {
+				if (position + 1 == datagram.length) {
+					// the presence of a marker followed by a zero-length payload must be processed as a message format error
+					throw new MessageFormatException("Found payload marker (0xFF) but message contains no payload");
+				}
+				return new EncodedContent(datagram, offset, position);
+			}
+			position++;
+			position += extendedLength((0xF0 & nextByte) >> 4);
+			int lengthNibble = 0x0F & nextByte;
+			int lengthBytes = extendedLength(lengthNibble);
+			if (position + lengthBytes > datagram.length) {
+				throw new MessageFormatException("Message contains truncated option header");
+			}
+			int optionLength = lengthNibble < 13 ? lengthNibble : nibbleValue(datagram, position, lengthNibble);
+			position += lengthBytes;
+			if (position + optionLength > datagram.length) {
+				throw new MessageFormatException(String.format(
+						"Message contains option of length %d with only fewer bytes left in the message",
+						optionLength));
+			}
+			position += optionLength;
+		}
+		return new EncodedContent(datagram, offset, datagram.length);
+	}
+
+	/**
+	 * @return the number of bytes following the option header byte for the
+	 *         value of a nibble.
+	 */
+	private static int extendedLength(final int nibble) {
+		if (nibble <= 12) {
+			return 0;
+		} else if (nibble == 13) {
+			return 1;
+		} else if (nibble == 14) {
+			return 2;
+		} else {
+			throw new MessageFormatException("Message contains illegal option delta/length: " + nibble);
+		}
+	}
+
+	private static int nibbleValue(final byte[] datagram, final int position, final int nibble) {
+		if (nibble == 13) {
+			return (datagram[position] & 0xFF) + 13;
+		} else {
+			return ((datagram[position] & 0xFF) << 8 | datagram[position + 1] & 0xFF) + 269;
+		}
+	}
+
+	/**
+	 * Decodes the options, which have been checked by
+	 * {@link #scan(byte[], int)}.
+	 *
+	 * @return a new set of the options.
+	 */
+	public OptionSet decodeOptions() {
+		OptionSet options = new OptionSet();
+		int optionNumber = 0;
+		int position = optionsOffset;
+		while (position < payloadMarker) {
+			byte nextByte = datagram[position++];
+			int deltaNibble = (0xF0 & nextByte) >> 4;
+			if (deltaNibble > 12) {
+				optionNumber += nibbleValue(datagram, position, deltaNibble);
+				position += extendedLength(deltaNibble);
+			} else {
+				optionNumber += deltaNibble;
+			}
+			int optionLength = 0x0F & nextByte;
+			if (optionLength > 12) {
+				int lengthNibble = optionLength;
+				optionLength = nibbleValue(datagram, position, lengthNibble);
+				position += extendedLength(lengthNibble);
+			}
+			Option option = new Option(optionNumber);
+			option.setValue(Arrays.copyOfRange(datagram, position, position + optionLength));
+			options.addOption(option);
+			position += optionLength;
+		}
+		return options;
+	}
+
+	/**
+	 * @return the size of the payload.
+	 */
+	public int getPayloadSize() {
+		return payloadMarker == datagram.length ? 0 : datagram.length - payloadMarker - 1;
+	}
+
+	/**
+	 * @return a copy of the payload, or <code>null</code> if there is none.
+	 */
+	public byte[] decodePayload() {
+		return payloadMarker == datagram.length ? null : Arrays.copyOfRange(datagram, payloadMarker + 1,
+				datagram.length);
+	}
+}
@@ -106,6 +106,19 @@ public abstract class Message {
 	/** The payload of this message. */
 	private byte[] payload;
 
+	/**
+	 * The encoded options of a received message, until they are decoded.
+	 * Cleared after the decoded options are set, under the lock of this
+	 * message.
+	 */
+	private volatile EncodedContent encodedOptions;
+
+	/**
+	 * The encoded payload of a received message, until it is decoded. Cleared
+	 * after the decoded payload is set, under the lock of this message.
+	 */
+	private volatile EncodedContent encodedPayload;
+
 	/** The destination address of this message. */
 	private InetAddress destination;
 
@@ -324,14 +337,28 @@ public abstract class Message {
 	 * one. EmptyMessages should not have any options.
 	 * 
 	 * @return the options
+	 * @throws IllegalArgumentException if the options of a received message
+	 *             are decoded and one of them has an illegal value, e.g. an
+	 *             If-Match option longer than 8 bytes.
 	 */
 	public OptionSet getOptions() {
+		if (encodedOptions != null) {
+			decodeOptions();
+		}
 		if (options == null) {
 			options = new OptionSet();
 		}
 		return options;
 	}
 
+	private synchronized void decodeOptions() {
+		EncodedContent encoded = encodedOptions;
+		if (encoded != null) {
+			options = encoded.decodeOptions();
+			encodedOptions = null;
+		}
+	}
+
 	/**
 	 * Sets the set of options.
 	 * 
@@ -343,9 +370,25 @@ public abstract class Message {
 	 */
 	public Message setOptions(OptionSet options) {
 		this.options = new OptionSet(options);
+		this.encodedOptions = null;
 		return this;
 	}
 
+	/**
+	 * Sets the encoded options and payload of a received message, decoded on
+	 * the first call to {@link #getOptions()} and {@link #getPayload()}.
+	 * 
+	 * Not part of the fluent API.
+	 *
+	 * @param content the encoded options and payload.
+	 */
+	public void setEncodedContent(EncodedContent content) {
+		this.options = null;
+		this.payload = null;
+		this.encodedOptions = content;
+		this.encodedPayload = content;
+	}
+
 	/**
 	 * Gets the size (amount of bytes) of the payload. Be aware that this might
 	 * differ from the payload string length due to the UTF-8 encoding.
@@ -353,6 +396,10 @@ public abstract class Message {
 	 * @return the payload size
 	 */
 	public int getPayloadSize() {
+		EncodedContent encoded = encodedPayload;
+		if (encoded != null) {
+			return encoded.getPayloadSize();
+		}
 		return payload == null ? 0 : payload.length;
 	}
 
@@ -362,9 +409,20 @@ public abstract class Message {
 	 * @return the payload
 	 */
 	public byte[] getPayload() {
+		if (encodedPayload != null) {
+			decodePayload();
+		}
 		return payload;
 	}
 
+	private synchronized void decodePayload() {
+		EncodedContent encoded = encodedPayload;
+		if (encoded != null) {
+			payload = encoded.decodePayload();
+			encodedPayload = null;
+		}
+	}
+
 	/**
 	 * Gets the payload in the form of a string. Returns an empty string if no
 	 * payload is defined.
@@ -372,6 +430,7 @@ public abstract class Message {
 	 * @return the payload as string
 	 */
 	public String getPayloadString() {
+		byte[] payload = getPayload();
 		if (payload == null) {
 			return "";
 		}
@@ -379,6 +438,7 @@ public abstract class Message {
 	}
 
 	protected String getPayloadTracingString() {
+		byte[] payload = getPayload();
 
 		if (null == payload || 0 == payload.length) {
 			return "no payload";
@@ -424,7 +484,7 @@ public abstract class Message {
 	 */
 	public Message setPayload(String payload) {
 		if (payload == null) {
-			this.payload = null;
+			setPayload((byte[]) null);
 		} else {
 			setPayload(payload.getBytes(CoAP.UTF8_CHARSET));
 		}
@@ -441,6 +501,7 @@ public abstract class Message {
 	 */
 	public Message setPayload(byte[] payload) {
 		this.payload = payload;
+		this.encodedPayload = null;
 		return this;
 	}
 
@@ -53,15 +53,18 @@ import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.eclipse.californium.core.coap.CoAP;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
 import org.eclipse.californium.core.coap.CoAP.Type;
 import org.eclipse.californium.core.coap.CoAPMessageFormatException;
 import org.eclipse.californium.core.coap.EmptyMessage;
 import org.eclipse.californium.core.coap.Message;
 import org.eclipse.californium.core.coap.MessageFormatException;
+import org.eclipse.californium.core.coap.OptionSet;
 import org.eclipse.californium.core.coap.Request;
 import org.eclipse.californium.core.coap.Response;
 import org.eclipse.californium.core.network.EndpointManager.ClientMessageDeliverer;
@@ -79,6 +82,9 @@ import org.eclipse.californium.core.network.stack.CoapTcpStack;
 import org.eclipse.californium.core.network.stack.CoapUdpStack;
 import org.eclipse.californium.core.network.stack.ObserveLayer;
 import org.eclipse.californium.core.network.stack.ReliabilityLayer;
+import org.eclipse.californium.core.network.timer.ExecutorTimer;
+import org.eclipse.californium.core.network.timer.HashedWheelTimer;
+import org.eclipse.californium.core.network.timer.Timer;
 import org.eclipse.californium.core.observe.InMemoryObservationStore;
 import org.eclipse.californium.core.observe.NotificationListener;
 import org.eclipse.californium.core.observe.ObservationStore;
@@ -87,11 +93,15 @@ import org.eclipse.californium.elements.Connector;
 import org.eclipse.californium.elements.CorrelationContext;
 import org.eclipse.californium.elements.CorrelationContextMatcher;
 import org.eclipse.californium.elements.MessageCallback;
+import org.eclipse.californium.elements.NioUDPConnector;
 import org.eclipse.californium.elements.RawData;
 import org.eclipse.californium.elements.RawDataChannel;
 import org.eclipse.californium.elements.UDPConnector;
 import org.eclipse.californium.elements.util.DaemonThreadFactory;
 
+import eu.javaspecialists.tjsn.concurrency.stripedexecutor.StripedExecutorService;
+import eu.javaspecialists.tjsn.concurrency.stripedexecutor.StripedRunnable;
+
 
 /**
  * Endpoint encapsulates the stack that executes the CoAP protocol. Endpoint
@@ -148,7 +158,10 @@ import org.eclipse.californium.elements.util.DaemonThreadFactory;
  * </pre>
  * <p>
  * The endpoint and its layers use an {@link ScheduledExecutorService} to
- * execute tasks, e.g., when a request arrives.
+ * execute tasks, e.g., when a request arrives. If configured with
+ * {@link NetworkConfig.Keys#PROTOCOL_STAGE_STRIPED}, the tasks of one peer
+ * are executed one after the other on that executor, while the tasks of
+ * different peers still run in parallel.
  */
 public class CoapEndpoint implements Endpoint {
 
@@ -196,6 +209,12 @@ public class CoapEndpoint implements Endpoint {
      */
     private ScheduledExecutorService executor;
 
+    /**
+     * Executes the tasks of one peer in order on the executor, null unless
+     * the protocol stage is striped.
+     */
+    private StripedExecutorService stripedExecutor;
+
     /**
      * Indicates if the endpoint has been started
      */
@@ -216,6 +235,11 @@ public class CoapEndpoint implements Endpoint {
      */
     private List<NotificationListener> notificationListeners = new CopyOnWriteArrayList<>();
 
+    /**
+     * The timer of the stack, created with the executor.
+     */
+    private Timer timer;
+
     /**
      * Creates a new <em>coap</em> endpoint using default configuration.
      * <p>
@@ -388,6 +412,9 @@ public class CoapEndpoint implements Endpoint {
      * @return the connector
      */
     private static Connector createUDPConnector(final InetSocketAddress address, final NetworkConfig config) {
+        if (config.getBoolean(NetworkConfig.Keys.UDP_CONNECTOR_NIO)) {
+            return createNioUDPConnector(address, config);
+        }
         UDPConnector c = new UDPConnector(address);
 
         c.setReceiverThreadCount(config.getInt(NetworkConfig.Keys.NETWORK_STAGE_RECEIVER_THREAD_COUNT));
@@ -397,6 +424,33 @@ public class CoapEndpoint implements Endpoint {
         c.setSendBufferSize(config.getInt(NetworkConfig.Keys.UDP_CONNECTOR_SEND_BUFFER));
         c.setReceiverPacketSize(config.getInt(NetworkConfig.Keys.UDP_CONNECTOR_DATAGRAM_SIZE));
 
+        c.setOutboundCapacity(config.getInt(NetworkConfig.Keys.UDP_CONNECTOR_OUT_CAPACITY, Integer.MAX_VALUE));
+        c.setSenderBatchSize(config.getInt(NetworkConfig.Keys.UDP_CONNECTOR_SEND_BATCH_SIZE, 16));
+
+        return c;
+    }
+
+    /**
+     * Creates a new NIO based UDP connector.
+     *
+     * @param address the address
+     * @param config  the configuration
+     * @return the connector
+     */
+    private static Connector createNioUDPConnector(final InetSocketAddress address, final NetworkConfig config) {
+        NioUDPConnector c = new NioUDPConnector(address);
+
+        c.setReceiverThreadCount(config.getInt(NetworkConfig.Keys.NETWORK_STAGE_RECEIVER_THREAD_COUNT));
+        c.setSenderThreadCount(config.getInt(NetworkConfig.Keys.NETWORK_STAGE_SENDER_THREAD_COUNT));
+        c.setSocketCount(config.getInt(NetworkConfig.Keys.UDP_CONNECTOR_SOCKET_COUNT, 1));
+
+        c.setReceiveBufferSize(config.getInt(NetworkConfig.Keys.UDP_CONNECTOR_RECEIVE_BUFFER));
+        c.setSendBufferSize(config.getInt(NetworkConfig.Keys.UDP_CONNECTOR_SEND_BUFFER));
+        c.setReceiverPacketSize(config.getInt(NetworkConfig.Keys.UDP_CONNECTOR_DATAGRAM_SIZE));
+
+        c.setOutboundCapacity(config.getInt(NetworkConfig.Keys.UDP_CONNECTOR_OUT_CAPACITY, Integer.MAX_VALUE));
+        c.setSenderBatchSize(config.getInt(NetworkConfig.Keys.UDP_CONNECTOR_SEND_BATCH_SIZE, 16));
+
         return c;
     }
 
@@ -464,7 +518,7 @@ public class CoapEndpoint implements Endpoint {
     private void startExecutor() {
         // Run a task that does nothing but make sure at least one thread of
         // the executor has started.
-        runInProtocolStage(new Runnable() {
+        runInProtocolStage(null, new Runnable() {
             @Override
             public void run() {
                 // do nothing
@@ -496,6 +550,9 @@ public class CoapEndpoint implements Endpoint {
         }
         connector.destroy();
         coapstack.destroy();
+        if (timer instanceof HashedWheelTimer) {
+            ((HashedWheelTimer) timer).stop();
+        }
         for (EndpointObserver obs : observers) {
             obs.destroyed(this);
         }
@@ -516,6 +573,33 @@ public class CoapEndpoint implements Endpoint {
         // TODO: don't we need to stop and shut down the previous executor?
         this.executor = executor;
         this.coapstack.setExecutor(executor);
+        if (NetworkConfig.Keys.PROTOCOL_STAGE_STRIPED.equals(config.getString(NetworkConfig.Keys.PROTOCOL_STAGE_EXECUTOR))) {
+            // only wraps the executor, which is shut down by its owner
+            this.stripedExecutor = new StripedExecutorService(executor);
+        } else {
+            this.stripedExecutor = null;
+        }
+        if (timer instanceof HashedWheelTimer) {
+            ((HashedWheelTimer) timer).stop();
+        }
+        this.timer = createTimer(executor);
+        this.coapstack.setTimer(timer);
+    }
+
+    /**
+     * Creates the timer configured by
+     * {@link org.eclipse.californium.core.network.config.NetworkConfig.Keys#TIMER}.
+     *
+     * @param executor the executor running the expired tasks
+     * @return the timer
+     */
+    private Timer createTimer(final ScheduledExecutorService executor) {
+        String type = config.getString(NetworkConfig.Keys.TIMER, NetworkConfig.Keys.TIMER_EXECUTOR);
+        if (NetworkConfig.Keys.TIMER_HASHED_WHEEL.equals(type)) {
+            return new HashedWheelTimer(config.getLong(NetworkConfig.Keys.HASHED_WHEEL_TICK_DURATION, 10),
+                    TimeUnit.MILLISECONDS, config.getInt(NetworkConfig.Keys.HASHED_WHEEL_SIZE, 512), executor);
+        }
+        return new ExecutorTimer(executor);
     }
 
     @Override
@@ -556,7 +640,7 @@ public class CoapEndpoint implements Endpoint {
     @Override
     public void sendRequest(final Request request) {
         // always use endpoint executor
-        runInProtocolStage(new Runnable() {
+        runInProtocolStage(getDestination(request), new Runnable() {
             @Override
             public void run() {
                 coapstack.sendRequest(request);
@@ -568,7 +652,7 @@ public class CoapEndpoint implements Endpoint {
     public void sendResponse(final Exchange exchange, final Response response) {
         if (exchange.hasCustomExecutor()) {
             // handle sending by protocol stage instead of business logic stage
-            runInProtocolStage(new Runnable() {
+            runInProtocolStage(getDestination(response), new Runnable() {
                 @Override
                 public void run() {
                     coapstack.sendResponse(exchange, response);
@@ -643,7 +727,6 @@ public class CoapEndpoint implements Endpoint {
 
         @Override
         public void sendRequest(final Exchange exchange, final Request request) {
-            LOGGER.log(Level.OFF,"发送请求 : " + request);
             assertMessageHasDestinationAddress(request);
             matcher.sendRequest(exchange, request);
 
@@ -679,7 +762,6 @@ public class CoapEndpoint implements Endpoint {
 
         @Override
         public void sendResponse(Exchange exchange, Response response) {
-            LOGGER.log(Level.OFF,"发送响应 : " + response);
             assertMessageHasDestinationAddress(response);
             // 匹配器发送响应
             matcher.sendResponse(exchange, response);
@@ -712,7 +794,6 @@ public class CoapEndpoint implements Endpoint {
 
         @Override
         public void sendEmptyMessage(Exchange exchange, EmptyMessage message) {
-            LOGGER.log(Level.OFF,"发送空消息 : " + message);
             assertMessageHasDestinationAddress(message);
             matcher.sendEmptyMessage(exchange, message);
 
@@ -766,7 +847,7 @@ public class CoapEndpoint implements Endpoint {
             } else {
 
                 // Create a new task to process this message
-                runInProtocolStage(new Runnable() {
+                runInProtocolStage(raw.getInetSocketAddress(), new Runnable() {
                     @Override
                     public void run() {
                         //接收消息-->2
@@ -792,18 +873,15 @@ public class CoapEndpoint implements Endpoint {
                 msg.setSourcePort(raw.getPort());
                 if (CoAP.isRequest(msg.getRawCode())) {
                     //接收消息-->3，处理请求消息
-                    LOGGER.log(Level.OFF,"接收到请求消息 : " + msg);
                     receiveRequest((Request) msg, raw);
                 } else if (CoAP.isResponse(msg.getRawCode())) {
                     //接收消息-->3，处理响应消息
-                    LOGGER.log(Level.OFF,"接收到响应消息 : " + msg);
                     receiveResponse((Response) msg, raw);
                 } else if (CoAP.isEmptyMessage(msg.getRawCode())) {
                     //接收消息-->3，处理空消息
-                    LOGGER.log(Level.OFF,"接收到空消息 : " + msg);
                     receiveEmptyMessage((EmptyMessage) msg, raw);
                 } else {
-                    LOGGER.log(Level.OFF, "Silently ignoring non-CoAP message from {0}", raw.getInetSocketAddress());
+                    LOGGER.log(Level.FINER, "Silently ignoring non-CoAP message from {0}", raw.getInetSocketAddress());
                 }
 
             } catch (CoAPMessageFormatException e) {
@@ -869,14 +947,71 @@ public class CoapEndpoint implements Endpoint {
                 Exchange exchange = matcher.receiveRequest(request);
                 if (exchange != null) {
                     exchange.setEndpoint(CoapEndpoint.this);
-                    //接收消息-->4，Coap协议栈接收请求
-                    coapstack.receiveRequest(exchange, request);
+                    if (request.isDuplicate() || decodeOptions(exchange, request)) {
+                        //接收消息-->4，Coap协议栈接收请求
+                        coapstack.receiveRequest(exchange, request);
+                    }
                 }
             }
         }
 
+        /**
+         * Decodes the options of a new request, which are checked by the
+         * parser only for their encoding. Responds 4.02 (Bad Option) if one
+         * of them has an illegal value, e.g. an If-Match option longer than
+         * 8 bytes.
+         *
+         * @return {@code true} if the options are valid.
+         */
+        private boolean decodeOptions(final Exchange exchange, final Request request) {
+            try {
+                request.getOptions();
+                return true;
+            } catch (IllegalArgumentException e) {
+                LOGGER.log(Level.FINE, "rejecting request with illegal option from {0}:{1}, reason: {2}",
+                        new Object[] { request.getSource(), request.getSourcePort(), e.getMessage() });
+                // the layers sending the response read the options of the request
+                request.setOptions(new OptionSet());
+                exchange.setRequest(request);
+                Response response = new Response(ResponseCode.BAD_OPTION);
+                response.setPayload(e.getMessage());
+                exchange.sendResponse(response);
+                return false;
+            }
+        }
+
+        /**
+         * Decodes the options of a response, which are checked by the parser
+         * only for their encoding. The matcher already reads them, so a
+         * response with an illegal option value, e.g. an ETag longer than 8
+         * bytes, is handled as a malformed message: rejected if it is a CON,
+         * ignored otherwise.
+         *
+         * @return {@code true} if the options are valid.
+         */
+        private boolean decodeOptions(final Response response, final RawData raw) {
+            try {
+                response.getOptions();
+                return true;
+            } catch (IllegalArgumentException e) {
+                if (response.isConfirmable()) {
+                    reject(response);
+                    LOGGER.log(Level.FINE, "rejected response with illegal option from [{0}], reason: {1}",
+                            new Object[] { raw.getInetSocketAddress(), e.getMessage() });
+                } else {
+                    LOGGER.log(Level.FINER, "discarding response with illegal option from [{0}], reason: {1}",
+                            new Object[] { raw.getInetSocketAddress(), e.getMessage() });
+                }
+                return false;
+            }
+        }
+
         private void receiveResponse(final Response response, final RawData raw) {
 
+            if (!decodeOptions(response, raw)) {
+                return;
+            }
+
             /*
              * Logging here causes significant performance loss.
              * If necessary, add an interceptor that logs the messages,
@@ -1005,13 +1140,24 @@ public class CoapEndpoint implements Endpoint {
         matcher.cancelObserve(token);
     }
 
+    private static InetSocketAddress getDestination(final Message message) {
+        if (message.getDestination() == null) {
+            return null;
+        }
+        return new InetSocketAddress(message.getDestination(), message.getDestinationPort());
+    }
+
     /**
      * Execute the specified task on the endpoint's executor (protocol stage).
+     * <p>
+     * If the protocol stage is striped, the tasks of the same peer are
+     * executed in the order of submission, never concurrently.
      *
+     * @param peer the address of the peer the task is about, or null
      * @param task the task
      */
-    private void runInProtocolStage(final Runnable task) {
-        executor.execute(new Runnable() {
+    private void runInProtocolStage(final InetSocketAddress peer, final Runnable task) {
+        final Runnable safeTask = new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1020,6 +1166,22 @@ public class CoapEndpoint implements Endpoint {
                     LOGGER.log(Level.SEVERE, String.format("Exception in protocol stage thread: %s", t.getMessage()), t);
                 }
             }
-        });
+        };
+        StripedExecutorService striped = stripedExecutor;
+        if (striped == null || peer == null) {
+            executor.execute(safeTask);
+        } else {
+            striped.execute(new StripedRunnable() {
+                @Override
+                public Object getStripe() {
+                    return peer;
+                }
+
+                @Override
+                public void run() {
+                    safeTask.run();
+                }
+            });
+        }
     }
 }
@@ -33,7 +33,6 @@
  ******************************************************************************/
 package org.eclipse.californium.core.network;
 
-import java.util.Arrays;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
@@ -640,14 +639,16 @@ public class Exchange {
 	 * A CoAP message ID scoped to a remote endpoint.
 	 * <p>
 	 * This class is used by the matcher to correlate messages by MID and
-	 * endpoint address.
+	 * endpoint address. The address, port and MID are packed into primitive
+	 * fields, see {@link ExchangeIndex}.
 	 */
 	public static final class KeyMID {
 
 		private static final int MAX_PORT_NO = (1 << 16) - 1;
-		private final int MID;
-		private final byte[] address;
-		private final int port;
+		final long addressHigh;
+		final long addressLow;
+		/** The port in the upper and the MID in the lower 16 bits. */
+		final int endpoint;
 		private final int hash;
 
 		/**
@@ -668,10 +669,10 @@ public class Exchange {
 			} else if (port < 0 || port > MAX_PORT_NO) {
 				throw new IllegalArgumentException("Port must be a 16 bit unsigned int");
 			} else {
-				this.MID = mid;
-				this.address = address;
-				this.port = port;
-				this.hash = createHashCode();
+				this.addressHigh = ExchangeIndex.addressHigh(address);
+				this.addressLow = ExchangeIndex.addressLow(address);
+				this.endpoint = port << 16 | mid;
+				this.hash = ExchangeIndex.hash(addressHigh, addressLow, 0, endpoint);
 			}
 		}
 
@@ -680,15 +681,6 @@ public class Exchange {
 			return hash;
 		}
 
-		private int createHashCode() {
-			final int prime = 31;
-			int result = 1;
-			result = prime * result + MID;
-			result = prime * result + Arrays.hashCode(address);
-			result = prime * result + port;
-			return result;
-		}
-
 		@Override
 		public boolean equals(Object obj) {
 			if (this == obj)
@@ -698,19 +690,14 @@ public class Exchange {
 			if (getClass() != obj.getClass())
 				return false;
 			KeyMID other = (KeyMID) obj;
-			if (MID != other.MID)
-				return false;
-			if (!Arrays.equals(address, other.address))
-				return false;
-			if (port != other.port)
-				return false;
-			return true;
+			return endpoint == other.endpoint && addressLow == other.addressLow && addressHigh == other.addressHigh;
 		}
 
 		@Override
 		public String toString() {
-			return new StringBuilder("KeyMID[").append(MID).append(", ").append(Utils.toHexString(address)).append(":")
-					.append(port).append("]").toString();
+			return new StringBuilder("KeyMID[").append(endpoint & 0xFFFF).append(", ")
+					.append(Utils.toHexString(ExchangeIndex.address(addressHigh, addressLow))).append(":")
+					.append(endpoint >>> 16).append("]").toString();
 		}
 
 		/**
@@ -740,28 +727,40 @@ public class Exchange {
 	 * A CoAP message token scoped to a remote endpoint.
 	 * <p>
 	 * This class is used by the matcher to correlate messages by their token
-	 * and endpoint address.
+	 * and endpoint address. The token, of at most 8 bytes, the address and the
+	 * port are packed into primitive fields, see {@link ExchangeIndex}.
 	 */
 	public static final class KeyToken {
 
 		private static final int MAX_PORT_NO = (1 << 16) - 1;
-		private final byte[] token;
-		private final byte[] address;
-		private final int port;
+		private static final int MAX_TOKEN_LENGTH = 8;
+		/** The bytes of the token, the first one in the most significant byte. */
+		final long token;
+		final long addressHigh;
+		final long addressLow;
+		/** The port in the upper 16 bits and the length of the token in the lower ones. */
+		final int endpoint;
 		private final int hash;
 
 		private KeyToken(byte[] token, byte[] address, int port) {
 			if (token == null) {
 				throw new NullPointerException("token bytes must not be null");
+			} else if (token.length > MAX_TOKEN_LENGTH) {
+				throw new IllegalArgumentException("token must not be longer than 8 bytes");
 			} else if (address == null) {
 				throw new NullPointerException("address must not be null");
 			} else if (port < 0 || port > MAX_PORT_NO) {
 				throw new IllegalArgumentException("port must be a 16 bit unsigned int");
 			}
-			this.token = Arrays.copyOf(token, token.length);
-			this.address = address;
-			this.port = port;
-			this.hash = createHash();
+			long value = 0;
+			for (byte b : token) {
+				value = value << 8 | b & 0xFF;
+			}
+			this.token = value;
+			this.addressHigh = ExchangeIndex.addressHigh(address);
+			this.addressLow = ExchangeIndex.addressLow(address);
+			this.endpoint = port << 16 | token.length;
+			this.hash = ExchangeIndex.hash(addressHigh, addressLow, value, endpoint);
 		}
 
 		/**
@@ -796,25 +795,18 @@ public class Exchange {
 		 * @param port the endpoint's port.
 		 * @return the key.
 		 * @throws NullPointerException if token or address is {@code null}
-		 * @throws IllegalArgumentException if port &lt; 0 or port &gt; 65535.
+		 * @throws IllegalArgumentException if the token is longer than 8
+		 *             bytes, or port &lt; 0 or port &gt; 65535.
 		 */
 		public static KeyToken fromValues(byte[] token, byte[] address, int port) {
 			return new KeyToken(token, address, port);
 		}
 
-		private int createHash() {
-			final int prime = 31;
-			int result = 1;
-			result = prime * result + port;
-			result = prime * result + Arrays.hashCode(address);
-			result = prime * result + Arrays.hashCode(token);
-			return result;
-		}
-
 		@Override
 		public String toString() {
-			return new StringBuilder("KeyToken[").append(Utils.toHexString(token)).append(", ")
-					.append(Utils.toHexString(address)).append(":").append(port).append("]").toString();
+			return new StringBuilder("KeyToken[").append(Utils.toHexString(getToken())).append(", ")
+					.append(Utils.toHexString(ExchangeIndex.address(addressHigh, addressLow))).append(":")
+					.append(endpoint >>> 16).append("]").toString();
 		}
 
 		@Override
@@ -831,17 +823,16 @@ public class Exchange {
 			if (getClass() != obj.getClass())
 				return false;
 			KeyToken other = (KeyToken) obj;
-			if (!Arrays.equals(address, other.address))
-				return false;
-			if (port != other.port)
-				return false;
-			if (!Arrays.equals(token, other.token))
-				return false;
-			return true;
+			return token == other.token && endpoint == other.endpoint && addressLow == other.addressLow
+					&& addressHigh == other.addressHigh;
 		}
 
 		public byte[] getToken() {
-			return Arrays.copyOf(token, token.length);
+			byte[] bytes = new byte[endpoint & 0xFF];
+			for (int index = bytes.length - 1, shift = 0; index >= 0; index--, shift += 8) {
+				bytes[index] = (byte) (token >>> shift);
+			}
+			return bytes;
 		}
 	}
 }
@@ -0,0 +1,367 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.californium.core.network.Exchange.KeyMID;
+import org.eclipse.californium.core.network.Exchange.KeyToken;
+
+/**
+ * A concurrent map of exchanges by {@link KeyMID} or by {@link KeyToken},
+ * specialized on the primitive fields of the keys.
+ * <p>
+ * An address is kept in two longs, in its IPv6 form with IPv4 addresses mapped
+ * as <code>::ffff:a.b.c.d</code>. The port is kept with the MID, or with the
+ * length of the token, in an int and a token, of at most 8 bytes, in a long.
+ * <p>
+ * The entries are kept in open addressing tables, with linear probing, in
+ * arrays of these primitive fields, so neither a lookup nor an update
+ * allocates objects, unlike a {@link java.util.concurrent.ConcurrentHashMap}
+ * which creates a node per entry. The tables are split into segments, each one
+ * guarded by its own lock.
+ */
+final class ExchangeIndex {
+
+	private static final int SEGMENTS = 16;
+	private static final int INITIAL_CAPACITY = 64;
+	private static final long IPV4_MAPPED = 0xFFFFL << 32;
+
+	private final Segment[] segments = new Segment[SEGMENTS];
+
+	/**
+	 * Creates an empty index.
+	 */
+	ExchangeIndex() {
+		for (int index = 0; index < SEGMENTS; index++) {
+			segments[index] = new Segment();
+		}
+	}
+
+	/**
+	 * Gets the upper 64 bits of the IPv6 form of an address.
+	 *
+	 * @param address the IPv4 or IPv6 address.
+	 * @return the upper 64 bits.
+	 * @throws IllegalArgumentException if the address is neither 4 nor 16
+	 *             bytes long.
+	 */
+	static long addressHigh(final byte[] address) {
+		if (address.length == 4) {
+			return 0;
+		} else if (address.length == 16) {
+			return getLong(address, 0);
+		} else {
+			throw new IllegalArgumentException("address must be 4 or 16 bytes long");
+		}
+	}
+
+	/**
+	 * Gets the lower 64 bits of the IPv6 form of an address.
+	 *
+	 * @param address the IPv4 or IPv6 address.
+	 * @return the lower 64 bits.
+	 * @throws IllegalArgumentException if the address is neither 4 nor 16
+	 *             bytes long.
+	 */
+	static long addressLow(final byte[] address) {
+		if (address.length == 4) {
+			return IPV4_MAPPED | getInt(address) & 0xFFFFFFFFL;
+		} else if (address.length == 16) {
+			return getLong(address, 8);
+		} else {
+			throw new IllegalArgumentException("address must be 4 or 16 bytes long");
+		}
+	}
+
+	/**
+	 * Gets the bytes of an address from its IPv6 form.
+	 *
+	 * @return the 4 bytes of an IPv4 mapped address, else the 16 bytes.
+	 */
+	static byte[] address(final long high, final long low) {
+		if (high == 0 && (low & ~0xFFFFFFFFL) == IPV4_MAPPED) {
+			return new byte[] { (byte) (low >>> 24), (byte) (low >>> 16), (byte) (low >>> 8), (byte) low };
+		}
+		byte[] address = new byte[16];
+		putLong(address, 0, high);
+		putLong(address, 8, low);
+		return address;
+	}
+
+	private static int getInt(final byte[] bytes) {
+		return (bytes[0] & 0xFF) << 24 | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8 | bytes[3] & 0xFF;
+	}
+
+	private static long getLong(final byte[] bytes, final int offset) {
+		long value = 0;
+		for (int index = offset; index < offset + 8; index++) {
+			value = value << 8 | bytes[index] & 0xFF;
+		}
+		return value;
+	}
+
+	private static void putLong(final byte[] bytes, final int offset, long value) {
+		for (int index = offset + 7; index >= offset; index--) {
+			bytes[index] = (byte) value;
+			value >>>= 8;
+		}
+	}
+
+	/**
+	 * Mixes the fields of a key, so that the lower and the upper bits of the
+	 * hash are both usable.
+	 */
+	static int hash(final long high, final long low, final long token, final int endpoint) {
+		long hash = high * 0x9E3779B97F4A7C15L;
+		hash = (hash ^ low) * 0xC2B2AE3D27D4EB4FL;
+		hash = (hash ^ token) * 0x9E3779B97F4A7C15L;
+		hash = (hash ^ endpoint) * 0xC2B2AE3D27D4EB4FL;
+		hash ^= hash >>> 31;
+		return (int) (hash ^ hash >>> 32);
+	}
+
+	private Segment segment(final int hash) {
+		return segments[hash >>> 28];
+	}
+
+	Exchange get(final KeyMID key) {
+		return segment(key.hashCode()).get(key.hashCode(), key.addressHigh, key.addressLow, 0, key.endpoint);
+	}
+
+	Exchange get(final KeyToken key) {
+		return segment(key.hashCode()).get(key.hashCode(), key.addressHigh, key.addressLow, key.token,
+				key.endpoint);
+	}
+
+	/**
+	 * @return the exchange previously registered for the key, or
+	 *         <code>null</code>.
+	 */
+	Exchange put(final KeyMID key, final Exchange exchange, final boolean onlyIfAbsent) {
+		return segment(key.hashCode()).put(key.hashCode(), key.addressHigh, key.addressLow, 0, key.endpoint,
+				exchange, onlyIfAbsent);
+	}
+
+	/**
+	 * @return the exchange previously registered for the key, or
+	 *         <code>null</code>.
+	 */
+	Exchange put(final KeyToken key, final Exchange exchange, final boolean onlyIfAbsent) {
+		return segment(key.hashCode()).put(key.hashCode(), key.addressHigh, key.addressLow, key.token,
+				key.endpoint, exchange, onlyIfAbsent);
+	}
+
+	/**
+	 * Removes the exchange of a key.
+	 *
+	 * @param exchange the exchange to remove, or <code>null</code> to remove
+	 *            any exchange of the key.
+	 * @return the removed exchange, or <code>null</code>.
+	 */
+	Exchange remove(final KeyMID key, final Exchange exchange) {
+		return segment(key.hashCode()).remove(key.hashCode(), key.addressHigh, key.addressLow, 0, key.endpoint,
+				exchange);
+	}
+
+	/**
+	 * Removes the exchange of a key.
+	 *
+	 * @param exchange the exchange to remove, or <code>null</code> to remove
+	 *            any exchange of the key.
+	 * @return the removed exchange, or <code>null</code>.
+	 */
+	Exchange remove(final KeyToken key, final Exchange exchange) {
+		return segment(key.hashCode()).remove(key.hashCode(), key.addressHigh, key.addressLow, key.token,
+				key.endpoint, exchange);
+	}
+
+	int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * @return a snapshot of the registered exchanges.
+	 */
+	List<Exchange> values() {
+		List<Exchange> values = new ArrayList<>();
+		for (Segment segment : segments) {
+			segment.addValuesTo(values);
+		}
+		return values;
+	}
+
+	void clear() {
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+	}
+
+	/**
+	 * An open addressing table of a part of the keys.
+	 * <p>
+	 * The fields of the key of slot <code>i</code> are at
+	 * <code>3 * i</code> to <code>3 * i + 2</code> of {@link #keys} and at
+	 * <code>i</code> of {@link #endpoints}. A slot is free if it has no
+	 * exchange.
+	 */
+	private static final class Segment {
+
+		private long[] keys;
+		private int[] endpoints;
+		private Exchange[] exchanges;
+		private int size;
+
+		private Segment() {
+			allocate(INITIAL_CAPACITY);
+		}
+
+		private void allocate(final int capacity) {
+			keys = new long[3 * capacity];
+			endpoints = new int[capacity];
+			exchanges = new Exchange[capacity];
+		}
+
+		private int find(final int hash, final long high, final long low, final long token, final int endpoint) {
+			int mask = exchanges.length - 1;
+			for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+				if (exchanges[slot] == null) {
+					return -1 - slot;
+				}
+				int index = 3 * slot;
+				if (endpoints[slot] == endpoint && keys[index + 1] == low && keys[index + 2] == token
+						&& keys[index] == high) {
+					return slot;
+				}
+			}
+		}
+
+		private synchronized Exchange get(final int hash, final long high, final long low, final long token,
+				final int endpoint) {
+			int slot = find(hash, high, low, token, endpoint);
+			return slot < 0 ? null : exchanges[slot];
+		}
+
+		private synchronized Exchange put(final int hash, final long high, final long low, final long token,
+				final int endpoint, final Exchange exchange, final boolean onlyIfAbsent) {
+			if (exchange == null) {
+				throw new NullPointerException("exchange must not be null");
+			}
+			int slot = find(hash, high, low, token, endpoint);
+			if (slot >= 0) {
+				Exchange previous = exchanges[slot];
+				if (!onlyIfAbsent) {
+					exchanges[slot] = exchange;
+				}
+				return previous;
+			}
+			slot = -1 - slot;
+			int index = 3 * slot;
+			keys[index] = high;
+			keys[index + 1] = low;
+			keys[index + 2] = token;
+			endpoints[slot] = endpoint;
+			exchanges[slot] = exchange;
+			// at most half full, so probe sequences stay short
+			if (++size > exchanges.length / 2) {
+				resize(exchanges.length * 2);
+			}
+			return null;
+		}
+
+		private synchronized Exchange remove(final int hash, final long high, final long low, final long token,
+				final int endpoint, final Exchange exchange) {
+			int slot = find(hash, high, low, token, endpoint);
+			if (slot < 0) {
+				return null;
+			}
+			Exchange previous = exchanges[slot];
+			if (exchange != null && exchange != previous) {
+				return null;
+			}
+			delete(slot);
+			size--;
+			return previous;
+		}
+
+		/**
+		 * Frees a slot, moving back the following entries of its probe
+		 * sequence, so that no entry is behind a free slot of its sequence.
+		 */
+		private void delete(int free) {
+			int mask = exchanges.length - 1;
+			for (int slot = (free + 1) & mask; exchanges[slot] != null; slot = (slot + 1) & mask) {
+				int index = 3 * slot;
+				int home = hash(keys[index], keys[index + 1], keys[index + 2], endpoints[slot]) & mask;
+				// move the entry if its home is not in (free, slot]
+				if (((slot - home) & mask) >= ((slot - free) & mask)) {
+					System.arraycopy(keys, index, keys, 3 * free, 3);
+					endpoints[free] = endpoints[slot];
+					exchanges[free] = exchanges[slot];
+					free = slot;
+				}
+			}
+			exchanges[free] = null;
+		}
+
+		private void resize(final int capacity) {
+			long[] oldKeys = keys;
+			int[] oldEndpoints = endpoints;
+			Exchange[] oldExchanges = exchanges;
+			allocate(capacity);
+			int mask = capacity - 1;
+			for (int oldSlot = 0; oldSlot < oldExchanges.length; oldSlot++) {
+				if (oldExchanges[oldSlot] != null) {
+					int oldIndex = 3 * oldSlot;
+					int slot = hash(oldKeys[oldIndex], oldKeys[oldIndex + 1], oldKeys[oldIndex + 2],
+							oldEndpoints[oldSlot]) & mask;
+					while (exchanges[slot] != null) {
+						slot = (slot + 1) & mask;
+					}
+					System.arraycopy(oldKeys, oldIndex, keys, 3 * slot, 3);
+					endpoints[slot] = oldEndpoints[oldSlot];
+					exchanges[slot] = oldExchanges[oldSlot];
+				}
+			}
+		}
+
+		private synchronized int size() {
+			return size;
+		}
+
+		private synchronized void addValuesTo(final List<Exchange> values) {
+			for (Exchange exchange : exchanges) {
+				if (exchange != null) {
+					values.add(exchange);
+				}
+			}
+		}
+
+		private synchronized void clear() {
+			allocate(INITIAL_CAPACITY);
+			size = 0;
+		}
+	}
+}
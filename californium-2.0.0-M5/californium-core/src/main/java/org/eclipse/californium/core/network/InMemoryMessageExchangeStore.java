@@ -31,9 +31,6 @@ import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -58,9 +55,9 @@ public class InMemoryMessageExchangeStore implements MessageExchangeStore {
 
 	private static final Logger LOGGER = Logger.getLogger(InMemoryMessageExchangeStore.class.getName());
 	// for all
-	private final ConcurrentMap<KeyMID, Exchange> exchangesByMID = new ConcurrentHashMap<>();
+	private final ExchangeIndex exchangesByMID = new ExchangeIndex();
 	// for outgoing
-	private final ConcurrentMap<KeyToken, Exchange> exchangesByToken = new ConcurrentHashMap<>();
+	private final ExchangeIndex exchangesByToken = new ExchangeIndex();
 
 	private final NetworkConfig config;
 	private final TokenProvider tokenProvider;
@@ -189,13 +186,13 @@ public class InMemoryMessageExchangeStore implements MessageExchangeStore {
 			mid = assignMessageId(message);
 			if (Message.NONE != mid) {
 				KeyMID key = KeyMID.fromOutboundMessage(message);
-				if (exchangesByMID.putIfAbsent(key, exchange) != null) {
+				if (exchangesByMID.put(key, exchange, true) != null) {
 					LOGGER.log(Level.WARNING,
 							"newly generated MID [{0}] already in use, overwriting already registered exchange", mid);
 				}
 			}
 		} else {
-			Exchange existingExchange = exchangesByMID.putIfAbsent(KeyMID.fromOutboundMessage(message), exchange);
+			Exchange existingExchange = exchangesByMID.put(KeyMID.fromOutboundMessage(message), exchange, true);
 			if (existingExchange != null) {
 				if (existingExchange != exchange) {
 					throw new IllegalArgumentException(String
@@ -225,7 +222,7 @@ public class InMemoryMessageExchangeStore implements MessageExchangeStore {
 				LOGGER.log(Level.WARNING, "Manual token overrides existing open request: {0}", idByToken);
 			}
 		}
-		exchangesByToken.put(idByToken, exchange);
+		exchangesByToken.put(idByToken, exchange, false);
 	}
 
 	@Override
@@ -260,7 +257,7 @@ public class InMemoryMessageExchangeStore implements MessageExchangeStore {
 
 	@Override
 	public void remove(final KeyToken token, final Exchange exchange) {
-		boolean removed = exchangesByToken.remove(token, exchange);
+		boolean removed = exchange != null && exchangesByToken.remove(token, exchange) != null;
 		if (removed) {
 			LOGGER.log(Level.FINE, "removing exchange for token {0}", new Object[] { token });
 		}
@@ -268,14 +265,7 @@ public class InMemoryMessageExchangeStore implements MessageExchangeStore {
 
 	@Override
 	public Exchange remove(final KeyMID messageId, final Exchange exchange) {
-		Exchange removedExchange;
-		if (null == exchange) {
-			removedExchange = exchangesByMID.remove(messageId);
-		} else if (exchangesByMID.remove(messageId, exchange)) {
-			removedExchange = exchange;
-		} else {
-			removedExchange = null;
-		}
+		Exchange removedExchange = exchangesByMID.remove(messageId, exchange);
 		if (null != removedExchange) {
 			LOGGER.log(Level.FINE, "removing exchange for MID {0}", new Object[] { messageId });
 		}
@@ -359,11 +349,11 @@ public class InMemoryMessageExchangeStore implements MessageExchangeStore {
 	public List<Exchange> findByToken(byte[] token) {
 		List<Exchange> result = new ArrayList<>();
 		if (token != null) {
-			for (Entry<KeyToken, Exchange> entry : exchangesByToken.entrySet()) {
-				if (entry.getValue().isOfLocalOrigin()) {
-					Request request = entry.getValue().getRequest();
+			for (Exchange exchange : exchangesByToken.values()) {
+				if (exchange.isOfLocalOrigin()) {
+					Request request = exchange.getRequest();
 					if (request != null && Arrays.equals(token, request.getToken())) {
-						result.add(entry.getValue());
+						result.add(exchange);
 					}
 				}
 			}
@@ -161,6 +161,15 @@ public final class NetworkConfig {
 		public static final String CONGESTION_CONTROL_ALGORITHM = "CONGESTION_CONTROL_ALGORITHM";
 
 		public static final String PROTOCOL_STAGE_THREAD_COUNT = "PROTOCOL_STAGE_THREAD_COUNT";
+		/**
+		 * How the endpoints hand messages over to the protocol stage threads,
+		 * {@link #PROTOCOL_STAGE_SHARED} or {@link #PROTOCOL_STAGE_STRIPED}.
+		 * With {@link #PROTOCOL_STAGE_STRIPED}, the messages exchanged with
+		 * one peer are processed one after the other, in order.
+		 */
+		public static final String PROTOCOL_STAGE_EXECUTOR = "PROTOCOL_STAGE_EXECUTOR";
+		public static final String PROTOCOL_STAGE_SHARED = "PROTOCOL_STAGE_SHARED";
+		public static final String PROTOCOL_STAGE_STRIPED = "PROTOCOL_STAGE_STRIPED";
 		public static final String NETWORK_STAGE_RECEIVER_THREAD_COUNT = "NETWORK_STAGE_RECEIVER_THREAD_COUNT";
 		public static final String NETWORK_STAGE_SENDER_THREAD_COUNT = "NETWORK_STAGE_SENDER_THREAD_COUNT";
 
@@ -168,6 +177,9 @@ public final class NetworkConfig {
 		public static final String UDP_CONNECTOR_RECEIVE_BUFFER = "UDP_CONNECTOR_RECEIVE_BUFFER";
 		public static final String UDP_CONNECTOR_SEND_BUFFER = "UDP_CONNECTOR_SEND_BUFFER";
 		public static final String UDP_CONNECTOR_OUT_CAPACITY = "UDP_CONNECTOR_OUT_CAPACITY";
+		public static final String UDP_CONNECTOR_SEND_BATCH_SIZE = "UDP_CONNECTOR_SEND_BATCH_SIZE";
+		public static final String UDP_CONNECTOR_NIO = "UDP_CONNECTOR_NIO";
+		public static final String UDP_CONNECTOR_SOCKET_COUNT = "UDP_CONNECTOR_SOCKET_COUNT";
 
 		public static final String DEDUPLICATOR = "DEDUPLICATOR";
 		public static final String DEDUPLICATOR_MARK_AND_SWEEP = "DEDUPLICATOR_MARK_AND_SWEEP";
@@ -178,9 +190,27 @@ public final class NetworkConfig {
 		public static final String MARK_AND_SWEEP_INTERVAL = "MARK_AND_SWEEP_INTERVAL";
 		public static final String DEDUPLICATOR_CROP_ROTATION = "DEDUPLICATOR_CROP_ROTATION";
 		public static final String CROP_ROTATION_PERIOD = "CROP_ROTATION_PERIOD";
+		/**
+		 * A deduplicator keeping only the serialized response of the completed
+		 * exchanges, in buckets of MARK_AND_SWEEP_INTERVAL.
+		 */
+		public static final String DEDUPLICATOR_COMPACT = "DEDUPLICATOR_COMPACT";
 		public static final String NO_DEDUPLICATOR = "NO_DEDUPLICATOR";
 		public static final String USE_STRICT_RESPONSE_MATCHING = "USE_STRICT_RESPONSE_MATCHING";
 
+		/**
+		 * The timer used by the stack to schedule retransmissions and
+		 * clean-ups, {@link #TIMER_EXECUTOR} or {@link #TIMER_HASHED_WHEEL}.
+		 */
+		public static final String TIMER = "TIMER";
+		public static final String TIMER_EXECUTOR = "TIMER_EXECUTOR";
+		public static final String TIMER_HASHED_WHEEL = "TIMER_HASHED_WHEEL";
+		/**
+		 * The tick duration of the hashed wheel timer (in MILLISECONDS).
+		 */
+		public static final String HASHED_WHEEL_TICK_DURATION = "HASHED_WHEEL_TICK_DURATION";
+		public static final String HASHED_WHEEL_SIZE = "HASHED_WHEEL_SIZE";
+
 		public static final String HTTP_PORT = "HTTP_PORT";
 		public static final String HTTP_SERVER_SOCKET_TIMEOUT = "HTTP_SERVER_SOCKET_TIMEOUT";
 		public static final String HTTP_SERVER_SOCKET_BUFFER_SIZE = "HTTP_SERVER_SOCKET_BUFFER_SIZE";
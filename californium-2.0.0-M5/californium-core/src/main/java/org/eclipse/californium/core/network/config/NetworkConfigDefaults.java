@@ -130,6 +130,7 @@ public class NetworkConfigDefaults {
 		config.setString(NetworkConfig.Keys.CONGESTION_CONTROL_ALGORITHM, "Cocoa"); // see org.eclipse.californium.core.network.stack.congestioncontrol
 
 		config.setInt(NetworkConfig.Keys.PROTOCOL_STAGE_THREAD_COUNT, CORES);
+		config.setString(NetworkConfig.Keys.PROTOCOL_STAGE_EXECUTOR, NetworkConfig.Keys.PROTOCOL_STAGE_SHARED);
 		config.setInt(NetworkConfig.Keys.NETWORK_STAGE_RECEIVER_THREAD_COUNT, WINDOWS ? CORES : 1);
 		config.setInt(NetworkConfig.Keys.NETWORK_STAGE_SENDER_THREAD_COUNT, WINDOWS ? CORES : 1);
 
@@ -137,12 +138,19 @@ public class NetworkConfigDefaults {
 		config.setInt(NetworkConfig.Keys.UDP_CONNECTOR_RECEIVE_BUFFER, UDPConnector.UNDEFINED);
 		config.setInt(NetworkConfig.Keys.UDP_CONNECTOR_SEND_BUFFER, UDPConnector.UNDEFINED);
 		config.setInt(NetworkConfig.Keys.UDP_CONNECTOR_OUT_CAPACITY, Integer.MAX_VALUE); // unbounded
+		config.setInt(NetworkConfig.Keys.UDP_CONNECTOR_SEND_BATCH_SIZE, 16); // with a bounded capacity only
+		config.setBoolean(NetworkConfig.Keys.UDP_CONNECTOR_NIO, false);
+		config.setInt(NetworkConfig.Keys.UDP_CONNECTOR_SOCKET_COUNT, 1); // > 1 requires SO_REUSEPORT
 
 		config.setString(NetworkConfig.Keys.DEDUPLICATOR, NetworkConfig.Keys.DEDUPLICATOR_MARK_AND_SWEEP);
 		config.setLong(NetworkConfig.Keys.MARK_AND_SWEEP_INTERVAL, 10 * 1000); // 10 secs
 		config.setInt(NetworkConfig.Keys.CROP_ROTATION_PERIOD, 2000);
 		config.setBoolean(NetworkConfig.Keys.USE_STRICT_RESPONSE_MATCHING, false);
 
+		config.setString(NetworkConfig.Keys.TIMER, NetworkConfig.Keys.TIMER_EXECUTOR);
+		config.setLong(NetworkConfig.Keys.HASHED_WHEEL_TICK_DURATION, 10); // 10 ms
+		config.setInt(NetworkConfig.Keys.HASHED_WHEEL_SIZE, 512);
+
 		config.setInt(NetworkConfig.Keys.HTTP_PORT, 8080);
 		config.setInt(NetworkConfig.Keys.HTTP_SERVER_SOCKET_TIMEOUT, 100000);
 		config.setInt(NetworkConfig.Keys.HTTP_SERVER_SOCKET_BUFFER_SIZE, 8192);
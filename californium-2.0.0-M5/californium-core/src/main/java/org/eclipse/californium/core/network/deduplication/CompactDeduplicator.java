@@ -0,0 +1,343 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.network.deduplication;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.californium.core.coap.CoAP;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.coap.Response;
+import org.eclipse.californium.core.network.Exchange;
+import org.eclipse.californium.core.network.Exchange.KeyMID;
+import org.eclipse.californium.core.network.Exchange.Origin;
+import org.eclipse.californium.core.network.config.NetworkConfig;
+import org.eclipse.californium.elements.util.DaemonThreadFactory;
+
+/**
+ * This deduplicator keeps only what is needed to answer a duplicate once the
+ * exchange of a message is completed.
+ * <p>
+ * The {@link SweepDeduplicator} and the {@link CropRotation} keep the exchange
+ * of every incoming message, with its request, response and observers, for the
+ * whole EXCHANGE_LIFETIME. This deduplicator keeps the exchange only until it
+ * is completed and then replaces it by the serialized response, if any, and
+ * whether the request has been acknowledged or rejected. A duplicate of such a
+ * message is matched to its own exchange, set up with this state, so the
+ * {@link org.eclipse.californium.core.network.stack.ReliabilityLayer} sends the
+ * same ACK, RST or response again as with the original exchange.
+ * <p>
+ * The entries are kept in time buckets of MARK_AND_SWEEP_INTERVAL milliseconds.
+ * On each interval the oldest bucket is dropped as a whole, its entries being
+ * older than EXCHANGE_LIFETIME, and the exchanges of the bucket closed one
+ * interval before are compacted. The entries are not iterated otherwise.
+ */
+public final class CompactDeduplicator implements Deduplicator {
+
+	private final static Logger LOGGER = Logger.getLogger(CompactDeduplicator.class.getName());
+
+	private static final int ACKNOWLEDGED = 1;
+	private static final int REJECTED = 2;
+
+	/**
+	 * The state of a message, and a node of the list of its bucket.
+	 */
+	private static final class DedupEntry {
+
+		private final KeyMID key;
+		/**
+		 * The exchange of the message until it is compacted.
+		 */
+		private volatile Exchange exchange;
+		/**
+		 * The serialized response, <code>null</code> if the exchange has none.
+		 */
+		private byte[] response;
+		private int state;
+		/**
+		 * The next entry of the bucket.
+		 */
+		private DedupEntry next;
+
+		private DedupEntry(KeyMID key, Exchange exchange) {
+			this.key = key;
+			// the exchange of an inbound response is not needed to ACK its duplicates
+			this.exchange = exchange.getOrigin() == Origin.REMOTE ? exchange : null;
+		}
+
+		/**
+		 * Replaces the exchange by its state, once there is nothing more to
+		 * send for it.
+		 *
+		 * @return <code>true</code> if the exchange was compacted.
+		 */
+		private synchronized boolean compact() {
+			Exchange exchange = this.exchange;
+			if (exchange == null) {
+				return true;
+			}
+			if (!exchange.isComplete()) {
+				return false;
+			}
+			Response currentResponse = exchange.getCurrentResponse();
+			if (currentResponse != null && !currentResponse.isCanceled()) {
+				response = currentResponse.getBytes();
+				if (response == null) {
+					// completed while the response is being sent
+					return false;
+				}
+			}
+			Request currentRequest = exchange.getCurrentRequest();
+			if (currentRequest.isAcknowledged()) {
+				state |= ACKNOWLEDGED;
+			}
+			if (currentRequest.isRejected()) {
+				state |= REJECTED;
+			}
+			this.exchange = null;
+			return true;
+		}
+
+		/**
+		 * Gets the exchange to process a duplicate with.
+		 *
+		 * @param duplicate the exchange of the duplicate message, or
+		 *            <code>null</code> if there is none.
+		 * @return the original exchange while it is kept, else the exchange of
+		 *         the duplicate, set up with the kept state.
+		 */
+		private Exchange getExchange(Exchange duplicate) {
+			Exchange exchange = this.exchange;
+			if (exchange != null) {
+				if (!exchange.isComplete() || !compact()) {
+					return exchange;
+				}
+			}
+			if (duplicate == null) {
+				// matching a duplicate response, only its ACK is sent again
+				duplicate = new Exchange(new Request(null), Origin.LOCAL);
+			}
+			Request request = duplicate.getCurrentRequest();
+			duplicate.setRequest(request);
+			if (response != null) {
+				duplicate.setCurrentResponse(parse(response, request));
+			}
+			if ((state & ACKNOWLEDGED) != 0) {
+				request.setAcknowledged(true);
+			}
+			if ((state & REJECTED) != 0) {
+				request.setRejected(true);
+			}
+			return duplicate;
+		}
+	}
+
+	/**
+	 * Creates a response to send again the serialized response.
+	 * <p>
+	 * Only the header is read, the serializer reuses the bytes of the
+	 * response.
+	 */
+	private static Response parse(byte[] bytes, Request request) {
+		Response response = new Response(ResponseCode.valueOf(bytes[1] & 0xFF));
+		response.setType(CoAP.Type.valueOf(bytes[0] >> 4 & 0x03));
+		response.setMID((bytes[2] & 0xFF) << 8 | bytes[3] & 0xFF);
+		response.setToken(request.getToken());
+		response.setDestination(request.getSource());
+		response.setDestinationPort(request.getSourcePort());
+		response.setBytes(bytes);
+		return response;
+	}
+
+	/** The entries of all the buckets. */
+	private final ConcurrentMap<KeyMID, DedupEntry> entries = new ConcurrentHashMap<>();
+	/** The heads of the lists of entries of the buckets. */
+	private final AtomicReferenceArray<DedupEntry> buckets;
+	private volatile int current;
+	/** The entries still not compacted one interval after their bucket was closed. */
+	private final List<DedupEntry> pending = new ArrayList<>();
+
+	private final long interval;
+	private final Rotation rotation;
+	private ScheduledExecutorService scheduler;
+	private boolean running = false;
+
+	/**
+	 * Creates a new deduplicator from configuration values.
+	 * <p>
+	 * The following configuration values are used:
+	 * <ul>
+	 * <li>{@link org.eclipse.californium.core.network.config.NetworkConfig.Keys#EXCHANGE_LIFETIME} -
+	 * a message is removed from this deduplicator after this number of
+	 * milliseconds, plus at most one interval</li>
+	 * <li>{@link org.eclipse.californium.core.network.config.NetworkConfig.Keys#MARK_AND_SWEEP_INTERVAL} -
+	 * the period of a bucket in milliseconds</li>
+	 * </ul>
+	 *
+	 * @param config the configuration to use.
+	 */
+	public CompactDeduplicator(final NetworkConfig config) {
+		long exchangeLifetime = config.getLong(NetworkConfig.Keys.EXCHANGE_LIFETIME);
+		interval = config.getLong(NetworkConfig.Keys.MARK_AND_SWEEP_INTERVAL);
+		// the bucket being filled, the ones within the lifetime and the closed one to compact
+		int count = (int) ((exchangeLifetime + interval - 1) / interval) + 1;
+		buckets = new AtomicReferenceArray<>(Math.max(3, count));
+		rotation = new Rotation();
+	}
+
+	@Override
+	public synchronized void start() {
+		if (!running) {
+			if (scheduler == null || scheduler.isShutdown()) {
+				scheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("Deduplicator"));
+			}
+			rotation.schedule();
+			running = true;
+		}
+	}
+
+	@Override
+	public synchronized void stop() {
+		if (running) {
+			rotation.cancel();
+			scheduler.shutdown();
+			clear();
+			running = false;
+		}
+	}
+
+	@Override
+	public Exchange findPrevious(final KeyMID key, final Exchange exchange) {
+		DedupEntry entry = new DedupEntry(key, exchange);
+		DedupEntry previous = entries.putIfAbsent(key, entry);
+		if (previous == null) {
+			add(entry);
+			return null;
+		}
+		return previous.getExchange(exchange.getOrigin() == Origin.REMOTE ? exchange : null);
+	}
+
+	@Override
+	public Exchange find(KeyMID key) {
+		DedupEntry previous = entries.get(key);
+		return null == previous ? null : previous.getExchange(null);
+	}
+
+	private void add(DedupEntry entry) {
+		int index = current;
+		DedupEntry head;
+		do {
+			head = buckets.get(index);
+			entry.next = head;
+		} while (!buckets.compareAndSet(index, head, entry));
+	}
+
+	@Override
+	public void clear() {
+		synchronized (pending) {
+			for (int index = 0; index < buckets.length(); index++) {
+				buckets.set(index, null);
+			}
+			entries.clear();
+			pending.clear();
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
+	/**
+	 * Moves to the next bucket on each interval.
+	 */
+	private class Rotation implements Runnable {
+
+		private ScheduledFuture<?> future;
+
+		@Override
+		public void run() {
+			try {
+				rotate();
+			} catch (Throwable t) {
+				LOGGER.log(Level.WARNING, "Exception in deduplicator rotation", t);
+			} finally {
+				try {
+					schedule();
+				} catch (Throwable t) {
+					LOGGER.log(Level.WARNING, "Exception while scheduling deduplicator rotation", t);
+				}
+			}
+		}
+
+		private void rotate() {
+			synchronized (pending) {
+				final long start = System.nanoTime();
+				int count = buckets.length();
+				int next = (current + 1) % count;
+
+				// the oldest bucket is emptied before being filled again
+				int removed = 0;
+				for (DedupEntry entry = buckets.getAndSet(next, null); entry != null; entry = entry.next) {
+					entries.remove(entry.key, entry);
+					entry.exchange = null;
+					removed++;
+				}
+				current = next;
+
+				// the bucket closed one interval ago won't get new entries anymore
+				for (Iterator<DedupEntry> iterator = pending.iterator(); iterator.hasNext();) {
+					if (iterator.next().compact()) {
+						iterator.remove();
+					}
+				}
+				for (DedupEntry entry = buckets.get((next + count - 2) % count); entry != null; entry = entry.next) {
+					if (!entry.compact()) {
+						pending.add(entry);
+					}
+				}
+				if (removed > 0 || !pending.isEmpty()) {
+					LOGGER.log(Level.FINE, "Rotation removed {0} entries, {1} exchanges not completed, took {2}ms",
+							new Object[] { removed, pending.size(),
+									TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) });
+				}
+			}
+		}
+
+		private void schedule() {
+			if (!scheduler.isShutdown()) {
+				future = scheduler.schedule(this, interval, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		private void cancel() {
+			if (future != null) {
+				future.cancel(false);
+			}
+		}
+	}
+}
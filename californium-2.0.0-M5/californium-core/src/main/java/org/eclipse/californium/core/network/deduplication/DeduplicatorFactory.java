@@ -27,7 +27,7 @@ import org.eclipse.californium.core.network.config.NetworkConfig;
 
 /**
  * The deduplication factory creates the deduplicator for a {@link Matcher}. If
- * a server wants to use another deduplicator than the three standard
+ * a server wants to use another deduplicator than the standard
  * deduplicators, it can create its own factory and install it with
  * {@link #setDeduplicatorFactory(DeduplicatorFactory)}.
  */
@@ -74,6 +74,8 @@ public class DeduplicatorFactory {
 			return new SweepDeduplicator(config);
 		case NetworkConfig.Keys.DEDUPLICATOR_CROP_ROTATION:
 			return new CropRotation(config);
+		case NetworkConfig.Keys.DEDUPLICATOR_COMPACT:
+			return new CompactDeduplicator(config);
 		case NetworkConfig.Keys.NO_DEDUPLICATOR:
 			return new NoDeduplicator();
 		default:
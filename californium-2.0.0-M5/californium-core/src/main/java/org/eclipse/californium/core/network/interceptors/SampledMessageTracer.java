@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.network.interceptors;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.californium.core.coap.EmptyMessage;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.coap.Response;
+
+/**
+ * A {@link MessageTracer} for busy endpoints.
+ * <p>
+ * Only one message out of <code>sampleRate</code> is traced, and at most
+ * <code>maxPerSecond</code> messages are traced per second. The number of
+ * messages dropped by the rate limit is logged once per second. When the
+ * logger is not enabled for the trace level, the interceptor returns before
+ * doing any other work.
+ */
+public class SampledMessageTracer implements MessageInterceptor {
+
+	private final static Logger LOGGER = Logger.getLogger(SampledMessageTracer.class.getCanonicalName());
+
+	private final Level level;
+	private final int sampleRate;
+	private final int maxPerSecond;
+
+	private final AtomicLong samples = new AtomicLong();
+	private final AtomicLong second = new AtomicLong();
+	private final AtomicInteger traced = new AtomicInteger();
+	private final AtomicInteger dropped = new AtomicInteger();
+
+	/**
+	 * Creates a tracer logging at FINE level at most 100 messages per second.
+	 */
+	public SampledMessageTracer() {
+		this(Level.FINE, 1, 100);
+	}
+
+	/**
+	 * Creates a tracer.
+	 *
+	 * @param level the level of the traces.
+	 * @param sampleRate trace one message out of <code>sampleRate</code>.
+	 * @param maxPerSecond the maximum number of traces per second.
+	 */
+	public SampledMessageTracer(Level level, int sampleRate, int maxPerSecond) {
+		if (level == null) {
+			throw new NullPointerException("level must not be null");
+		} else if (sampleRate < 1) {
+			throw new IllegalArgumentException("sample rate must be at least 1");
+		} else if (maxPerSecond < 1) {
+			throw new IllegalArgumentException("max traces per second must be at least 1");
+		}
+		this.level = level;
+		this.sampleRate = sampleRate;
+		this.maxPerSecond = maxPerSecond;
+	}
+
+	private boolean isTraced() {
+		if (!LOGGER.isLoggable(level)) {
+			return false;
+		}
+		if (sampleRate > 1 && samples.getAndIncrement() % sampleRate != 0) {
+			return false;
+		}
+
+		long now = System.currentTimeMillis() / 1000;
+		long current = second.get();
+		if (now != current && second.compareAndSet(current, now)) {
+			traced.set(0);
+			int skipped = dropped.getAndSet(0);
+			if (skipped > 0) {
+				LOGGER.log(level, "{0} sampled messages not traced, more than {1} per second", new Object[]{skipped, maxPerSecond});
+			}
+		}
+		if (traced.incrementAndGet() <= maxPerSecond) {
+			return true;
+		}
+		dropped.incrementAndGet();
+		return false;
+	}
+
+	@Override
+	public void sendRequest(Request request) {
+		if (isTraced()) {
+			LOGGER.log(level, "{0}:{1} <== req {2}", new Object[]{request.getDestination(), request.getDestinationPort(), request});
+		}
+	}
+
+	@Override
+	public void sendResponse(Response response) {
+		if (isTraced()) {
+			LOGGER.log(level, "{0}:{1} <== res {2}", new Object[]{response.getDestination(), response.getDestinationPort(), response});
+		}
+	}
+
+	@Override
+	public void sendEmptyMessage(EmptyMessage message) {
+		if (isTraced()) {
+			LOGGER.log(level, "{0}:{1} <== emp {2}", new Object[]{message.getDestination(), message.getDestinationPort(), message});
+		}
+	}
+
+	@Override
+	public void receiveRequest(Request request) {
+		if (isTraced()) {
+			LOGGER.log(level, "{0}:{1} ==> req {2}", new Object[]{request.getSource(), request.getSourcePort(), request});
+		}
+	}
+
+	@Override
+	public void receiveResponse(Response response) {
+		if (isTraced()) {
+			LOGGER.log(level, "{0}:{1} ==> res {2}", new Object[]{response.getSource(), response.getSourcePort(), response});
+		}
+	}
+
+	@Override
+	public void receiveEmptyMessage(EmptyMessage message) {
+		if (isTraced()) {
+			LOGGER.log(level, "{0}:{1} ==> emp {2}", new Object[]{message.getSource(), message.getSourcePort(), message});
+		}
+	}
+}
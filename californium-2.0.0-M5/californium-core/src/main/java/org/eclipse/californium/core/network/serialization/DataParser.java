@@ -27,8 +27,6 @@ import org.eclipse.californium.core.coap.*;
 import org.eclipse.californium.elements.RawData;
 import org.eclipse.californium.elements.util.DatagramReader;
 
-import static org.eclipse.californium.core.coap.CoAP.MessageFormat.PAYLOAD_MARKER;
-
 /**
  * A base class for parsing CoAP messages from a byte array.
  */
@@ -60,11 +58,11 @@ public abstract class DataParser {
 		MessageHeader header = parseHeader(reader);
 		try {
 			if (CoAP.isRequest(header.getCode())) {
-				return parseMessage(reader, header, new Request(CoAP.Code.valueOf(header.getCode())));
+				return parseMessage(msg, reader, header, new Request(CoAP.Code.valueOf(header.getCode())));
 			} else if (CoAP.isResponse(header.getCode())) {
-				return parseMessage(reader, header, new Response(CoAP.ResponseCode.valueOf(header.getCode())));
+				return parseMessage(msg, reader, header, new Response(CoAP.ResponseCode.valueOf(header.getCode())));
 			} else if (CoAP.isEmptyMessage(header.getCode())) {
-				return parseMessage(reader, header, new EmptyMessage(header.getType()));
+				return parseMessage(msg, reader, header, new EmptyMessage(header.getType()));
 			}
 		} catch (MessageFormatException e) {
 			/** use message to add CoAP message specific information */
@@ -73,12 +71,14 @@ public abstract class DataParser {
 		throw new CoAPMessageFormatException(message, header.getMID(), header.getCode(), CoAP.Type.CON == header.getType());
 	}
 
-	private static Message parseMessage(final DatagramReader source, final MessageHeader header, final Message target) {
+	private static Message parseMessage(final byte[] msg, final DatagramReader source, final MessageHeader header,
+			final Message target) {
 		target.setMID(header.getMID());
 		target.setType(header.getType());
 		target.setToken(header.getToken());
 
-		parseOptionsAndPayload(source, target);
+		// the options and the payload are only located here, they are decoded when accessed
+		target.setEncodedContent(EncodedContent.scan(msg, msg.length - source.bitsLeft() / Byte.SIZE));
 		return target;
 	}
 
@@ -119,82 +119,4 @@ public abstract class DataParser {
 			throw new MessageFormatException("Message has invalid token length (> 8)" + tokenLength);
 		}
 	}
-
-	private static void parseOptionsAndPayload(DatagramReader reader, Message message) {
-		int currentOptionNumber = 0;
-		byte nextByte = 0;
-
-		while (reader.bytesAvailable()) {
-			nextByte = reader.readNextByte();
-			if (nextByte != PAYLOAD_MARKER) {
-				// the first 4 bits of the byte represent the option delta
-				int optionDeltaNibble = (0xF0 & nextByte) >> 4;
-				currentOptionNumber = calculateNextOptionNumber(reader, currentOptionNumber, optionDeltaNibble, message);
-
-				// the second 4 bits represent the option length
-				int optionLengthNibble = 0x0F & nextByte;
-				int optionLength = determineValueFromNibble(reader, optionLengthNibble, message);
-
-				// read option
-				if (reader.bytesAvailable(optionLength)) {
-					Option option = new Option(currentOptionNumber);
-					option.setValue(reader.readBytes(optionLength));
-
-					// add option to message
-					message.getOptions().addOption(option);
-				} else {
-					String msg = String.format(
-							"Message contains option of length %d with only fewer bytes left in the message",
-							optionLength);
-					throw new CoAPMessageFormatException(msg, message.getMID(), message.getRawCode(), message.isConfirmable());
-				}
-			} else
-				break;
-		}
-
-		if (nextByte == PAYLOAD_MARKER) {
-			// the presence of a marker followed by a zero-length payload must be processed as a message format error
-			if (!reader.bytesAvailable()) {
-				throw new CoAPMessageFormatException(
-						"Found payload marker (0xFF) but message contains no payload",
-						message.getMID(), message.getRawCode(), message.isConfirmable());
-			} else {
-				// get payload
-				message.setPayload(reader.readBytesLeft());
-			}
-		} else {
-			message.setPayload((String) null);
-		}
-	}
-
-	/**
-	 * Calculates the next option number based on the current option number and the option delta as specified in
-	 * RFC 7252, Section 3.1
-	 *
-	 * @param delta
-	 *            the 4-bit option delta value.
-	 * @return the next option number.
-	 * @throws MessageFormatException if the option number cannot be determined due to a message format error.
-	 */
-	private static int calculateNextOptionNumber(
-			final DatagramReader reader,
-			final int currentOptionNumber,
-			final int delta,
-			final Message message) {
-		return currentOptionNumber + determineValueFromNibble(reader, delta, message);
-	}
-
-	private static int determineValueFromNibble(final DatagramReader reader, final int delta, final Message message) {
-		if (delta <= 12) {
-			return delta;
-		} else if (delta == 13) {
-			return reader.read(8) + 13;
-		} else if (delta == 14) {
-			return reader.read(16) + 269;
-		} else {
-			throw new CoAPMessageFormatException(
-					"Message contains illegal option delta/length: " + delta,
-					message.getMID(), message.getRawCode(), message.isConfirmable());
-		}
-	}
 }
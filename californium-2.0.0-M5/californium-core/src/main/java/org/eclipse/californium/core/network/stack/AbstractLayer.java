@@ -31,6 +31,8 @@ import org.eclipse.californium.core.coap.Request;
 import org.eclipse.californium.core.coap.Response;
 import org.eclipse.californium.core.coap.CoAP.Type;
 import org.eclipse.californium.core.network.Exchange;
+import org.eclipse.californium.core.network.timer.ExecutorTimer;
+import org.eclipse.californium.core.network.timer.Timer;
 
 
 /**
@@ -60,6 +62,9 @@ public abstract class AbstractLayer implements Layer {
 	/** The executor. */
 	protected ScheduledExecutorService executor;
 
+	/** The timer of the delayed tasks. */
+	protected Timer timer;
+
 	@Override
 	public void sendRequest(final Exchange exchange, final Request request) {
 		lowerLayer.sendRequest(exchange, request);
@@ -135,6 +140,12 @@ public abstract class AbstractLayer implements Layer {
 	@Override
 	public final void setExecutor(final ScheduledExecutorService executor) {
 		this.executor = executor;
+		this.timer = executor == null ? null : new ExecutorTimer(executor);
+	}
+
+	@Override
+	public final void setTimer(final Timer timer) {
+		this.timer = timer;
 	}
 
 	/**
@@ -228,6 +239,11 @@ public abstract class AbstractLayer implements Layer {
 			// do nothing
 		}
 
+		@Override
+		public void setTimer(final Timer timer) {
+			// do nothing
+		}
+
 		@Override
 		public void destroy() {
 			// do nothing
@@ -34,6 +34,7 @@ import org.eclipse.californium.core.network.Exchange;
 import org.eclipse.californium.core.network.Exchange.Origin;
 import org.eclipse.californium.core.network.Outbox;
 import org.eclipse.californium.core.network.stack.Layer.TopDownBuilder;
+import org.eclipse.californium.core.network.timer.Timer;
 import org.eclipse.californium.core.server.MessageDeliverer;
 
 /**
@@ -121,6 +122,13 @@ public abstract class BaseCoapStack implements CoapStack {
 		}
 	}
 
+	@Override
+	public final void setTimer(final Timer timer) {
+		for (Layer layer : layers) {
+			layer.setTimer(timer);
+		}
+	}
+
 	@Override
 	public final void setDeliverer(final MessageDeliverer deliverer) {
 		this.deliverer = deliverer;
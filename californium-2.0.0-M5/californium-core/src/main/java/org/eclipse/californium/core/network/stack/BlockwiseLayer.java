@@ -57,7 +57,7 @@ import org.eclipse.californium.core.coap.Request;
 import org.eclipse.californium.core.coap.Response;
 import org.eclipse.californium.core.network.Exchange;
 import org.eclipse.californium.core.network.config.NetworkConfig;
-import org.eclipse.californium.elements.util.LeastRecentlyUsedCache;
+import org.eclipse.californium.elements.util.ConcurrentLeastRecentlyUsedCache;
 
 /**
  * Provides transparent handling of the blockwise transfer of a large <em>resource body</em>.
@@ -127,8 +127,13 @@ public class BlockwiseLayer extends AbstractLayer {
 	 */
 
 	private static final Logger LOGGER = Logger.getLogger(BlockwiseLayer.class.getName());
-	private final LeastRecentlyUsedCache<KeyUri, Block1BlockwiseStatus> block1Transfers;
-	private final LeastRecentlyUsedCache<KeyUri, Block2BlockwiseStatus> block2Transfers;
+	private final ConcurrentLeastRecentlyUsedCache<KeyUri, Block1BlockwiseStatus> block1Transfers;
+	private final ConcurrentLeastRecentlyUsedCache<KeyUri, Block2BlockwiseStatus> block2Transfers;
+	/**
+	 * Serializes the steps of the outbound block1 transfers of a resource,
+	 * striped by key so that transfers of different resources do not contend.
+	 */
+	private final Object[] block1Locks = new Object[32];
 	private int maxMessageSize;
 	private int preferredBlockSize;
 	private int preferredBlockSzx;
@@ -174,8 +179,11 @@ public class BlockwiseLayer extends AbstractLayer {
 		blockTimeout = config.getInt(NetworkConfig.Keys.BLOCKWISE_STATUS_LIFETIME, 30 * 1000); // 30 secs
 		maxResourceBodySize = config.getInt(NetworkConfig.Keys.MAX_RESOURCE_BODY_SIZE, 8192);
 		int maxActivePeers = config.getInt(NetworkConfig.Keys.MAX_ACTIVE_PEERS);
-		block1Transfers = new LeastRecentlyUsedCache<>(maxActivePeers, blockTimeout / 1000);
-		block2Transfers = new LeastRecentlyUsedCache<>(maxActivePeers, blockTimeout / 1000);
+		block1Transfers = new ConcurrentLeastRecentlyUsedCache<>(maxActivePeers, blockTimeout / 1000);
+		block2Transfers = new ConcurrentLeastRecentlyUsedCache<>(maxActivePeers, blockTimeout / 1000);
+		for (int i = 0; i < block1Locks.length; i++) {
+			block1Locks[i] = new Object();
+		}
 
 		LOGGER.log(Level.CONFIG,
 			"BlockwiseLayer uses MAX_MESSAGE_SIZE={0}, PREFERRED_BLOCK_SIZE={1}, BLOCKWISE_STATUS_LIFETIME={2} and MAX_RESOURCE_BODY_SIZE={3}",
@@ -235,7 +243,7 @@ public class BlockwiseLayer extends AbstractLayer {
 
 		final KeyUri key = getKey(exchange, request);
 
-		synchronized (block1Transfers) {
+		synchronized (block1Lock(key)) {
 
 			Block1BlockwiseStatus status = getBlock1Status(key);
 			if (status != null) {
@@ -667,7 +675,7 @@ public class BlockwiseLayer extends AbstractLayer {
 		// Block1 transfer has been originally created for an outbound request
 		final KeyUri key = getKey(exchange, exchange.getRequest());
 
-		synchronized (block1Transfers) {
+		synchronized (block1Lock(key)) {
 
 			Block1BlockwiseStatus status = getBlock1Status(key);
 
@@ -942,36 +950,42 @@ public class BlockwiseLayer extends AbstractLayer {
 
 	private Block1BlockwiseStatus getOutboundBlock1Status(final KeyUri key, final Exchange exchange, final Request request) {
 
-		synchronized (block1Transfers) {
-			Block1BlockwiseStatus status = block1Transfers.get(key);
+		Block1BlockwiseStatus status = block1Transfers.get(key);
+		if (status == null) {
+			Block1BlockwiseStatus created = Block1BlockwiseStatus.forOutboundRequest(exchange, request, preferredBlockSize);
+			status = block1Transfers.putIfAbsent(key, created);
 			if (status == null) {
-				status = Block1BlockwiseStatus.forOutboundRequest(exchange, request, preferredBlockSize);
-				block1Transfers.put(key, status);
-				LOGGER.log(Level.FINE, "created tracker for outbound block1 transfer {0}, transfers in progress: {1}",
-						new Object[]{ status, block1Transfers.size() });
+				status = created;
+				if (LOGGER.isLoggable(Level.FINE)) {
+					LOGGER.log(Level.FINE, "created tracker for outbound block1 transfer {0}, transfers in progress: {1}",
+							new Object[]{ status, block1Transfers.size() });
+				}
 			}
-			return status;
 		}
+		return status;
 	}
 
 	private Block1BlockwiseStatus getInboundBlock1Status(final KeyUri key, final Exchange exchange, final Request request) {
 
-		synchronized (block1Transfers) {
-			Block1BlockwiseStatus status = block1Transfers.get(key);
+		Block1BlockwiseStatus status = block1Transfers.get(key);
+		if (status == null) {
+			Block1BlockwiseStatus created = Block1BlockwiseStatus.forInboundRequest(exchange, request, maxResourceBodySize);
+			status = block1Transfers.putIfAbsent(key, created);
 			if (status == null) {
-				status = Block1BlockwiseStatus.forInboundRequest(exchange, request, maxResourceBodySize);
-				block1Transfers.put(key, status);
-				LOGGER.log(Level.FINE, "created tracker for inbound block1 transfer {0}, transfers in progress: {1}",
-						new Object[]{ status, block1Transfers.size() });
+				status = created;
+				if (LOGGER.isLoggable(Level.FINE)) {
+					LOGGER.log(Level.FINE, "created tracker for inbound block1 transfer {0}, transfers in progress: {1}",
+							new Object[]{ status, block1Transfers.size() });
+				}
 			}
-			// register a task for cleaning up if the peer does not send all blocks
-			prepareBlock1Cleanup(status, key);
-			return status;
 		}
+		// register a task for cleaning up if the peer does not send all blocks
+		prepareBlock1Cleanup(status, key);
+		return status;
 	}
 
 	private Block1BlockwiseStatus resetInboundBlock1Status(final KeyUri key, final Exchange exchange, final Request request) {
-		synchronized (block1Transfers) {
+		synchronized (block1Lock(key)) {
 			Block1BlockwiseStatus removedStatus = block1Transfers.remove(key);
 			LOGGER.log(Level.WARNING, "inbound block1 transfer reset at {0} by peer: {1}", new Object[]{ removedStatus, request });
 			return getInboundBlock1Status(key, exchange, request);
@@ -980,79 +994,82 @@ public class BlockwiseLayer extends AbstractLayer {
 
 	private Block2BlockwiseStatus getOutboundBlock2Status(final KeyUri key, final Exchange exchange, final Response response) {
 
-		synchronized (block2Transfers) {
-			Block2BlockwiseStatus status = block2Transfers.get(key);
+		Block2BlockwiseStatus status = block2Transfers.get(key);
+		if (status == null) {
+			Block2BlockwiseStatus created = Block2BlockwiseStatus.forOutboundResponse(exchange, response, preferredBlockSize);
+			status = block2Transfers.putIfAbsent(key, created);
 			if (status == null) {
-				status = Block2BlockwiseStatus.forOutboundResponse(exchange, response, preferredBlockSize);
-				block2Transfers.put(key, status);
-				LOGGER.log(Level.FINE, "created tracker for outbound block2 transfer {0}, transfers in progress: {1}",
-						new Object[]{ status, block2Transfers.size() });
+				status = created;
+				if (LOGGER.isLoggable(Level.FINE)) {
+					LOGGER.log(Level.FINE, "created tracker for outbound block2 transfer {0}, transfers in progress: {1}",
+							new Object[]{ status, block2Transfers.size() });
+				}
 			}
-			// we register a clean up task in case the peer does not retrieve all blocks
-			prepareBlock2Cleanup(status, key);
-			return status;
 		}
+		// we register a clean up task in case the peer does not retrieve all blocks
+		prepareBlock2Cleanup(status, key);
+		return status;
 	}
 
 	private Block2BlockwiseStatus getInboundBlock2Status(final KeyUri key, final Exchange exchange, final Response response) {
 
-		synchronized (block2Transfers) {
-			Block2BlockwiseStatus status = block2Transfers.get(key);
+		Block2BlockwiseStatus status = block2Transfers.get(key);
+		if (status == null) {
+			Block2BlockwiseStatus created = Block2BlockwiseStatus.forInboundResponse(exchange, response, maxResourceBodySize);
+			status = block2Transfers.putIfAbsent(key, created);
 			if (status == null) {
-				status = Block2BlockwiseStatus.forInboundResponse(exchange, response, maxResourceBodySize);
-				block2Transfers.put(key, status);
-				LOGGER.log(Level.FINE, "created tracker for {0} inbound block2 transfer {1}, transfers in progress: {2}, {3}",
-						new Object[]{ key, status, block2Transfers.size(), response });
+				status = created;
+				if (LOGGER.isLoggable(Level.FINE)) {
+					LOGGER.log(Level.FINE, "created tracker for {0} inbound block2 transfer {1}, transfers in progress: {2}, {3}",
+							new Object[]{ key, status, block2Transfers.size(), response });
+				}
 			}
-			return status;
 		}
+		return status;
 	}
 
 	private KeyUri addRandomAccessBlock2Status(final Exchange exchange, final Request request) {
 
 		KeyUri key = getKey(exchange, request);
-		synchronized (block2Transfers) {
-			Block2BlockwiseStatus status = Block2BlockwiseStatus.forRandomAccessRequest(exchange, request);
-			block2Transfers.put(key, status);
-			addBlock2CleanUpObserver(request, key);
+		Block2BlockwiseStatus status = Block2BlockwiseStatus.forRandomAccessRequest(exchange, request);
+		block2Transfers.put(key, status);
+		addBlock2CleanUpObserver(request, key);
+		if (LOGGER.isLoggable(Level.FINE)) {
 			LOGGER.log(Level.FINE, "created tracker for random access block2 retrieval {0}, transfers in progress: {1}",
 					new Object[]{ status, block2Transfers.size() });
-			return key;
 		}
+		return key;
 	}
 
-	private Block1BlockwiseStatus getBlock1Status(final KeyUri key) {
+	private Object block1Lock(final KeyUri key) {
+		int hash = key.hashCode();
+		return block1Locks[(hash ^ (hash >>> 16)) & (block1Locks.length - 1)];
+	}
 
-		synchronized (block1Transfers) {
-			return block1Transfers.get(key);
-		}
+	private Block1BlockwiseStatus getBlock1Status(final KeyUri key) {
+		return block1Transfers.get(key);
 	}
 
 	private Block2BlockwiseStatus getBlock2Status(final KeyUri key) {
-
-		synchronized (block2Transfers) {
-			return block2Transfers.get(key);
-		}
+		return block2Transfers.get(key);
 	}
 
 	private Block1BlockwiseStatus clearBlock1Status(final KeyUri key) {
-		synchronized (block1Transfers) {
-			Block1BlockwiseStatus removedTracker = block1Transfers.remove(key);
+		Block1BlockwiseStatus removedTracker = block1Transfers.remove(key);
+		if (LOGGER.isLoggable(Level.FINE)) {
 			LOGGER.log(Level.FINE, "removing block1 tracker [{0}], block1 transfers still in progress: {1}",
 					new Object[]{ key, block1Transfers.size() });
-			return removedTracker;
 		}
+		return removedTracker;
 	}
 
 	private Block2BlockwiseStatus clearBlock2Status(final KeyUri key) {
-		synchronized (block2Transfers) {
-			Block2BlockwiseStatus removedTracker = block2Transfers.remove(key);
-			if (removedTracker != null) {
-				LOGGER.log(Level.FINE, "removing block2 tracker [{0}], block2 transfers still in progress: {1}",
-						new Object[]{ key, block2Transfers.size() });
-			}
-			return removedTracker;
+		Block2BlockwiseStatus removedTracker = block2Transfers.remove(key);
+		if (removedTracker != null && LOGGER.isLoggable(Level.FINE)) {
+			LOGGER.log(Level.FINE, "removing block2 tracker [{0}], block2 transfers still in progress: {1}",
+					new Object[]{ key, block2Transfers.size() });
 		}
+		return removedTracker;
 	}
 
 	private boolean requiresBlockwise(final Request request) {
@@ -1181,7 +1198,7 @@ public class BlockwiseLayer extends AbstractLayer {
 			return null;
 
 		} else {
-			return executor.schedule(task , blockTimeout, TimeUnit.MILLISECONDS);
+			return timer.schedule(task, blockTimeout, TimeUnit.MILLISECONDS);
 		}
 	}
 }
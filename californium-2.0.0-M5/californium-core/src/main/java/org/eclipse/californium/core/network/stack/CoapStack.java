@@ -4,6 +4,7 @@ import org.eclipse.californium.core.coap.EmptyMessage;
 import org.eclipse.californium.core.coap.Request;
 import org.eclipse.californium.core.coap.Response;
 import org.eclipse.californium.core.network.Exchange;
+import org.eclipse.californium.core.network.timer.Timer;
 import org.eclipse.californium.core.server.MessageDeliverer;
 
 import java.util.concurrent.ScheduledExecutorService;
@@ -33,6 +34,8 @@ public interface CoapStack {
 
 	void setExecutor(ScheduledExecutorService executor);
 
+	void setTimer(Timer timer);
+
 	void setDeliverer(MessageDeliverer deliverer);
 
 	void destroy();
@@ -174,7 +174,7 @@ public abstract class CongestionControlLayer extends ReliabilityLayer {
 
 			// The exchange needs to be deleted after at least 255 s TODO:
 			// should this value be calculated dynamically
-			executor.schedule(new SweepCheckTask(getRemoteEndpoint(exchange),
+			timer.schedule(new SweepCheckTask(getRemoteEndpoint(exchange),
 					exchange), MAX_REMOTE_TRANSACTION_DURATION,
 					TimeUnit.MILLISECONDS);
 			return true;
@@ -428,7 +428,7 @@ public abstract class CongestionControlLayer extends ReliabilityLayer {
 					}
 				}
 				// schedule next transmission of a NON based on the RTO value (rate = 1/RTO)
-				executor.schedule(
+				timer.schedule(
 						new BucketThread(getRemoteEndpoint(exchange)),
 						getRemoteEndpoint(exchange).getRTO(),
 						TimeUnit.MILLISECONDS);
@@ -30,6 +30,7 @@ import org.eclipse.californium.core.coap.Request;
 import org.eclipse.californium.core.coap.Response;
 import org.eclipse.californium.core.network.CoapEndpoint;
 import org.eclipse.californium.core.network.Exchange;
+import org.eclipse.californium.core.network.timer.Timer;
 import org.eclipse.californium.core.server.MessageDeliverer;
 
 /**
@@ -134,6 +135,16 @@ public interface Layer {
 	 */
 	void setExecutor(ScheduledExecutorService executor);
 
+	/**
+	 * Sets the timer used to schedule the delayed tasks of this layer.
+	 * <p>
+	 * {@link #setExecutor(ScheduledExecutorService)} resets the timer to one
+	 * scheduling the tasks on the executor.
+	 *
+	 * @param timer the new timer
+	 */
+	void setTimer(Timer timer);
+
 	/**
 	 * Stop this layer and release any resources.
 	 * 
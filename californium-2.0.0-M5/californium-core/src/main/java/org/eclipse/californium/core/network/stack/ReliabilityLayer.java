@@ -346,7 +346,7 @@ public class ReliabilityLayer extends AbstractLayer {
 
 		public void start() {
 			int timeout = exchange.getCurrentTimeout();
-			ScheduledFuture<?> f = executor.schedule(this, timeout, TimeUnit.MILLISECONDS);
+			ScheduledFuture<?> f = timer.schedule(this, timeout, TimeUnit.MILLISECONDS);
 			exchange.setRetransmissionHandle(f);
 		}
 
@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.network.timer;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Timer} scheduling the tasks on a {@link ScheduledExecutorService}.
+ * <p>
+ * This is the timer used by default, each task is kept in the delay queue of
+ * the executor.
+ */
+public class ExecutorTimer implements Timer {
+
+	private final ScheduledExecutorService executor;
+
+	/**
+	 * Creates a timer.
+	 * 
+	 * @param executor the executor running the tasks.
+	 * @throws NullPointerException if executor is <code>null</code>.
+	 */
+	public ExecutorTimer(ScheduledExecutorService executor) {
+		if (executor == null) {
+			throw new NullPointerException("executor must not be null");
+		}
+		this.executor = executor;
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+		return executor.schedule(task, delay, unit);
+	}
+}
@@ -0,0 +1,378 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.network.timer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.californium.elements.util.DaemonThreadFactory;
+
+/**
+ * A {@link Timer} for a large number of tasks which are mostly cancelled
+ * before they run, like retransmissions.
+ * <p>
+ * The tasks are kept in a wheel of buckets, each bucket holding the tasks
+ * expiring during one tick. Scheduling and cancelling a task only add it to a
+ * lock-free queue, a single worker thread moves the scheduled tasks into their
+ * bucket and removes the cancelled ones once per tick. So scheduling and
+ * cancelling cost O(1) and never contend on a lock, where the delay queue of
+ * a {@link java.util.concurrent.ScheduledThreadPoolExecutor} costs O(log n)
+ * under a single lock.
+ * <p>
+ * The price is precision: a task runs up to one tick after its delay. The
+ * expired tasks are handed over to an executor, or run on the worker thread
+ * if there is none, in which case they must be short.
+ * <p>
+ * The worker thread starts with the first scheduled task and ends with
+ * {@link #stop()}.
+ */
+public class HashedWheelTimer implements Timer {
+
+	private static final Logger LOGGER = Logger.getLogger(HashedWheelTimer.class.getCanonicalName());
+
+	private static final int STATE_INIT = 0;
+	private static final int STATE_STARTED = 1;
+	private static final int STATE_STOPPED = 2;
+
+	/** The maximum number of scheduled tasks moved into the wheel per tick. */
+	private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+	private final long tickDuration; // in nanoseconds
+	private final Bucket[] wheel;
+	private final int mask;
+	private final Executor executor;
+	private final Thread worker;
+
+	private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+	private final CountDownLatch started = new CountDownLatch(1);
+	/** The base of the deadlines, set by the worker thread. */
+	private volatile long startTime;
+
+	private final Queue<WheelTimeout> scheduled = new ConcurrentLinkedQueue<WheelTimeout>();
+	private final Queue<WheelTimeout> cancelled = new ConcurrentLinkedQueue<WheelTimeout>();
+
+	/**
+	 * Creates a timer running the expired tasks on its worker thread.
+	 * 
+	 * @param tickDuration the duration of a tick.
+	 * @param unit the unit of tickDuration.
+	 * @param wheelSize the number of buckets, rounded up to a power of two.
+	 */
+	public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize) {
+		this(tickDuration, unit, wheelSize, null);
+	}
+
+	/**
+	 * Creates a timer.
+	 * 
+	 * @param tickDuration the duration of a tick.
+	 * @param unit the unit of tickDuration.
+	 * @param wheelSize the number of buckets, rounded up to a power of two.
+	 * @param executor the executor running the expired tasks, or
+	 *            <code>null</code> to run them on the worker thread.
+	 * @throws IllegalArgumentException if tickDuration is less than a
+	 *             millisecond or wheelSize is not in range [1, 2^30].
+	 */
+	public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize, Executor executor) {
+		if (unit.toMillis(tickDuration) < 1) {
+			throw new IllegalArgumentException("tick duration must be at least 1ms");
+		} else if (wheelSize < 1 || wheelSize > 1 << 30) {
+			throw new IllegalArgumentException("wheel size must be in range [1, 2^30]");
+		}
+		int size = Integer.highestOneBit(wheelSize);
+		if (size < wheelSize) {
+			size <<= 1;
+		}
+		this.tickDuration = unit.toNanos(tickDuration);
+		this.wheel = new Bucket[size];
+		for (int i = 0; i < size; i++) {
+			wheel[i] = new Bucket();
+		}
+		this.mask = size - 1;
+		this.executor = executor;
+		this.worker = new DaemonThreadFactory("HashedWheelTimer#").newThread(new Worker());
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+		if (task == null) {
+			throw new NullPointerException("task must not be null");
+		}
+		start();
+		WheelTimeout timeout = new WheelTimeout(task, System.nanoTime() - startTime + unit.toNanos(Math.max(delay, 0)));
+		scheduled.add(timeout);
+		if (state.get() == STATE_STOPPED && scheduled.remove(timeout)) {
+			throw new RejectedExecutionException("timer is stopped");
+		}
+		return timeout;
+	}
+
+	private void start() {
+		switch (state.get()) {
+		case STATE_INIT:
+			if (state.compareAndSet(STATE_INIT, STATE_STARTED)) {
+				worker.start();
+			}
+			break;
+		case STATE_STARTED:
+			break;
+		default:
+			throw new RejectedExecutionException("timer is stopped");
+		}
+
+		boolean interrupted = false;
+		while (startTime == 0) {
+			try {
+				started.await();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Stops the worker thread and cancels the tasks not run yet.
+	 * 
+	 * @throws IllegalStateException if called from a task run on the worker
+	 *             thread.
+	 */
+	public void stop() {
+		if (Thread.currentThread() == worker) {
+			throw new IllegalStateException("timer cannot be stopped by one of its tasks");
+		}
+		if (state.getAndSet(STATE_STOPPED) != STATE_STARTED) {
+			return;
+		}
+		worker.interrupt();
+		boolean interrupted = false;
+		while (worker.isAlive()) {
+			try {
+				worker.join(100);
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void expire(WheelTimeout timeout) {
+		if (timeout.isCancelled()) {
+			return;
+		}
+		if (executor == null) {
+			// exceptions are kept by the future
+			timeout.run();
+			return;
+		}
+		try {
+			executor.execute(timeout);
+		} catch (RejectedExecutionException e) {
+			LOGGER.log(Level.FINE, "Executor rejected expired task, task is cancelled");
+			timeout.cancel(false);
+		}
+	}
+
+	private class Worker implements Runnable {
+
+		private long tick;
+
+		@Override
+		public void run() {
+			long now = System.nanoTime();
+			// 0 means not started
+			startTime = now == 0 ? 1 : now;
+			started.countDown();
+
+			while (state.get() == STATE_STARTED) {
+				long time = waitForNextTick();
+				if (time < 0) {
+					break;
+				}
+				removeCancelled();
+				transferScheduled();
+				expire(wheel[(int) tick & mask], time);
+				tick++;
+			}
+
+			// cancel all the tasks left
+			for (Bucket bucket : wheel) {
+				bucket.cancelAll();
+			}
+			WheelTimeout timeout;
+			while ((timeout = scheduled.poll()) != null) {
+				timeout.cancel(false);
+			}
+			cancelled.clear();
+			LOGGER.log(Level.FINE, "HashedWheelTimer stopped");
+		}
+
+		/**
+		 * @return the time since the start, or -1 if stopped.
+		 */
+		private long waitForNextTick() {
+			long deadline = tickDuration * (tick + 1);
+			while (true) {
+				long time = System.nanoTime() - startTime;
+				if (time >= deadline) {
+					return time;
+				}
+				LockSupport.parkNanos(this, deadline - time);
+				if (state.get() != STATE_STARTED) {
+					return -1;
+				}
+			}
+		}
+
+		private void removeCancelled() {
+			WheelTimeout timeout;
+			while ((timeout = cancelled.poll()) != null) {
+				if (timeout.bucket != null) {
+					timeout.bucket.remove(timeout);
+				}
+			}
+		}
+
+		private void transferScheduled() {
+			for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+				WheelTimeout timeout = scheduled.poll();
+				if (timeout == null) {
+					break;
+				} else if (timeout.isCancelled()) {
+					continue;
+				}
+				long ticks = timeout.deadline / tickDuration;
+				timeout.remainingRounds = (ticks - tick) / wheel.length;
+				// a task scheduled late expires with the current tick
+				wheel[(int) Math.max(ticks, tick) & mask].add(timeout);
+			}
+		}
+
+		private void expire(Bucket bucket, long time) {
+			WheelTimeout timeout = bucket.head;
+			while (timeout != null) {
+				WheelTimeout next = timeout.next;
+				if (timeout.remainingRounds <= 0) {
+					bucket.remove(timeout);
+					HashedWheelTimer.this.expire(timeout);
+				} else if (timeout.isCancelled()) {
+					bucket.remove(timeout);
+				} else {
+					timeout.remainingRounds--;
+				}
+				timeout = next;
+			}
+		}
+	}
+
+	/**
+	 * The tasks of one bucket of the wheel, only accessed by the worker
+	 * thread.
+	 */
+	private static class Bucket {
+
+		private WheelTimeout head;
+		private WheelTimeout tail;
+
+		private void add(WheelTimeout timeout) {
+			timeout.bucket = this;
+			if (head == null) {
+				head = tail = timeout;
+			} else {
+				tail.next = timeout;
+				timeout.prev = tail;
+				tail = timeout;
+			}
+		}
+
+		private void remove(WheelTimeout timeout) {
+			if (timeout.prev == null) {
+				head = timeout.next;
+			} else {
+				timeout.prev.next = timeout.next;
+			}
+			if (timeout.next == null) {
+				tail = timeout.prev;
+			} else {
+				timeout.next.prev = timeout.prev;
+			}
+			timeout.prev = null;
+			timeout.next = null;
+			timeout.bucket = null;
+		}
+
+		private void cancelAll() {
+			while (head != null) {
+				WheelTimeout timeout = head;
+				remove(timeout);
+				timeout.cancel(false);
+			}
+		}
+	}
+
+	private class WheelTimeout extends FutureTask<Void> implements ScheduledFuture<Void> {
+
+		/** The time since the start of the timer. */
+		private final long deadline;
+
+		// only accessed by the worker thread
+		private long remainingRounds;
+		private Bucket bucket;
+		private WheelTimeout prev;
+		private WheelTimeout next;
+
+		private WheelTimeout(Runnable task, long deadline) {
+			super(task, null);
+			this.deadline = deadline;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean result = super.cancel(mayInterruptIfRunning);
+			if (result) {
+				// removed from its bucket by the worker thread
+				cancelled.add(this);
+			}
+			return result;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(deadline - (System.nanoTime() - startTime), TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			long diff = getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS);
+			return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+		}
+	}
+}
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.network.timer;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules the tasks which must run after a delay, like the retransmission
+ * of a confirmable message or the clean-up of a blockwise transfer.
+ * <p>
+ * The layers of the stack use a timer instead of scheduling their tasks
+ * directly on the endpoint's executor, so that an endpoint handling a large
+ * number of exchanges can use a timer cheaper than the executor's delay
+ * queue, see {@link HashedWheelTimer}.
+ */
+public interface Timer {
+
+	/**
+	 * Schedules a task.
+	 * 
+	 * @param task the task to run.
+	 * @param delay the delay after which the task is run.
+	 * @param unit the unit of delay.
+	 * @return the handle of the task, used to cancel it.
+	 * @throws RejectedExecutionException if the timer is stopped.
+	 */
+	ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit);
+}
@@ -23,6 +23,9 @@
 package org.eclipse.californium.core.network;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -34,14 +37,22 @@ import java.security.Principal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.californium.category.Small;
 import org.eclipse.californium.core.coap.CoAP;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.CoAP.Type;
+import org.eclipse.californium.core.coap.EmptyMessage;
 import org.eclipse.californium.core.coap.MessageObserverAdapter;
 import org.eclipse.californium.core.coap.Request;
 import org.eclipse.californium.core.coap.Response;
 import org.eclipse.californium.core.network.config.NetworkConfig;
+import org.eclipse.californium.core.network.serialization.UdpDataParser;
 import org.eclipse.californium.core.server.MessageDeliverer;
 import org.eclipse.californium.elements.Connector;
 import org.eclipse.californium.elements.CorrelationContext;
@@ -180,6 +191,191 @@ public class CoapEndpointTest {
 		assertTrue(receivedRequests.isEmpty());
 	}
 
+	@Test
+	public void testInboxRespondsBadOptionToRequestWithIllegalOption() throws Exception {
+
+		// GIVEN a request with an If-Match option longer than 8 bytes
+		byte[] getRequest = new byte[] { 0b01000000, // ver 1, CON, token length: 0
+				0b00000001, // code: 0.01 (GET request)
+				0x00, 0x10, // message ID
+				0x19, // option number 1 (If-Match), length: 9
+				1, 2, 3, 4, 5, 6, 7, 8, 9
+		};
+		RawData inboundMessage = RawData.inbound(getRequest, SOURCE_ADDRESS, null, null, false);
+
+		// WHEN the incoming message is processed by the Inbox
+		connector.receiveMessage(inboundMessage);
+
+		// THEN a 4.02 response is piggy-backed and the incoming message is not being delivered
+		assertTrue(sentLatch.await(2, TimeUnit.SECONDS));
+		Response response = (Response) new UdpDataParser().parseMessage(connector.sentMessage);
+		assertThat(response.getCode(), is(ResponseCode.BAD_OPTION));
+		assertThat(response.getType(), is(Type.ACK));
+		assertThat(response.getMID(), is(0x10));
+		assertTrue(receivedRequests.isEmpty());
+	}
+
+	@Test
+	public void testInboxDoesNotDecodeOptionsOfDuplicateRequest() throws Exception {
+
+		// GIVEN a request which has been answered
+		endpoint.setMessageDeliverer(new MessageDeliverer() {
+
+			@Override
+			public void deliverResponse(Exchange exchange, Response response) {
+			}
+
+			@Override
+			public void deliverRequest(Exchange exchange) {
+				exchange.sendResponse(new Response(ResponseCode.CONTENT));
+			}
+		});
+		connector.receiveMessage(RawData.inbound(getSerializedRequest(), SOURCE_ADDRESS, null, null, false));
+		assertTrue(sentLatch.await(2, TimeUnit.SECONDS));
+		byte[] response = connector.sentMessage.getBytes();
+
+		// WHEN a duplicate of the request is received, with options which cannot be decoded
+		sentLatch = new CountDownLatch(1);
+		byte[] duplicate = new byte[] { 0b01000011, // ver 1, CON, token length: 3
+				0b00000001, // code: 0.01 (GET request)
+				0x00, 0x10, // message ID
+				0x01, 0x02, 0x03, // three byte token
+				0x19, // option number 1 (If-Match), length: 9
+				1, 2, 3, 4, 5, 6, 7, 8, 9
+		};
+		connector.receiveMessage(RawData.inbound(duplicate, SOURCE_ADDRESS, null, null, false));
+
+		// THEN the response is sent again, the options of the duplicate have not been decoded
+		assertTrue(sentLatch.await(2, TimeUnit.SECONDS));
+		assertArrayEquals(response, connector.sentMessage.getBytes());
+	}
+
+	@Test
+	public void testInboxDoesNotDecodeOptionsOfAck() throws Exception {
+
+		// GIVEN a request sent to a peer
+		Request request = Request.newGet();
+		request.setDestination(SOURCE_ADDRESS.getAddress());
+		request.setDestinationPort(SOURCE_ADDRESS.getPort());
+		request.addMessageObserver(new MessageObserverAdapter() {
+
+			@Override
+			public void onAcknowledgement() {
+				latch.countDown();
+			}
+		});
+		endpoint.sendRequest(request);
+		assertTrue(sentLatch.await(2, TimeUnit.SECONDS));
+		int mid = request.getMID();
+
+		// WHEN the peer acknowledges it with an empty ACK carrying options which cannot be decoded
+		byte[] ack = new byte[] { 0b01100000, // ver 1, ACK, token length: 0
+				0b00000000, // code: 0.00 (empty message)
+				(byte) (mid >> 8), (byte) mid, // message ID
+				0x19, // option number 1 (If-Match), length: 9
+				1, 2, 3, 4, 5, 6, 7, 8, 9
+		};
+		connector.receiveMessage(RawData.inbound(ack, SOURCE_ADDRESS, null, null, false));
+
+		// THEN the request is acknowledged, the options of the ACK have not been decoded
+		assertTrue(latch.await(2, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testInboxRejectsResponseWithIllegalOption() throws Exception {
+
+		// GIVEN a request sent to a peer
+		Request request = Request.newGet();
+		request.setDestination(SOURCE_ADDRESS.getAddress());
+		request.setDestinationPort(SOURCE_ADDRESS.getPort());
+		endpoint.sendRequest(request);
+		assertTrue(sentLatch.await(2, TimeUnit.SECONDS));
+		byte[] token = request.getToken();
+
+		// WHEN the peer answers with a separate CON response with a Max-Age larger than 4 bytes
+		sentLatch = new CountDownLatch(1);
+		byte[] response = new byte[6 + token.length + 5];
+		response[0] = (byte) (0b01000000 | token.length); // ver 1, CON, token length
+		response[1] = 0b01000101; // code: 2.05 (Content)
+		response[2] = 0x00;
+		response[3] = 0x20; // message ID
+		System.arraycopy(token, 0, response, 4, token.length);
+		response[4 + token.length] = (byte) 0xD5; // option delta: 8 bit extended, length: 5
+		response[5 + token.length] = 0x01; // option number 14 (Max-Age)
+		response[6 + token.length] = 0x01; // 2^32
+		connector.receiveMessage(RawData.inbound(response, SOURCE_ADDRESS, null, context, false));
+
+		// THEN the response is rejected as a malformed message and not delivered
+		assertTrue(sentLatch.await(2, TimeUnit.SECONDS));
+		EmptyMessage rst = (EmptyMessage) new UdpDataParser().parseMessage(connector.sentMessage);
+		assertThat(rst.getType(), is(Type.RST));
+		assertThat(rst.getMID(), is(0x20));
+		assertNull(request.getResponse());
+	}
+
+	@Test
+	public void testStripedProtocolStageProcessesMessagesOfAPeerInOrder() throws Exception {
+
+		// GIVEN an endpoint with a striped protocol stage on a multi threaded executor
+		final int requests = 50;
+		final List<Integer> receivedMids = new ArrayList<Integer>();
+		final AtomicInteger concurrent = new AtomicInteger();
+		final AtomicBoolean overlapped = new AtomicBoolean();
+		final CountDownLatch deliveredLatch = new CountDownLatch(requests);
+		NetworkConfig config = NetworkConfig.createStandardWithoutFile()
+				.setString(NetworkConfig.Keys.PROTOCOL_STAGE_EXECUTOR, NetworkConfig.Keys.PROTOCOL_STAGE_STRIPED);
+		SimpleConnector stripedConnector = new SimpleConnector();
+		CoapEndpoint stripedEndpoint = new CoapEndpoint(stripedConnector, config);
+		ScheduledExecutorService executor = Executors.newScheduledThreadPool(4);
+		stripedEndpoint.setExecutor(executor);
+		stripedEndpoint.setMessageDeliverer(new MessageDeliverer() {
+
+			@Override
+			public void deliverResponse(Exchange exchange, Response response) {
+			}
+
+			@Override
+			public void deliverRequest(Exchange exchange) {
+				if (concurrent.incrementAndGet() > 1) {
+					overlapped.set(true);
+				}
+				synchronized (receivedMids) {
+					receivedMids.add(exchange.getRequest().getMID());
+				}
+				concurrent.decrementAndGet();
+				deliveredLatch.countDown();
+			}
+		});
+		stripedEndpoint.start();
+
+		try {
+			// WHEN a peer sends several requests in a row
+			for (int mid = 0; mid < requests; mid++) {
+				stripedConnector.receiveMessage(RawData.inbound(getSerializedRequest(mid), SOURCE_ADDRESS, null, null, false));
+			}
+
+			// THEN they are delivered one after the other in the order received
+			assertTrue(deliveredLatch.await(2, TimeUnit.SECONDS));
+			assertFalse(overlapped.get());
+			synchronized (receivedMids) {
+				for (int mid = 0; mid < requests; mid++) {
+					assertThat(receivedMids.get(mid), is(mid));
+				}
+			}
+		} finally {
+			stripedEndpoint.destroy();
+			executor.shutdownNow();
+		}
+	}
+
+	private static byte[] getSerializedRequest(int mid) {
+		return new byte[] { 0b01000011, // ver 1, CON, token length: 3
+				0b00000001, // code: 0.01 (GET request)
+				(byte) (mid >> 8), (byte) mid, // message ID
+				0x01, 0x02, (byte) mid // three byte token
+		};
+	}
+
 	private static byte[] getSerializedRequest() {
 		return new byte[] { 0b01000011, // ver 1, CON, token length: 3
 				0b00000001, // code: 0.01 (GET request)
@@ -191,6 +387,7 @@ public class CoapEndpointTest {
 	private class SimpleConnector implements Connector {
 
 		RawDataChannel receiver;
+		volatile RawData sentMessage;
 
 		public SimpleConnector() {
 		}
@@ -215,6 +412,7 @@ public class CoapEndpointTest {
 
 		@Override
 		public void send(RawData msg) {
+			sentMessage = msg;
 			msg.onContextEstablished(context);
 			msg.onSent();
 			sentLatch.countDown();
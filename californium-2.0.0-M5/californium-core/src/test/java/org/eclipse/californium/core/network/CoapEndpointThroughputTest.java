@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.network;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.eclipse.californium.category.Large;
+import org.eclipse.californium.core.coap.CoAP;
+import org.eclipse.californium.core.coap.CoAP.Code;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.CoAP.Type;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.coap.Response;
+import org.eclipse.californium.core.network.config.NetworkConfig;
+import org.eclipse.californium.core.network.serialization.UdpDataSerializer;
+import org.eclipse.californium.core.server.MessageDeliverer;
+import org.eclipse.californium.elements.Connector;
+import org.eclipse.californium.elements.CorrelationContextMatcher;
+import org.eclipse.californium.elements.RawData;
+import org.eclipse.californium.elements.RawDataChannel;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Measures the number of requests per second an endpoint receives, delivers
+ * and answers, without a network and without message tracing.
+ * <p>
+ * Registration like CON POST requests of many peers are fed to the endpoint
+ * by an in-memory connector, and answered with a piggy-backed 2.04 by the
+ * deliverer. The result is logged, the test only fails if a request is not
+ * answered.
+ */
+@Category(Large.class)
+public class CoapEndpointThroughputTest {
+
+	private static final Logger LOGGER = Logger.getLogger(CoapEndpointThroughputTest.class.getCanonicalName());
+
+	private static final int REQUESTS = 200000;
+	private static final int PEERS = 1000;
+
+	@Test
+	public void testRequestThroughput() throws Exception {
+		byte[][] requests = newRequests();
+
+		// warm up
+		run(requests);
+
+		long rate = run(requests);
+		LOGGER.info(String.format("requests per second: %d", rate));
+	}
+
+	/**
+	 * @return the number of requests answered per second.
+	 */
+	private static long run(final byte[][] requests) throws Exception {
+		final CountDownLatch answered = new CountDownLatch(requests.length);
+		InMemoryConnector connector = new InMemoryConnector(answered);
+		CoapEndpoint endpoint = new CoapEndpoint(connector, NetworkConfig.createStandardWithoutFile());
+		endpoint.setMessageDeliverer(new MessageDeliverer() {
+
+			@Override
+			public void deliverRequest(Exchange exchange) {
+				exchange.sendResponse(new Response(ResponseCode.CHANGED));
+			}
+
+			@Override
+			public void deliverResponse(Exchange exchange, Response response) {
+			}
+		});
+		endpoint.start();
+		try {
+			InetAddress address = InetAddress.getLoopbackAddress();
+			long start = System.nanoTime();
+			for (int i = 0; i < requests.length; i++) {
+				connector.receive(RawData.inbound(requests[i], new InetSocketAddress(address, 10000 + i % PEERS),
+						null, null, false));
+			}
+			assertTrue("requests not answered", answered.await(60, TimeUnit.SECONDS));
+			long nanos = System.nanoTime() - start;
+			return requests.length * TimeUnit.SECONDS.toNanos(1) / nanos;
+		} finally {
+			endpoint.destroy();
+		}
+	}
+
+	private static byte[][] newRequests() {
+		UdpDataSerializer serializer = new UdpDataSerializer();
+		byte[][] requests = new byte[REQUESTS][];
+		for (int i = 0; i < REQUESTS; i++) {
+			Request request = new Request(Code.POST, Type.CON);
+			request.setMID(i / PEERS);
+			request.setToken(new byte[] { (byte) (i >> 24), (byte) (i >> 16), (byte) (i >> 8), (byte) i });
+			request.getOptions().addUriPath("rd").addUriPath("id-" + i % PEERS).addUriQuery("lt=86400");
+			request.setPayload("</1/0>,</3/0>,</5/0>");
+			requests[i] = serializer.serializeRequest(request).getBytes();
+		}
+		return requests;
+	}
+
+	private static class InMemoryConnector implements Connector {
+
+		private final CountDownLatch sent;
+		private RawDataChannel receiver;
+
+		private InMemoryConnector(final CountDownLatch sent) {
+			this.sent = sent;
+		}
+
+		private void receive(final RawData message) {
+			receiver.receiveData(message);
+		}
+
+		@Override
+		public void start() throws IOException {
+		}
+
+		@Override
+		public void stop() {
+		}
+
+		@Override
+		public void destroy() {
+		}
+
+		@Override
+		public void send(final RawData msg) {
+			msg.onSent();
+			sent.countDown();
+		}
+
+		@Override
+		public void setRawDataReceiver(final RawDataChannel messageHandler) {
+			receiver = messageHandler;
+		}
+
+		@Override
+		public void setCorrelationContextMatcher(final CorrelationContextMatcher matcher) {
+		}
+
+		@Override
+		public InetSocketAddress getAddress() {
+			return new InetSocketAddress(InetAddress.getLoopbackAddress(), 5683);
+		}
+
+		@Override
+		public boolean isSchemeSupported(final String scheme) {
+			return CoAP.COAP_URI_SCHEME.equals(scheme);
+		}
+
+		@Override
+		public URI getUri() {
+			return URI.create("coap://127.0.0.1:5683");
+		}
+	}
+}
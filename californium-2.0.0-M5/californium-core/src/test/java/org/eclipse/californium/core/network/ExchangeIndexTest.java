@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.network;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.eclipse.californium.category.Small;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.network.Exchange.KeyMID;
+import org.eclipse.californium.core.network.Exchange.KeyToken;
+import org.eclipse.californium.core.network.Exchange.Origin;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Verifies behavior of the {@link ExchangeIndex} class and of the packed
+ * {@link KeyMID} and {@link KeyToken}.
+ */
+@Category(Small.class)
+public class ExchangeIndexTest {
+
+	private static final byte[] IPV4 = new byte[] { (byte) 192, (byte) 168, 1, 10 };
+	private static final byte[] IPV6 = new byte[] { 0x20, 0x01, 0x0d, (byte) 0xb8, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+			1 };
+
+	@Test
+	public void testKeyTokenKeepsTokenAndAddress() {
+		byte[] token = new byte[] { 0, (byte) 0xFF, 1 };
+		KeyToken key = KeyToken.fromValues(token, IPV6, 5683);
+
+		assertArrayEquals(token, key.getToken());
+		assertArrayEquals(IPV6, ExchangeIndex.address(key.addressHigh, key.addressLow));
+		assertArrayEquals(IPV4, ExchangeIndex.address(ExchangeIndex.addressHigh(IPV4), ExchangeIndex.addressLow(IPV4)));
+	}
+
+	@Test
+	public void testKeyTokensDifferByTokenLength() {
+		KeyToken shortToken = KeyToken.fromValues(new byte[] { 1 }, IPV4, 5683);
+		KeyToken longToken = KeyToken.fromValues(new byte[] { 0, 1 }, IPV4, 5683);
+
+		assertFalse(shortToken.equals(longToken));
+		assertTrue(shortToken.equals(KeyToken.fromValues(new byte[] { 1 }, IPV4, 5683)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testKeyTokenRejectsLongToken() {
+		KeyToken.fromValues(new byte[9], IPV4, 5683);
+	}
+
+	@Test
+	public void testPutIfAbsentKeepsRegisteredExchange() {
+		ExchangeIndex index = new ExchangeIndex();
+		Exchange first = newExchange();
+		KeyMID key = newKeyMID(1, IPV4, 5683);
+
+		assertNull(index.put(key, first, true));
+		assertSame(first, index.put(newKeyMID(1, IPV4, 5683), newExchange(), true));
+		assertSame(first, index.get(key));
+		assertNull(index.get(newKeyMID(1, IPV4, 5684)));
+		assertNull(index.get(newKeyMID(1, IPV6, 5683)));
+	}
+
+	@Test
+	public void testRemoveOnlyRemovesGivenExchange() {
+		ExchangeIndex index = new ExchangeIndex();
+		Exchange exchange = newExchange();
+		KeyToken key = KeyToken.fromValues(new byte[] { 1, 2 }, IPV4, 5683);
+		index.put(key, exchange, false);
+
+		assertNull(index.remove(key, newExchange()));
+		assertSame(exchange, index.remove(key, exchange));
+		assertNull(index.get(key));
+		assertTrue(index.isEmpty());
+	}
+
+	@Test
+	public void testManyEntriesAreFoundAfterResizeAndRemoval() {
+		ExchangeIndex index = new ExchangeIndex();
+		int count = 20000;
+		Exchange[] exchanges = new Exchange[count];
+		for (int mid = 0; mid < count; mid++) {
+			exchanges[mid] = newExchange();
+			index.put(newKeyMID(mid, IPV4, 5683), exchanges[mid], false);
+		}
+		assertThat(index.size(), is(count));
+
+		// removal moves back the following entries of the probe sequences
+		for (int mid = 0; mid < count; mid += 2) {
+			assertSame(exchanges[mid], index.remove(newKeyMID(mid, IPV4, 5683), null));
+		}
+		assertThat(index.size(), is(count / 2));
+		for (int mid = 0; mid < count; mid++) {
+			Exchange expected = mid % 2 == 0 ? null : exchanges[mid];
+			assertSame(expected, index.get(newKeyMID(mid, IPV4, 5683)));
+		}
+		assertThat(index.values().size(), is(count / 2));
+	}
+
+	private static KeyMID newKeyMID(int mid, byte[] address, int port) {
+		Request request = Request.newGet();
+		request.setMID(mid);
+		try {
+			request.setSource(InetAddress.getByAddress(address));
+		} catch (UnknownHostException e) {
+			throw new IllegalArgumentException(e);
+		}
+		request.setSourcePort(port);
+		return KeyMID.fromInboundMessage(request);
+	}
+
+	private static Exchange newExchange() {
+		return new Exchange(Request.newGet(), Origin.LOCAL);
+	}
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.network;
+
+import static org.junit.Assert.assertSame;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import org.eclipse.californium.category.Large;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.CoAP.Type;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.coap.Response;
+import org.eclipse.californium.core.network.Exchange.KeyMID;
+import org.eclipse.californium.core.network.Exchange.KeyToken;
+import org.eclipse.californium.core.network.Exchange.Origin;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Measures the matching of inbound responses to outbound requests by
+ * {@link KeyMID} and by {@link KeyToken}, in the {@link ExchangeIndex} of the
+ * {@link InMemoryMessageExchangeStore} and in the
+ * <code>ConcurrentHashMap</code>s it used before, with the time and the bytes
+ * allocated per response.
+ * <p>
+ * The results are logged, the test only fails if a response is not matched.
+ */
+@Category(Large.class)
+public class ExchangeIndexThroughputTest {
+
+	private static final Logger LOGGER = Logger.getLogger(ExchangeIndexThroughputTest.class.getName());
+
+	private static final int EXCHANGES = 10000;
+	private static final int MATCHES = 2000000;
+
+	private final Exchange[] exchanges = new Exchange[EXCHANGES];
+	private final Response[] responses = new Response[EXCHANGES];
+
+	@Test
+	public void testMatchThroughput() throws Exception {
+		final ExchangeIndex byMid = new ExchangeIndex();
+		final ExchangeIndex byToken = new ExchangeIndex();
+		final ConcurrentHashMap<KeyMID, Exchange> mapByMid = new ConcurrentHashMap<>();
+		final ConcurrentHashMap<KeyToken, Exchange> mapByToken = new ConcurrentHashMap<>();
+
+		InetAddress peer = InetAddress.getByName("10.0.0.1");
+		for (int i = 0; i < EXCHANGES; i++) {
+			Request request = Request.newGet();
+			request.setMID(i);
+			request.setToken(new byte[] { 1, 2, 3, 4, (byte) (i >> 24), (byte) (i >> 16), (byte) (i >> 8), (byte) i });
+			request.setDestination(peer);
+			request.setDestinationPort(5683 + i % 100);
+			exchanges[i] = new Exchange(request, Origin.LOCAL);
+			byMid.put(KeyMID.fromOutboundMessage(request), exchanges[i], true);
+			byToken.put(KeyToken.fromOutboundMessage(request), exchanges[i], true);
+			mapByMid.put(KeyMID.fromOutboundMessage(request), exchanges[i]);
+			mapByToken.put(KeyToken.fromOutboundMessage(request), exchanges[i]);
+
+			Response response = new Response(ResponseCode.CONTENT);
+			response.setType(Type.ACK);
+			response.setMID(request.getMID());
+			response.setToken(request.getToken());
+			response.setSource(peer);
+			response.setSourcePort(request.getDestinationPort());
+			responses[i] = response;
+		}
+
+		Matcher index = new Matcher() {
+
+			@Override
+			public Exchange match(Response response) {
+				Exchange exchange = byMid.get(KeyMID.fromInboundMessage(response));
+				return exchange == byToken.get(KeyToken.fromInboundMessage(response)) ? exchange : null;
+			}
+		};
+		Matcher map = new Matcher() {
+
+			@Override
+			public Exchange match(Response response) {
+				Exchange exchange = mapByMid.get(KeyMID.fromInboundMessage(response));
+				return exchange == mapByToken.get(KeyToken.fromInboundMessage(response)) ? exchange : null;
+			}
+		};
+
+		for (int i = 0; i < 3; i++) {
+			Result indexResult = measure(index);
+			Result mapResult = measure(map);
+			LOGGER.info(String.format("ExchangeIndex: %d ns, %d bytes per match; ConcurrentHashMap: %d ns, %d bytes per match",
+					indexResult.nanos, indexResult.allocated, mapResult.nanos, mapResult.allocated));
+		}
+	}
+
+	private interface Matcher {
+
+		Exchange match(Response response);
+	}
+
+	private Result measure(Matcher matcher) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long allocated = threads.getCurrentThreadAllocatedBytes();
+		long start = System.nanoTime();
+		for (int i = 0; i < MATCHES; i++) {
+			int exchange = i % EXCHANGES;
+			assertSame(exchanges[exchange], matcher.match(responses[exchange]));
+		}
+		Result result = new Result();
+		result.nanos = (System.nanoTime() - start) / MATCHES;
+		result.allocated = (threads.getCurrentThreadAllocatedBytes() - allocated) / MATCHES;
+		return result;
+	}
+
+	private static class Result {
+
+		private long nanos;
+		private long allocated;
+	}
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.network;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.eclipse.californium.category.Large;
+import org.eclipse.californium.elements.Connector;
+import org.eclipse.californium.elements.NioUDPConnector;
+import org.eclipse.californium.elements.RawData;
+import org.eclipse.californium.elements.RawDataChannel;
+import org.eclipse.californium.elements.UDPConnector;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Measures the number of datagrams per second a single receiver thread of the
+ * {@link UDPConnector} and of the {@link NioUDPConnector} hands to the
+ * endpoint, and the bytes the receiver thread allocates per datagram.
+ * <p>
+ * Datagrams of a typical registration size are sent over the loopback
+ * interface by a separate thread until the receiver counted enough of them.
+ * The results are logged, the test only fails if the datagrams are not
+ * received.
+ */
+@Category(Large.class)
+public class UdpConnectorThroughputTest {
+
+	private static final Logger LOGGER = Logger.getLogger(UdpConnectorThroughputTest.class.getCanonicalName());
+
+	private static final int WARMUP = 200000;
+	private static final int DATAGRAMS = 500000;
+	private static final int DATAGRAM_SIZE = 120;
+
+	@Test
+	public void testReceiveThroughput() throws Exception {
+		for (int i = 0; i < 2; i++) {
+			Result udp = run(new UDPConnector(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)));
+			Result nio = run(new NioUDPConnector(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)));
+			LOGGER.info(String.format("UDPConnector: %d datagrams per second, %d bytes allocated per datagram",
+					udp.rate, udp.allocated));
+			LOGGER.info(String.format("NioUDPConnector: %d datagrams per second, %d bytes allocated per datagram",
+					nio.rate, nio.allocated));
+		}
+	}
+
+	private static Result run(final Connector connector) throws Exception {
+		final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		final CountDownLatch done = new CountDownLatch(1);
+		final Result result = new Result();
+		connector.setRawDataReceiver(new RawDataChannel() {
+
+			private int count;
+			private long start;
+			private long allocated;
+
+			@Override
+			public void receiveData(RawData raw) {
+				count++;
+				if (count == WARMUP) {
+					allocated = threads.getCurrentThreadAllocatedBytes();
+					start = System.nanoTime();
+				} else if (count == WARMUP + DATAGRAMS) {
+					long nanos = System.nanoTime() - start;
+					result.allocated = (threads.getCurrentThreadAllocatedBytes() - allocated) / DATAGRAMS;
+					result.rate = DATAGRAMS * TimeUnit.SECONDS.toNanos(1) / nanos;
+					done.countDown();
+				}
+			}
+		});
+		connector.start();
+		try (DatagramChannel sender = DatagramChannel.open()) {
+			sender.connect(connector.getAddress());
+			ByteBuffer datagram = ByteBuffer.allocateDirect(DATAGRAM_SIZE);
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+			while (done.getCount() > 0 && System.nanoTime() < deadline) {
+				datagram.clear();
+				sender.write(datagram);
+			}
+			assertTrue("datagrams not received", done.await(1, TimeUnit.SECONDS));
+			return result;
+		} finally {
+			connector.destroy();
+		}
+	}
+
+	private static class Result {
+
+		private volatile long rate;
+		private volatile long allocated;
+	}
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.network.deduplication;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+
+import org.eclipse.californium.category.Medium;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.CoAP.Type;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.coap.Response;
+import org.eclipse.californium.core.network.Exchange;
+import org.eclipse.californium.core.network.Exchange.KeyMID;
+import org.eclipse.californium.core.network.Exchange.Origin;
+import org.eclipse.californium.core.network.config.NetworkConfig;
+import org.eclipse.californium.core.network.serialization.UdpDataSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Verifies the behavior of the {@link CompactDeduplicator}.
+ */
+@Category(Medium.class)
+public class CompactDeduplicatorTest {
+
+	private static final int PEER_PORT = 12000;
+
+	private final UdpDataSerializer serializer = new UdpDataSerializer();
+	private NetworkConfig config;
+	private CompactDeduplicator deduplicator;
+
+	@Before
+	public void setUp() {
+		config = NetworkConfig.createStandardWithoutFile();
+		config.setLong(NetworkConfig.Keys.EXCHANGE_LIFETIME, 200); // ms
+		config.setLong(NetworkConfig.Keys.MARK_AND_SWEEP_INTERVAL, 50); // ms
+		deduplicator = new CompactDeduplicator(config);
+	}
+
+	@After
+	public void tearDown() {
+		deduplicator.stop();
+	}
+
+	@Test
+	public void testFindPreviousReturnsExchangeUntilItIsCompleted() {
+		Exchange exchange = newInboundExchange(1);
+		KeyMID key = KeyMID.fromInboundMessage(exchange.getCurrentRequest());
+
+		assertNull(deduplicator.findPrevious(key, exchange));
+		assertSame(exchange, deduplicator.findPrevious(key, newInboundExchange(1)));
+		assertSame(exchange, deduplicator.find(key));
+	}
+
+	@Test
+	public void testDuplicateOfCompletedExchangeGetsSameResponse() {
+		Exchange exchange = newInboundExchange(2);
+		KeyMID key = KeyMID.fromInboundMessage(exchange.getCurrentRequest());
+		assertNull(deduplicator.findPrevious(key, exchange));
+		Response response = respond(exchange, Type.ACK);
+
+		Exchange duplicate = newInboundExchange(2);
+		Exchange previous = deduplicator.findPrevious(key, duplicate);
+
+		// the original exchange is not kept anymore
+		assertSame(duplicate, previous);
+		Response resent = previous.getCurrentResponse();
+		assertNotNull(resent);
+		assertSame(response.getBytes(), resent.getBytes());
+		assertThat(resent.getType(), is(Type.ACK));
+		assertThat(resent.getMID(), is(2));
+		assertThat(resent.getCode(), is(ResponseCode.CHANGED));
+		assertThat(resent.getDestinationPort(), is(PEER_PORT));
+		assertTrue(previous.getCurrentRequest().isAcknowledged());
+	}
+
+	@Test
+	public void testDuplicateOfRejectedRequestIsRejected() {
+		Exchange exchange = newInboundExchange(3);
+		KeyMID key = KeyMID.fromInboundMessage(exchange.getCurrentRequest());
+		assertNull(deduplicator.findPrevious(key, exchange));
+		exchange.getCurrentRequest().setRejected(true);
+		exchange.setComplete();
+
+		Exchange previous = deduplicator.findPrevious(key, newInboundExchange(3));
+
+		assertNull(previous.getCurrentResponse());
+		assertTrue(previous.getCurrentRequest().isRejected());
+	}
+
+	@Test
+	public void testDuplicateResponseIsFoundWithoutExchange() {
+		Exchange exchange = new Exchange(Request.newGet(), Origin.LOCAL);
+		Response response = new Response(ResponseCode.CONTENT);
+		response.setMID(4);
+		response.setSource(InetAddress.getLoopbackAddress());
+		response.setSourcePort(PEER_PORT);
+		KeyMID key = KeyMID.fromInboundMessage(response);
+		assertNull(deduplicator.findPrevious(key, exchange));
+
+		Exchange previous = deduplicator.find(key);
+
+		assertNotNull(previous);
+		assertNotNull(previous.getRequest());
+	}
+
+	@Test
+	public void testRotationCompactsAndRemovesEntries() throws InterruptedException {
+		deduplicator.start();
+		Exchange exchange = newInboundExchange(5);
+		KeyMID key = KeyMID.fromInboundMessage(exchange.getCurrentRequest());
+		assertNull(deduplicator.findPrevious(key, exchange));
+		respond(exchange, Type.ACK);
+
+		// compacted once its bucket is closed for one interval
+		Thread.sleep(150);
+		assertFalse(deduplicator.isEmpty());
+		assertThat(deduplicator.find(key) == exchange, is(false));
+
+		// removed after the exchange lifetime
+		Thread.sleep(300);
+		assertTrue(deduplicator.isEmpty());
+		assertNull(deduplicator.find(key));
+	}
+
+	private static Exchange newInboundExchange(int mid) {
+		Request request = Request.newPost();
+		request.setMID(mid);
+		request.setToken(new byte[] { 1, 2, 3, 4 });
+		request.setSource(InetAddress.getLoopbackAddress());
+		request.setSourcePort(PEER_PORT);
+		request.getOptions().setUriPath("rd").addUriQuery("ep=device-" + mid).addUriQuery("lt=86400");
+		Exchange exchange = new Exchange(request, Origin.REMOTE);
+		exchange.setRequest(request);
+		return exchange;
+	}
+
+	/**
+	 * Sends a piggy-backed response as the stack would.
+	 */
+	private Response respond(Exchange exchange, Type type) {
+		Request request = exchange.getCurrentRequest();
+		Response response = new Response(ResponseCode.CHANGED);
+		response.setType(type);
+		response.setMID(request.getMID());
+		response.setToken(request.getToken());
+		response.setDestination(request.getSource());
+		response.setDestinationPort(request.getSourcePort());
+		response.getOptions().addLocationPath("rd").addLocationPath("abcdef");
+		exchange.setResponse(response);
+		exchange.setCurrentResponse(response);
+		request.setAcknowledged(true);
+		exchange.setComplete();
+		serializer.serializeResponse(response);
+		return response;
+	}
+}
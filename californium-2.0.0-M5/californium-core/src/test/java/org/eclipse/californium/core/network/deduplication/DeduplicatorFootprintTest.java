@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.network.deduplication;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import java.net.InetAddress;
+import java.util.logging.Logger;
+
+import org.eclipse.californium.category.Large;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.CoAP.Type;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.coap.Response;
+import org.eclipse.californium.core.network.Exchange;
+import org.eclipse.californium.core.network.Exchange.KeyMID;
+import org.eclipse.californium.core.network.Exchange.Origin;
+import org.eclipse.californium.core.network.config.NetworkConfig;
+import org.eclipse.californium.core.network.serialization.UdpDataSerializer;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Compares the deduplicators for completed registration like exchanges kept
+ * for the whole <code>EXCHANGE_LIFETIME</code>: the heap they retain per
+ * message, the time to register a new message and the time to find the
+ * duplicate of a completed one.
+ * <p>
+ * The results are logged, they depend on the JVM. The test only fails if the
+ * messages are not kept.
+ */
+@Category(Large.class)
+public class DeduplicatorFootprintTest {
+
+	private static final Logger LOGGER = Logger.getLogger(DeduplicatorFootprintTest.class.getName());
+
+	private static final int PEER_PORT = 12000;
+	private static final int MESSAGES = 20000;
+
+	private final UdpDataSerializer serializer = new UdpDataSerializer();
+	private final NetworkConfig config = NetworkConfig.createStandardWithoutFile();
+
+	@Test
+	public void testFootprint() throws InterruptedException {
+		config.setLong(NetworkConfig.Keys.EXCHANGE_LIFETIME, 247 * 1000);
+		config.setInt(NetworkConfig.Keys.CROP_ROTATION_PERIOD, 247 * 1000);
+		config.setLong(NetworkConfig.Keys.MARK_AND_SWEEP_INTERVAL, 50); // ms
+
+		for (int i = 0; i < 2; i++) {
+			log("SweepDeduplicator", measure(new SweepDeduplicator(config)));
+			log("CropRotation", measure(new CropRotation(config)));
+			log("CompactDeduplicator", measure(new CompactDeduplicator(config)));
+		}
+	}
+
+	private static void log(String name, Result result) {
+		LOGGER.info(String.format("%s: %d retained bytes per message, %d ns per new message, %d ns per duplicate",
+				name, result.retained / MESSAGES, result.insertNanos / MESSAGES, result.duplicateNanos / MESSAGES));
+	}
+
+	private Result measure(Deduplicator deduplicator) throws InterruptedException {
+		Result result = new Result();
+		deduplicator.start();
+		try {
+			long before = usedHeap();
+			long start = System.nanoTime();
+			for (int mid = 0; mid < MESSAGES; mid++) {
+				Exchange exchange = newInboundExchange(mid);
+				exchange.getCurrentRequest().setPayload(new byte[100]);
+				deduplicator.findPrevious(KeyMID.fromInboundMessage(exchange.getCurrentRequest()), exchange);
+				respond(exchange);
+			}
+			result.insertNanos = System.nanoTime() - start;
+			// let the compact deduplicator compact its closed buckets
+			Thread.sleep(3 * config.getLong(NetworkConfig.Keys.MARK_AND_SWEEP_INTERVAL));
+			result.retained = usedHeap() - before;
+			assertFalse(deduplicator.isEmpty());
+
+			start = System.nanoTime();
+			for (int mid = 0; mid < MESSAGES; mid++) {
+				Exchange duplicate = newInboundExchange(mid);
+				assertNotNull(deduplicator.findPrevious(KeyMID.fromInboundMessage(duplicate.getCurrentRequest()),
+						duplicate));
+			}
+			result.duplicateNanos = System.nanoTime() - start;
+			return result;
+		} finally {
+			deduplicator.stop();
+		}
+	}
+
+	private static long usedHeap() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static Exchange newInboundExchange(int mid) {
+		Request request = Request.newPost();
+		request.setMID(mid);
+		request.setToken(new byte[] { 1, 2, 3, 4 });
+		request.setSource(InetAddress.getLoopbackAddress());
+		request.setSourcePort(PEER_PORT);
+		request.getOptions().setUriPath("rd").addUriQuery("ep=device-" + mid).addUriQuery("lt=86400");
+		Exchange exchange = new Exchange(request, Origin.REMOTE);
+		exchange.setRequest(request);
+		return exchange;
+	}
+
+	/**
+	 * Sends a piggy-backed response as the stack would.
+	 */
+	private void respond(Exchange exchange) {
+		Request request = exchange.getCurrentRequest();
+		Response response = new Response(ResponseCode.CHANGED);
+		response.setType(Type.ACK);
+		response.setMID(request.getMID());
+		response.setToken(request.getToken());
+		response.setDestination(request.getSource());
+		response.setDestinationPort(request.getSourcePort());
+		response.getOptions().addLocationPath("rd").addLocationPath("abcdef");
+		exchange.setResponse(response);
+		exchange.setCurrentResponse(response);
+		request.setAcknowledged(true);
+		exchange.setComplete();
+		serializer.serializeResponse(response);
+	}
+
+	private static class Result {
+
+		private long retained;
+		private long insertNanos;
+		private long duplicateNanos;
+	}
+}
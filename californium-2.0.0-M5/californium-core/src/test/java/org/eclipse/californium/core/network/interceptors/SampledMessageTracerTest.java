@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.network.interceptors;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.eclipse.californium.category.Small;
+import org.eclipse.californium.core.coap.CoAP.Code;
+import org.eclipse.californium.core.coap.Request;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Verifies that SampledMessageTracer samples and rate limits the traced messages.
+ */
+@Category(Small.class)
+public class SampledMessageTracerTest {
+
+	private static final Logger LOGGER = Logger.getLogger(SampledMessageTracer.class.getCanonicalName());
+
+	private final AtomicInteger traces = new AtomicInteger();
+	private final Handler handler = new Handler() {
+
+		@Override
+		public void publish(LogRecord record) {
+			if (record.getParameters() != null && record.getParameters().length == 3) {
+				traces.incrementAndGet();
+			}
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	};
+	private Level level;
+
+	@Before
+	public void addHandler() {
+		level = LOGGER.getLevel();
+		LOGGER.addHandler(handler);
+	}
+
+	@After
+	public void removeHandler() {
+		LOGGER.removeHandler(handler);
+		LOGGER.setLevel(level);
+	}
+
+	@Test
+	public void testNothingTracedWhenLevelDisabled() {
+		LOGGER.setLevel(Level.INFO);
+		SampledMessageTracer tracer = new SampledMessageTracer(Level.FINE, 1, 100);
+		for (int i = 0; i < 10; i++) {
+			tracer.receiveRequest(Request.newGet());
+		}
+		assertThat(traces.get(), is(0));
+	}
+
+	@Test
+	public void testSampleRate() {
+		LOGGER.setLevel(Level.FINE);
+		SampledMessageTracer tracer = new SampledMessageTracer(Level.FINE, 10, Integer.MAX_VALUE);
+		for (int i = 0; i < 100; i++) {
+			tracer.sendRequest(new Request(Code.POST));
+		}
+		assertThat(traces.get(), is(10));
+	}
+
+	@Test
+	public void testMaxPerSecond() {
+		LOGGER.setLevel(Level.FINE);
+		SampledMessageTracer tracer = new SampledMessageTracer(Level.FINE, 1, 5);
+		// stay within a single second
+		long second = System.currentTimeMillis() / 1000;
+		int sent = 0;
+		while (sent < 100 && System.currentTimeMillis() / 1000 == second) {
+			tracer.receiveRequest(Request.newGet());
+			sent++;
+		}
+		assertThat(traces.get(), is(Math.min(sent, 5)));
+	}
+}
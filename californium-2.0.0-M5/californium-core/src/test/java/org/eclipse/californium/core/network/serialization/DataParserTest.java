@@ -170,6 +170,55 @@ import org.junit.runners.Parameterized;
 		}
 	}
 
+	@Test public void testParseMessageDetectsTruncatedOptionLength() {
+		// GIVEN a request with an option announcing a 16 bit length but only one byte left
+		byte[] malformedGetRequest = new byte[] { 0b01000000, // ver 1, CON, token length: 0
+				0b00000001, // code: 0.01 (GET request)
+				0x00, 0x10, // message ID
+				0x3E, // option number 3, length: 16 bit extended
+				0x01 // one byte of the length is missing
+		};
+		RawData rawData = new RawData(malformedGetRequest, new InetSocketAddress(0));
+
+		// WHEN parsing the request
+		try {
+			parser.parseMessage(rawData);
+			fail("Parser should have detected malformed options");
+		} catch (CoAPMessageFormatException e) {
+			// THEN an exception is thrown by the parser
+			assertEquals(0b00000001, e.getCode());
+			assertEquals(true, e.isConfirmable());
+		}
+	}
+
+	@Test public void testExtendedOptionsAndPayloadParsing() {
+		Request request = new Request(Code.POST);
+		request.setType(Type.CON);
+		request.setMID(expectedMid);
+		request.setToken(new byte[] { 1, 2 });
+		StringBuilder query = new StringBuilder("ep=");
+		for (int i = 0; i < 250; i++) {
+			query.append((char) ('a' + i % 26));
+		}
+		request.getOptions().addUriPath("rd").addUriQuery(query.toString()).addUriQuery("lt=86400")
+				.setContentFormat(40).addOption(new Option(2048, "extended"));
+		request.setPayload("</1/0>,</3/0>");
+
+		RawData rawData = serializer.serializeRequest(request);
+		Request result = (Request) parser.parseMessage(rawData);
+
+		assertEquals(request.getPayloadSize(), result.getPayloadSize());
+		assertEquals("</1/0>,</3/0>", result.getPayloadString());
+		assertEquals(request.getOptions().asSortedList(), result.getOptions().asSortedList());
+
+		// options set after parsing replace the received ones
+		result = (Request) parser.parseMessage(rawData);
+		result.getOptions();
+		result.setPayload((String) null);
+		assertEquals(0, result.getPayloadSize());
+		assertEquals(request.getOptions().asSortedList(), result.getOptions().asSortedList());
+	}
+
 	@Test public void testResponseParsing() {
 		Response response = new Response(ResponseCode.CONTENT);
 		response.setType(Type.NON);
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.network.serialization;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.util.logging.Logger;
+
+import org.eclipse.californium.category.Large;
+import org.eclipse.californium.core.coap.CoAP.Type;
+import org.eclipse.californium.core.coap.EmptyMessage;
+import org.eclipse.californium.core.coap.MediaTypeRegistry;
+import org.eclipse.californium.core.coap.Message;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.elements.RawData;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Measures the time and the bytes allocated to parse a received datagram with
+ * the {@link UdpDataParser}: a registration of which only the header, token
+ * and MID are read, as for a duplicate, the same registration with its options
+ * and payload decoded, and an empty ACK.
+ * <p>
+ * The results are logged, the test only fails if a message is not parsed.
+ */
+@Category(Large.class)
+public class DataParserThroughputTest {
+
+	private static final Logger LOGGER = Logger.getLogger(DataParserThroughputTest.class.getName());
+
+	private static final int MESSAGES = 1000000;
+
+	private final DataParser parser = new UdpDataParser();
+
+	@Test
+	public void testParseThroughput() throws Exception {
+		UdpDataSerializer serializer = new UdpDataSerializer();
+		InetAddress peer = InetAddress.getByName("10.0.0.1");
+
+		Request registration = Request.newPost();
+		registration.setType(Type.CON);
+		registration.setMID(4711);
+		registration.setToken(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+		registration.getOptions().setUriPath("rd").addUriQuery("ep=864230031234567").addUriQuery("lt=86400")
+				.addUriQuery("b=U").addUriQuery("lwm2m=1.0").setContentFormat(MediaTypeRegistry.APPLICATION_LINK_FORMAT);
+		registration.setPayload("</1/0>,</3/0>,</4/0>,</5/0>,</19/0>,</19/1>");
+		final RawData registrationData = new RawData(serializer.serializeRequest(registration).bytes, peer, 5683);
+
+		EmptyMessage ack = new EmptyMessage(Type.ACK);
+		ack.setMID(4711);
+		ack.setToken(new byte[0]);
+		final RawData ackData = new RawData(serializer.serializeEmptyMessage(ack).bytes, peer, 5683);
+
+		Reader headerOnly = new Reader() {
+
+			@Override
+			public int read(Message message) {
+				return message.getMID() + message.getToken().length;
+			}
+		};
+		Reader decoded = new Reader() {
+
+			@Override
+			public int read(Message message) {
+				return message.getMID() + message.getToken().length + message.getOptions().getURIQueryCount()
+						+ message.getPayload().length;
+			}
+		};
+
+		for (int i = 0; i < 3; i++) {
+			LOGGER.info(String.format("registration, header only: %s; registration, decoded: %s; empty ACK: %s",
+					measure(registrationData, headerOnly), measure(registrationData, decoded),
+					measure(ackData, headerOnly)));
+		}
+	}
+
+	private interface Reader {
+
+		int read(Message message);
+	}
+
+	private String measure(RawData data, Reader reader) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long allocated = threads.getCurrentThreadAllocatedBytes();
+		long start = System.nanoTime();
+		long sum = 0;
+		for (int i = 0; i < MESSAGES; i++) {
+			sum += reader.read(parser.parseMessage(data));
+		}
+		long nanos = (System.nanoTime() - start) / MESSAGES;
+		allocated = (threads.getCurrentThreadAllocatedBytes() - allocated) / MESSAGES;
+		assertTrue(sum > 0);
+		return String.format("%d ns, %d bytes", nanos, allocated);
+	}
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.network.stack;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.logging.Logger;
+
+import org.eclipse.californium.category.Large;
+import org.eclipse.californium.elements.util.ConcurrentLeastRecentlyUsedCache;
+import org.eclipse.californium.elements.util.LeastRecentlyUsedCache;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Measures the get-or-create throughput of the transfer caches of the
+ * {@link BlockwiseLayer}, a {@link ConcurrentLeastRecentlyUsedCache} against a
+ * {@link LeastRecentlyUsedCache} guarded by a single lock as before, for 1, 4
+ * and 16 threads reading and updating random keys. The keys are spread over
+ * half the capacity, so that every lookup finds its transfer, and over twice
+ * the capacity, so that half of them create one and fail to add it.
+ * <p>
+ * The results are logged, the test only fails if the capacity is exceeded.
+ */
+@Category(Large.class)
+public class LeastRecentlyUsedCacheThroughputTest {
+
+	private static final Logger LOGGER = Logger.getLogger(LeastRecentlyUsedCacheThroughputTest.class.getName());
+
+	private static final int CAPACITY = 10000;
+	private static final int OPERATIONS = 2000000;
+	private static final int[] THREADS = { 1, 4, 16 };
+
+	@Test
+	public void testGetOrCreateThroughput() throws InterruptedException {
+		final LeastRecentlyUsedCache<Integer, String> locked = new LeastRecentlyUsedCache<>(CAPACITY, 10L);
+		final ConcurrentLeastRecentlyUsedCache<Integer, String> concurrent = new ConcurrentLeastRecentlyUsedCache<>(
+				CAPACITY, 10L);
+
+		Operation synchronizedOp = new Operation() {
+
+			@Override
+			public void run(Integer key, String value) {
+				synchronized (locked) {
+					if (locked.get(key) == null) {
+						locked.put(key, value);
+					}
+				}
+			}
+		};
+		Operation concurrentOp = new Operation() {
+
+			@Override
+			public void run(Integer key, String value) {
+				if (concurrent.get(key) == null) {
+					concurrent.putIfAbsent(key, value);
+				}
+			}
+		};
+
+		// warm up
+		measure(synchronizedOp, 4, 2 * CAPACITY);
+		measure(concurrentOp, 4, 2 * CAPACITY);
+
+		for (int keys : new int[] { CAPACITY / 2, 2 * CAPACITY }) {
+			for (int threads : THREADS) {
+				long synchronizedRate = measure(synchronizedOp, threads, keys);
+				long concurrentRate = measure(concurrentOp, threads, keys);
+				LOGGER.info(String.format(
+						"%d keys, %d threads, operations per second: synchronized LeastRecentlyUsedCache %d, ConcurrentLeastRecentlyUsedCache %d",
+						keys, threads, synchronizedRate, concurrentRate));
+			}
+		}
+		assertTrue(concurrent.size() <= CAPACITY);
+	}
+
+	private interface Operation {
+
+		void run(Integer key, String value);
+	}
+
+	/**
+	 * @return the operations per second, {@link #OPERATIONS} split over the
+	 *         threads.
+	 */
+	private static long measure(final Operation operation, int threads, final int keys) throws InterruptedException {
+		final int operationsPerThread = OPERATIONS / threads;
+		final String value = "value";
+		Thread[] workers = new Thread[threads];
+		long start = System.nanoTime();
+		for (int t = 0; t < threads; t++) {
+			final int seed = t;
+			workers[t] = new Thread() {
+
+				@Override
+				public void run() {
+					int key = seed;
+					for (int i = 0; i < operationsPerThread; i++) {
+						// cheap pseudo random walk over the keys
+						key = (key * 1103515245 + 12345) & 0x7fffffff;
+						operation.run(key % keys, value);
+					}
+				}
+			};
+			workers[t].start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		return threads * (long) operationsPerThread * 1000000000L / (System.nanoTime() - start);
+	}
+}
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.network.timer;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.californium.category.Small;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Verifies that HashedWheelTimer runs the scheduled tasks after their delay,
+ * including delays of several rounds, and never runs cancelled tasks.
+ */
+@Category(Small.class)
+public class HashedWheelTimerTest {
+
+	private HashedWheelTimer timer;
+
+	@Before
+	public void setUp() {
+		// 8 buckets of 10ms: a round lasts 80ms
+		timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 8);
+	}
+
+	@After
+	public void tearDown() {
+		timer.stop();
+	}
+
+	@Test
+	public void testTaskRunsAfterDelay() throws InterruptedException {
+		final CountDownLatch latch = new CountDownLatch(1);
+		long start = System.nanoTime();
+		timer.schedule(new CountDown(latch), 50, TimeUnit.MILLISECONDS);
+
+		assertTrue(latch.await(1, TimeUnit.SECONDS));
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50, is(true));
+	}
+
+	@Test
+	public void testTaskRunsAfterSeveralRounds() throws InterruptedException {
+		final CountDownLatch latch = new CountDownLatch(1);
+		long start = System.nanoTime();
+		timer.schedule(new CountDown(latch), 250, TimeUnit.MILLISECONDS);
+
+		assertTrue(latch.await(1, TimeUnit.SECONDS));
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 250, is(true));
+	}
+
+	@Test
+	public void testCancelledTaskDoesNotRun() throws InterruptedException {
+		final AtomicInteger runs = new AtomicInteger();
+		Runnable task = new Runnable() {
+
+			@Override
+			public void run() {
+				runs.incrementAndGet();
+			}
+		};
+		ScheduledFuture<?> cancelled = timer.schedule(task, 30, TimeUnit.MILLISECONDS);
+		CountDownLatch latch = new CountDownLatch(1);
+		timer.schedule(new CountDown(latch), 60, TimeUnit.MILLISECONDS);
+
+		assertTrue(cancelled.cancel(false));
+		assertTrue(latch.await(1, TimeUnit.SECONDS));
+		assertThat(runs.get(), is(0));
+		assertTrue(cancelled.isCancelled());
+	}
+
+	@Test
+	public void testTasksRunInOrderOfDeadline() throws InterruptedException {
+		final StringBuffer order = new StringBuffer();
+		final CountDownLatch latch = new CountDownLatch(3);
+		timer.schedule(new Append(order, "c", latch), 120, TimeUnit.MILLISECONDS);
+		timer.schedule(new Append(order, "a", latch), 20, TimeUnit.MILLISECONDS);
+		timer.schedule(new Append(order, "b", latch), 60, TimeUnit.MILLISECONDS);
+
+		assertTrue(latch.await(1, TimeUnit.SECONDS));
+		assertThat(order.toString(), is("abc"));
+	}
+
+	@Test(expected = RejectedExecutionException.class)
+	public void testScheduleFailsWhenStopped() {
+		timer.schedule(new CountDown(new CountDownLatch(1)), 10, TimeUnit.MILLISECONDS);
+		timer.stop();
+		timer.schedule(new CountDown(new CountDownLatch(1)), 10, TimeUnit.MILLISECONDS);
+	}
+
+	@Test
+	public void testStopCancelsPendingTasks() {
+		ScheduledFuture<?> pending = timer.schedule(new CountDown(new CountDownLatch(1)), 10, TimeUnit.SECONDS);
+		timer.stop();
+		assertTrue(pending.isCancelled());
+	}
+
+	private static class CountDown implements Runnable {
+
+		private final CountDownLatch latch;
+
+		private CountDown(CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public void run() {
+			latch.countDown();
+		}
+	}
+
+	private static class Append implements Runnable {
+
+		private final StringBuffer buffer;
+		private final String text;
+		private final CountDownLatch latch;
+
+		private Append(StringBuffer buffer, String text, CountDownLatch latch) {
+			this.buffer = buffer;
+			this.text = text;
+			this.latch = latch;
+		}
+
+		@Override
+		public void run() {
+			buffer.append(text);
+			latch.countDown();
+		}
+	}
+}
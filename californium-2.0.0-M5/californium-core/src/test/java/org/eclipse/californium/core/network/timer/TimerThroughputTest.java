@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.core.network.timer;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.eclipse.californium.category.Large;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Compares the schedule/cancel throughput of the timers, with the pattern of
+ * retransmissions: many tasks scheduled by several threads and cancelled
+ * before they expire.
+ * <p>
+ * The results are logged, the test only fails if a timer runs a cancelled
+ * task.
+ */
+@Category(Large.class)
+public class TimerThroughputTest {
+
+	private static final Logger LOGGER = Logger.getLogger(TimerThroughputTest.class.getCanonicalName());
+
+	private static final int THREADS = 4;
+	private static final int TASKS_PER_THREAD = 200000;
+	/** The number of tasks in flight per thread, like unacknowledged CONs. */
+	private static final int IN_FLIGHT = 10000;
+
+	@Test
+	public void testScheduleCancelThroughput() throws Exception {
+		ScheduledExecutorService executor = new ScheduledThreadPoolExecutor(1);
+		// a cancelled task stays in the queue until its delay by default
+		((ScheduledThreadPoolExecutor) executor).setRemoveOnCancelPolicy(true);
+		HashedWheelTimer wheel = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 512);
+		try {
+			// warm up
+			run(new ExecutorTimer(executor));
+			run(wheel);
+
+			long executorRate = run(new ExecutorTimer(executor));
+			long wheelRate = run(wheel);
+			LOGGER.info(String.format("schedule/cancel per second: ExecutorTimer %d, HashedWheelTimer %d",
+					executorRate, wheelRate));
+		} finally {
+			wheel.stop();
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return the number of tasks scheduled and cancelled per second.
+	 */
+	private long run(final Timer timer) throws Exception {
+		final Runnable failure = new Runnable() {
+
+			@Override
+			public void run() {
+				fail("cancelled task must not run");
+			}
+		};
+		Thread[] threads = new Thread[THREADS];
+		final Throwable[] errors = new Throwable[THREADS];
+		long start = System.nanoTime();
+		for (int t = 0; t < THREADS; t++) {
+			final int index = t;
+			threads[t] = new Thread() {
+
+				@Override
+				public void run() {
+					try {
+						ScheduledFuture<?>[] inFlight = new ScheduledFuture<?>[IN_FLIGHT];
+						for (int i = 0; i < TASKS_PER_THREAD; i++) {
+							int slot = i % IN_FLIGHT;
+							if (inFlight[slot] != null) {
+								inFlight[slot].cancel(false);
+							}
+							inFlight[slot] = timer.schedule(failure, 60, TimeUnit.SECONDS);
+						}
+						for (ScheduledFuture<?> future : inFlight) {
+							future.cancel(false);
+						}
+					} catch (Throwable e) {
+						errors[index] = e;
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		long nanos = System.nanoTime() - start;
+		for (Throwable error : errors) {
+			assertNull(error);
+		}
+		return THREADS * (long) TASKS_PER_THREAD * TimeUnit.SECONDS.toNanos(1) / nanos;
+	}
+}
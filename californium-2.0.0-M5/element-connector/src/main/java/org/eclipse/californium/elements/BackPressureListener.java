@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.elements;
+
+/**
+ * A listener notified when the outbound queue of a connector fills up or
+ * drains again.
+ */
+public interface BackPressureListener {
+
+	/**
+	 * Called when the connector enters or leaves the congested state.
+	 * <p>
+	 * The connector is congested once its outbound queue is filled above a
+	 * high watermark, and no longer congested once the queue is drained below
+	 * a low watermark. While congested, messages may be dropped, which is
+	 * reported with an {@link OutboundQueueFullException} to their
+	 * {@link MessageCallback}.
+	 * <p>
+	 * This method is called from the thread sending or draining messages, it
+	 * must return quickly.
+	 *
+	 * @param connector the connector.
+	 * @param congested <code>true</code> if the connector became congested,
+	 *            <code>false</code> if it recovered.
+	 */
+	void onBackPressure(Connector connector, boolean congested);
+}
@@ -0,0 +1,515 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.elements;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link Connector} employing UDP as the transport protocol, based on NIO
+ * {@link DatagramChannel}s.
+ * <p>
+ * Each receiver and sender thread owns a direct buffer, reused for all its
+ * datagrams. A received datagram is still copied into the byte array of its
+ * {@link RawData}, as with {@link UDPConnector}: the parsed message keeps
+ * these bytes to decode its options and payload on demand, so they must
+ * outlive the buffer.
+ * <p>
+ * When more than one socket is configured with {@link #setSocketCount(int)},
+ * the connector binds that many channels to the same address with the
+ * <code>SO_REUSEPORT</code> option (Linux, Java 9 or later), and the kernel
+ * spreads the incoming datagrams over them, each channel having its own
+ * receiver thread. If the option is not available, a single socket is used.
+ * <p>
+ * The outbound queue is unbounded by default, and bounded with
+ * {@link #setOutboundCapacity(int)}, with the same drop and back pressure
+ * behaviour as {@link UDPConnector}.
+ */
+public class NioUDPConnector implements Connector {
+
+	private static final String SUPPORTED_SCHEME = "coap";
+
+	public static final Logger LOGGER = Logger.getLogger(NioUDPConnector.class.getName());
+
+	private static final SocketOption<Boolean> SO_REUSEPORT = getReusePortOption();
+
+	private volatile boolean running;
+
+	private volatile DatagramChannel[] channels;
+
+	private final InetSocketAddress localAddr;
+
+	private List<Thread> receiverThreads;
+	private List<Thread> senderThreads;
+
+	/** The outbound message queue. */
+	private final OutboundQueue outgoing;
+
+	private volatile CorrelationContextMatcher correlationContextMatcher;
+
+	/** The receiver of incoming messages. */
+	private RawDataChannel receiver;
+
+	private int receiveBufferSize = UDPConnector.UNDEFINED;
+	private int sendBufferSize = UDPConnector.UNDEFINED;
+
+	private int senderCount = 1;
+	private int receiverCount = 1;
+	private int socketCount = 1;
+
+	private int receiverPacketSize = 2048;
+	private int senderBatchSize = 16;
+
+	/**
+	 * Creates a connector bound to a given IP address and port.
+	 *
+	 * @param address the IP address and port, if <code>null</code>
+	 * the connector is bound to an ephemeral port on the wildcard address
+	 */
+	public NioUDPConnector(InetSocketAddress address) {
+		if (address == null) {
+			this.localAddr = new InetSocketAddress(0);
+		} else {
+			this.localAddr = address;
+		}
+		this.running = false;
+		this.outgoing = new OutboundQueue(this, LOGGER);
+	}
+
+	/**
+	 * Looks up <code>StandardSocketOptions.SO_REUSEPORT</code>, which only
+	 * exists since Java 9 and is only supported on some platforms.
+	 */
+	@SuppressWarnings("unchecked")
+	private static SocketOption<Boolean> getReusePortOption() {
+		try {
+			SocketOption<Boolean> option = (SocketOption<Boolean>) StandardSocketOptions.class.getField("SO_REUSEPORT").get(null);
+			try (DatagramChannel channel = DatagramChannel.open()) {
+				return channel.supportedOptions().contains(option) ? option : null;
+			}
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	@Override
+	public synchronized void start() throws IOException {
+
+		if (running) {
+			return;
+		}
+
+		int count = socketCount;
+		if (count > 1 && SO_REUSEPORT == null) {
+			LOGGER.log(Level.WARNING, "SO_REUSEPORT is not supported, NioUDPConnector uses a single socket instead of {0}", count);
+			count = 1;
+		}
+
+		channels = new DatagramChannel[count];
+		try {
+			InetSocketAddress bindAddress = localAddr;
+			for (int i = 0; i < count; i++) {
+				channels[i] = open(bindAddress, count > 1);
+				// the other sockets share the port chosen for the first one
+				bindAddress = (InetSocketAddress) channels[0].getLocalAddress();
+			}
+		} catch (IOException e) {
+			close();
+			channels = null;
+			throw e;
+		}
+		// running only, if the sockets could be opened
+		running = true;
+		outgoing.open();
+
+		receiveBufferSize = channels[0].getOption(StandardSocketOptions.SO_RCVBUF);
+		sendBufferSize = channels[0].getOption(StandardSocketOptions.SO_SNDBUF);
+
+		LOGGER.log(Level.CONFIG, "NioUDPConnector starts up {0} sockets, {1} sender threads and {2} receiver threads",
+				new Object[]{count, senderCount, Math.max(receiverCount, count)});
+
+		// each socket needs a receiver
+		receiverThreads = new LinkedList<Thread>();
+		for (int i = 0; i < Math.max(receiverCount, count); i++) {
+			receiverThreads.add(new Receiver("UDP-Receiver-" + localAddr + "[" + i + "]", channels[i % count]));
+		}
+
+		senderThreads = new LinkedList<Thread>();
+		for (int i = 0; i < senderCount; i++) {
+			senderThreads.add(new Sender("UDP-Sender-" + localAddr + "[" + i + "]", channels[i % count]));
+		}
+
+		for (Thread t : receiverThreads) {
+			t.start();
+		}
+		for (Thread t : senderThreads) {
+			t.start();
+		}
+
+		if (LOGGER.isLoggable(Level.CONFIG)) {
+			String startupMsg = new StringBuilder("NioUDPConnector listening on ")
+				.append(channels[0].getLocalAddress()).append(", recv buf = ")
+				.append(receiveBufferSize).append(", send buf = ").append(sendBufferSize)
+				.append(", recv packet size = ").append(receiverPacketSize).toString();
+			LOGGER.log(Level.CONFIG, startupMsg);
+		}
+	}
+
+	private DatagramChannel open(InetSocketAddress address, boolean reusePort) throws IOException {
+		DatagramChannel channel = DatagramChannel.open();
+		try {
+			if (reusePort) {
+				channel.setOption(SO_REUSEPORT, true);
+			}
+			if (receiveBufferSize != UDPConnector.UNDEFINED) {
+				channel.setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferSize);
+			}
+			if (sendBufferSize != UDPConnector.UNDEFINED) {
+				channel.setOption(StandardSocketOptions.SO_SNDBUF, sendBufferSize);
+			}
+			channel.setOption(StandardSocketOptions.SO_BROADCAST, true);
+			channel.bind(address);
+			return channel;
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private void close() {
+		if (channels == null) {
+			return;
+		}
+		for (DatagramChannel channel : channels) {
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					LOGGER.log(Level.FINE, "Error while closing channel", e);
+				}
+			}
+		}
+	}
+
+	@Override
+	public synchronized void stop() {
+		if (!running) {
+			return;
+		}
+		running = false;
+		// stop all threads
+		if (senderThreads != null) {
+			for (Thread t : senderThreads) {
+				t.interrupt();
+			}
+			senderThreads.clear();
+			senderThreads = null;
+		}
+		if (receiverThreads != null) {
+			for (Thread t : receiverThreads) {
+				t.interrupt();
+			}
+			receiverThreads.clear();
+			receiverThreads = null;
+		}
+		outgoing.close();
+
+		String address = getAddress().toString();
+		close();
+		channels = null;
+		LOGGER.log(Level.CONFIG, "NioUDPConnector on [{0}] has stopped.", address);
+	}
+
+	@Override
+	public void destroy() {
+		stop();
+	}
+
+	@Override
+	public void send(RawData msg) {
+		if (msg == null) {
+			throw new NullPointerException("Message must not be null");
+		} else {
+			outgoing.offer(msg);
+		}
+	}
+
+	@Override
+	public void setRawDataReceiver(RawDataChannel receiver) {
+		this.receiver = receiver;
+	}
+
+	@Override
+	public void setCorrelationContextMatcher(CorrelationContextMatcher matcher) {
+		this.correlationContextMatcher = matcher;
+	}
+
+	@Override
+	public InetSocketAddress getAddress() {
+		DatagramChannel[] current = channels;
+		if (current == null) {
+			return localAddr;
+		}
+		try {
+			return (InetSocketAddress) current[0].getLocalAddress();
+		} catch (IOException e) {
+			return localAddr;
+		}
+	}
+
+	private abstract class NetworkStageThread extends Thread {
+
+		protected NetworkStageThread(String name) {
+			super(UDPConnector.ELEMENTS_THREAD_GROUP, name);
+			setDaemon(true);
+		}
+
+		public void run() {
+			LOGGER.log(Level.FINE, "Starting network stage thread [{0}]", getName());
+			while (true) {
+				try {
+					work();
+					if (!running) {
+						LOGGER.log(Level.FINE, "Network stage thread [{0}] was stopped successfully", getName());
+						break;
+					}
+				} catch (Throwable t) {
+					if (running) {
+						LOGGER.log(Level.SEVERE, "Exception in network stage thread [" + getName() + "]:", t);
+					} else {
+						LOGGER.log(Level.FINE, "Network stage thread [{0}] was stopped successfully", getName());
+						LOGGER.log(Level.FINER, "   stopped at:", t);
+						break;
+					}
+				}
+			}
+		}
+
+		/**
+		 * @throws Exception the exception to be properly logged
+		 */
+		protected abstract void work() throws Exception;
+	}
+
+	private class Receiver extends NetworkStageThread {
+
+		private final DatagramChannel channel;
+		private final ByteBuffer buffer;
+
+		private Receiver(String name, DatagramChannel channel) {
+			super(name);
+			this.channel = channel;
+			this.buffer = ByteBuffer.allocateDirect(receiverPacketSize);
+		}
+
+		@Override
+		protected void work() throws IOException {
+			buffer.clear();
+			InetSocketAddress source = (InetSocketAddress) channel.receive(buffer);
+			buffer.flip();
+			if (LOGGER.isLoggable(Level.FINER)) {
+				LOGGER.log(Level.FINER, "NioUDPConnector ({0}) received {1} bytes from {2}",
+						new Object[]{localAddr, buffer.remaining(), source});
+			}
+			byte[] bytes = new byte[buffer.remaining()];
+			buffer.get(bytes);
+			receiver.receiveData(new RawData(bytes, source));
+		}
+	}
+
+	private class Sender extends NetworkStageThread {
+
+		private final DatagramChannel channel;
+		private final RawData[] batch;
+		private ByteBuffer buffer;
+
+		private Sender(String name, DatagramChannel channel) {
+			super(name);
+			this.channel = channel;
+			this.batch = new RawData[Math.max(1, senderBatchSize)];
+			this.buffer = ByteBuffer.allocateDirect(receiverPacketSize);
+		}
+
+		protected void work() throws InterruptedException {
+			int count = outgoing.take(batch); // Blocking
+			for (int i = 0; i < count; i++) {
+				send(batch[i]);
+				batch[i] = null;
+			}
+		}
+
+		private void send(RawData raw) {
+			try {
+				CorrelationContextMatcher correlationMatcher = NioUDPConnector.this.correlationContextMatcher;
+				if (correlationMatcher != null && !correlationMatcher.isToBeSent(raw.getCorrelationContext(), null)) {
+					if (LOGGER.isLoggable(Level.WARNING)) {
+						LOGGER.log(Level.WARNING, "NioUDPConnector ({0}) drops {1} bytes to {2}:{3}",
+								new Object[] { localAddr, raw.getSize(), raw.getAddress(), raw.getPort() });
+					}
+					raw.onError(new CorrelationMismatchException());
+					return;
+				}
+				byte[] bytes = raw.getBytes();
+				if (bytes.length > buffer.capacity()) {
+					buffer = ByteBuffer.allocateDirect(bytes.length);
+				}
+				buffer.clear();
+				buffer.put(bytes);
+				buffer.flip();
+				if (LOGGER.isLoggable(Level.FINER)) {
+					LOGGER.log(Level.FINER, "NioUDPConnector ({0}) sends {1} bytes to {2}:{3}",
+							new Object[] { getUri(), bytes.length, raw.getAddress(), raw.getPort() });
+				}
+				channel.send(buffer, raw.getInetSocketAddress());
+				raw.onSent();
+			} catch (IOException ex) {
+				raw.onError(ex);
+			}
+		}
+	}
+
+	public void setReceiveBufferSize(int size) {
+		this.receiveBufferSize = size;
+	}
+
+	public int getReceiveBufferSize() {
+		return receiveBufferSize;
+	}
+
+	public void setSendBufferSize(int size) {
+		this.sendBufferSize = size;
+	}
+
+	public int getSendBufferSize() {
+		return sendBufferSize;
+	}
+
+	public void setReceiverThreadCount(int count) {
+		this.receiverCount = count;
+	}
+
+	public int getReceiverThreadCount() {
+		return receiverCount;
+	}
+
+	public void setSenderThreadCount(int count) {
+		this.senderCount = count;
+	}
+
+	public int getSenderThreadCount() {
+		return senderCount;
+	}
+
+	/**
+	 * Sets the number of sockets bound to the local address, see
+	 * {@link NioUDPConnector}.
+	 */
+	public void setSocketCount(int count) {
+		this.socketCount = Math.max(1, count);
+	}
+
+	public int getSocketCount() {
+		return socketCount;
+	}
+
+	public void setReceiverPacketSize(int size) {
+		this.receiverPacketSize = size;
+	}
+
+	public int getReceiverPacketSize() {
+		return receiverPacketSize;
+	}
+
+	/**
+	 * Sets the capacity of the outbound queue. Must be called before the
+	 * connector is started.
+	 *
+	 * @param capacity the maximum number of queued messages, rounded up to a
+	 *            power of two. {@link Integer#MAX_VALUE} for an unbounded
+	 *            queue, which is the default.
+	 */
+	public void setOutboundCapacity(int capacity) {
+		outgoing.setCapacity(capacity);
+	}
+
+	public int getOutboundCapacity() {
+		return outgoing.getCapacity();
+	}
+
+	/**
+	 * Sets the maximum number of messages a sender thread takes at once from
+	 * a bounded outbound queue. Must be called before the connector is
+	 * started.
+	 *
+	 * @param size the batch size.
+	 */
+	public void setSenderBatchSize(int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("sender batch size must be at least 1");
+		}
+		this.senderBatchSize = size;
+	}
+
+	public int getSenderBatchSize() {
+		return senderBatchSize;
+	}
+
+	public void setBackPressureListener(BackPressureListener listener) {
+		outgoing.setBackPressureListener(listener);
+	}
+
+	/**
+	 * @return the number of messages waiting to be sent.
+	 */
+	public int getOutboundQueueSize() {
+		return outgoing.size();
+	}
+
+	/**
+	 * @return the number of messages dropped because the outbound queue was
+	 *         full.
+	 */
+	public long getDroppedMessageCount() {
+		return outgoing.getDroppedMessageCount();
+	}
+
+	/**
+	 * @return <code>true</code> if the outbound queue is filled above its high
+	 *         watermark and did not drain below its low watermark yet.
+	 */
+	public boolean isCongested() {
+		return outgoing.isCongested();
+	}
+
+	@Override
+	public boolean isSchemeSupported(String scheme) {
+		return SUPPORTED_SCHEME.equals(scheme);
+	}
+
+	@Override
+	public URI getUri() {
+		return URI.create(String.format("%s://%s:%d", SUPPORTED_SCHEME, getAddress().getHostString(), getAddress().getPort()));
+	}
+}
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.elements;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.californium.elements.util.RingBuffer;
+
+/**
+ * The outbound message queue of the datagram connectors.
+ * <p>
+ * By default, the queue is unbounded. If a capacity is set, the messages are
+ * queued in a lock-free ring buffer and the sender threads take them in
+ * batches. Messages sent while the buffer is full are dropped and reported
+ * with an {@link OutboundQueueFullException}. The {@link BackPressureListener}
+ * is notified when the buffer is filled above three quarters of its capacity
+ * and when it is drained below one quarter again.
+ */
+final class OutboundQueue {
+
+	private final Connector connector;
+	private final Logger logger;
+
+	/** The unbounded queue, used when no capacity is set. */
+	private final BlockingQueue<RawData> unbounded = new LinkedBlockingQueue<RawData>();
+
+	/** The bounded queue, replaces the unbounded one while open. */
+	private volatile RingBuffer<RawData> ring;
+
+	/** Sender threads waiting for messages in the ring. */
+	private final Object lock = new Object();
+	private final AtomicInteger waitingSenders = new AtomicInteger();
+
+	private final AtomicBoolean congested = new AtomicBoolean();
+	private final AtomicLong droppedMessages = new AtomicLong();
+	private volatile BackPressureListener backPressureListener;
+
+	private int capacity = Integer.MAX_VALUE;
+
+	/**
+	 * @param connector the connector, reported to the listener.
+	 * @param logger the logger of the connector.
+	 */
+	OutboundQueue(Connector connector, Logger logger) {
+		this.connector = connector;
+		this.logger = logger;
+	}
+
+	/**
+	 * Sets the capacity, applied when the queue is opened.
+	 *
+	 * @param capacity the maximum number of queued messages, rounded up to a
+	 *            power of two. {@link Integer#MAX_VALUE} for an unbounded
+	 *            queue, which is the default.
+	 */
+	void setCapacity(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("outbound capacity must be at least 1");
+		}
+		this.capacity = capacity;
+	}
+
+	int getCapacity() {
+		return capacity;
+	}
+
+	void setBackPressureListener(BackPressureListener listener) {
+		this.backPressureListener = listener;
+	}
+
+	/**
+	 * Creates the ring buffer, if a capacity is set. Called when the connector
+	 * starts.
+	 */
+	void open() {
+		if (capacity < Integer.MAX_VALUE) {
+			ring = new RingBuffer<RawData>(capacity);
+		}
+	}
+
+	/**
+	 * Drops the queued messages. Called when the connector stops.
+	 */
+	void close() {
+		unbounded.clear();
+		RingBuffer<RawData> current = ring;
+		if (current != null) {
+			current.clear();
+			ring = null;
+		}
+		congested.set(false);
+	}
+
+	/**
+	 * Queues a message, or drops it if the queue is full.
+	 */
+	void offer(RawData msg) {
+		RingBuffer<RawData> current = ring;
+		if (current == null) {
+			unbounded.add(msg);
+			return;
+		}
+
+		if (!current.offer(msg)) {
+			droppedMessages.incrementAndGet();
+			setCongested(true);
+			if (logger.isLoggable(Level.FINE)) {
+				logger.log(Level.FINE, "{0} ({1}) drops {2} bytes to {3}:{4}, outbound queue is full",
+						new Object[] { connector.getClass().getSimpleName(), connector.getAddress(), msg.getSize(),
+								msg.getAddress(), msg.getPort() });
+			}
+			msg.onError(new OutboundQueueFullException("outbound queue is full"));
+			return;
+		}
+		if (current.size() >= current.capacity() - current.capacity() / 4) {
+			setCongested(true);
+		}
+		if (waitingSenders.get() > 0) {
+			synchronized (lock) {
+				lock.notify();
+			}
+		}
+	}
+
+	/**
+	 * Takes the next messages, blocking until there is at least one.
+	 *
+	 * @param batch the array to fill. Only one message is taken at once from
+	 *            an unbounded queue.
+	 * @return the number of messages taken.
+	 * @throws InterruptedException if the thread is interrupted while waiting.
+	 */
+	int take(RawData[] batch) throws InterruptedException {
+		RingBuffer<RawData> current = ring;
+		if (current == null) {
+			batch[0] = unbounded.take(); // Blocking
+			return 1;
+		}
+
+		int count = current.drainTo(batch);
+		while (count == 0) {
+			awaitOutgoing(current);
+			count = current.drainTo(batch);
+		}
+		if (congested.get() && current.size() <= current.capacity() / 4) {
+			setCongested(false);
+		}
+		return count;
+	}
+
+	/**
+	 * Blocks until the ring buffer holds a message.
+	 */
+	private void awaitOutgoing(RingBuffer<RawData> current) throws InterruptedException {
+		synchronized (lock) {
+			// registered before checking the buffer, so that a message offered
+			// meanwhile always notifies this thread
+			waitingSenders.incrementAndGet();
+			try {
+				while (current.isEmpty()) {
+					lock.wait();
+				}
+			} finally {
+				waitingSenders.decrementAndGet();
+			}
+		}
+	}
+
+	private void setCongested(boolean state) {
+		if (congested.compareAndSet(!state, state)) {
+			if (state) {
+				logger.log(Level.WARNING, "{0} ({1}) outbound queue is congested",
+						new Object[] { connector.getClass().getSimpleName(), connector.getAddress() });
+			} else {
+				logger.log(Level.INFO, "{0} ({1}) outbound queue recovered",
+						new Object[] { connector.getClass().getSimpleName(), connector.getAddress() });
+			}
+			BackPressureListener listener = backPressureListener;
+			if (listener != null) {
+				listener.onBackPressure(connector, state);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of messages waiting to be sent.
+	 */
+	int size() {
+		RingBuffer<RawData> current = ring;
+		return current == null ? unbounded.size() : current.size();
+	}
+
+	/**
+	 * @return the number of messages dropped because the queue was full.
+	 */
+	long getDroppedMessageCount() {
+		return droppedMessages.get();
+	}
+
+	/**
+	 * @return <code>true</code> if the queue is filled above its high
+	 *         watermark and did not drain below its low watermark yet.
+	 */
+	boolean isCongested() {
+		return congested.get();
+	}
+}
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.elements;
+
+/**
+ * Exception indicating, that a message was dropped because the outbound queue
+ * of the connector is full.
+ */
+public class OutboundQueueFullException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Create new instance.
+	 */
+	public OutboundQueueFullException() {
+
+	}
+
+	/**
+	 * Create new instance with message.
+	 * 
+	 * @param message message
+	 */
+	public OutboundQueueFullException(String message) {
+		super(message);
+	}
+}
@@ -34,8 +34,6 @@ import java.net.URI;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -54,6 +52,14 @@ import java.util.logging.Logger;
  * 
  * The number of threads can be set through {@link #setReceiverThreadCount(int)}
  * and {@link #setSenderThreadCount(int)} before the connector is started.
+ * 
+ * By default, the outbound queue is unbounded. If a capacity is set through
+ * {@link #setOutboundCapacity(int)}, the messages are queued in a lock-free
+ * ring buffer and the sender threads take them in batches of up to
+ * {@link #setSenderBatchSize(int)} messages. Messages sent while the buffer is
+ * full are dropped and reported with an {@link OutboundQueueFullException},
+ * and a {@link BackPressureListener} is notified when the buffer fills up and
+ * drains again.
  */
 public class UDPConnector implements Connector {
 	private static final String SUPPORTED_SCHEME = "coap";
@@ -75,7 +81,7 @@ public class UDPConnector implements Connector {
 	private List<Thread> senderThreads;
 
 	/** The outbound message queue. */
-	private final BlockingQueue<RawData> outgoing;
+	private final OutboundQueue outgoing;
 
 	/**
 	 * Correlation context matcher for outgoing messages.
@@ -96,6 +102,8 @@ public class UDPConnector implements Connector {
 
 	private int receiverPacketSize = 2048;
 
+	private int senderBatchSize = 16;
+
 	/**
 	 * Creates a connector on the wildcard address listening on an
 	 * ephemeral port, i.e. a port chosen by the system.
@@ -121,8 +129,7 @@ public class UDPConnector implements Connector {
 		}
 		this.running = false;
 
-		//TODO: think about restricting the outbound queue's capacity
-		this.outgoing = new LinkedBlockingQueue<RawData>();
+		this.outgoing = new OutboundQueue(this, LOGGER);
 	}
 
 	@Override
@@ -147,6 +154,8 @@ public class UDPConnector implements Connector {
 		}
 		sendBufferSize = socket.getSendBufferSize();
 
+		outgoing.open();
+
 		// start receiver and sender threads
 		LOGGER.log(Level.CONFIG, "UDPConnector starts up {0} sender threads and {1} receiver threads",
 				new Object[]{senderCount, receiverCount});
@@ -207,7 +216,7 @@ public class UDPConnector implements Connector {
 			receiverThreads.clear();
 			receiverThreads = null;
 		}
-		outgoing.clear();
+		outgoing.close();
 		
 		String address = localAddr.toString();
 		if (socket != null) {
@@ -227,10 +236,9 @@ public class UDPConnector implements Connector {
 	public void send(RawData msg) {
 		if (msg == null) {
 			throw new NullPointerException("Message must not be null");
-		} else {
-			//回复消息-->14，将消息放入队列
-			outgoing.add(msg);
 		}
+		//回复消息-->14，将消息放入队列
+		outgoing.offer(msg);
 	}
 
 	@Override
@@ -313,8 +321,6 @@ public class UDPConnector implements Connector {
 			RawData msg = new RawData(bytes, datagram.getAddress(), datagram.getPort());
 			//接收消息-->1
 			receiver.receiveData(msg);
-			String s = new String(msg.bytes);
-			LOGGER.log(Level.INFO,"成功 接收到 消息");
 		}
 		
 	}
@@ -323,14 +329,23 @@ public class UDPConnector implements Connector {
 	private class Sender extends NetworkStageThread {
 
 		private DatagramPacket datagram;
+		private final RawData[] batch;
 
 		private Sender(String name) {
 			super(name);
 			this.datagram = new DatagramPacket(new byte[0], 0);
+			this.batch = new RawData[Math.max(1, senderBatchSize)];
 		}
 
 		protected void work() throws InterruptedException {
-			RawData raw = outgoing.take(); // Blocking
+			int count = outgoing.take(batch); // Blocking
+			for (int i = 0; i < count; i++) {
+				send(batch[i]);
+				batch[i] = null;
+			}
+		}
+
+		private void send(RawData raw) {
 			try {
 				/*
 				 * check, if message should be sent with the
@@ -355,7 +370,6 @@ public class UDPConnector implements Connector {
 				}
 				//回复消息-->15，从队列中取出消息并发送
 				socket.send(datagram);
-				System.out.println("成功 发送 消息");
 				raw.onSent();
 			} catch (IOException ex) {
 				raw.onError(ex);
@@ -403,6 +417,67 @@ public class UDPConnector implements Connector {
 		return receiverPacketSize;
 	}
 
+	/**
+	 * Sets the capacity of the outbound queue. Must be called before the
+	 * connector is started.
+	 * 
+	 * @param capacity the maximum number of queued messages, rounded up to a
+	 *            power of two. {@link Integer#MAX_VALUE} for an unbounded
+	 *            queue, which is the default.
+	 */
+	public void setOutboundCapacity(int capacity) {
+		outgoing.setCapacity(capacity);
+	}
+
+	public int getOutboundCapacity() {
+		return outgoing.getCapacity();
+	}
+
+	/**
+	 * Sets the maximum number of messages a sender thread takes at once from
+	 * a bounded outbound queue. Must be called before the connector is
+	 * started.
+	 * 
+	 * @param size the batch size.
+	 */
+	public void setSenderBatchSize(int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("sender batch size must be at least 1");
+		}
+		this.senderBatchSize = size;
+	}
+
+	public int getSenderBatchSize() {
+		return senderBatchSize;
+	}
+
+	public void setBackPressureListener(BackPressureListener listener) {
+		outgoing.setBackPressureListener(listener);
+	}
+
+	/**
+	 * @return the number of messages waiting to be sent.
+	 */
+	public int getOutboundQueueSize() {
+		return outgoing.size();
+	}
+
+	/**
+	 * @return the number of messages dropped because the outbound queue was
+	 *         full.
+	 */
+	public long getDroppedMessageCount() {
+		return outgoing.getDroppedMessageCount();
+	}
+
+	/**
+	 * @return <code>true</code> if the outbound queue is filled above its high
+	 *         watermark and did not drain below its low watermark yet.
+	 */
+	public boolean isCongested() {
+		return outgoing.isCongested();
+	}
+
 	@Override
 	public boolean isSchemeSupported(String scheme) {
 		return SUPPORTED_SCHEME.equals(scheme);
@@ -0,0 +1,386 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.elements.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.californium.elements.util.LeastRecentlyUsedCache.EvictionListener;
+import org.eclipse.californium.elements.util.LeastRecentlyUsedCache.Predicate;
+
+/**
+ * A thread safe variant of {@link LeastRecentlyUsedCache}.
+ * <p>
+ * The entries are spread over segments by the hash of their key, each segment
+ * being a {@code LeastRecentlyUsedCache} guarded by its own lock. Threads
+ * accessing keys of different segments therefore do not contend, while the
+ * capacity, expiration and eviction rules of {@code LeastRecentlyUsedCache}
+ * apply per segment. In particular, the least recently used order is kept
+ * per segment only: a new entry may evict a stale entry of its segment while
+ * an older one is kept in another segment, and a put may fail while other
+ * segments still have room. Small caches use a single segment and behave
+ * exactly like a {@code LeastRecentlyUsedCache}.
+ * <p>
+ * Eviction listeners are called while the segment of the evicted entry is
+ * locked, they must not access this cache for another key.
+ *
+ * @param <K> The type of the keys used in the cache.
+ * @param <V> The type of the values used in the cache.
+ */
+public class ConcurrentLeastRecentlyUsedCache<K, V> {
+
+	/**
+	 * The default maximum number of segments.
+	 */
+	public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+	/**
+	 * The minimum capacity of a segment. Caches with a lower capacity use
+	 * less segments, so that the unequal filling of the segments does not
+	 * noticeably reduce the capacity.
+	 */
+	private static final int MIN_SEGMENT_CAPACITY = 64;
+
+	private final LeastRecentlyUsedCache<K, V>[] segments;
+	private final int mask;
+	private volatile int capacity;
+
+	/**
+	 * Creates a cache with a maximum capacity of
+	 * {@link LeastRecentlyUsedCache#DEFAULT_CAPACITY} entries and an expiration
+	 * threshold of {@link LeastRecentlyUsedCache#DEFAULT_THRESHOLD_SECS}
+	 * seconds.
+	 */
+	public ConcurrentLeastRecentlyUsedCache() {
+		this(LeastRecentlyUsedCache.DEFAULT_CAPACITY, LeastRecentlyUsedCache.DEFAULT_THRESHOLD_SECS);
+	}
+
+	/**
+	 * Creates a cache based on given configuration parameters.
+	 * 
+	 * @param capacity the maximum number of entries the cache can manage
+	 * @param threshold the period of time of inactivity (in seconds) after which an
+	 *            entry is considered stale and can be evicted from the cache if
+	 *            a new entry is to be added to the cache
+	 */
+	public ConcurrentLeastRecentlyUsedCache(final int capacity, final long threshold) {
+		this(capacity, threshold, DEFAULT_CONCURRENCY_LEVEL);
+	}
+
+	/**
+	 * Creates a cache based on given configuration parameters.
+	 * 
+	 * @param capacity the maximum number of entries the cache can manage
+	 * @param threshold the period of time of inactivity (in seconds) after which an
+	 *            entry is considered stale and can be evicted from the cache if
+	 *            a new entry is to be added to the cache
+	 * @param concurrencyLevel the maximum number of segments, rounded down to a
+	 *            power of two
+	 */
+	public ConcurrentLeastRecentlyUsedCache(final int capacity, final long threshold, final int concurrencyLevel) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be at least 1");
+		} else if (concurrencyLevel < 1) {
+			throw new IllegalArgumentException("concurrency level must be at least 1");
+		}
+		int count = Integer.highestOneBit(concurrencyLevel);
+		while (count > 1 && capacity / count < MIN_SEGMENT_CAPACITY) {
+			count >>= 1;
+		}
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		LeastRecentlyUsedCache<K, V>[] segments = new LeastRecentlyUsedCache[count];
+		this.segments = segments;
+		this.mask = count - 1;
+		this.capacity = capacity;
+		for (int i = 0; i < count; i++) {
+			segments[i] = new LeastRecentlyUsedCache<>(segmentCapacity(capacity, i), threshold);
+		}
+	}
+
+	/**
+	 * Spreads the capacity over the segments, the first segments get one
+	 * more entry if it cannot be spread evenly.
+	 */
+	private int segmentCapacity(int capacity, int index) {
+		int count = segments.length;
+		return capacity / count + (index < capacity % count ? 1 : 0);
+	}
+
+	private LeastRecentlyUsedCache<K, V> segmentFor(Object key) {
+		if (key == null) {
+			return segments[0];
+		}
+		int hash = key.hashCode();
+		return segments[(hash ^ (hash >>> 16)) & mask];
+	}
+
+	/**
+	 * Registers a listener to be notified about (stale) entries being evicted from the cache.
+	 * 
+	 * @param listener the listener
+	 */
+	public void addEvictionListener(EvictionListener<V> listener) {
+		for (LeastRecentlyUsedCache<K, V> segment : segments) {
+			synchronized (segment) {
+				segment.addEvictionListener(listener);
+			}
+		}
+	}
+
+	/**
+	 * Gets the period of time after which an entry is considered <em>stale</em> if it hasn't be accessed.
+	 *  
+	 * @return the threshold in seconds
+	 */
+	public final long getExpirationThreshold() {
+		LeastRecentlyUsedCache<K, V> segment = segments[0];
+		synchronized (segment) {
+			return segment.getExpirationThreshold();
+		}
+	}
+
+	/**
+	 * Sets the period of time after which an entry is to be considered
+	 * stale if it hasn't be accessed.
+	 * 
+	 * @param newThreshold the threshold in seconds
+	 * @see LeastRecentlyUsedCache#setExpirationThreshold(long)
+	 */
+	public final void setExpirationThreshold(long newThreshold) {
+		for (LeastRecentlyUsedCache<K, V> segment : segments) {
+			synchronized (segment) {
+				segment.setExpirationThreshold(newThreshold);
+			}
+		}
+	}
+
+	/**
+	 * Gets the maximum number of entries this cache can manage.
+	 * 
+	 * @return the number of entries
+	 */
+	public final int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Sets the maximum number of entries this cache can manage.
+	 * 
+	 * @param capacity the maximum number of entries the cache can manage
+	 * @see LeastRecentlyUsedCache#setCapacity(int)
+	 */
+	public final void setCapacity(int capacity) {
+		this.capacity = capacity;
+		for (int i = 0; i < segments.length; i++) {
+			LeastRecentlyUsedCache<K, V> segment = segments[i];
+			synchronized (segment) {
+				segment.setCapacity(segmentCapacity(capacity, i));
+			}
+		}
+	}
+
+	/**
+	 * Gets the cache's current number of entries.
+	 * 
+	 * @return the size
+	 */
+	public final int size() {
+		int size = 0;
+		for (LeastRecentlyUsedCache<K, V> segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Gets the number of entries that can be added to this cache without
+	 * the need for removing stale entries.
+	 * 
+	 * @return The number of entries.
+	 */
+	public final int remainingCapacity() {
+		int remaining = 0;
+		for (LeastRecentlyUsedCache<K, V> segment : segments) {
+			synchronized (segment) {
+				remaining += segment.remainingCapacity();
+			}
+		}
+		return remaining;
+	}
+
+	/**
+	 * Removes all entries from the cache.
+	 */
+	public final void clear() {
+		for (LeastRecentlyUsedCache<K, V> segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * Puts an entry to the cache.
+	 * 
+	 * @param key the key to store the value under
+	 * @param value the value to store
+	 * @return <code>true</code> if the entry could be added to the
+	 * cache, <code>false</code> otherwise
+	 * @see LeastRecentlyUsedCache#put(Object, Object)
+	 */
+	public final boolean put(K key, V value) {
+		LeastRecentlyUsedCache<K, V> segment = segmentFor(key);
+		synchronized (segment) {
+			return segment.put(key, value);
+		}
+	}
+
+	/**
+	 * Puts an entry to the cache, unless the cache already contains the key.
+	 * 
+	 * @param key the key to store the value under
+	 * @param value the value to store
+	 * @return the value already stored under the key, or <code>null</code> if
+	 *         there was none, whether the value could be added or not
+	 * @see #put(Object, Object)
+	 */
+	public final V putIfAbsent(K key, V value) {
+		LeastRecentlyUsedCache<K, V> segment = segmentFor(key);
+		synchronized (segment) {
+			V existing = segment.get(key);
+			if (existing == null) {
+				segment.put(key, value);
+			}
+			return existing;
+		}
+	}
+
+	/**
+	 * Gets a value from the cache.
+	 * 
+	 * @param key the key to look up in the cache
+	 * @return the value if the key has been found in the cache and the value is
+	 *           not stale, <code>null</code> otherwise
+	 * @see LeastRecentlyUsedCache#get(Object)
+	 */
+	public final V get(K key) {
+		if (key == null) {
+			return null;
+		}
+		LeastRecentlyUsedCache<K, V> segment = segmentFor(key);
+		synchronized (segment) {
+			return segment.get(key);
+		}
+	}
+
+	/**
+	 * Removes an entry from the cache.
+	 * 
+	 * @param key the key of the entry to remove
+	 * @return the removed value or <code>null</code> if the cache does not
+	 *            contain the key
+	 */
+	public final V remove(K key) {
+		if (key == null) {
+			return null;
+		}
+		LeastRecentlyUsedCache<K, V> segment = segmentFor(key);
+		synchronized (segment) {
+			return segment.remove(key);
+		}
+	}
+
+	/**
+	 * Finds a value based on a predicate.
+	 * <p>
+	 * The segments are searched one after the other, the predicate is
+	 * evaluated while the searched segment is locked.
+	 * 
+	 * @param predicate the condition to match
+	 * @return the first value from the cache that matches according to the given
+	 *          predicate or <code>null</code> if no value matches
+	 */
+	public final V find(Predicate<V> predicate) {
+		if (predicate != null) {
+			for (LeastRecentlyUsedCache<K, V> segment : segments) {
+				V value;
+				synchronized (segment) {
+					value = segment.find(predicate);
+				}
+				if (value != null) {
+					return value;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets all values contained in this cache.
+	 * <p>
+	 * Unlike {@link LeastRecentlyUsedCache#values()}, the iterator works on a
+	 * copy of the values of each segment taken when the iteration reaches the
+	 * segment, so the cache can be modified during the iteration.
+	 * </p>
+	 * <p>
+	 * Removal of values from the iterator is unsupported.
+	 * </p>
+	 *  
+	 * @return an iterator over all values.
+	 */
+	public final Iterator<V> values() {
+		return new Iterator<V>() {
+
+			private int next = 0;
+			private Iterator<V> current = nextSegment();
+
+			private Iterator<V> nextSegment() {
+				List<V> copy = new ArrayList<>();
+				while (copy.isEmpty() && next < segments.length) {
+					LeastRecentlyUsedCache<K, V> segment = segments[next++];
+					synchronized (segment) {
+						for (Iterator<V> values = segment.values(); values.hasNext();) {
+							copy.add(values.next());
+						}
+					}
+				}
+				return copy.iterator();
+			}
+
+			@Override
+			public boolean hasNext() {
+				if (!current.hasNext() && next < segments.length) {
+					current = nextSegment();
+				}
+				return current.hasNext();
+			}
+
+			@Override
+			public V next() {
+				hasNext();
+				return current.next();
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+}
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.elements.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free queue backed by a ring buffer.
+ * <p>
+ * Any number of threads may offer and poll elements concurrently. Each slot
+ * of the ring carries a sequence number telling whether it is free for the
+ * producer of a given position or filled for the consumer of that position,
+ * so producers and consumers only contend on a compare-and-set of their own
+ * index. The capacity is rounded up to the next power of two.
+ *
+ * @param <E> the type of the elements.
+ */
+public final class RingBuffer<E> {
+
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private final int mask;
+	private final AtomicReferenceArray<E> elements;
+	private final AtomicLongArray sequences;
+	/** The position of the next element to poll. */
+	private final AtomicLong head = new AtomicLong();
+	/** The position of the next element to offer. */
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * Creates a ring buffer.
+	 *
+	 * @param capacity the minimum number of elements the buffer can hold.
+	 * @throws IllegalArgumentException if capacity is less than 1 or more
+	 *             than 2^30.
+	 */
+	public RingBuffer(int capacity) {
+		if (capacity < 1 || capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("capacity must be in range [1, 2^30]");
+		}
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) {
+			size <<= 1;
+		}
+		this.mask = size - 1;
+		this.elements = new AtomicReferenceArray<E>(size);
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	/**
+	 * Adds an element at the end of the buffer, if there is room for it.
+	 *
+	 * @param element the element to add.
+	 * @return <code>true</code> if the element was added,
+	 *         <code>false</code> if the buffer is full.
+	 * @throws NullPointerException if element is <code>null</code>.
+	 */
+	public boolean offer(E element) {
+		if (element == null) {
+			throw new NullPointerException("element must not be null");
+		}
+		long position = tail.get();
+		while (true) {
+			int index = (int) position & mask;
+			long available = sequences.get(index) - position;
+			if (available == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					elements.lazySet(index, element);
+					// publishes the element to the consumer of this position
+					sequences.set(index, position + 1);
+					return true;
+				}
+			} else if (available < 0) {
+				// the slot still holds the element of the previous round
+				return false;
+			}
+			position = tail.get();
+		}
+	}
+
+	/**
+	 * Removes the element at the head of the buffer.
+	 *
+	 * @return the element, or <code>null</code> if the buffer is empty.
+	 */
+	public E poll() {
+		long position = head.get();
+		while (true) {
+			int index = (int) position & mask;
+			long available = sequences.get(index) - (position + 1);
+			if (available == 0) {
+				if (head.compareAndSet(position, position + 1)) {
+					E element = elements.get(index);
+					elements.lazySet(index, null);
+					// frees the slot for the producer of the next round
+					sequences.set(index, position + mask + 1);
+					return element;
+				}
+			} else if (available < 0) {
+				return null;
+			}
+			position = head.get();
+		}
+	}
+
+	/**
+	 * Removes up to <code>batch.length</code> elements from the head of the
+	 * buffer.
+	 *
+	 * @param batch the array to fill, starting at index 0.
+	 * @return the number of elements removed.
+	 */
+	public int drainTo(E[] batch) {
+		int count = 0;
+		while (count < batch.length) {
+			E element = poll();
+			if (element == null) {
+				break;
+			}
+			batch[count++] = element;
+		}
+		return count;
+	}
+
+	/**
+	 * Removes all the elements.
+	 */
+	public void clear() {
+		while (poll() != null) {
+			// drop
+		}
+	}
+
+	/**
+	 * Gets the number of elements in the buffer. The value is only an estimate
+	 * while other threads offer or poll elements.
+	 *
+	 * @return the number of elements.
+	 */
+	public int size() {
+		long size = tail.get() - head.get();
+		if (size < 0) {
+			return 0;
+		}
+		return (int) Math.min(size, capacity());
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public int capacity() {
+		return mask + 1;
+	}
+}
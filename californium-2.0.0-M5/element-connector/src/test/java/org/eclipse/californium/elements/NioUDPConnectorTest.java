@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.elements;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NioUDPConnectorTest {
+
+	private static final int TIMEOUT_MILLIS = 2000;
+
+	NioUDPConnector connector;
+	BlockingQueue<RawData> received;
+	Set<String> receiverThreads;
+	DatagramSocket client;
+
+	@Before
+	public void setup() throws IOException {
+		received = new LinkedBlockingQueue<RawData>();
+		receiverThreads = new HashSet<String>();
+		connector = new NioUDPConnector(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		connector.setRawDataReceiver(new RawDataChannel() {
+
+			@Override
+			public void receiveData(RawData raw) {
+				synchronized (receiverThreads) {
+					receiverThreads.add(Thread.currentThread().getName());
+				}
+				received.add(raw);
+			}
+		});
+		client = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		client.setSoTimeout(TIMEOUT_MILLIS);
+	}
+
+	@After
+	public void stop() {
+		connector.destroy();
+		client.close();
+	}
+
+	@Test
+	public void testSendAndReceiveRoundTrip() throws Exception {
+		connector.start();
+
+		assertRoundTrip(client);
+	}
+
+	@Test
+	public void testMultipleSocketsShareThePort() throws Exception {
+		connector.setSocketCount(4);
+		connector.start();
+
+		DatagramSocket[] clients = new DatagramSocket[32];
+		try {
+			for (int i = 0; i < clients.length; i++) {
+				clients[i] = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+				send(clients[i], new byte[] { (byte) i });
+			}
+			Set<Integer> ports = new HashSet<Integer>();
+			for (int i = 0; i < clients.length; i++) {
+				RawData raw = received.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+				assertNotNull("datagram " + i + " not received", raw);
+				ports.add(raw.getPort());
+			}
+			assertThat(ports.size(), is(clients.length));
+		} finally {
+			for (DatagramSocket socket : clients) {
+				if (socket != null) {
+					socket.close();
+				}
+			}
+		}
+
+		if (isReusePortSupported()) {
+			// the kernel spreads the sources over the sockets, each socket has
+			// its own receiver thread
+			assertTrue("all datagrams received by " + receiverThreads, receiverThreads.size() > 1);
+		} else {
+			// falls back to a single socket and receiver thread
+			assertThat(receiverThreads.size(), is(1));
+		}
+	}
+
+	@Test
+	public void testStopAndStartAgain() throws Exception {
+		connector.setOutboundCapacity(16);
+		connector.start();
+		assertRoundTrip(client);
+
+		connector.stop();
+		assertThat(connector.getOutboundQueueSize(), is(0));
+		assertFalse(connector.isCongested());
+
+		connector.start();
+		assertRoundTrip(client);
+	}
+
+	private void assertRoundTrip(DatagramSocket socket) throws Exception {
+		byte[] request = { 1, 2, 3 };
+		send(socket, request);
+
+		RawData inbound = received.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+		assertNotNull("request not received", inbound);
+		assertTrue(Arrays.equals(inbound.getBytes(), request));
+		assertThat(inbound.getInetSocketAddress(), is(socket.getLocalSocketAddress()));
+
+		byte[] response = { 4, 5, 6, 7 };
+		connector.send(RawData.outbound(response, inbound.getInetSocketAddress(), null, null, false));
+
+		DatagramPacket packet = new DatagramPacket(new byte[16], 16);
+		socket.receive(packet);
+		assertTrue(Arrays.equals(Arrays.copyOf(packet.getData(), packet.getLength()), response));
+		assertThat(packet.getSocketAddress(), is((Object) connector.getAddress()));
+	}
+
+	private void send(DatagramSocket socket, byte[] data) throws IOException {
+		socket.send(new DatagramPacket(data, data.length, connector.getAddress()));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static boolean isReusePortSupported() {
+		try {
+			Field field = StandardSocketOptions.class.getField("SO_REUSEPORT");
+			SocketOption<Boolean> option = (SocketOption<Boolean>) field.get(null);
+			try (DatagramChannel channel = DatagramChannel.open()) {
+				return channel.supportedOptions().contains(option);
+			}
+		} catch (Exception e) {
+			return false;
+		}
+	}
+}
@@ -14,6 +14,7 @@
  *    Bosch Software Innovations - initial creation
  *    Achim Kraus (Bosch Software Innovations GmbH) - add test for
  *                                                    CorrelationContextMatcher
+ *    Adups - add test for the bounded outbound queue
  ******************************************************************************/
 package org.eclipse.californium.elements;
 
@@ -22,10 +23,17 @@ import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
 import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.californium.elements.tcp.SimpleMessageCallback;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -70,6 +78,85 @@ public class UDPConnectorTest {
 		assertThat(matcher.getMessageCorrelationContext(), is(sameInstance(context)));
 	}
 
+	@Test
+	public void testFullOutboundQueueDropsMessagesAndReportsBackPressure() throws Exception {
+		final List<Boolean> backPressure = new CopyOnWriteArrayList<Boolean>();
+		BlockingCorrelationContextMatcher blockingMatcher = new BlockingCorrelationContextMatcher();
+		connector.destroy();
+		connector = new UDPConnector(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		connector.setOutboundCapacity(8);
+		connector.setSenderBatchSize(1);
+		connector.setCorrelationContextMatcher(blockingMatcher);
+		connector.setBackPressureListener(new BackPressureListener() {
+
+			@Override
+			public void onBackPressure(Connector connector, boolean congested) {
+				backPressure.add(congested);
+			}
+		});
+		connector.start();
+
+		DatagramSocket peer = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		peer.setSoTimeout(2000);
+		try {
+			InetSocketAddress dest = (InetSocketAddress) peer.getLocalSocketAddress();
+			// the sender takes the first message and blocks in the matcher
+			connector.send(RawData.outbound(new byte[] { 0 }, dest, null, null, false));
+			assertTrue(blockingMatcher.sending.await(2, TimeUnit.SECONDS));
+
+			for (int i = 1; i <= 8; i++) {
+				connector.send(RawData.outbound(new byte[] { (byte) i }, dest, null, null, false));
+			}
+			assertThat(connector.getOutboundQueueSize(), is(8));
+			assertTrue(connector.isCongested());
+			assertThat(backPressure, is((List<Boolean>) Arrays.asList(true)));
+
+			SimpleMessageCallback callback = new SimpleMessageCallback();
+			connector.send(RawData.outbound(new byte[] { 9 }, dest, null, callback, false));
+			assertThat(callback.getError(), is(instanceOf(OutboundQueueFullException.class)));
+			assertThat(connector.getDroppedMessageCount(), is(1L));
+			assertThat(connector.getOutboundQueueSize(), is(8));
+
+			blockingMatcher.release.countDown();
+			DatagramPacket datagram = new DatagramPacket(new byte[1], 1);
+			for (int i = 0; i <= 8; i++) {
+				peer.receive(datagram);
+				assertThat(datagram.getData()[0], is((byte) i));
+			}
+			assertFalse(connector.isCongested());
+			assertThat(backPressure, is((List<Boolean>) Arrays.asList(true, false)));
+			assertThat(connector.getOutboundQueueSize(), is(0));
+		} finally {
+			peer.close();
+		}
+	}
+
+	private static class BlockingCorrelationContextMatcher implements CorrelationContextMatcher {
+
+		private final CountDownLatch sending = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		@Override
+		public String getName() {
+			return "blocking test-only";
+		}
+
+		@Override
+		public boolean isResponseRelatedToRequest(CorrelationContext requestContext, CorrelationContext responseContext) {
+			return false;
+		}
+
+		@Override
+		public boolean isToBeSent(CorrelationContext messageContext, CorrelationContext connectorContext) {
+			sending.countDown();
+			try {
+				return release.await(2, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				return false;
+			}
+		}
+	}
+
 	private static class TestCorrelationContextMatcher implements CorrelationContextMatcher {
 
 		private final CountDownLatch latchSendMatcher;
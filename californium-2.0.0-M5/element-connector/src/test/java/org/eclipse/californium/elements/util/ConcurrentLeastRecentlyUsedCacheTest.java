@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * 
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ * 
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.elements.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.californium.elements.util.LeastRecentlyUsedCache.EvictionListener;
+import org.junit.Test;
+
+/**
+ * Verifies behavior of {@code ConcurrentLeastRecentlyUsedCache}.
+ *
+ */
+public class ConcurrentLeastRecentlyUsedCacheTest {
+
+	ConcurrentLeastRecentlyUsedCache<Integer, String> cache;
+
+	@Test
+	public void testSmallCacheBehavesLikeLeastRecentlyUsedCache() {
+		int capacity = 10;
+
+		givenACacheWithEntries(capacity, 10L, capacity);
+		assertThat(cache.remainingCapacity(), is(0));
+		assertFalse(cache.put(50, "50"));
+		assertNull(cache.get(50));
+
+		cache.remove(0);
+		assertThat(cache.remainingCapacity(), is(1));
+		assertTrue(cache.put(50, "50"));
+		assertNotNull(cache.get(50));
+	}
+
+	@Test
+	public void testContinuousEvictionSpreadOverSegments() {
+		int capacity = 1000;
+
+		givenACacheWithEntries(capacity, 0L, 0);
+		final AtomicInteger evicted = new AtomicInteger(0);
+		cache.addEvictionListener(new EvictionListener<String>() {
+
+			@Override
+			public void onEviction(String evictedValue) {
+				evicted.incrementAndGet();
+			}
+		});
+
+		int noOfEntries = 10000;
+		for (int i = 0; i < noOfEntries; i++) {
+			assertTrue(cache.put(i, String.valueOf(i)));
+		}
+		assertThat(cache.size(), is(capacity));
+		assertThat(evicted.get(), is(noOfEntries - capacity));
+		assertThat(cache.remainingCapacity(), is(0));
+	}
+
+	@Test
+	public void testPutIfAbsentKeepsExistingValue() {
+		givenACacheWithEntries(100, 10L, 10);
+
+		assertThat(cache.putIfAbsent(5, "other"), is("5"));
+		assertThat(cache.get(5), is("5"));
+		assertNull(cache.putIfAbsent(500, "500"));
+		assertThat(cache.get(500), is("500"));
+	}
+
+	@Test
+	public void testFindAndValuesVisitAllSegments() {
+		int noOfEntries = 500;
+		givenACacheWithEntries(1000, 10L, noOfEntries);
+
+		assertThat(cache.find(new LeastRecentlyUsedCache.Predicate<String>() {
+
+			@Override
+			public boolean accept(String value) {
+				return value.equals("499");
+			}
+		}), is("499"));
+
+		int count = 0;
+		for (Iterator<String> values = cache.values(); values.hasNext();) {
+			values.next();
+			count++;
+		}
+		assertThat(count, is(noOfEntries));
+	}
+
+	private void givenACacheWithEntries(int capacity, long expirationThreshold, int noOfEntries) {
+		cache = new ConcurrentLeastRecentlyUsedCache<>(capacity, expirationThreshold);
+
+		for (int i = 0; i < noOfEntries; i++) {
+			cache.put(i, String.valueOf(i));
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *    Adups - initial creation
+ ******************************************************************************/
+package org.eclipse.californium.elements.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Verifies behavior of {@code RingBuffer}.
+ *
+ */
+public class RingBufferTest {
+
+	@Test
+	public void testCapacityIsRoundedUpToPowerOfTwo() {
+		assertThat(new RingBuffer<Integer>(1).capacity(), is(1));
+		assertThat(new RingBuffer<Integer>(5).capacity(), is(8));
+		assertThat(new RingBuffer<Integer>(16).capacity(), is(16));
+	}
+
+	@Test
+	public void testOfferFailsIfFull() {
+		RingBuffer<Integer> buffer = new RingBuffer<Integer>(4);
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offer(i));
+		}
+		assertFalse(buffer.offer(4));
+		assertThat(buffer.size(), is(4));
+
+		assertThat(buffer.poll(), is(0));
+		assertTrue(buffer.offer(4));
+	}
+
+	@Test
+	public void testPollKeepsOrderAcrossRounds() {
+		RingBuffer<Integer> buffer = new RingBuffer<Integer>(4);
+		for (int i = 0; i < 10; i++) {
+			assertTrue(buffer.offer(i));
+			assertTrue(buffer.offer(i + 100));
+			assertThat(buffer.poll(), is(i));
+			assertThat(buffer.poll(), is(i + 100));
+		}
+		assertNull(buffer.poll());
+		assertTrue(buffer.isEmpty());
+	}
+
+	@Test
+	public void testDrainToLimitsBatch() {
+		RingBuffer<Integer> buffer = new RingBuffer<Integer>(8);
+		for (int i = 0; i < 5; i++) {
+			buffer.offer(i);
+		}
+		Integer[] batch = new Integer[3];
+		assertThat(buffer.drainTo(batch), is(3));
+		assertThat(batch[2], is(2));
+		assertThat(buffer.drainTo(batch), is(2));
+		assertThat(batch[0], is(3));
+		assertThat(buffer.drainTo(batch), is(0));
+	}
+
+	@Test
+	public void testConcurrentProducersAndConsumers() throws InterruptedException {
+		final int producers = 4;
+		final int perProducer = 20000;
+		final RingBuffer<Integer> buffer = new RingBuffer<Integer>(64);
+		final AtomicLong sum = new AtomicLong();
+		final AtomicLong received = new AtomicLong();
+		final CountDownLatch done = new CountDownLatch(producers + 2);
+
+		for (int p = 0; p < producers; p++) {
+			new Thread() {
+
+				@Override
+				public void run() {
+					for (int i = 1; i <= perProducer; i++) {
+						while (!buffer.offer(i)) {
+							Thread.yield();
+						}
+					}
+					done.countDown();
+				}
+			}.start();
+		}
+		for (int c = 0; c < 2; c++) {
+			new Thread() {
+
+				@Override
+				public void run() {
+					while (received.get() < producers * perProducer) {
+						Integer value = buffer.poll();
+						if (value == null) {
+							Thread.yield();
+						} else {
+							sum.addAndGet(value);
+							received.incrementAndGet();
+						}
+					}
+					done.countDown();
+				}
+			}.start();
+		}
+
+		done.await();
+		assertThat(received.get(), is((long) producers * perProducer));
+		assertThat(sum.get(), is((long) producers * perProducer * (perProducer + 1) / 2));
+		assertTrue(buffer.isEmpty());
+	}
+}
@@ -22,6 +22,7 @@ import java.util.Iterator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.eclipse.californium.elements.util.ConcurrentLeastRecentlyUsedCache;
 import org.eclipse.californium.elements.util.LeastRecentlyUsedCache;
 import org.eclipse.californium.elements.util.LeastRecentlyUsedCache.Predicate;
 
@@ -46,10 +47,10 @@ import org.eclipse.californium.elements.util.LeastRecentlyUsedCache.Predicate;
  * place for the new connection to be added.</li>
  * </ul>
  * <p>
- * This implementation uses a <code>java.util.HashMap</code> with
- * a connection's peer address as key as its backing store.
- * In addition to that the store keeps a doubly-linked list of the
- * connections in access-time order.
+ * This implementation uses a {@link ConcurrentLeastRecentlyUsedCache} with
+ * a connection's peer address as key as its backing store. The least recently
+ * used order is kept per segment of the cache, so that the DTLS handler threads
+ * accessing connections of different peers do not contend on a single lock.
  * </p>
  * <p>
  * Insertion, lookup and removal of connections is done in
@@ -64,7 +65,7 @@ public final class InMemoryConnectionStore implements ResumptionSupportingConnec
 	private static final Logger LOG = Logger.getLogger(InMemoryConnectionStore.class.getName());
 	private static final int DEFAULT_CACHE_SIZE = 150000;
 	private static final long DEFAULT_EXPIRATION_THRESHOLD = 36 * 60 * 60; // 36h
-	private LeastRecentlyUsedCache<InetSocketAddress, Connection> connections;
+	private ConcurrentLeastRecentlyUsedCache<InetSocketAddress, Connection> connections;
 	private SessionCache sessionCache;
 
 	/**
@@ -109,7 +110,7 @@ public final class InMemoryConnectionStore implements ResumptionSupportingConnec
 	 *                     connection state of established DTLS sessions.
 	 */
 	public InMemoryConnectionStore(final int capacity, final long threshold, final SessionCache sessionCache) {
-		connections = new LeastRecentlyUsedCache<>(capacity, threshold);
+		connections = new ConcurrentLeastRecentlyUsedCache<>(capacity, threshold);
 		this.sessionCache = sessionCache;
 
 		if (sessionCache != null) {
@@ -147,7 +148,7 @@ public final class InMemoryConnectionStore implements ResumptionSupportingConnec
 	 *         remaining capacity is zero and no stale connection can be evicted
 	 */
 	@Override
-	public synchronized boolean put(final Connection connection) {
+	public boolean put(final Connection connection) {
 
 		if (connection != null) {
 			return connections.put(connection.getPeerAddress(), connection);
@@ -157,7 +158,7 @@ public final class InMemoryConnectionStore implements ResumptionSupportingConnec
 	}
 
 	@Override
-	public synchronized Connection find(final SessionId id) {
+	public Connection find(final SessionId id) {
 
 		if (id == null) {
 			return null;
@@ -198,7 +199,7 @@ public final class InMemoryConnectionStore implements ResumptionSupportingConnec
 		}
 	}
 
-	private synchronized Connection findLocally(final SessionId id) {
+	private Connection findLocally(final SessionId id) {
 
 		return connections.find(new Predicate<Connection>() {
 			@Override
@@ -210,7 +211,7 @@ public final class InMemoryConnectionStore implements ResumptionSupportingConnec
 	}
 
 	@Override
-	public synchronized void markAllAsResumptionRequired() {
+	public void markAllAsResumptionRequired() {
 		for (Iterator<Connection> iterator = connections.values(); iterator.hasNext(); ) {
 			Connection c = iterator.next();
 			if (c != null){
@@ -220,30 +221,30 @@ public final class InMemoryConnectionStore implements ResumptionSupportingConnec
 	}
 
 	@Override
-	public synchronized int remainingCapacity() {
+	public int remainingCapacity() {
 		return connections.remainingCapacity();
 	}
 
 	@Override
-	public synchronized Connection get(final InetSocketAddress peerAddress) {
+	public Connection get(final InetSocketAddress peerAddress) {
 		return connections.get(peerAddress);
 	}
 
 	@Override
-	public synchronized Connection remove(final InetSocketAddress peerAddress) {
+	public Connection remove(final InetSocketAddress peerAddress) {
 		Connection removedConnection = connections.remove(peerAddress);
 		removeSessionFromCache(removedConnection);
 		return removedConnection;
 	}
 
-	private synchronized void removeSessionFromCache(final Connection connection) {
-		if (sessionCache != null && connection.hasEstablishedSession()) {
+	private void removeSessionFromCache(final Connection connection) {
+		if (sessionCache != null && connection != null && connection.hasEstablishedSession()) {
 			sessionCache.remove(connection.getEstablishedSession().getSessionIdentifier());
 		}
 	}
 
 	@Override
-	public final synchronized void clear() {
+	public final void clear() {
 		connections.clear();
 		// TODO: does it make sense to clear the SessionCache as well?
 	}
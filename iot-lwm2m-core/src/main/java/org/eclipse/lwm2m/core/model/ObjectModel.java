@@ -63,6 +63,52 @@ public class ObjectModel {
         this.resources = Collections.unmodifiableMap(resourcesMap);
     }
 
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + id;
+        result = prime * result + ((name == null) ? 0 : name.hashCode());
+        result = prime * result + ((description == null) ? 0 : description.hashCode());
+        result = prime * result + (multiple ? 1231 : 1237);
+        result = prime * result + (mandatory ? 1231 : 1237);
+        result = prime * result + ((resources == null) ? 0 : resources.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        ObjectModel other = (ObjectModel) obj;
+        if (id != other.id)
+            return false;
+        if (name == null) {
+            if (other.name != null)
+                return false;
+        } else if (!name.equals(other.name))
+            return false;
+        if (description == null) {
+            if (other.description != null)
+                return false;
+        } else if (!description.equals(other.description))
+            return false;
+        if (multiple != other.multiple)
+            return false;
+        if (mandatory != other.mandatory)
+            return false;
+        if (resources == null) {
+            if (other.resources != null)
+                return false;
+        } else if (!resources.equals(other.resources))
+            return false;
+        return true;
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
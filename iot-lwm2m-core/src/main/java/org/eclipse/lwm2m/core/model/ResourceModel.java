@@ -63,6 +63,64 @@ public class ResourceModel {
         this.description = description;
     }
 
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + id;
+        result = prime * result + ((name == null) ? 0 : name.hashCode());
+        result = prime * result + ((operations == null) ? 0 : operations.hashCode());
+        result = prime * result + (multiple ? 1231 : 1237);
+        result = prime * result + (mandatory ? 1231 : 1237);
+        result = prime * result + ((type == null) ? 0 : type.hashCode());
+        result = prime * result + ((rangeEnumeration == null) ? 0 : rangeEnumeration.hashCode());
+        result = prime * result + ((units == null) ? 0 : units.hashCode());
+        result = prime * result + ((description == null) ? 0 : description.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        ResourceModel other = (ResourceModel) obj;
+        if (id != other.id)
+            return false;
+        if (name == null) {
+            if (other.name != null)
+                return false;
+        } else if (!name.equals(other.name))
+            return false;
+        if (operations != other.operations)
+            return false;
+        if (multiple != other.multiple)
+            return false;
+        if (mandatory != other.mandatory)
+            return false;
+        if (type != other.type)
+            return false;
+        if (rangeEnumeration == null) {
+            if (other.rangeEnumeration != null)
+                return false;
+        } else if (!rangeEnumeration.equals(other.rangeEnumeration))
+            return false;
+        if (units == null) {
+            if (other.units != null)
+                return false;
+        } else if (!units.equals(other.units))
+            return false;
+        if (description == null) {
+            if (other.description != null)
+                return false;
+        } else if (!description.equals(other.description))
+            return false;
+        return true;
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
@@ -33,62 +33,74 @@ import org.eclipse.lwm2m.core.node.LwM2mPath;
 import org.eclipse.lwm2m.core.node.LwM2mResource;
 import org.eclipse.lwm2m.core.node.LwM2mSingleResource;
 import org.eclipse.lwm2m.core.node.codec.CodecException;
-import org.eclipse.lwm2m.tlv.Tlv;
 import org.eclipse.lwm2m.tlv.Tlv.TlvType;
-import org.eclipse.lwm2m.tlv.TlvDecoder;
 import org.eclipse.lwm2m.tlv.TlvException;
+import org.eclipse.lwm2m.tlv.TlvReader;
 import org.eclipse.lwm2m.util.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Decodes TLV content into {@link LwM2mNode}s.
+ * <p>
+ * The TLVs are read with a {@link TlvReader}, straight from the content: no intermediate TLV tree is built and the
+ * values are not copied before being decoded.
+ */
 public class LwM2mNodeTlvDecoder {
 
     private static final Logger LOG = LoggerFactory.getLogger(LwM2mNodeTlvDecoder.class);
 
     public static <T extends LwM2mNode> T decode(byte[] content, LwM2mPath path, LwM2mModel model, Class<T> nodeClass)
             throws CodecException {
+        return decode(ByteBuffer.wrap(content != null ? content : new byte[0]), path, model, nodeClass);
+    }
+
+    /**
+     * Decodes the content between the position and the limit of the buffer, the buffer itself is not modified.
+     */
+    public static <T extends LwM2mNode> T decode(ByteBuffer content, LwM2mPath path, LwM2mModel model,
+            Class<T> nodeClass) throws CodecException {
         try {
-            Tlv[] tlvs = TlvDecoder.decode(ByteBuffer.wrap(content != null ? content : new byte[0]));
-            return parseTlv(tlvs, path, model, nodeClass);
+            return parseTlv(new TlvReader(content), path, model, nodeClass);
         } catch (TlvException e) {
             throw new CodecException(String.format("Unable to decode tlv for path [%s]", path), e);
         }
     }
 
     @SuppressWarnings("unchecked")
-    private static <T extends LwM2mNode> T parseTlv(Tlv[] tlvs, LwM2mPath path, LwM2mModel model, Class<T> nodeClass)
-            throws CodecException {
-        LOG.trace("Parsing TLV content for path {}: {}", path, tlvs);
+    private static <T extends LwM2mNode> T parseTlv(TlvReader tlvs, LwM2mPath path, LwM2mModel model,
+            Class<T> nodeClass) throws CodecException, TlvException {
+        LOG.trace("Parsing TLV content for path {}", path);
+        boolean empty = !tlvs.next();
 
         // Object
         if (nodeClass == LwM2mObject.class) {
             List<LwM2mObjectInstance> instances = new ArrayList<>();
 
             // is it an array of TLV resources?
-            if (tlvs.length > 0 && //
-                    (tlvs[0].getType() == TlvType.MULTIPLE_RESOURCE || tlvs[0].getType() == TlvType.RESOURCE_VALUE)) {
+            if (!empty && //
+                    (tlvs.getType() == TlvType.MULTIPLE_RESOURCE || tlvs.getType() == TlvType.RESOURCE_VALUE)) {
 
                 ObjectModel oModel = model.getObjectModel(path.getObjectId());
                 if (oModel == null) {
                     LOG.warn("No model for object {}. The tlv is decoded assuming this is a single instance object",
                             path.getObjectId());
-                    instances.add(parseObjectInstanceTlv(tlvs, path.getObjectId(), 0, model));
-                } else if (!oModel.multiple) {
-                    instances.add(parseObjectInstanceTlv(tlvs, path.getObjectId(), 0, model));
-                } else {
+                } else if (oModel.multiple) {
                     throw new CodecException("Object instance TLV is mandatory for multiple instances object [path:%s]",
                             path);
                 }
+                tlvs.rewind();
+                instances.add(parseObjectInstanceTlv(tlvs, path.getObjectId(), 0, model));
 
-            } else {
-                for (Tlv tlv : tlvs) {
-                    if (tlv.getType() != TlvType.OBJECT_INSTANCE)
+            } else if (!empty) {
+                do {
+                    if (tlvs.getType() != TlvType.OBJECT_INSTANCE)
                         throw new CodecException("Expected TLV of type OBJECT_INSTANCE but was %s  [path:%s]",
-                                tlv.getType().name(), path);
+                                tlvs.getType().name(), path);
 
                     instances.add(
-                            parseObjectInstanceTlv(tlv.getChildren(), path.getObjectId(), tlv.getIdentifier(), model));
-                }
+                            parseObjectInstanceTlv(tlvs.children(), path.getObjectId(), tlvs.getIdentifier(), model));
+                } while (tlvs.next());
             }
             return (T) new LwM2mObject(path.getObjectId(), instances);
         }
@@ -96,14 +108,13 @@ public class LwM2mNodeTlvDecoder {
         // Object instance
         else if (nodeClass == LwM2mObjectInstance.class) {
 
-            if (tlvs.length == 1 && tlvs[0].getType() == TlvType.OBJECT_INSTANCE) {
-                if (path.isObjectInstance() && tlvs[0].getIdentifier() != path.getObjectInstanceId()) {
+            if (!empty && !tlvs.hasNext() && tlvs.getType() == TlvType.OBJECT_INSTANCE) {
+                if (path.isObjectInstance() && tlvs.getIdentifier() != path.getObjectInstanceId()) {
                     throw new CodecException("Id conflict between path [%s] and instance TLV [%d]", path,
-                            tlvs[0].getIdentifier());
+                            tlvs.getIdentifier());
                 }
                 // object instance TLV
-                return (T) parseObjectInstanceTlv(tlvs[0].getChildren(), path.getObjectId(), tlvs[0].getIdentifier(),
-                        model);
+                return (T) parseObjectInstanceTlv(tlvs.children(), path.getObjectId(), tlvs.getIdentifier(), model);
             } else {
                 // array of TLV resources
                 // try to retrieve the instanceId from the path or the model
@@ -117,6 +128,7 @@ public class LwM2mNodeTlvDecoder {
                         instanceId = LwM2mObjectInstance.UNDEFINED;
                     }
                 }
+                tlvs.rewind();
                 return (T) parseObjectInstanceTlv(tlvs, path.getObjectId(), instanceId, model);
             }
         }
@@ -124,21 +136,24 @@ public class LwM2mNodeTlvDecoder {
         // Resource
         else if (nodeClass == LwM2mResource.class) {
             ResourceModel resourceModel = model.getResourceModel(path.getObjectId(), path.getResourceId());
-            if (tlvs.length == 0 && resourceModel != null && !resourceModel.multiple) {
+            if (empty && resourceModel != null && !resourceModel.multiple) {
                 // If there is no TlV value and we know that this resource is a single resource we raise an exception
                 // else we consider this is a multi-instance resource
                 throw new CodecException("TLV payload is mandatory for single resource %s", path);
 
-            } else if (tlvs.length == 1 && tlvs[0].getType() != TlvType.RESOURCE_INSTANCE) {
-                if (path.isResource() && path.getResourceId() != tlvs[0].getIdentifier()) {
+            } else if (!empty && !tlvs.hasNext() && tlvs.getType() != TlvType.RESOURCE_INSTANCE) {
+                if (path.isResource() && path.getResourceId() != tlvs.getIdentifier()) {
                     throw new CodecException("Id conflict between path [%s] and resource TLV [%s]", path,
-                            tlvs[0].getIdentifier());
+                            tlvs.getIdentifier());
                 }
-                return (T) parseResourceTlv(tlvs[0], path.getObjectId(), path.getObjectInstanceId(), model);
+                return (T) parseResourceTlv(tlvs, path.getObjectId(), path.getObjectInstanceId(), model);
             } else {
                 Type expectedRscType = getResourceType(path, model);
+                tlvs.rewind();
                 return (T) LwM2mMultipleResource.newResource(path.getResourceId(),
-                        parseTlvValues(tlvs, expectedRscType, path), expectedRscType);
+                        parseTlvValues(tlvs, expectedRscType, path.getObjectId(), path.getObjectInstanceId(),
+                                path.getResourceId()),
+                        expectedRscType);
             }
         } else {
             throw new IllegalArgumentException("invalid node class: " + nodeClass);
@@ -146,77 +161,101 @@ public class LwM2mNodeTlvDecoder {
 
     }
 
-    private static LwM2mObjectInstance parseObjectInstanceTlv(Tlv[] rscTlvs, int objectId, int instanceId,
-                                                              LwM2mModel model) throws CodecException {
+    /**
+     * @param rscTlvs the resource TLVs, before the first one.
+     */
+    private static LwM2mObjectInstance parseObjectInstanceTlv(TlvReader rscTlvs, int objectId, int instanceId,
+            LwM2mModel model) throws CodecException, TlvException {
         // read resources
-        List<LwM2mResource> resources = new ArrayList<>(rscTlvs.length);
-        for (Tlv rscTlv : rscTlvs) {
-            resources.add(parseResourceTlv(rscTlv, objectId, instanceId, model));
+        List<LwM2mResource> resources = new ArrayList<>();
+        while (rscTlvs.next()) {
+            resources.add(parseResourceTlv(rscTlvs, objectId, instanceId, model));
         }
         return new LwM2mObjectInstance(instanceId, resources);
     }
 
-    private static LwM2mResource parseResourceTlv(Tlv tlv, int objectId, int objectInstanceId, LwM2mModel model)
-            throws CodecException {
-        LwM2mPath resourcePath = new LwM2mPath(objectId, objectInstanceId, tlv.getIdentifier());
-        Type expectedType = getResourceType(resourcePath, model);
-        Integer resourceId = tlv.getIdentifier();
+    /**
+     * @param tlv the reader, on the resource TLV.
+     */
+    private static LwM2mResource parseResourceTlv(TlvReader tlv, int objectId, int objectInstanceId,
+            LwM2mModel model) throws CodecException, TlvException {
+        int resourceId = tlv.getIdentifier();
+        Type expectedType = getResourceType(objectId, resourceId, model);
         switch (tlv.getType()) {
             case MULTIPLE_RESOURCE:
                 return LwM2mMultipleResource.newResource(resourceId,
-                        parseTlvValues(tlv.getChildren(), expectedType, resourcePath), expectedType);
+                        parseTlvValues(tlv.children(), expectedType, objectId, objectInstanceId, resourceId),
+                        expectedType);
             case RESOURCE_VALUE:
                 return LwM2mSingleResource.newResource(resourceId,
-                        parseTlvValue(tlv.getValue(), expectedType, resourcePath), expectedType);
+                        parseTlvValue(tlv, expectedType, objectId, objectInstanceId, resourceId), expectedType);
             default:
-                throw new CodecException("Invalid TLV type %s for resource %s", tlv.getType(), resourcePath);
+                throw new CodecException("Invalid TLV type %s for resource %s", tlv.getType(),
+                        new LwM2mPath(objectId, objectInstanceId, resourceId));
         }
     }
 
-    private static Map<Integer, Object> parseTlvValues(Tlv[] tlvs, Type expectedType, LwM2mPath path)
-            throws CodecException {
+    /**
+     * @param tlvs the resource instance TLVs, before the first one.
+     */
+    private static Map<Integer, Object> parseTlvValues(TlvReader tlvs, Type expectedType, int objectId,
+            int objectInstanceId, int resourceId) throws CodecException, TlvException {
         Map<Integer, Object> values = new HashMap<>();
-        for (Tlv tlvChild : tlvs) {
-            if (tlvChild.getType() != TlvType.RESOURCE_INSTANCE)
+        while (tlvs.next()) {
+            if (tlvs.getType() != TlvType.RESOURCE_INSTANCE)
                 throw new CodecException("Expected TLV of type RESOURCE_INSTANCE but was %s for path %s",
-                        tlvChild.getType().name(), path);
+                        tlvs.getType().name(), new LwM2mPath(objectId, objectInstanceId, resourceId));
 
-            values.put(tlvChild.getIdentifier(), parseTlvValue(tlvChild.getValue(), expectedType, path));
+            values.put(tlvs.getIdentifier(), parseTlvValue(tlvs, expectedType, objectId, objectInstanceId, resourceId));
         }
         return values;
     }
 
-    private static Object parseTlvValue(byte[] value, Type expectedType, LwM2mPath path) throws CodecException {
+    /**
+     * @param tlv the reader, on the TLV of the value.
+     */
+    private static Object parseTlvValue(TlvReader tlv, Type expectedType, int objectId, int objectInstanceId,
+            int resourceId) throws CodecException {
         try {
-            LOG.trace("TLV value for path {} and expected type {}: {}", path, expectedType, value);
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("TLV value for path {} and expected type {}: {}",
+                        new LwM2mPath(objectId, objectInstanceId, resourceId), expectedType,
+                        Hex.encodeHexString(tlv.readOpaque()));
+            }
             switch (expectedType) {
                 case STRING:
-                    return TlvDecoder.decodeString(value);
+                    return tlv.readString();
                 case INTEGER:
-                    return TlvDecoder.decodeInteger(value).longValue();
+                    return tlv.readInteger();
                 case FLOAT:
-                    return TlvDecoder.decodeFloat(value).doubleValue();
+                    return tlv.readFloat();
                 case BOOLEAN:
-                    return TlvDecoder.decodeBoolean(value);
+                    return tlv.readBoolean();
                 case TIME:
-                    return TlvDecoder.decodeDate(value);
+                    return tlv.readDate();
                 case OPAQUE:
-                    return value;
+                    return tlv.readOpaque();
                 case OBJLNK:
-                    return TlvDecoder.decodeObjlnk(value);
+                    return tlv.readObjlnk();
                 default:
-                    throw new CodecException("Unsupported type %s for path %s", expectedType, path);
+                    throw new CodecException("Unsupported type %s for path %s", expectedType,
+                            new LwM2mPath(objectId, objectInstanceId, resourceId));
             }
         } catch (TlvException e) {
-            throw new CodecException(e, "Invalid content [%s] for type %s for path %s", Hex.encodeHexString(value),
-                    expectedType, path);
+            throw new CodecException(e, "Invalid content [%s] for type %s for path %s",
+                    Hex.encodeHexString(tlv.readOpaque()), expectedType,
+                    new LwM2mPath(objectId, objectInstanceId, resourceId));
         }
     }
 
     public static Type getResourceType(LwM2mPath rscPath, LwM2mModel model) throws CodecException {
-        ResourceModel rscDesc = model.getResourceModel(rscPath.getObjectId(), rscPath.getResourceId());
+        return getResourceType(rscPath.getObjectId(), rscPath.getResourceId(), model);
+    }
+
+    private static Type getResourceType(int objectId, int resourceId, LwM2mModel model) {
+        ResourceModel rscDesc = model.getResourceModel(objectId, resourceId);
         if (rscDesc == null || rscDesc.type == null) {
-            LOG.trace("unknown type for resource : {}", rscPath);
+            LOG.trace("unknown type for resource : /{}/x/{}", objectId, resourceId);
             // no resource description... opaque
             return Type.OPAQUE;
         } else {
@@ -15,8 +15,9 @@
  *******************************************************************************/
 package org.eclipse.lwm2m.core.node.codec.tlv;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Map.Entry;
@@ -34,7 +35,6 @@ import org.eclipse.lwm2m.core.node.LwM2mResource;
 import org.eclipse.lwm2m.core.node.ObjectLink;
 import org.eclipse.lwm2m.core.node.codec.CodecException;
 import org.eclipse.lwm2m.core.node.codec.LwM2mValueConverter;
-import org.eclipse.lwm2m.tlv.Tlv;
 import org.eclipse.lwm2m.tlv.Tlv.TlvType;
 import org.eclipse.lwm2m.tlv.TlvEncoder;
 import org.eclipse.lwm2m.util.Validate;
@@ -43,13 +43,43 @@ import org.slf4j.LoggerFactory;
 
 /**
  * TLV encoder for {@link LwM2mNode}.
+ * <p>
+ * The node is encoded in two passes: the first one measures the TLVs, the second one writes them into a single buffer
+ * of the exact size, without intermediate arrays for the nested TLVs or the values.
  */
 public class LwM2mNodeTlvEncoder {
 
     private static final Logger LOG = LoggerFactory.getLogger(LwM2mNodeTlvEncoder.class);
 
+    /**
+     * @return the encoded node, in an array of the exact size which can be used as is as a message payload.
+     */
     public static byte[] encode(LwM2mNode node, LwM2mPath path, LwM2mModel model, LwM2mValueConverter converter)
             throws CodecException {
+        InternalEncoder internalEncoder = measure(node, path, model, converter);
+        byte[] encoded = new byte[internalEncoder.size];
+        internalEncoder.write(node, ByteBuffer.wrap(encoded));
+        return encoded;
+    }
+
+    /**
+     * Encodes a node at the position of a buffer, e.g. a buffer reused between encodings.
+     *
+     * @return the number of bytes written, the position of the buffer is moved after them.
+     * @throws BufferOverflowException if the remaining space of the buffer is too small, nothing is written then.
+     */
+    public static int encode(LwM2mNode node, LwM2mPath path, LwM2mModel model, LwM2mValueConverter converter,
+            ByteBuffer out) throws CodecException {
+        InternalEncoder internalEncoder = measure(node, path, model, converter);
+        if (internalEncoder.size > out.remaining()) {
+            throw new BufferOverflowException();
+        }
+        internalEncoder.write(node, out);
+        return internalEncoder.size;
+    }
+
+    private static InternalEncoder measure(LwM2mNode node, LwM2mPath path, LwM2mModel model,
+            LwM2mValueConverter converter) {
         Validate.notNull(node);
         Validate.notNull(path);
         Validate.notNull(model);
@@ -59,9 +89,15 @@ public class LwM2mNodeTlvEncoder {
         internalEncoder.model = model;
         internalEncoder.converter = converter;
         node.accept(internalEncoder);
-        return internalEncoder.out.toByteArray();
+        return internalEncoder;
     }
 
+    /**
+     * Visits the node twice: without output to measure it, then with the output to write it.
+     * <p>
+     * The lengths of the object instance and multiple resource TLVs and the converted values are computed by the first
+     * visit and reused, in the same order, by the second one.
+     */
     private static class InternalEncoder implements LwM2mNodeVisitor {
 
         // visitor inputs
@@ -69,60 +105,59 @@ public class LwM2mNodeTlvEncoder {
         private LwM2mModel model;
         private LwM2mValueConverter converter;
 
-        // visitor output
-        private ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // the instance of the resources being encoded, null when encoding a resource alone
+        private Integer instanceId;
+
+        // visitor output, null while measuring
+        private ByteBuffer out;
+
+        // visitor result of the measure
+        private int size;
+
+        // computed while measuring
+        private int[] lengths = new int[8];
+        private int lengthCount;
+        private Object[] values = new Object[16];
+        private int valueCount;
+
+        private void write(LwM2mNode node, ByteBuffer out) {
+            this.out = out;
+            lengthCount = 0;
+            valueCount = 0;
+            node.accept(this);
+        }
 
         @Override
         public void visit(LwM2mObject object) {
             LOG.trace("Encoding object {} into TLV", object);
 
-            Tlv[] tlvs;
-
             ObjectModel objectModel = model.getObjectModel(object.getId());
             if (objectModel != null && !objectModel.multiple) {
                 // single instance object, the instance is level is not needed
-                tlvs = encodeResources(object.getInstance(0).getResources().values(), new LwM2mPath(object.getId(), 0));
+                instanceId = 0;
+                size = encodeResources(object.getInstance(0).getResources().values());
             } else {
                 // encoded as an array of instances
-                tlvs = new Tlv[object.getInstances().size()];
-                int i = 0;
+                size = 0;
                 for (Entry<Integer, LwM2mObjectInstance> instance : object.getInstances().entrySet()) {
-                    Tlv[] resources = encodeResources(instance.getValue().getResources().values(),
-                            new LwM2mPath(object.getId(), instance.getKey()));
-                    tlvs[i] = new Tlv(TlvType.OBJECT_INSTANCE, resources, null, instance.getKey());
-                    i++;
+                    size += encodeInstance(instance.getValue().getResources().values(), instance.getKey());
                 }
             }
-
-            try {
-                out.write(TlvEncoder.encode(tlvs).array());
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
         }
 
         @Override
         public void visit(LwM2mObjectInstance instance) {
             LOG.trace("Encoding object instance {} into TLV", instance);
 
-            Tlv[] tlvs;
             if (path.isObjectInstance() || instance.getId() == LwM2mObjectInstance.UNDEFINED) {
                 // the instanceId is part of the request path or is undefined
                 // so the instance TLV layer is not needed.
                 // encoded as an array of resource TLVs
-                tlvs = encodeResources(instance.getResources().values(),
-                        new LwM2mPath(path.getObjectId(), instance.getId()));
+                instanceId = instance.getId();
+                size = encodeResources(instance.getResources().values());
             } else {
                 // encoded as an instance TLV
-                Tlv[] resources = encodeResources(instance.getResources().values(),
-                        new LwM2mPath(path.getObjectId(), instance.getId()));
-                tlvs = new Tlv[]{new Tlv(TlvType.OBJECT_INSTANCE, resources, null, instance.getId())};
-            }
-
-            try {
-                out.write(TlvEncoder.encode(tlvs).array());
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+                size = encodeInstance(instance.getResources().values(), instance.getId());
             }
         }
 
@@ -130,75 +165,148 @@ public class LwM2mNodeTlvEncoder {
         public void visit(LwM2mResource resource) {
             LOG.trace("Encoding resource {} into TLV", resource);
 
-            Tlv rTlv = encodeResource(resource, path);
+            instanceId = null;
+            size = encodeResource(resource);
+        }
 
-            try {
-                out.write(TlvEncoder.encode(new Tlv[]{rTlv}).array());
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+        private int encodeInstance(Collection<LwM2mResource> resources, int instanceId) {
+            this.instanceId = instanceId;
+            int index = nextLength();
+            if (out != null) {
+                TlvEncoder.writeHeader(out, TlvType.OBJECT_INSTANCE, instanceId, lengths[index]);
             }
+            int length = encodeResources(resources);
+            lengths[index] = length;
+            return TlvEncoder.headerSize(instanceId, length) + length;
         }
 
-        private Tlv[] encodeResources(Collection<LwM2mResource> resources, LwM2mPath instancePath) {
-            Tlv[] rTlvs = new Tlv[resources.size()];
-            int i = 0;
+        private int encodeResources(Collection<LwM2mResource> resources) {
+            int length = 0;
             for (LwM2mResource resource : resources) {
-                rTlvs[i] = encodeResource(resource, instancePath.append(resource.getId()));
-                i++;
+                length += encodeResource(resource);
             }
-            return rTlvs;
+            return length;
         }
 
-        private Tlv encodeResource(LwM2mResource resource, LwM2mPath resourcePath) {
+        /**
+         * @return the size of the resource TLV.
+         */
+        private int encodeResource(LwM2mResource resource) {
             ResourceModel rSpec = model.getResourceModel(path.getObjectId(), resource.getId());
             Type expectedType = rSpec != null ? rSpec.type : resource.getType();
 
-            Tlv rTlv;
             if (resource.isMultiInstances()) {
-                Tlv[] instances = new Tlv[resource.getValues().size()];
-                int i = 0;
+                int index = nextLength();
+                if (out != null) {
+                    TlvEncoder.writeHeader(out, TlvType.MULTIPLE_RESOURCE, resource.getId(), lengths[index]);
+                }
+                int length = 0;
                 for (Entry<Integer, ?> entry : resource.getValues().entrySet()) {
-                    LwM2mPath resourceInstancePath = resourcePath.append(entry.getKey());
-                    Object convertedValue = converter.convertValue(entry.getValue(), resource.getType(), expectedType,
-                            resourceInstancePath);
-                    instances[i] = new Tlv(TlvType.RESOURCE_INSTANCE, null,
-                            this.encodeTlvValue(convertedValue, expectedType, resourceInstancePath), entry.getKey());
-                    i++;
+                    length += encodeValue(TlvType.RESOURCE_INSTANCE, entry.getKey(), entry.getValue(), resource,
+                            expectedType);
+                }
+                lengths[index] = length;
+                return TlvEncoder.headerSize(resource.getId(), length) + length;
+            } else {
+                return encodeValue(TlvType.RESOURCE_VALUE, resource.getId(), resource.getValue(), resource,
+                        expectedType);
+            }
+        }
+
+        /**
+         * @return the size of the value TLV.
+         */
+        private int encodeValue(TlvType tlvType, int id, Object value, LwM2mResource resource, Type expectedType) {
+            Object convertedValue;
+            if (out == null) {
+                convertedValue = converter.convertValue(value, resource.getType(), expectedType,
+                        getPath(tlvType, resource, id));
+                if (valueCount == values.length) {
+                    values = Arrays.copyOf(values, valueCount * 2);
                 }
-                rTlv = new Tlv(TlvType.MULTIPLE_RESOURCE, instances, null, resource.getId());
+                values[valueCount++] = convertedValue;
             } else {
-                Object convertedValue = converter.convertValue(resource.getValue(), resource.getType(), expectedType,
-                        resourcePath);
-                rTlv = new Tlv(TlvType.RESOURCE_VALUE, null,
-                        this.encodeTlvValue(convertedValue, expectedType, resourcePath), resource.getId());
+                convertedValue = values[valueCount++];
+            }
+
+            int length = valueLength(convertedValue, expectedType, tlvType, resource, id);
+            if (out != null) {
+                TlvEncoder.writeHeader(out, tlvType, id, length);
+                writeValue(convertedValue, expectedType);
             }
-            return rTlv;
+            return TlvEncoder.headerSize(id, length) + length;
         }
 
-        private byte[] encodeTlvValue(Object value, Type type, LwM2mPath path) {
+        private int nextLength() {
+            if (out == null && lengthCount == lengths.length) {
+                lengths = Arrays.copyOf(lengths, lengthCount * 2);
+            }
+            return lengthCount++;
+        }
+
+        private LwM2mPath getPath(TlvType tlvType, LwM2mResource resource, int id) {
+            if (instanceId == null) {
+                return tlvType == TlvType.RESOURCE_INSTANCE ? path.append(id) : path;
+            }
+            return tlvType == TlvType.RESOURCE_INSTANCE
+                    ? new LwM2mPath(path.getObjectId(), instanceId, resource.getId(), id)
+                    : new LwM2mPath(path.getObjectId(), instanceId, resource.getId());
+        }
+
+        private int valueLength(Object value, Type type, TlvType tlvType, LwM2mResource resource, int id) {
             LOG.trace("Encoding value {} in TLV", value);
             try {
                 switch (type) {
                     case STRING:
-                        return TlvEncoder.encodeString((String) value);
+                        return TlvEncoder.stringLength((String) value);
                     case INTEGER:
-                        return TlvEncoder.encodeInteger((Number) value);
+                        return TlvEncoder.integerLength(((Number) value).longValue());
                     case FLOAT:
-                        return TlvEncoder.encodeFloat((Number) value);
+                        return TlvEncoder.floatLength((Number) value);
                     case BOOLEAN:
-                        return TlvEncoder.encodeBoolean((Boolean) value);
+                        return 1;
                     case TIME:
-                        return TlvEncoder.encodeDate((Date) value);
-                    case OPAQUE:
-                        return (byte[]) value;
                     case OBJLNK:
-                        return TlvEncoder.encodeObjlnk((ObjectLink) value);
+                        return 4;
+                    case OPAQUE:
+                        return ((byte[]) value).length;
                     default:
-                        throw new CodecException("Invalid value %s for type %s of %s", value, type, path);
+                        throw new CodecException("Invalid value %s for type %s of %s", value, type,
+                                getPath(tlvType, resource, id));
                 }
             } catch (IllegalArgumentException e) {
-                throw new CodecException(e, "Invalid value %s for type %s of %s", value, type, path);
+                throw new CodecException(e, "Invalid value %s for type %s of %s", value, type,
+                        getPath(tlvType, resource, id));
+            }
+        }
+
+        private void writeValue(Object value, Type type) {
+            switch (type) {
+                case STRING:
+                    TlvEncoder.writeString(out, (String) value);
+                    break;
+                case INTEGER:
+                    TlvEncoder.writeInteger(out, ((Number) value).longValue());
+                    break;
+                case FLOAT:
+                    TlvEncoder.writeFloat(out, (Number) value);
+                    break;
+                case BOOLEAN:
+                    out.put((Boolean) value ? (byte) 1 : (byte) 0);
+                    break;
+                case TIME:
+                    TlvEncoder.writeDate(out, (Date) value);
+                    break;
+                case OPAQUE:
+                    out.put((byte[]) value);
+                    break;
+                case OBJLNK:
+                    TlvEncoder.writeObjlnk(out, (ObjectLink) value);
+                    break;
+                default:
+                    // rejected while measuring
+                    break;
             }
         }
     }
-}
\ No newline at end of file
+}
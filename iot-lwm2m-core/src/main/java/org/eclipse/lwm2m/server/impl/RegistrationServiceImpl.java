@@ -18,6 +18,7 @@ package org.eclipse.lwm2m.server.impl;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.lwm2m.core.observation.Observation;
@@ -67,6 +68,11 @@ public class RegistrationServiceImpl implements RegistrationService, ExpirationL
         return store.getRegistration(id);
     }
 
+    @Override
+    public Map<String, Registration> getRegistrations(Collection<String> ids) {
+        return store.getRegistrations(ids);
+    }
+
     @Override
     public void registrationExpired(Registration registration, Collection<Observation> observations) {
         for (RegistrationListener l : listeners) {
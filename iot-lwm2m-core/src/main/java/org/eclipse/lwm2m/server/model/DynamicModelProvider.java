@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package org.eclipse.lwm2m.server.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.lwm2m.Link;
+import org.eclipse.lwm2m.core.model.LwM2mModel;
+import org.eclipse.lwm2m.core.model.ObjectModel;
+import org.eclipse.lwm2m.core.observation.Observation;
+import org.eclipse.lwm2m.server.registration.Registration;
+import org.eclipse.lwm2m.server.registration.RegistrationListener;
+import org.eclipse.lwm2m.server.registration.RegistrationUpdate;
+import org.eclipse.lwm2m.util.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A LwM2mModelProvider which builds the model of each registered client from the objects it announces and from its
+ * product.
+ * <p>
+ * The base objects are part of every model. An object announced by a client is described by the objects added for its
+ * product, else by the objects added for all the products, else by the base objects. The object descriptions are
+ * interned: the models of all the clients share the same {@link ObjectModel} instances, and the clients of a product
+ * announcing the same objects share the same {@link LwM2mModel}.
+ * <p>
+ * The model is cached by registration id, and is built again only when the registration announces other objects. It
+ * is removed from the cache when the registration is removed, if this provider is registered as
+ * {@link RegistrationListener}.
+ * <p>
+ * The objects should be added before the server is started: the models being built meanwhile may not include them.
+ */
+public class DynamicModelProvider implements LwM2mModelProvider, RegistrationListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DynamicModelProvider.class);
+
+    /**
+     * The registration attribute holding the product id of a client.
+     */
+    public static final String PRODUCT_ID = "productId";
+
+    private final int maxSize;
+
+    // interned object descriptions
+    private final ConcurrentMap<ObjectModel, ObjectModel> interned = new ConcurrentHashMap<>();
+
+    // objects by ID, replaced on modification
+    private final Map<Integer, ObjectModel> baseObjects;
+    private volatile Map<Integer, ObjectModel> sharedObjects = Collections.emptyMap();
+    private volatile Map<String, Map<Integer, ObjectModel>> productObjects = Collections.emptyMap();
+
+    // incremented on each modification of the objects, the models built before are not used anymore
+    private volatile int generation;
+
+    // models by product id and announced object ids
+    private final ConcurrentMap<String, LwM2mModel> models = new ConcurrentHashMap<>();
+    // models by registration id
+    private final ConcurrentMap<String, CachedModel> registrationModels = new ConcurrentHashMap<>();
+
+    public DynamicModelProvider(Collection<ObjectModel> baseObjects) {
+        this(baseObjects, 100000);
+    }
+
+    /**
+     * @param baseObjects the objects which are part of every model.
+     * @param maxSize     the maximum number of registrations of which the model is cached.
+     */
+    public DynamicModelProvider(Collection<ObjectModel> baseObjects, int maxSize) {
+        Validate.notNull(baseObjects);
+        Validate.isTrue(maxSize > 0, "maxSize must be positive");
+        this.maxSize = maxSize;
+        this.baseObjects = Collections.unmodifiableMap(intern(baseObjects));
+    }
+
+    /**
+     * Adds the objects which may be announced by the clients of all the products.
+     */
+    public synchronized void addObjectModels(Collection<ObjectModel> objects) {
+        Map<Integer, ObjectModel> newObjects = new HashMap<>(sharedObjects);
+        newObjects.putAll(intern(objects));
+        sharedObjects = Collections.unmodifiableMap(newObjects);
+        clear();
+    }
+
+    /**
+     * Adds the objects which may be announced by the clients of a product.
+     *
+     * @param productId the value of the {@link #PRODUCT_ID} registration attribute of the clients.
+     */
+    public synchronized void addObjectModels(String productId, Collection<ObjectModel> objects) {
+        Validate.notNull(productId);
+        Map<Integer, ObjectModel> newObjects = new HashMap<>();
+        Map<Integer, ObjectModel> oldObjects = productObjects.get(productId);
+        if (oldObjects != null) {
+            newObjects.putAll(oldObjects);
+        }
+        newObjects.putAll(intern(objects));
+        Map<String, Map<Integer, ObjectModel>> newProductObjects = new HashMap<>(productObjects);
+        newProductObjects.put(productId, Collections.unmodifiableMap(newObjects));
+        productObjects = Collections.unmodifiableMap(newProductObjects);
+        clear();
+    }
+
+    private Map<Integer, ObjectModel> intern(Collection<ObjectModel> objects) {
+        Map<Integer, ObjectModel> map = new HashMap<>();
+        for (ObjectModel object : objects) {
+            ObjectModel existing = interned.putIfAbsent(object, object);
+            map.put(object.id, existing == null ? object : existing);
+        }
+        return map;
+    }
+
+    private void clear() {
+        generation++;
+        models.clear();
+        registrationModels.clear();
+    }
+
+    @Override
+    public LwM2mModel getObjectModel(Registration registration) {
+        int currentGeneration = generation;
+        CachedModel cached = registrationModels.get(registration.getId());
+        if (cached != null && cached.isValid(registration, currentGeneration)) {
+            return cached.model;
+        }
+
+        LwM2mModel model = buildModel(registration);
+        if (registrationModels.size() >= maxSize) {
+            // rebuilt from the shared models on the next lookups
+            registrationModels.clear();
+        }
+        registrationModels.put(registration.getId(), new CachedModel(registration.getObjectLinks(),
+                getProductId(registration), currentGeneration, model));
+        return model;
+    }
+
+    private LwM2mModel buildModel(Registration registration) {
+        String productId = getProductId(registration);
+        Map<Integer, ObjectModel> shared = sharedObjects;
+        Map<Integer, ObjectModel> product = productId == null ? null : productObjects.get(productId);
+
+        // the announced objects not described by the base objects, by ID
+        Map<Integer, ObjectModel> announced = new TreeMap<>();
+        Link[] links = registration.getObjectLinks();
+        if (links != null) {
+            for (Link link : links) {
+                int objectId = getObjectId(link.getUrl(), registration.getRootPath());
+                if (objectId < 0 || announced.containsKey(objectId)) {
+                    continue;
+                }
+                ObjectModel object = product == null ? null : product.get(objectId);
+                if (object == null) {
+                    object = shared.get(objectId);
+                }
+                if (object != null && object != baseObjects.get(objectId)) {
+                    announced.put(objectId, object);
+                } else if (object == null && !baseObjects.containsKey(objectId)) {
+                    LOG.debug("No model for object {} of registration {}", objectId, registration.getId());
+                }
+            }
+        }
+        if (announced.isEmpty()) {
+            return getModel("", announced);
+        }
+
+        StringBuilder key = new StringBuilder();
+        if (product != null) {
+            key.append(productId);
+        }
+        for (Integer objectId : announced.keySet()) {
+            key.append('/').append(objectId);
+        }
+        return getModel(key.toString(), announced);
+    }
+
+    private LwM2mModel getModel(String key, Map<Integer, ObjectModel> announced) {
+        LwM2mModel model = models.get(key);
+        if (model == null) {
+            Map<Integer, ObjectModel> objects = new HashMap<>(baseObjects);
+            objects.putAll(announced);
+            model = new LwM2mModel(objects.values());
+            LwM2mModel existing = models.putIfAbsent(key, model);
+            if (existing != null) {
+                model = existing;
+            }
+        }
+        return model;
+    }
+
+    private static String getProductId(Registration registration) {
+        Map<String, String> attributes = registration.getAdditionalRegistrationAttributes();
+        return attributes == null ? null : attributes.get(PRODUCT_ID);
+    }
+
+    /**
+     * @return the object id of a link, or -1 if the link is not an object or an object instance.
+     */
+    static int getObjectId(String url, String rootPath) {
+        int i = rootPath != null && url.startsWith(rootPath) ? rootPath.length() : 0;
+        while (i < url.length() && url.charAt(i) == '/') {
+            i++;
+        }
+        int objectId = 0;
+        int digits = 0;
+        for (; i < url.length() && url.charAt(i) != '/'; i++, digits++) {
+            char c = url.charAt(i);
+            if (c < '0' || c > '9' || digits > 5) {
+                return -1;
+            }
+            objectId = objectId * 10 + (c - '0');
+        }
+        return digits == 0 ? -1 : objectId;
+    }
+
+    @Override
+    public void registered(Registration registration, Registration previousReg,
+            Collection<Observation> previousObsersations) {
+        if (previousReg != null) {
+            registrationModels.remove(previousReg.getId());
+        }
+    }
+
+    @Override
+    public void updated(RegistrationUpdate update, Registration updatedReg, Registration previousReg) {
+        // the objects links are compared on the next lookup
+    }
+
+    @Override
+    public void unregistered(Registration registration, Collection<Observation> observations, boolean expired,
+            Registration newReg) {
+        registrationModels.remove(registration.getId());
+    }
+
+    private static class CachedModel {
+        private final Link[] objectLinks;
+        private final String productId;
+        private final int generation;
+        private final LwM2mModel model;
+
+        private CachedModel(Link[] objectLinks, String productId, int generation, LwM2mModel model) {
+            this.objectLinks = objectLinks;
+            this.productId = productId;
+            this.generation = generation;
+            this.model = model;
+        }
+
+        private boolean isValid(Registration registration, int currentGeneration) {
+            if (generation != currentGeneration) {
+                return false;
+            }
+            String registrationProductId = getProductId(registration);
+            if (productId == null ? registrationProductId != null : !productId.equals(registrationProductId)) {
+                return false;
+            }
+            // the same links for the registrations kept by a cache, equal ones if read again from a store
+            Link[] links = registration.getObjectLinks();
+            return links == objectLinks || Arrays.equals(links, objectLinks);
+        }
+    }
+}
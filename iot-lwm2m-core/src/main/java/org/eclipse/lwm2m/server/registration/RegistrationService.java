@@ -15,7 +15,9 @@
  *******************************************************************************/
 package org.eclipse.lwm2m.server.registration;
 
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.Map;
 
 /**
  * A service to access registered clients
@@ -30,6 +32,14 @@ public interface RegistrationService {
      */
     Registration getById(String id);
 
+    /**
+     * Retrieves several registrations by id at once.
+     *
+     * @param ids registration ids
+     * @return the matching registrations indexed by id, the ids not found are absent from the map
+     */
+    Map<String, Registration> getRegistrations(Collection<String> ids);
+
     /**
      * Retrieves a registration by end-point.
      *
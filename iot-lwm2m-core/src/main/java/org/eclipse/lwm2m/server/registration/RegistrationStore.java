@@ -18,6 +18,7 @@ package org.eclipse.lwm2m.server.registration;
 import java.net.InetSocketAddress;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Map;
 
 import org.eclipse.lwm2m.core.observation.Observation;
 
@@ -53,6 +54,14 @@ public interface RegistrationStore {
      */
     Registration getRegistration(String registrationId);
 
+    /**
+     * Get several registrations by registration Id at once.
+     *
+     * @param registrationIds of the registrations.
+     * @return the registrations found, indexed by registration id. There is no entry for the ids without registration.
+     */
+    Map<String, Registration> getRegistrations(Collection<String> registrationIds);
+
     /**
      * Get the registration by endpoint.
      *
@@ -19,6 +19,7 @@ package org.eclipse.lwm2m.server.request;
 import org.eclipse.lwm2m.core.node.codec.CodecException;
 import org.eclipse.lwm2m.core.request.DownlinkRequest;
 import org.eclipse.lwm2m.core.request.exception.RequestCanceledException;
+import org.eclipse.lwm2m.core.request.exception.TimeoutException;
 import org.eclipse.lwm2m.core.response.ErrorCallback;
 import org.eclipse.lwm2m.core.response.LwM2mResponse;
 import org.eclipse.lwm2m.core.response.ResponseCallback;
@@ -51,6 +52,20 @@ public interface LwM2mRequestSender {
     <T extends LwM2mResponse> void send(Registration destination, DownlinkRequest<T> request,
                                         ResponseCallback<T> responseCallback, ErrorCallback errorCallback);
 
+    /**
+     * Sends a Lightweight M2M request asynchronously, giving up if no response is received in time.
+     *
+     * @param destination      the remote client
+     * @param request          the request to send to the client
+     * @param timeout          the request timeout in millisecond
+     * @param responseCallback a callback called when a response is received (successful or error response)
+     * @param errorCallback    a callback called when an error or exception occurred when response is received, or with
+     *                         a {@link TimeoutException} if the timeout expires (the request is then cancelled)
+     * @throws CodecException if request payload can not be encoded.
+     */
+    <T extends LwM2mResponse> void send(Registration destination, DownlinkRequest<T> request, long timeout,
+                                        ResponseCallback<T> responseCallback, ErrorCallback errorCallback);
+
     /**
      * cancel all pending messages for a LWM2M client identified by the registration identifier. In case a client
      * de-registers, the consumer can use this method to cancel all messages pending for the given client.
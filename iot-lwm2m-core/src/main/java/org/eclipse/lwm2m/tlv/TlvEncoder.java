@@ -21,6 +21,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 
 import org.eclipse.lwm2m.core.node.ObjectLink;
+import org.eclipse.lwm2m.tlv.Tlv.TlvType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,37 +60,69 @@ public class TlvEncoder {
      * Encodes an integer value.
      */
     public static byte[] encodeInteger(Number number) {
-        ByteBuffer iBuf;
         long lValue = number.longValue();
-        if (lValue >= Byte.MIN_VALUE && lValue <= Byte.MAX_VALUE) {
-            iBuf = ByteBuffer.allocate(1);
-            iBuf.put((byte) lValue);
-        } else if (lValue >= Short.MIN_VALUE && lValue <= Short.MAX_VALUE) {
-            iBuf = ByteBuffer.allocate(2);
-            iBuf.putShort((short) lValue);
-        } else if (lValue >= Integer.MIN_VALUE && lValue <= Integer.MAX_VALUE) {
-            iBuf = ByteBuffer.allocate(4);
-            iBuf.putInt((int) lValue);
+        ByteBuffer iBuf = ByteBuffer.allocate(integerLength(lValue));
+        writeInteger(iBuf, lValue);
+        return iBuf.array();
+    }
+
+    /**
+     * @return the number of bytes of an encoded integer value: 1, 2, 4 or 8.
+     */
+    public static int integerLength(long value) {
+        if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            return 1;
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            return 2;
+        } else if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            return 4;
         } else {
-            iBuf = ByteBuffer.allocate(8);
-            iBuf.putLong(lValue);
+            return 8;
+        }
+    }
+
+    /**
+     * Writes an integer value on {@link #integerLength(long)} bytes.
+     */
+    public static void writeInteger(ByteBuffer b, long value) {
+        switch (integerLength(value)) {
+            case 1:
+                b.put((byte) value);
+                break;
+            case 2:
+                b.putShort((short) value);
+                break;
+            case 4:
+                b.putInt((int) value);
+                break;
+            default:
+                b.putLong(value);
+                break;
         }
-        return iBuf.array();
     }
 
     /**
      * Encodes a floating point value.
      */
     public static byte[] encodeFloat(Number number) {
-        ByteBuffer fBuf;
+        ByteBuffer fBuf = ByteBuffer.allocate(floatLength(number));
+        writeFloat(fBuf, number);
+        return fBuf.array();
+    }
+
+    /**
+     * @return the number of bytes of an encoded floating point value: 4 for a {@link Float}, else 8.
+     */
+    public static int floatLength(Number number) {
+        return number instanceof Float ? 4 : 8;
+    }
+
+    public static void writeFloat(ByteBuffer b, Number number) {
         if (number instanceof Float) {
-            fBuf = ByteBuffer.allocate(4);
-            fBuf.putFloat(number.floatValue());
+            b.putFloat(number.floatValue());
         } else {
-            fBuf = ByteBuffer.allocate(8);
-            fBuf.putDouble(number.doubleValue());
+            b.putDouble(number.doubleValue());
         }
-        return fBuf.array();
     }
 
     /**
@@ -106,28 +139,102 @@ public class TlvEncoder {
         return value.getBytes(StandardCharsets.UTF_8);
     }
 
+    /**
+     * @return the number of bytes of the UTF-8 encoding of a string, as {@link #encodeString(String)} would encode
+     *         it.
+     */
+    public static int stringLength(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (!Character.isSurrogate(c)) {
+                length += 3;
+            } else if (isSurrogatePair(value, i)) {
+                length += 4;
+                i++;
+            } else {
+                // malformed, replaced by '?' as String#getBytes does
+                length += 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Writes the UTF-8 encoding of a string, without copying it in an intermediate array.
+     */
+    public static void writeString(ByteBuffer b, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                b.put((byte) c);
+            } else if (c < 0x800) {
+                b.put((byte) (0xC0 | c >> 6));
+                b.put((byte) (0x80 | c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                b.put((byte) (0xE0 | c >> 12));
+                b.put((byte) (0x80 | c >> 6 & 0x3F));
+                b.put((byte) (0x80 | c & 0x3F));
+            } else if (isSurrogatePair(value, i)) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                b.put((byte) (0xF0 | codePoint >> 18));
+                b.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                b.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                b.put((byte) (0x80 | codePoint & 0x3F));
+            } else {
+                b.put((byte) '?');
+            }
+        }
+    }
+
+    private static boolean isSurrogatePair(String value, int index) {
+        return Character.isHighSurrogate(value.charAt(index)) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1));
+    }
+
     /**
      * Encodes a date value.
      */
     public static byte[] encodeDate(Date value) {
         ByteBuffer tBuf = ByteBuffer.allocate(4);
-        tBuf.putInt((int) (value.getTime() / 1000L));
+        writeDate(tBuf, value);
         return tBuf.array();
     }
 
+    /**
+     * Writes a date value on 4 bytes.
+     */
+    public static void writeDate(ByteBuffer b, Date value) {
+        b.putInt((int) (value.getTime() / 1000L));
+    }
+
     /**
      * Encodes a Objlnk value.
      */
     public static byte[] encodeObjlnk(ObjectLink value) {
         ByteBuffer objlnkBuffer = ByteBuffer.allocate(4).order(ByteOrder.BIG_ENDIAN);
-        objlnkBuffer.putShort(0, (short) value.getObjectId());
-        objlnkBuffer.putShort(2, (short) value.getObjectInstanceId());
+        writeObjlnk(objlnkBuffer, value);
         return objlnkBuffer.array();
     }
 
-    private static int tlvEncodedSize(Tlv tlv, int length) {
+    /**
+     * Writes a Objlnk value on 4 bytes.
+     */
+    public static void writeObjlnk(ByteBuffer b, ObjectLink value) {
+        b.putShort((short) value.getObjectId());
+        b.putShort((short) value.getObjectInstanceId());
+    }
+
+    /**
+     * @return the size of the header of a TLV: type, identifier and length.
+     */
+    public static int headerSize(int identifier, int length) {
         int size = 1 /* HEADER */;
-        size += (tlv.getIdentifier() < MAX_LENGTH_8BIT) ? 1 : 2; /* 8 bits or 16 bits identifiers */
+        size += (identifier < MAX_LENGTH_8BIT) ? 1 : 2; /* 8 bits or 16 bits identifiers */
 
         if (length < 8) {
             size += 0;
@@ -140,35 +247,18 @@ public class TlvEncoder {
         } else {
             throw new IllegalArgumentException("length should fit in max 24bits");
         }
-
-        size += length;
         return size;
     }
 
-    private static int tlvEncodedLength(Tlv tlv) {
-        int length;
-        switch (tlv.getType()) {
-            case RESOURCE_VALUE:
-            case RESOURCE_INSTANCE:
-                length = tlv.getValue().length;
-                break;
-            default:
-                length = 0;
-                for (Tlv child : tlv.getChildren()) {
-                    int subLength = tlvEncodedLength(child);
-                    length += tlvEncodedSize(child, subLength);
-                }
-        }
-
-        return length;
-    }
-
-    private static void encode(Tlv tlv, ByteBuffer b) {
-        int length;
-        length = tlvEncodedLength(tlv);
+    /**
+     * Writes the header of a TLV, to be followed by its value or by its children TLVs.
+     *
+     * @param length the length of the value, or of the encoded children TLVs.
+     */
+    public static void writeHeader(ByteBuffer b, TlvType type, int identifier, int length) {
         int typeByte;
 
-        switch (tlv.getType()) {
+        switch (type) {
             case OBJECT_INSTANCE:
                 typeByte = 0b00_000000;
                 break;
@@ -183,11 +273,11 @@ public class TlvEncoder {
                 typeByte = 0b11_000000;
                 break;
             default:
-                throw new IllegalArgumentException("unknown TLV type : '" + tlv.getType() + "'");
+                throw new IllegalArgumentException("unknown TLV type : '" + type + "'");
         }
 
         // encode identifier length
-        typeByte |= (tlv.getIdentifier() < MAX_LENGTH_8BIT) ? 0b00_0000 : 0b10_0000;
+        typeByte |= (identifier < MAX_LENGTH_8BIT) ? 0b00_0000 : 0b10_0000;
 
         // type of length
         if (length < 8) {
@@ -202,14 +292,13 @@ public class TlvEncoder {
 
         // fill the buffer
         b.put((byte) typeByte);
-        if (tlv.getIdentifier() < MAX_LENGTH_8BIT) {
-            b.put((byte) tlv.getIdentifier());
+        if (identifier < MAX_LENGTH_8BIT) {
+            b.put((byte) identifier);
         } else {
-            b.putShort((short) tlv.getIdentifier());
+            b.putShort((short) identifier);
         }
 
         // write length
-
         if (length >= 8) {
             if (length < MAX_LENGTH_8BIT) {
                 b.put((byte) length);
@@ -219,9 +308,34 @@ public class TlvEncoder {
                 int msb = (length & 0xFF_00_00) >> 16;
                 b.put((byte) msb);
                 b.putShort((short) (length & 0xFF_FF));
-                typeByte |= 0b0001_1000;
             }
         }
+    }
+
+    private static int tlvEncodedSize(Tlv tlv, int length) {
+        return headerSize(tlv.getIdentifier(), length) + length;
+    }
+
+    private static int tlvEncodedLength(Tlv tlv) {
+        int length;
+        switch (tlv.getType()) {
+            case RESOURCE_VALUE:
+            case RESOURCE_INSTANCE:
+                length = tlv.getValue().length;
+                break;
+            default:
+                length = 0;
+                for (Tlv child : tlv.getChildren()) {
+                    int subLength = tlvEncodedLength(child);
+                    length += tlvEncodedSize(child, subLength);
+                }
+        }
+
+        return length;
+    }
+
+    private static void encode(Tlv tlv, ByteBuffer b) {
+        writeHeader(b, tlv.getType(), tlv.getIdentifier(), tlvEncodedLength(tlv));
 
         switch (tlv.getType()) {
             case RESOURCE_VALUE:
@@ -0,0 +1,291 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package org.eclipse.lwm2m.tlv;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import org.eclipse.lwm2m.core.node.ObjectLink;
+import org.eclipse.lwm2m.tlv.Tlv.TlvType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cursor over the TLVs of a buffer, an alternative to {@link TlvDecoder#decode(ByteBuffer)} which does not build
+ * {@link Tlv} trees nor copy the values.
+ * <p>
+ * {@link #next()} moves to the next TLV of the same level, the values are then read directly from the buffer with the
+ * <code>read*</code> methods, and the nested TLVs of an object instance or of a multiple resource with
+ * {@link #children()}. The content of the buffer must not change while it is read.
+ *
+ * <pre>
+ * TlvReader reader = new TlvReader(buffer);
+ * while (reader.next()) {
+ *     if (reader.getType() == TlvType.RESOURCE_VALUE) {
+ *         long value = reader.readInteger();
+ *     }
+ * }
+ * </pre>
+ */
+public class TlvReader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TlvReader.class);
+
+    private final ByteBuffer input;
+    private final int start;
+    private final int limit;
+
+    // current TLV
+    private TlvType type;
+    private int identifier;
+    private int valueOffset;
+    private int length;
+    // offset of the next TLV
+    private int next;
+
+    /**
+     * Reads the TLVs between the position and the limit of the buffer, without modifying it.
+     */
+    public TlvReader(ByteBuffer input) {
+        // absolute reads on a big endian view, the position of the given buffer is left untouched
+        this(input.duplicate().order(ByteOrder.BIG_ENDIAN), input.position(), input.limit());
+    }
+
+    private TlvReader(ByteBuffer input, int start, int limit) {
+        this.input = input;
+        this.start = start;
+        this.limit = limit;
+        this.next = start;
+    }
+
+    /**
+     * Moves to the next TLV.
+     *
+     * @return <code>false</code> if there is no more TLV at this level.
+     * @throws TlvException if the header of the TLV is invalid or its value exceeds the buffer.
+     */
+    public boolean next() throws TlvException {
+        if (next >= limit) {
+            type = null;
+            return false;
+        }
+        int offset = next;
+
+        // decode type
+        int typeByte = input.get(offset++) & 0xFF;
+        switch (typeByte & 0b1100_0000) {
+            case 0b0000_0000:
+                type = TlvType.OBJECT_INSTANCE;
+                break;
+            case 0b0100_0000:
+                type = TlvType.RESOURCE_INSTANCE;
+                break;
+            case 0b1000_0000:
+                type = TlvType.MULTIPLE_RESOURCE;
+                break;
+            default:
+                type = TlvType.RESOURCE_VALUE;
+                break;
+        }
+
+        // decode identifier
+        if ((typeByte & 0b0010_0000) == 0) {
+            checkAvailable(offset, 1, "identifier");
+            identifier = input.get(offset) & 0xFF;
+            offset += 1;
+        } else {
+            checkAvailable(offset, 2, "identifier");
+            identifier = input.getShort(offset) & 0xFFFF;
+            offset += 2;
+        }
+
+        // decode length
+        switch (typeByte & 0b0001_1000) {
+            case 0b0000_0000:
+                // 3 bit length
+                length = typeByte & 0b0000_0111;
+                break;
+            case 0b0000_1000:
+                // 8 bit length
+                checkAvailable(offset, 1, "length");
+                length = input.get(offset) & 0xFF;
+                offset += 1;
+                break;
+            case 0b0001_0000:
+                // 16 bit length
+                checkAvailable(offset, 2, "length");
+                length = input.getShort(offset) & 0xFFFF;
+                offset += 2;
+                break;
+            default:
+                // 24 bit length
+                checkAvailable(offset, 3, "length");
+                length = (input.get(offset) & 0xFF) << 16 | input.getShort(offset + 1) & 0xFFFF;
+                offset += 3;
+                break;
+        }
+        checkAvailable(offset, length, "value");
+
+        valueOffset = offset;
+        next = offset + length;
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("reading {} {}, length: {}", type, identifier, length);
+        }
+        return true;
+    }
+
+    private void checkAvailable(int offset, int count, String field) throws TlvException {
+        if (offset + count > limit) {
+            throw new TlvException(String.format("Invalid '%s' length at offset %d", field, offset - start));
+        }
+    }
+
+    /**
+     * @return <code>true</code> if there is a TLV after the current one at this level.
+     */
+    public boolean hasNext() {
+        return next < limit;
+    }
+
+    /**
+     * Moves back before the first TLV of this level.
+     */
+    public void rewind() {
+        next = start;
+        type = null;
+    }
+
+    /**
+     * @return the type of the current TLV, <code>null</code> before the first call to {@link #next()} or after the
+     *         last TLV.
+     */
+    public TlvType getType() {
+        return type;
+    }
+
+    public int getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * @return the length of the value of the current TLV.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return a reader over the TLVs nested in the current object instance or multiple resource TLV.
+     */
+    public TlvReader children() throws TlvException {
+        if (type != TlvType.OBJECT_INSTANCE && type != TlvType.MULTIPLE_RESOURCE) {
+            throw new TlvException("No nested TLV in a TLV of type " + type);
+        }
+        return new TlvReader(input, valueOffset, valueOffset + length);
+    }
+
+    /**
+     * Reads the value of the current TLV as a signed integer of 1 to 8 bytes.
+     */
+    public long readInteger() throws TlvException {
+        if (length < 1 || length > 8) {
+            throw new TlvException("Invalid length for an integer value: " + length);
+        }
+        return readSigned();
+    }
+
+    private long readSigned() {
+        // sign extension by the first byte
+        long value = input.get(valueOffset);
+        for (int i = 1; i < length; i++) {
+            value = value << 8 | input.get(valueOffset + i) & 0xFF;
+        }
+        return value;
+    }
+
+    /**
+     * Reads the value of the current TLV as a float of 4 or 8 bytes.
+     */
+    public double readFloat() throws TlvException {
+        if (length == 4) {
+            return input.getFloat(valueOffset);
+        } else if (length == 8) {
+            return input.getDouble(valueOffset);
+        } else {
+            throw new TlvException("Invalid length for a float value: " + length);
+        }
+    }
+
+    /**
+     * Reads the value of the current TLV as a UTF-8 string.
+     */
+    public String readString() {
+        if (input.hasArray()) {
+            return new String(input.array(), input.arrayOffset() + valueOffset, length, StandardCharsets.UTF_8);
+        }
+        return new String(readOpaque(), StandardCharsets.UTF_8);
+    }
+
+    public boolean readBoolean() throws TlvException {
+        if (length != 1) {
+            throw new TlvException("Invalid length for a boolean value: " + length);
+        }
+        byte value = input.get(valueOffset);
+        if (value != 0 && value != 1) {
+            LOG.warn("Boolean value should be encoded as integer with value 0 or 1, not {}", value);
+        }
+        return value == 1;
+    }
+
+    /**
+     * Reads the value of the current TLV as a date, in seconds since the epoch.
+     */
+    public Date readDate() throws TlvException {
+        if (length < 1 || length > 8) {
+            throw new TlvException("Invalid length for a time value: " + length);
+        }
+        return new Date(readSigned() * 1000L);
+    }
+
+    public ObjectLink readObjlnk() throws TlvException {
+        if (length > 4) {
+            throw new TlvException("Invalid length for an objlnk value: " + length);
+        }
+        // missing bytes are read as 0, as TlvDecoder#decodeObjlnk does
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = value << 8 | (i < length ? input.get(valueOffset + i) & 0xFF : 0);
+        }
+        return new ObjectLink(value >>> 16, value & 0xFFFF);
+    }
+
+    /**
+     * @return a copy of the value of the current TLV.
+     */
+    public byte[] readOpaque() {
+        byte[] value = new byte[length];
+        if (input.hasArray()) {
+            System.arraycopy(input.array(), input.arrayOffset() + valueOffset, value, 0, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                value[i] = input.get(valueOffset + i);
+            }
+        }
+        return value;
+    }
+}
@@ -13,6 +13,12 @@ public class CoapConfiguration {
     @Value("${download.url}")
     private String url;
 
+    @Value("${download.cache.dir:${java.io.tmpdir}/iot-lwm2m-download}")
+    private String cacheDir;
+
+    @Value("${download.cache.max-size:2147483648}")
+    private long cacheMaxSize;
+
     public String getUrl() {
         return url;
     }
@@ -21,10 +27,28 @@ public class CoapConfiguration {
         this.url = url;
     }
 
+    public String getCacheDir() {
+        return cacheDir;
+    }
+
+    public void setCacheDir(String cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    public long getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    public void setCacheMaxSize(long cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
     @Override
     public String toString() {
         return "CoapConfiguration{" +
                 "url='" + url + '\'' +
+                ", cacheDir='" + cacheDir + '\'' +
+                ", cacheMaxSize=" + cacheMaxSize +
                 '}';
     }
 }
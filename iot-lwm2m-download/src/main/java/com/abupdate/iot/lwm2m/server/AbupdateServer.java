@@ -43,7 +43,7 @@ public class AbupdateServer implements LwM2mCoapServer {
             coapServer.addEndpoint(unsecuredEndpoint);
         }
 
-        DownloadResource downloadResource = new DownloadResource(this);
+        DownloadResource downloadResource = new DownloadResource(this, coapConfig);
         coapServer.add(downloadResource);
     }
 
@@ -4,20 +4,27 @@ import com.abupdate.iot.lwm2m.config.ActivitiConfig;
 import com.abupdate.iot.lwm2m.config.CoapConfiguration;
 import com.abupdate.iot.lwm2m.impl.LwM2mCoapServer;
 import org.eclipse.californium.core.CoapResource;
+import org.eclipse.californium.core.coap.BlockOption;
 import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.OptionSet;
+import org.eclipse.californium.core.coap.Response;
+import org.eclipse.californium.core.network.config.NetworkConfig;
+import org.eclipse.californium.core.network.config.NetworkConfig.Keys;
 import org.eclipse.californium.core.server.resources.CoapExchange;
 import org.eclipse.californium.core.server.resources.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 
 /**
@@ -42,25 +49,36 @@ public class DownloadResource extends CoapResource {
 
     // private static final String DOWNLOAD_PATH = "/data/iot_ota/upload/";
 
-    private static final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss:SSS");
+    private final FirmwareCache firmwareCache;
 
-    public DownloadResource(LwM2mCoapServer lwM2mServer) {
+    // the largest block served, as a Block2 SZX
+    private final int maxSzx;
+
+    public DownloadResource(LwM2mCoapServer lwM2mServer, NetworkConfig coapConfig) {
         super(RESOURCE_NAME);
         this.lwM2mServer = lwM2mServer;
+        this.maxSzx = BlockOption.size2Szx(Math.min(coapConfig.getInt(Keys.PREFERRED_BLOCK_SIZE),
+                coapConfig.getInt(Keys.MAX_MESSAGE_SIZE)));
+
+        CoapConfiguration coapConfiguration = ActivitiConfig.getBean(CoapConfiguration.class);
+        this.firmwareCache = new FirmwareCache(new File(coapConfiguration.getCacheDir()),
+                coapConfiguration.getCacheMaxSize());
     }
 
     @Override
     public void handleGET(CoapExchange exchange) {
 
-        logger.info("GET download request -->> {}", exchange.advanced().getRequest());
+        // a transfer is logged once, on its first block
+        BlockOption block2 = exchange.getRequestOptions().getBlock2();
+        boolean firstBlock = block2 == null || block2.getNum() == 0;
+        if (logger.isDebugEnabled()) {
+            logger.debug("GET download request -->> {}", exchange.advanced().getRequest());
+        }
 
         String downUrl = "";
         try {
             List<String> uri_path = exchange.advanced().getRequest().getOptions().getUriPath();
 
-            for (int i = 0; i < uri_path.size(); i++) {
-                logger.info("uri > {}", uri_path.get(i).toString());
-            }
             String downloads = "", productId = "", deltaId = "", filename = "";
             if (uri_path != null) {
                 for (int i = 0; i < uri_path.size(); i++) {
@@ -76,8 +94,6 @@ public class DownloadResource extends CoapResource {
                 }
                 downUrl = productId + PATH + deltaId + PATH + filename;
 
-                logger.info("url:" + downUrl);
-
             } else {
                 exchange.respond(ResponseCode.PRECONDITION_FAILED, "URL is null");
                 logger.warn("[INFO ] Download URL is null -->> URL is null,request -->> {}", exchange.advanced().getRequest());
@@ -96,7 +112,9 @@ public class DownloadResource extends CoapResource {
             //     downUrl = DOWNLOAD_PATH + downUrl;
             // }
 
-            logger.info("Download URL -->> {}, request -->> {}", downUrl, exchange.advanced().getRequest());
+            if (firstBlock) {
+                logger.info("Download URL -->> {}, request -->> {}", downUrl, exchange.advanced().getRequest());
+            }
             // File file = new File(downUrl);
             // if (file.exists()) {
             //     FileInputStream inputStream = new FileInputStream(file);
@@ -116,46 +134,33 @@ public class DownloadResource extends CoapResource {
             CoapConfiguration coapConfiguration = ActivitiConfig.getBean(CoapConfiguration.class);
             String httpUrl = coapConfiguration.getUrl();
             //真正的下载地址
-            String completeUrl = httpUrl + downUrl;
-            logger.info("completeUrl==============>:{}",completeUrl);
+            final String completeUrl = httpUrl + downUrl;
 
-            HttpURLConnection connection = null;
-            ByteArrayOutputStream baos = null;
-            InputStream inputStream = null;
-            try {
-                URL url = new URL(completeUrl);
-                connection = (HttpURLConnection) url.openConnection();
-                connection.connect();
-                inputStream = connection.getInputStream();
-                // 获取远程资源长度
-                int fileSize = connection.getContentLength();
-                byte[] fileData = new byte[fileSize];
-                baos = new ByteArrayOutputStream();
-                for ( int len = 0; (len = inputStream.read(fileData)) > 0;) {
-                    baos.write(fileData, 0, len);
+            FirmwareCache.Loader loader = new FirmwareCache.Loader() {
+                @Override
+                public void load(String key, File target) throws IOException {
+                    fetch(completeUrl, target);
                 }
-                byte[] baosBytes = baos.toByteArray();
+            };
+            try {
+                FirmwareCache.Firmware firmware = firmwareCache.get(downUrl, loader);
 
-                exchange.respond(ResponseCode.CONTENT, baosBytes);
+                respond(exchange, firmware);
 
-                baos.flush();
-                logger.info(" [" + sdf.format(new Date()) + "] [INFO ] Download success -->> {},request -->> {}", ResponseCode.CONTENT, exchange.advanced().getRequest());
+                if (firstBlock) {
+                    logger.info("Download success -->> {}, {} bytes from {}, request -->> {}", ResponseCode.CONTENT,
+                            firmware.getSize(), completeUrl, exchange.advanced().getRequest());
+                } else if (logger.isDebugEnabled()) {
+                    logger.debug("Download block {} -->> {}", block2, downUrl);
+                }
 
+            } catch (InterruptedIOException e) {
+                // still fetched by another request, the device retries later
+                exchange.respond(ResponseCode.SERVICE_UNAVAILABLE);
+                logger.warn("Download file is not available yet -->> {},request -->> {}", e.getMessage(), exchange.advanced().getRequest());
             } catch (FileNotFoundException e) {
                 exchange.respond(ResponseCode.NOT_FOUND);
-                logger.info(" [" + sdf.format(new Date()) + "] [INFO ] Download file is not found -->> file is not found,request -->> {}", exchange.advanced().getRequest());
-            }finally {
-                if(baos != null){
-                    baos.close();
-                }
-
-                if(inputStream!=null){
-                    inputStream.close();
-                }
-
-                if(connection!=null){
-                    connection.disconnect();
-                }
+                logger.info("Download file is not found -->> {},request -->> {}", completeUrl, exchange.advanced().getRequest());
             }
 
         } catch (Exception e) {
@@ -165,6 +170,66 @@ public class DownloadResource extends CoapResource {
         }
     }
 
+    /**
+     * Answers with the block of the firmware asked by the Block2 option of the request, or with the first block if there
+     * is none. The block is copied from the cached file: the blockwise layer never holds the whole firmware, and no
+     * blockwise status is kept between the requests of a transfer.
+     */
+    private void respond(CoapExchange exchange, FirmwareCache.Firmware firmware) {
+        OptionSet requestOptions = exchange.getRequestOptions();
+        byte[] etag = firmware.getETag();
+        BlockOption block2 = requestOptions.getBlock2();
+
+        if (block2 == null && requestOptions.containsETag(etag)) {
+            Response valid = new Response(ResponseCode.VALID);
+            valid.getOptions().addETag(etag);
+            exchange.respond(valid);
+            return;
+        }
+
+        Response response = new Response(ResponseCode.CONTENT);
+        response.getOptions().addETag(etag);
+        response.getOptions().setSize2(firmware.getSize());
+
+        if (block2 == null && firmware.getSize() <= BlockOption.szx2Size(maxSzx)) {
+            response.setPayload(firmware.getBytes(0, firmware.getSize()));
+            exchange.respond(response);
+            return;
+        }
+
+        // the block size can only be lowered on the first block, later blocks must match the requested number
+        int offset = block2 == null ? 0 : block2.getOffset();
+        int szx = block2 == null ? maxSzx : block2.getNum() == 0 ? Math.min(block2.getSzx(), maxSzx) : block2.getSzx();
+        int size = BlockOption.szx2Size(szx);
+        if (offset >= firmware.getSize() && offset > 0) {
+            Response badOption = new Response(ResponseCode.BAD_OPTION);
+            badOption.getOptions().setBlock2(block2);
+            exchange.respond(badOption);
+            return;
+        }
+
+        response.setPayload(firmware.getBytes(offset, size));
+        response.getOptions().setBlock2(szx, offset + size < firmware.getSize(), offset / size);
+        exchange.respond(response);
+    }
+
+    /**
+     * Downloads the firmware at <code>url</code> from the origin server into <code>target</code>.
+     */
+    private static void fetch(String url, File target) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(10000);
+        connection.setReadTimeout(30000);
+        try {
+            connection.connect();
+            try (InputStream inputStream = connection.getInputStream()) {
+                Files.copy(inputStream, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
     @Override
     public Resource getChild(String name) {
         return this;
@@ -0,0 +1,343 @@
+package com.abupdate.iot.lwm2m.server;
+
+import com.abupdate.iot.lwm2m.util.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.CRC32;
+
+/**
+ * A size bounded cache of the firmware files fetched from the origin server.
+ * <p>
+ * Files are stored in a local directory and memory-mapped, so a block of a firmware is served from the page cache
+ * without copying the whole file on heap. The least recently used files are removed once the total size exceeds the
+ * limit. Concurrent requests for a file which is not cached yet wait for a single fetch, for a bounded time.
+ * <p>
+ * A cached file modified or removed on disk, by a cleaner of the temporary directory for instance, is fetched again on
+ * the next lookup. A firmware replaced on the origin server must be {@link #invalidate(String) invalidated}.
+ * <p>
+ * A file larger than the limit can not be cached with the others: the last one fetched is kept aside, so the blocks of
+ * a single oversized firmware are not fetched again for each request. The disk usage is then bounded by the limit plus
+ * the size of that file.
+ *
+ * @company adups
+ **/
+public class FirmwareCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FirmwareCache.class);
+
+    private static final String SUFFIX = ".fw";
+
+    /**
+     * Fetches a firmware from the origin server.
+     */
+    public interface Loader {
+
+        /**
+         * Writes the content of the firmware <code>key</code> into <code>target</code>.
+         *
+         * @throws FileNotFoundException if the origin server does not know this firmware.
+         */
+        void load(String key, File target) throws IOException;
+    }
+
+    /**
+     * A cached firmware, mapped in memory.
+     */
+    public static class Firmware {
+
+        private final String key;
+        private final File file;
+        private final MappedByteBuffer content;
+        private final byte[] etag;
+        // the state of the file when it was mapped
+        private final long length;
+        private final long lastModified;
+
+        private Firmware(String key, File file, MappedByteBuffer content) {
+            this.key = key;
+            this.file = file;
+            this.content = content;
+            this.length = file.length();
+            this.lastModified = file.lastModified();
+
+            CRC32 crc = new CRC32();
+            crc.update(content.duplicate());
+            this.etag = ByteBuffer.allocate(8).putInt((int) crc.getValue()).putInt(content.capacity()).array();
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public int getSize() {
+            return content.capacity();
+        }
+
+        /**
+         * @return an entity tag derived from the content of the file.
+         */
+        public byte[] getETag() {
+            return etag.clone();
+        }
+
+        /**
+         * @return a read-only view of <code>length</code> bytes (or less at the end of the file) starting at
+         * <code>offset</code>, sharing the mapped content.
+         */
+        public ByteBuffer slice(int offset, int length) {
+            Validate.isTrue(offset >= 0 && offset <= getSize(), "offset out of range: ", offset);
+            ByteBuffer view = content.duplicate();
+            view.position(offset);
+            view.limit((int) Math.min((long) offset + length, getSize()));
+            return view.slice();
+        }
+
+        /**
+         * @return <code>false</code> if the file was modified or removed since it was mapped.
+         */
+        private boolean isUnchanged() {
+            return file.length() == length && file.lastModified() == lastModified;
+        }
+
+        /**
+         * @return a copy of the bytes of {@link #slice(int, int)}.
+         */
+        public byte[] getBytes(int offset, int length) {
+            ByteBuffer view = slice(offset, length);
+            byte[] bytes = new byte[view.remaining()];
+            view.get(bytes);
+            return bytes;
+        }
+    }
+
+    private final File directory;
+    private final long maxSize;
+    private final long loadTimeout; // in milliseconds
+
+    // guarded by this
+    private final LinkedHashMap<String, Firmware> firmwares = new LinkedHashMap<>(16, 0.75f, true);
+    private long size = 0;
+    // the last fetched firmware larger than maxSize, guarded by this
+    private Firmware oversized;
+    private long oversizedLoads = 0;
+
+    private final ConcurrentMap<String, FutureTask<Firmware>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * @param directory the directory where the files are stored, its previous content is removed.
+     * @param maxSize   the maximum total size in bytes of the cached files.
+     */
+    public FirmwareCache(File directory, long maxSize) {
+        this(directory, maxSize, 30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param directory   the directory where the files are stored, its previous content is removed.
+     * @param maxSize     the maximum total size in bytes of the cached files.
+     * @param loadTimeout the maximum time a request waits for the fetch of the same file by another request.
+     * @param unit        the unit of <code>loadTimeout</code>.
+     */
+    public FirmwareCache(File directory, long maxSize, long loadTimeout, TimeUnit unit) {
+        Validate.notNull(directory);
+        Validate.isTrue(maxSize > 0, "maxSize must be positive");
+        Validate.isTrue(loadTimeout > 0, "loadTimeout must be positive");
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.loadTimeout = unit.toMillis(loadTimeout);
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Unable to create firmware cache directory " + directory);
+        }
+        File[] previous = directory.listFiles();
+        if (previous != null) {
+            for (File file : previous) {
+                if (file.getName().endsWith(SUFFIX)) {
+                    delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the firmware <code>key</code>, fetching it with <code>loader</code> if it is not cached.
+     *
+     * @throws FileNotFoundException  if the firmware does not exist.
+     * @throws InterruptedIOException if the fetch of the firmware by another request did not end in time.
+     */
+    public Firmware get(final String key, final Loader loader) throws IOException {
+        Firmware firmware = lookup(key);
+        if (firmware != null) {
+            return firmware;
+        }
+
+        FutureTask<Firmware> task = new FutureTask<>(new Callable<Firmware>() {
+            @Override
+            public Firmware call() throws IOException {
+                return load(key, loader);
+            }
+        });
+        FutureTask<Firmware> pending = loading.putIfAbsent(key, task);
+        if (pending == null) {
+            pending = task;
+            try {
+                task.run();
+            } finally {
+                loading.remove(key, task);
+            }
+        }
+
+        try {
+            // only bounds the wait of the other requests, the fetch itself is bounded by the loader
+            return pending.get(loadTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading " + key);
+        } catch (TimeoutException e) {
+            throw new InterruptedIOException("Timed out waiting for the load of " + key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Unable to load " + key, e.getCause());
+        }
+    }
+
+    /**
+     * @return the firmware <code>key</code>, or <code>null</code> if it is not cached or if its file changed.
+     */
+    public synchronized Firmware lookup(String key) {
+        Firmware firmware = firmwares.get(key);
+        if (firmware == null && oversized != null && oversized.getKey().equals(key)) {
+            firmware = oversized;
+        }
+        if (firmware != null && !firmware.isUnchanged()) {
+            logger.warn("Firmware {} changed on disk, fetched again", key);
+            remove(key);
+            return null;
+        }
+        return firmware;
+    }
+
+    /**
+     * Removes the firmware <code>key</code> from the cache, the next request fetches it again. The transfers in
+     * progress keep the previous content.
+     */
+    public synchronized void invalidate(String key) {
+        if (remove(key)) {
+            logger.info("Firmware {} invalidated", key);
+        }
+    }
+
+    private boolean remove(String key) {
+        Firmware firmware = firmwares.remove(key);
+        if (firmware != null) {
+            size -= firmware.getSize();
+            delete(firmware.file);
+            return true;
+        }
+        if (oversized != null && oversized.getKey().equals(key)) {
+            delete(oversized.file);
+            oversized = null;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the total size in bytes of the cached files, excluding the oversized one.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the number of fetched files larger than the cache.
+     */
+    public synchronized long getOversizedLoads() {
+        return oversizedLoads;
+    }
+
+    private Firmware load(String key, Loader loader) throws IOException {
+        // the cache may have been filled between the lookup and the registration of the load
+        Firmware firmware = lookup(key);
+        if (firmware != null) {
+            return firmware;
+        }
+
+        // a new file for each load: a file still mapped by a transfer must never be rewritten
+        File file = File.createTempFile("fw-" + URLEncoder.encode(key, "UTF-8") + "-", SUFFIX, directory);
+        try {
+            loader.load(key, file);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                if (raf.length() > Integer.MAX_VALUE) {
+                    throw new IOException(String.format("%s is too large to be cached: %d bytes", key, raf.length()));
+                }
+                firmware = new Firmware(key, file, raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()));
+            }
+        } catch (IOException | RuntimeException e) {
+            delete(file);
+            throw e;
+        }
+
+        logger.info("Firmware {} cached, {} bytes", key, firmware.getSize());
+        add(firmware);
+        return firmware;
+    }
+
+    private synchronized void add(Firmware firmware) {
+        if (firmware.getSize() > maxSize) {
+            oversizedLoads++;
+            logger.warn("Firmware {} is larger than the cache ({} > {} bytes), kept aside of the cache",
+                    firmware.getKey(), firmware.getSize(), maxSize);
+            remove(firmware.getKey());
+            if (oversized != null) {
+                delete(oversized.file);
+            }
+            oversized = firmware;
+            return;
+        }
+
+        Firmware previous = firmwares.put(firmware.getKey(), firmware);
+        if (previous != null) {
+            size -= previous.getSize();
+            delete(previous.file);
+        }
+        size += firmware.getSize();
+
+        // the mapping of an evicted file stays valid for the transfers still using it
+        Iterator<Map.Entry<String, Firmware>> eldest = firmwares.entrySet().iterator();
+        while (size > maxSize && eldest.hasNext()) {
+            Firmware evicted = eldest.next().getValue();
+            eldest.remove();
+            size -= evicted.getSize();
+            delete(evicted.file);
+            logger.info("Firmware {} evicted from cache", evicted.getKey());
+        }
+    }
+
+    private static void delete(File file) {
+        if (file.exists() && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.abupdate.iot.lwm2m.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @company adups
+ **/
+public class FirmwareCacheTest {
+
+    private File directory;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("firmware-cache").toFile();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void least_recently_used_firmware_is_evicted() throws Exception {
+        FirmwareCache cache = new FirmwareCache(directory, 10);
+        Loader loader = new Loader(4);
+        cache.get("a", loader);
+        cache.get("b", loader);
+        cache.get("a", loader);
+
+        cache.get("c", loader);
+
+        assertEquals(3, loader.loads.get());
+        assertEquals(8, cache.getSize());
+        assertNotNull(cache.lookup("a"));
+        assertNull(cache.lookup("b"));
+        assertNotNull(cache.lookup("c"));
+        assertEquals(2, firmwareFiles());
+    }
+
+    @Test
+    public void oversized_firmware_is_kept_aside_of_the_cache() throws Exception {
+        FirmwareCache cache = new FirmwareCache(directory, 10);
+        Loader loader = new Loader(16);
+        FirmwareCache.Firmware big = cache.get("big", loader);
+
+        assertEquals(16, big.getSize());
+        assertEquals(0, cache.getSize());
+        assertSame(big, cache.get("big", loader));
+        assertEquals(1, loader.loads.get());
+
+        // only the last oversized firmware is kept
+        cache.get("other", loader);
+        assertEquals(2, cache.getOversizedLoads());
+        assertNull(cache.lookup("big"));
+        assertEquals(1, firmwareFiles());
+    }
+
+    @Test
+    public void concurrent_requests_wait_for_a_single_load() throws Exception {
+        final FirmwareCache cache = new FirmwareCache(directory, 10);
+        final BlockingLoader loader = new BlockingLoader(4);
+        Future<FirmwareCache.Firmware> first = executor.submit(get(cache, loader));
+        assertTrue(loader.started.await(1, TimeUnit.SECONDS));
+        Future<FirmwareCache.Firmware> second = executor.submit(get(cache, loader));
+
+        loader.release.countDown();
+
+        assertSame(first.get(1, TimeUnit.SECONDS), second.get(1, TimeUnit.SECONDS));
+        assertEquals(1, loader.loads.get());
+    }
+
+    @Test
+    public void wait_for_a_load_of_another_request_is_bounded() throws Exception {
+        final FirmwareCache cache = new FirmwareCache(directory, 10, 100, TimeUnit.MILLISECONDS);
+        final BlockingLoader loader = new BlockingLoader(4);
+        Future<FirmwareCache.Firmware> first = executor.submit(get(cache, loader));
+        assertTrue(loader.started.await(1, TimeUnit.SECONDS));
+
+        try {
+            cache.get("a", loader);
+            fail("the wait should time out");
+        } catch (InterruptedIOException e) {
+            // expected
+        }
+
+        loader.release.countDown();
+        assertNotNull(first.get(1, TimeUnit.SECONDS));
+        assertEquals(1, loader.loads.get());
+    }
+
+    @Test
+    public void firmware_modified_on_disk_is_loaded_again() throws Exception {
+        FirmwareCache cache = new FirmwareCache(directory, 10);
+        Loader loader = new Loader(4);
+        cache.get("a", loader);
+
+        File file = directory.listFiles()[0];
+        Files.write(file.toPath(), new byte[] { 9, 9, 9, 9 });
+        file.setLastModified(file.lastModified() + 10000);
+
+        assertNull(cache.lookup("a"));
+        assertEquals(0, cache.getSize());
+        assertEquals(3, cache.get("a", loader).getBytes(0, 4)[3]);
+        assertEquals(2, loader.loads.get());
+    }
+
+    @Test
+    public void invalidated_firmware_is_loaded_again() throws Exception {
+        FirmwareCache cache = new FirmwareCache(directory, 10);
+        Loader loader = new Loader(4);
+        FirmwareCache.Firmware firmware = cache.get("a", loader);
+
+        cache.invalidate("a");
+
+        assertEquals(0, cache.getSize());
+        assertEquals(0, firmwareFiles());
+        // the content stays readable for the transfers in progress
+        assertTrue(Arrays.equals(new byte[] { 1, 2 }, firmware.getBytes(1, 2)));
+        cache.get("a", loader);
+        assertEquals(2, loader.loads.get());
+    }
+
+    private int firmwareFiles() {
+        return directory.listFiles().length;
+    }
+
+    private static Callable<FirmwareCache.Firmware> get(final FirmwareCache cache, final FirmwareCache.Loader loader) {
+        return new Callable<FirmwareCache.Firmware>() {
+            @Override
+            public FirmwareCache.Firmware call() throws IOException {
+                return cache.get("a", loader);
+            }
+        };
+    }
+
+    /**
+     * Writes firmwares of a given size, with the bytes 0, 1, 2...
+     */
+    private static class Loader implements FirmwareCache.Loader {
+
+        private final int size;
+        final AtomicInteger loads = new AtomicInteger();
+
+        private Loader(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public void load(String key, File target) throws IOException {
+            loads.incrementAndGet();
+            byte[] content = new byte[size];
+            for (int i = 0; i < size; i++) {
+                content[i] = (byte) i;
+            }
+            Files.write(target.toPath(), content);
+        }
+    }
+
+    /**
+     * A loader blocked until released.
+     */
+    private static class BlockingLoader extends Loader {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private BlockingLoader(int size) {
+            super(size);
+        }
+
+        @Override
+        public void load(String key, File target) throws IOException {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            super.load(key, target);
+        }
+    }
+}
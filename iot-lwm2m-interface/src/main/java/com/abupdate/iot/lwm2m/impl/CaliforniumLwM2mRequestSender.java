@@ -20,6 +20,12 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.californium.core.coap.MessageObserverAdapter;
 import org.eclipse.californium.core.coap.Request;
@@ -31,19 +37,22 @@ import org.eclipse.lwm2m.core.model.LwM2mModel;
 import org.eclipse.lwm2m.core.node.codec.LwM2mNodeDecoder;
 import org.eclipse.lwm2m.core.node.codec.LwM2mNodeEncoder;
 import org.eclipse.lwm2m.core.request.DownlinkRequest;
+import org.eclipse.lwm2m.core.request.exception.TimeoutException;
 import org.eclipse.lwm2m.core.response.ErrorCallback;
 import org.eclipse.lwm2m.core.response.LwM2mResponse;
 import org.eclipse.lwm2m.core.response.ResponseCallback;
+import org.eclipse.lwm2m.server.Destroyable;
 import org.eclipse.lwm2m.server.model.LwM2mModelProvider;
 import org.eclipse.lwm2m.server.registration.Registration;
 import org.eclipse.lwm2m.server.request.LwM2mRequestSender;
+import org.eclipse.lwm2m.util.NamedThreadFactory;
 import org.eclipse.lwm2m.util.Validate;
 
 import com.abupdate.iot.lwm2m.coap.CoapRequestBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class CaliforniumLwM2mRequestSender implements LwM2mRequestSender {
+public class CaliforniumLwM2mRequestSender implements LwM2mRequestSender, Destroyable {
 
     private static final Logger LOG = LoggerFactory.getLogger(CaliforniumLwM2mRequestSender.class);
 
@@ -55,6 +64,9 @@ public class CaliforniumLwM2mRequestSender implements LwM2mRequestSender {
     // A map which contains all pending CoAP requests
     // This is mainly used to cancel request and avoid retransmission on de-registration
     private final ConcurrentNavigableMap<String/* registrationId#requestId */, Request /* pending coap Request */> pendingRequests = new ConcurrentSkipListMap<>();
+    // Cancels the asynchronous requests sent with a timeout
+    private final ScheduledExecutorService timeoutScheduler = Executors
+            .newSingleThreadScheduledExecutor(new NamedThreadFactory("LwM2mRequestSender timeout"));
 
     /**
      * @param endpoints          the CoAP endpoints to use for sending requests
@@ -84,7 +96,6 @@ public class CaliforniumLwM2mRequestSender implements LwM2mRequestSender {
         CoapRequestBuilder coapRequestBuilder = new CoapRequestBuilder(
                 new InetSocketAddress(destination.getAddress(), destination.getPort()), destination.getRootPath(),
                 destination.getId(), destination.getEndpoint(), model, encoder);
-        LOG.info("CoapRequestBuilder====>{}",coapRequestBuilder);
         request.accept(coapRequestBuilder);
         final Request coapRequest = coapRequestBuilder.getRequest();
 
@@ -107,9 +118,7 @@ public class CaliforniumLwM2mRequestSender implements LwM2mRequestSender {
         // Send CoAP request asynchronously
         Endpoint endpoint = getEndpointForClient(destination);
         endpoint.sendRequest(coapRequest);
-
-        LOG.info("Endpoint====>{}",endpoint);
-        LOG.info("coapRequest====>{}",coapRequest);
+        LOG.debug("Request {} sent to {} through {}", coapRequest, destination.getEndpoint(), endpoint);
 
         // Wait for response, then return it
         return syncMessageObserver.waitForResponse();
@@ -118,6 +127,61 @@ public class CaliforniumLwM2mRequestSender implements LwM2mRequestSender {
     @Override
     public <T extends LwM2mResponse> void send(final Registration destination, final DownlinkRequest<T> request,
                                                ResponseCallback<T> responseCallback, ErrorCallback errorCallback) {
+        sendAsync(destination, request, responseCallback, errorCallback);
+    }
+
+    @Override
+    public <T extends LwM2mResponse> void send(final Registration destination, final DownlinkRequest<T> request,
+                                               final long timeout, final ResponseCallback<T> responseCallback,
+                                               final ErrorCallback errorCallback) {
+        // only the first of the response, the error and the timeout is reported
+        final AtomicBoolean completed = new AtomicBoolean();
+        final AtomicReference<ScheduledFuture<?>> timeoutTask = new AtomicReference<>();
+
+        final Request coapRequest = sendAsync(destination, request, new ResponseCallback<T>() {
+            @Override
+            public void onResponse(T response) {
+                if (completed.compareAndSet(false, true)) {
+                    cancel(timeoutTask.get());
+                    responseCallback.onResponse(response);
+                }
+            }
+        }, new ErrorCallback() {
+            @Override
+            public void onError(Exception e) {
+                if (completed.compareAndSet(false, true)) {
+                    cancel(timeoutTask.get());
+                    errorCallback.onError(e);
+                }
+            }
+        });
+
+        timeoutTask.set(timeoutScheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (completed.compareAndSet(false, true)) {
+                    coapRequest.cancel();
+                    errorCallback.onError(new TimeoutException("Request %s timed out after %dms", coapRequest.getURI(),
+                            timeout));
+                }
+            }
+        }, timeout, TimeUnit.MILLISECONDS));
+        if (completed.get()) {
+            // completed before the timeout task was set, the callback could not cancel it
+            cancel(timeoutTask.get());
+        }
+    }
+
+    private static void cancel(ScheduledFuture<?> task) {
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+
+    private <T extends LwM2mResponse> Request sendAsync(final Registration destination,
+                                                        final DownlinkRequest<T> request,
+                                                        ResponseCallback<T> responseCallback,
+                                                        ErrorCallback errorCallback) {
         // Retrieve the objects definition
         final LwM2mModel model = modelProvider.getObjectModel(destination);
 
@@ -146,6 +210,12 @@ public class CaliforniumLwM2mRequestSender implements LwM2mRequestSender {
         // Send CoAP request asynchronously
         Endpoint endpoint = getEndpointForClient(destination);
         endpoint.sendRequest(coapRequest);
+        return coapRequest;
+    }
+
+    @Override
+    public void destroy() {
+        timeoutScheduler.shutdownNow();
     }
 
     @Override
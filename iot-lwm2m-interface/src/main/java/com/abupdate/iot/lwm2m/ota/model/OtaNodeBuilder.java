@@ -0,0 +1,52 @@
+package com.abupdate.iot.lwm2m.ota.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.lwm2m.core.node.LwM2mObjectInstance;
+import org.eclipse.lwm2m.core.node.LwM2mResource;
+import org.eclipse.lwm2m.core.node.LwM2mSingleResource;
+
+/**
+ * Builds the nodes written to the devices with the results of the OTA platform, e.g. the <code>/5/0</code> instance
+ * of a check or the <code>/3/0/200</code> status.
+ * <p>
+ * The resources get the types the JSON form of the nodes used to be decoded with: {@link #add(int, long)} for
+ * numbers (INTEGER) and {@link #add(int, String)} for text (STRING).
+ */
+public class OtaNodeBuilder {
+
+    /** The resource of the status code returned by the OTA platform. */
+    public static final int STATUS = 200;
+
+    private final int instanceId;
+    private final List<LwM2mResource> resources = new ArrayList<>();
+
+    /**
+     * @param instanceId the id of the object instance to build.
+     */
+    public OtaNodeBuilder(int instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public OtaNodeBuilder add(int id, String value) {
+        resources.add(LwM2mSingleResource.newStringResource(id, value));
+        return this;
+    }
+
+    public OtaNodeBuilder add(int id, long value) {
+        resources.add(LwM2mSingleResource.newIntegerResource(id, value));
+        return this;
+    }
+
+    public LwM2mObjectInstance build() {
+        return new LwM2mObjectInstance(instanceId, resources);
+    }
+
+    /**
+     * @return the {@link #STATUS} resource.
+     */
+    public static LwM2mSingleResource status(long status) {
+        return LwM2mSingleResource.newIntegerResource(STATUS, status);
+    }
+}
@@ -3,17 +3,13 @@ package com.abupdate.iot.lwm2m.ota.server;
 import com.abupdate.iot.lwm2m.StartApplication;
 import com.abupdate.iot.lwm2m.bean.Auth;
 import com.abupdate.iot.lwm2m.error.ErrorCode;
-import com.abupdate.iot.lwm2m.ota.json.JsonUtil;
 import com.abupdate.iot.lwm2m.ota.json.ResultData;
+import com.abupdate.iot.lwm2m.ota.model.OtaNodeBuilder;
 import com.abupdate.iot.lwm2m.resource.VariableBase;
 import com.abupdate.iot.lwm2m.util.ResultCode;
-import com.google.gson.Gson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * @author abupdate
  * @date 2019/7/8.
@@ -28,8 +24,6 @@ public class AuthServer extends StartApplication {
 
     public ResultCode getKey(Auth auth) {
 
-        String result = null;
-        Map<String, Object> resultLwM2m = new HashMap<>();
         ResultCode rc = new ResultCode();
         try {
             /*调用OTA接口*/
@@ -37,30 +31,20 @@ public class AuthServer extends StartApplication {
             String ota = "111111111111111111111111111111";
             logger.info("OTA ua Server success" + LOGINFO + ", result={}", auth.getMid(), auth.getProductId(), 1000, ota);
 
-            Gson gson = new Gson();
             ResultData rd = new ResultData(1000,"11111111","1111111111");
             if (rd.getStatus() == VariableBase.POST_SUCCESS) {
-                Map<String, Object>[] resultMap = new Map[1];
-                resultMap[0] = new HashMap<String, Object>();
-
-                resultMap[0].put("id", 114);
-                resultMap[0].put("value", rd.getData());
-
-                resultLwM2m.put("id", 0);
-                resultLwM2m.put("resources", resultMap);
-
+                rc.setNode(new OtaNodeBuilder(0)
+                        .add(114, String.valueOf(rd.getData()))
+                        .build());
                 rc.setId(WRITE_SUCCESS);
             } else {
-                resultLwM2m.put("id", 200);
-                resultLwM2m.put("value", rd.getStatus());
+                rc.setNode(OtaNodeBuilder.status(rd.getStatus()));
                 rc.setId(WRITE_NOT_VERSION);
             }
-            result = JsonUtil.toJson(resultLwM2m);
         } catch (Exception e) {
             logger.info("OTA ua Server error" + LOGINFO, auth.getMid(), auth.getProductId(), ErrorCode.ERROR_CHECK);
             e.printStackTrace();
         }
-        rc.setJson(result);
         return rc;
     }
 }
@@ -1,9 +1,7 @@
 package com.abupdate.iot.lwm2m.ota.server;
 
 import java.util.HashMap;
-import java.util.Map;
 
-import com.eclipsesource.json.Json;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,6 +10,7 @@ import com.abupdate.iot.lwm2m.bean.RegisterCheckPost;
 import com.abupdate.iot.lwm2m.error.ErrorCode;
 import com.abupdate.iot.lwm2m.ota.json.JsonUtil;
 import com.abupdate.iot.lwm2m.ota.json.ResultData;
+import com.abupdate.iot.lwm2m.ota.model.OtaNodeBuilder;
 import com.abupdate.iot.lwm2m.ota.model.OtaResultCheck;
 import com.abupdate.iot.lwm2m.resource.VariableBase;
 import com.abupdate.iot.lwm2m.util.ResultCode;
@@ -39,11 +38,11 @@ public class CheckServer extends StartApplication {
     public ResultCode checkVersion(RegisterCheckPost registerCheck) {
         registerCheck.setSign("64a569acbebc1fe16fdab7c95a0db850");
 
-        String result = null;
-        Map<String, Object> resultLwM2m = new HashMap<>();
         ResultCode rc = new ResultCode();
         try {
-            logger.info("register json" + JsonUtil.toJson(registerCheck));
+            if (logger.isDebugEnabled()) {
+                logger.debug("register json" + JsonUtil.toJson(registerCheck));
+            }
             /*调用OTA接口*/
             ResultData rd = new ResultData(1000,"1000","1000");
             Gson gson = new Gson();
@@ -51,40 +50,21 @@ public class CheckServer extends StartApplication {
                 HashMap<String, Object> version = JsonUtil.fromJson(JSONObject.fromObject(rd.getData()).toString(), HashMap.class);
                 OtaResultCheck orc = gson.fromJson(JSONObject.fromObject(version.get("version")).toString(), OtaResultCheck.class);
 
-                Map<String, Object>[] resultMap = new Map[4];
-                resultMap[0] = new HashMap<String, Object>();
-                resultMap[1] = new HashMap<String, Object>();
-                resultMap[2] = new HashMap<String, Object>();
-                resultMap[3] = new HashMap<String, Object>();
-
-                resultMap[0].put("id", 1);//1
-                resultMap[0].put("value", getFileName(orc.getDeltaUrl(), registerCheck.getProductId(), orc.getDeltaID()));
-
-                resultMap[1].put("id", 100);//100
-                resultMap[1].put("value", orc.getFileSize());
-
-                resultMap[2].put("id", 101);//101
-                resultMap[2].put("value", orc.getDeltaID());
-
-                resultMap[3].put("id", 102);//102
-                resultMap[3].put("value", orc.getMd5sum());
-
-                resultLwM2m.put("id", 0);
-                resultLwM2m.put("resources", resultMap);
-
+                rc.setNode(new OtaNodeBuilder(0)
+                        .add(1, getFileName(orc.getDeltaUrl(), registerCheck.getProductId(), orc.getDeltaID()))
+                        .add(100, orc.getFileSize())
+                        .add(101, orc.getDeltaID())
+                        .add(102, orc.getMd5sum())
+                        .build());
                 rc.setId(WRITE_SUCCESS);
             } else {
-                resultLwM2m.put("id", 200);//200
-                resultLwM2m.put("value", rd.getStatus());
-
+                rc.setNode(OtaNodeBuilder.status(rd.getStatus()));
                 rc.setId(WRITE_NOT_VERSION);
             }
-            result = JsonUtil.toJson(resultLwM2m);
         } catch (Exception e) {
             logger.info("OTA Check Server error" + LOGINFO, registerCheck.getMid(), registerCheck.getProductId(), ErrorCode.ERROR_CHECK);
             e.printStackTrace();
         }
-        rc.setJson(result);
         return rc;
     }
 
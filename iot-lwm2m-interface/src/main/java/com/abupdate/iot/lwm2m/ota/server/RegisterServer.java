@@ -1,16 +1,13 @@
 package com.abupdate.iot.lwm2m.ota.server;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.abupdate.iot.lwm2m.StartApplication;
 import com.abupdate.iot.lwm2m.bean.RegisterCheckPost;
 import com.abupdate.iot.lwm2m.error.ErrorCode;
-import com.abupdate.iot.lwm2m.ota.json.JsonUtil;
 import com.abupdate.iot.lwm2m.ota.json.ResultData;
+import com.abupdate.iot.lwm2m.ota.model.OtaNodeBuilder;
 import com.abupdate.iot.lwm2m.ota.model.OtaResultRegister;
 import com.abupdate.iot.lwm2m.util.ResultCode;
 import com.google.gson.Gson;
@@ -36,8 +33,6 @@ public class RegisterServer extends StartApplication {
     public static final String WRITE_FAILURE = "/3/0/200";
 
     public ResultCode register(RegisterCheckPost registerCheck) {
-        String result = null;
-        Map<String, Object> resultLwM2m = new HashMap<>();
         ResultCode rc = new ResultCode();
 
         try {
@@ -46,34 +41,23 @@ public class RegisterServer extends StartApplication {
             Gson gson = new Gson();
             if (rd.getData() != null && !rd.getData().equals("")) {
                 OtaResultRegister or = gson.fromJson(JSONObject.fromObject(rd.getData()).toString(), OtaResultRegister.class);
-                Map<String, Object>[] resultMap = new Map[2];
-                resultMap[1] = new HashMap<String, Object>();
-                resultMap[0] = new HashMap<String, Object>();
-
-                resultMap[0].put("id", 200);
-                resultMap[0].put("value", rd.getStatus());
-                resultMap[1].put("id", 101);
-                resultMap[1].put("value", or.getDeviceId());
+                rc.setNode(new OtaNodeBuilder(0)
+                        .add(OtaNodeBuilder.STATUS, rd.getStatus())
+                        .add(101, or.getDeviceId())
+                        .build());
 
                 stringRedisTemplate.opsForValue().set(IOT + IOT_DEVICEINFO_KEY + registerCheck.getProductId() + ":" + registerCheck.getMid(),or.getDeviceId()+"_"+or.getDeviceSecret());
 
-                resultLwM2m.put("id", 0);
-                resultLwM2m.put("resources", resultMap);
-
                 rc.setId(WRITE_SUCCESS);
             } else {
-                resultLwM2m.put("id", 200);
-                resultLwM2m.put("value", rd.getStatus());
+                rc.setNode(OtaNodeBuilder.status(rd.getStatus()));
                 rc.setId(WRITE_FAILURE);
             }
-
-            result = JsonUtil.toJson(resultLwM2m);
         } catch (Exception e) {
             logger.info("OTA Register Server error" + LOGINFO, registerCheck.getMid(), registerCheck.getProductId(), ErrorCode.ERROR_REGISTER);
             e.printStackTrace();
         }
 
-        rc.setJson(result);
         return rc;
     }
 }
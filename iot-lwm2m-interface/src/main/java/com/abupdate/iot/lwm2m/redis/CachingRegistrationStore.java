@@ -0,0 +1,584 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.redis;
+
+import java.net.InetSocketAddress;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.californium.elements.CorrelationContext;
+import org.eclipse.lwm2m.core.observation.Observation;
+import org.eclipse.lwm2m.server.Startable;
+import org.eclipse.lwm2m.server.Stoppable;
+import org.eclipse.lwm2m.server.registration.Deregistration;
+import org.eclipse.lwm2m.server.registration.ExpirationListener;
+import org.eclipse.lwm2m.server.registration.Registration;
+import org.eclipse.lwm2m.server.registration.RegistrationUpdate;
+import org.eclipse.lwm2m.server.registration.UpdatedRegistration;
+import org.eclipse.lwm2m.util.NamedThreadFactory;
+import org.eclipse.lwm2m.util.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.abupdate.iot.lwm2m.impl.CaliforniumRegistrationStore;
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.util.Pool;
+
+/**
+ * A {@link CaliforniumRegistrationStore} keeping a bounded, per-node cache of the registrations read from a Redis
+ * backed store.
+ * <p>
+ * Registrations are cached by endpoint (and product key) and by registration id, until their expiration date or a
+ * configurable time to live. The entries are invalidated by the modifications going through this store and by the
+ * registration events published by the {@link RedisRegistrationEventPublisher} of every node of the cluster.
+ * <p>
+ * All the invalidations are tracked per endpoint: a registration read from the delegate is not cached if its endpoint
+ * was invalidated during the read, whatever happened to the other endpoints meanwhile.
+ */
+public class CachingRegistrationStore implements CaliforniumRegistrationStore, Startable, Stoppable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachingRegistrationStore.class);
+
+    private final CaliforniumRegistrationStore delegate;
+    private final Pool<Jedis> pool;
+    private final int maxSize;
+    private final long ttl; // in milliseconds
+
+    // registrations in access order, by endpoint key (endpoint + product key) when read by endpoint and by
+    // RegistrationIdKey when read by id
+    private final LinkedHashMap<Object, CacheEntry> entries;
+    // endpoint keys by registration id
+    private final Map<String, String> endpointKeys = new HashMap<>();
+    // cache keys by endpoint, the registration events do not hold the product key
+    private final Map<String, Set<Object>> cacheKeysByEndpoint = new HashMap<>();
+
+    // incremented on each invalidation
+    private long sequence;
+    // number of reads from the delegate in progress, by the sequence they started at
+    private final TreeMap<Long, Integer> reads = new TreeMap<>();
+    // sequence of the last invalidation of the endpoints, oldest first, while a read started before is in progress
+    private final LinkedHashMap<String, Long> invalidatedEndpoints = new LinkedHashMap<>();
+    // sequence of the last invalidation of all the registrations
+    private long cleared;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Subscriber subscriber = new Subscriber();
+    private Thread subscriberThread;
+    private volatile boolean running;
+
+    public CachingRegistrationStore(CaliforniumRegistrationStore delegate, Pool<Jedis> pool) {
+        this(delegate, pool, 10000, 5, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @param delegate the store holding the registrations.
+     * @param pool     the Redis connection pool used to listen to the registration events.
+     * @param maxSize  the maximum number of registrations cached.
+     * @param ttl      the maximum time a registration stays in the cache.
+     * @param unit     the unit of <code>ttl</code>.
+     */
+    public CachingRegistrationStore(CaliforniumRegistrationStore delegate, Pool<Jedis> pool, final int maxSize,
+            long ttl, TimeUnit unit) {
+        Validate.notNull(delegate);
+        Validate.isTrue(maxSize > 0, "maxSize must be positive");
+        this.delegate = delegate;
+        this.pool = pool;
+        this.maxSize = maxSize;
+        this.ttl = unit.toMillis(ttl);
+        this.entries = new LinkedHashMap<Object, CacheEntry>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, CacheEntry> eldest) {
+                if (size() > CachingRegistrationStore.this.maxSize) {
+                    unindex(eldest.getKey(), eldest.getValue().registration);
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /* *************** Cache **************** */
+
+    private static class CacheEntry {
+        private final Registration registration;
+        private final long expiration;
+
+        private CacheEntry(Registration registration, long expiration) {
+            this.registration = registration;
+            this.expiration = expiration;
+        }
+    }
+
+    /**
+     * The cache key of a registration read by id, distinct from the endpoint keys.
+     */
+    private static class RegistrationIdKey {
+        private final String registrationId;
+
+        private RegistrationIdKey(String registrationId) {
+            this.registrationId = registrationId;
+        }
+
+        @Override
+        public int hashCode() {
+            return registrationId.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof RegistrationIdKey && registrationId.equals(((RegistrationIdKey) obj).registrationId);
+        }
+    }
+
+    private synchronized Registration get(Object cacheKey) {
+        CacheEntry entry = entries.get(cacheKey);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiration <= System.currentTimeMillis()) {
+            remove(cacheKey);
+            evictions.incrementAndGet();
+            return null;
+        }
+        return entry.registration;
+    }
+
+    private synchronized Registration getById(String registrationId) {
+        String endpointKey = endpointKeys.get(registrationId);
+        Registration r = endpointKey == null ? null : get(endpointKey);
+        return r != null ? r : get(new RegistrationIdKey(registrationId));
+    }
+
+    /**
+     * Starts a read from the delegate, which must be ended with {@link #endRead(long)}.
+     *
+     * @return the sequence to pass to {@link #put(Object, Registration, long)}.
+     */
+    private synchronized long beginRead() {
+        Integer count = reads.get(sequence);
+        reads.put(sequence, count == null ? 1 : count + 1);
+        return sequence;
+    }
+
+    private synchronized void endRead(long readSequence) {
+        Integer count = reads.remove(readSequence);
+        if (count > 1) {
+            reads.put(readSequence, count - 1);
+            return;
+        }
+        // forgets the invalidations no read in progress started before
+        if (reads.isEmpty()) {
+            invalidatedEndpoints.clear();
+            return;
+        }
+        long oldest = reads.firstKey();
+        Iterator<Long> invalidated = invalidatedEndpoints.values().iterator();
+        while (invalidated.hasNext() && invalidated.next() <= oldest) {
+            invalidated.remove();
+        }
+    }
+
+    private synchronized void put(Object cacheKey, Registration registration, long readSequence) {
+        Long invalidated = invalidatedEndpoints.get(registration.getEndpoint());
+        if (cleared > readSequence || (invalidated != null && invalidated > readSequence)) {
+            // invalidated while it was read from the store, it may be stale
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiration = Math.min(now + ttl, registration.getLastUpdate().getTime()
+                + registration.getLifeTimeInSec() * 1000);
+        if (expiration <= now) {
+            return;
+        }
+        remove(cacheKey);
+        entries.put(cacheKey, new CacheEntry(registration, expiration));
+        if (cacheKey instanceof String) {
+            endpointKeys.put(registration.getId(), (String) cacheKey);
+        }
+        Set<Object> keys = cacheKeysByEndpoint.get(registration.getEndpoint());
+        if (keys == null) {
+            keys = new HashSet<>(2);
+            cacheKeysByEndpoint.put(registration.getEndpoint(), keys);
+        }
+        keys.add(cacheKey);
+    }
+
+    private void remove(Object cacheKey) {
+        CacheEntry entry = entries.remove(cacheKey);
+        if (entry != null) {
+            unindex(cacheKey, entry.registration);
+        }
+    }
+
+    private void unindex(Object cacheKey, Registration registration) {
+        endpointKeys.remove(registration.getId(), cacheKey);
+        Set<Object> keys = cacheKeysByEndpoint.get(registration.getEndpoint());
+        if (keys != null && keys.remove(cacheKey) && keys.isEmpty()) {
+            cacheKeysByEndpoint.remove(registration.getEndpoint());
+        }
+    }
+
+    /**
+     * Invalidates the registrations of an endpoint, whatever their product key, and the reads of this endpoint in
+     * progress.
+     */
+    private synchronized void invalidateEndpoint(String endpoint) {
+        sequence++;
+        if (!reads.isEmpty()) {
+            // moved to the end, the invalidations stay ordered by sequence
+            invalidatedEndpoints.remove(endpoint);
+            invalidatedEndpoints.put(endpoint, sequence);
+        }
+        Set<Object> keys = cacheKeysByEndpoint.get(endpoint);
+        if (keys != null) {
+            for (Object cacheKey : new ArrayList<>(keys)) {
+                remove(cacheKey);
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Invalidates a registration of which only the id is known, with the endpoint of its cached entries.
+     */
+    private synchronized void invalidate(String registrationId) {
+        String endpointKey = endpointKeys.get(registrationId);
+        CacheEntry entry = endpointKey == null ? null : entries.get(endpointKey);
+        if (entry == null) {
+            entry = entries.get(new RegistrationIdKey(registrationId));
+        }
+        if (entry != null) {
+            invalidateEndpoint(entry.registration.getEndpoint());
+        }
+    }
+
+    /**
+     * Removes all the registrations from the cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        endpointKeys.clear();
+        cacheKeysByEndpoint.clear();
+        // the reads in progress may be stale as well
+        cleared = ++sequence;
+        invalidatedEndpoints.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of registrations removed because the cache was full or because they expired.
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return the number of registrations removed because they were modified.
+     */
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /* *************** Leshan Registration API **************** */
+
+    /*
+     * Invalidations happen after the modification: a registration read concurrently from the delegate before the
+     * modification is then never cached (see invalidatedEndpoints).
+     */
+
+    @Override
+    public Deregistration addRegistration(Registration registration, Object key) {
+        Deregistration deregistration = delegate.addRegistration(registration, key);
+        // the replaced registration has the same endpoint
+        invalidateEndpoint(registration.getEndpoint());
+        return deregistration;
+    }
+
+    @Override
+    public UpdatedRegistration updateRegistration(RegistrationUpdate update) {
+        UpdatedRegistration updated = delegate.updateRegistration(update);
+        if (updated != null) {
+            invalidateEndpoint(updated.getUpdatedRegistration().getEndpoint());
+        } else {
+            invalidate(update.getRegistrationId());
+        }
+        return updated;
+    }
+
+    @Override
+    public Registration getRegistration(String registrationId) {
+        Registration r = getById(registrationId);
+        if (r != null) {
+            hits.incrementAndGet();
+            return r;
+        }
+        misses.incrementAndGet();
+
+        // the product key is unknown here, cached by id
+        long readSequence = beginRead();
+        try {
+            r = delegate.getRegistration(registrationId);
+            if (r != null) {
+                put(new RegistrationIdKey(registrationId), r, readSequence);
+            }
+        } finally {
+            endRead(readSequence);
+        }
+        return r;
+    }
+
+    @Override
+    public Map<String, Registration> getRegistrations(Collection<String> registrationIds) {
+        return delegate.getRegistrations(registrationIds);
+    }
+
+    @Override
+    public Registration getRegistrationByEndpoint(String endpoint, Object key) {
+        String endpointKey = endpoint + key;
+        Registration r = get(endpointKey);
+        if (r != null) {
+            hits.incrementAndGet();
+            return r;
+        }
+        misses.incrementAndGet();
+
+        long readSequence = beginRead();
+        try {
+            r = delegate.getRegistrationByEndpoint(endpoint, key);
+            if (r != null) {
+                put(endpointKey, r, readSequence);
+            }
+        } finally {
+            endRead(readSequence);
+        }
+        return r;
+    }
+
+    @Override
+    public Registration getRegistrationByAdress(InetSocketAddress address) {
+        return delegate.getRegistrationByAdress(address);
+    }
+
+    @Override
+    public Iterator<Registration> getAllRegistrations() {
+        return delegate.getAllRegistrations();
+    }
+
+    @Override
+    public Deregistration removeRegistration(String registrationId) {
+        Deregistration deregistration = delegate.removeRegistration(registrationId);
+        if (deregistration != null) {
+            invalidateEndpoint(deregistration.getRegistration().getEndpoint());
+        } else {
+            invalidate(registrationId);
+        }
+        return deregistration;
+    }
+
+    @Override
+    public Object getValue(Object key) {
+        return delegate.getValue(key);
+    }
+
+    @Override
+    public void setExpirationListener(final ExpirationListener listener) {
+        delegate.setExpirationListener(new ExpirationListener() {
+            @Override
+            public void registrationExpired(Registration registration, Collection<Observation> observations) {
+                invalidateEndpoint(registration.getEndpoint());
+                listener.registrationExpired(registration, observations);
+            }
+        });
+    }
+
+    /* *************** Leshan Observation API **************** */
+
+    @Override
+    public Collection<Observation> addObservation(String registrationId, Observation observation) {
+        return delegate.addObservation(registrationId, observation);
+    }
+
+    @Override
+    public Observation getObservation(String registrationId, byte[] observationId) {
+        return delegate.getObservation(registrationId, observationId);
+    }
+
+    @Override
+    public Observation removeObservation(String registrationId, byte[] observationId) {
+        return delegate.removeObservation(registrationId, observationId);
+    }
+
+    @Override
+    public Collection<Observation> getObservations(String registrationId) {
+        return delegate.getObservations(registrationId);
+    }
+
+    @Override
+    public Collection<Observation> removeObservations(String registrationId) {
+        return delegate.removeObservations(registrationId);
+    }
+
+    /* *************** Californium ObservationStore API **************** */
+
+    @Override
+    public void add(org.eclipse.californium.core.observe.Observation obs) {
+        delegate.add(obs);
+    }
+
+    @Override
+    public void remove(byte[] token) {
+        delegate.remove(token);
+    }
+
+    @Override
+    public org.eclipse.californium.core.observe.Observation get(byte[] token) {
+        return delegate.get(token);
+    }
+
+    @Override
+    public void setContext(byte[] token, CorrelationContext correlationContext) {
+        delegate.setContext(token, correlationContext);
+    }
+
+    /* *************** Invalidation by registration events **************** */
+
+    /**
+     * Starts the delegate store and the subscription to the registration events.
+     */
+    @Override
+    public synchronized void start() {
+        if (delegate instanceof Startable) {
+            ((Startable) delegate).start();
+        }
+        running = true;
+        subscriberThread = new NamedThreadFactory("CachingRegistrationStore Subscriber").newThread(subscriber);
+        subscriberThread.setDaemon(true);
+        subscriberThread.start();
+    }
+
+    /**
+     * Stops the subscription to the registration events and the delegate store.
+     */
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (subscriber.isSubscribed()) {
+            subscriber.unsubscribe();
+        }
+        if (subscriberThread != null) {
+            subscriberThread.interrupt();
+            subscriberThread = null;
+        }
+        if (delegate instanceof Stoppable) {
+            ((Stoppable) delegate).stop();
+        }
+    }
+
+    private class Subscriber extends JedisPubSub implements Runnable {
+
+        @Override
+        public void run() {
+            while (running) {
+                try (Jedis j = pool.getResource()) {
+                    // blocks until unsubscribed
+                    j.subscribe(this, RedisRegistrationEventPublisher.REGISTER_EVENT,
+                            RedisRegistrationEventPublisher.UPDATE_EVENT,
+                            RedisRegistrationEventPublisher.DEREGISTER_EVENT);
+                } catch (RuntimeException e) {
+                    if (!running) {
+                        return;
+                    }
+                    LOG.warn("Registration events subscription lost, retrying in 1s", e);
+                }
+                // the events published in the meantime are lost
+                clear();
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void onMessage(String channel, String message) {
+            onRegistrationEvent(channel, message);
+        }
+    }
+
+    /**
+     * Invalidates the registrations modified by a registration event published by a
+     * {@link RedisRegistrationEventPublisher}.
+     */
+    void onRegistrationEvent(String channel, String message) {
+        try {
+            JsonObject event = Json.parse(message).asObject();
+            JsonObject registration = event;
+            if (RedisRegistrationEventPublisher.UPDATE_EVENT.equals(channel)) {
+                registration = event.get("regUpdated").asObject();
+            }
+
+            // the previous registration of the endpoint on a re-registration, and the registration itself
+            JsonValue previousRegId = event.get(RedisRegistrationEventPublisher.PREVIOUS_REG_ID);
+            if (previousRegId != null) {
+                invalidate(previousRegId.asString());
+            }
+            JsonValue endpoint = registration.get("ep");
+            if (endpoint != null) {
+                invalidateEndpoint(endpoint.asString());
+            }
+            JsonValue regId = registration.get("regId");
+            if (regId != null) {
+                invalidate(regId.asString());
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Unable to handle registration event [{}] on channel {}", message, channel, e);
+        }
+    }
+}
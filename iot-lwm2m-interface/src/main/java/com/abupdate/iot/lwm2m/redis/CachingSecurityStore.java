@@ -0,0 +1,372 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.redis;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.lwm2m.server.Startable;
+import org.eclipse.lwm2m.server.Stoppable;
+import org.eclipse.lwm2m.server.security.EditableSecurityStore;
+import org.eclipse.lwm2m.server.security.NonUniqueSecurityInfoException;
+import org.eclipse.lwm2m.server.security.SecurityInfo;
+import org.eclipse.lwm2m.util.NamedThreadFactory;
+import org.eclipse.lwm2m.util.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.util.Pool;
+
+/**
+ * An {@link EditableSecurityStore} keeping a bounded, per-node cache of the security infos read from a Redis backed
+ * store, so DTLS handshakes do not wait for Redis.
+ * <p>
+ * Security infos are cached by endpoint and by PSK identity. Unknown endpoints and identities are cached too, for a
+ * shorter time. The modifications going through this store invalidate the entries locally and are published on a
+ * Redis channel to invalidate the caches of the other nodes.
+ */
+public class CachingSecurityStore implements EditableSecurityStore, Startable, Stoppable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachingSecurityStore.class);
+
+    static final String CHANGE_EVENT = "LESHAN_SEC_CHANGE";
+
+    private final EditableSecurityStore delegate;
+    private final Pool<Jedis> pool;
+    private final int maxSize;
+    private final long ttl; // in milliseconds
+    private final long negativeTtl; // in milliseconds
+
+    // in access order
+    private final LinkedHashMap<String, CacheEntry> byEndpoint;
+    private final LinkedHashMap<String, CacheEntry> byIdentity;
+    // incremented on each invalidation, a security info read before an invalidation must not be cached
+    private final AtomicLong epoch = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong identityLookups = new AtomicLong();
+    private final AtomicLong identityLookupNanos = new AtomicLong();
+    private final AtomicLong maxIdentityLookupNanos = new AtomicLong();
+
+    private final Subscriber subscriber = new Subscriber();
+    private Thread subscriberThread;
+    private volatile boolean running;
+
+    public CachingSecurityStore(EditableSecurityStore delegate, Pool<Jedis> pool) {
+        this(delegate, pool, 10000, 300, 30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param delegate    the store holding the security infos.
+     * @param pool        the Redis connection pool used to publish and listen to the modifications.
+     * @param maxSize     the maximum number of endpoints (and of identities) cached.
+     * @param ttl         the maximum time a security info stays in the cache.
+     * @param negativeTtl the maximum time an unknown endpoint or identity stays in the cache.
+     * @param unit        the unit of <code>ttl</code> and <code>negativeTtl</code>.
+     */
+    public CachingSecurityStore(EditableSecurityStore delegate, Pool<Jedis> pool, int maxSize, long ttl,
+            long negativeTtl, TimeUnit unit) {
+        Validate.notNull(delegate);
+        Validate.isTrue(maxSize > 0, "maxSize must be positive");
+        this.delegate = delegate;
+        this.pool = pool;
+        this.maxSize = maxSize;
+        this.ttl = unit.toMillis(ttl);
+        this.negativeTtl = unit.toMillis(negativeTtl);
+        this.byEndpoint = newLruMap();
+        this.byIdentity = newLruMap();
+    }
+
+    private LinkedHashMap<String, CacheEntry> newLruMap() {
+        return new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /* *************** Cache **************** */
+
+    private static class CacheEntry {
+        // null for an unknown endpoint or identity
+        private final SecurityInfo info;
+        private final long expiration;
+
+        private CacheEntry(SecurityInfo info, long expiration) {
+            this.info = info;
+            this.expiration = expiration;
+        }
+    }
+
+    /**
+     * @return the cache entry, or <code>null</code> if the key is not cached.
+     */
+    private synchronized CacheEntry get(Map<String, CacheEntry> map, String key) {
+        CacheEntry entry = map.get(key);
+        if (entry != null && entry.expiration <= System.currentTimeMillis()) {
+            map.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void put(Map<String, CacheEntry> map, String key, SecurityInfo info, long readEpoch) {
+        if (readEpoch != epoch.get()) {
+            // invalidated while it was read from the store, it may be stale
+            return;
+        }
+        map.put(key, new CacheEntry(info, System.currentTimeMillis() + (info == null ? negativeTtl : ttl)));
+    }
+
+    private synchronized void invalidate(String endpoint, String... identities) {
+        epoch.incrementAndGet();
+        if (endpoint != null && byEndpoint.remove(endpoint) != null) {
+            invalidations.incrementAndGet();
+        }
+        for (String identity : identities) {
+            if (identity != null && byIdentity.remove(identity) != null) {
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Removes all the security infos from the cache.
+     */
+    public synchronized void clear() {
+        epoch.incrementAndGet();
+        byEndpoint.clear();
+        byIdentity.clear();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of entries removed because the security info was modified.
+     */
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /**
+     * @return the number of PSK identity lookups, as done by DTLS handshakes.
+     */
+    public long getIdentityLookups() {
+        return identityLookups.get();
+    }
+
+    /**
+     * @return the average duration of the PSK identity lookups, in microseconds.
+     */
+    public long getAverageIdentityLookupMicros() {
+        long lookups = identityLookups.get();
+        return lookups == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(identityLookupNanos.get() / lookups);
+    }
+
+    /**
+     * @return the longest duration of a PSK identity lookup, in microseconds.
+     */
+    public long getMaxIdentityLookupMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxIdentityLookupNanos.get());
+    }
+
+    /* *************** SecurityStore API **************** */
+
+    @Override
+    public SecurityInfo getByEndpoint(String endpoint) {
+        CacheEntry entry = get(byEndpoint, endpoint);
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry.info;
+        }
+        misses.incrementAndGet();
+
+        long readEpoch = epoch.get();
+        SecurityInfo info = delegate.getByEndpoint(endpoint);
+        put(byEndpoint, endpoint, info, readEpoch);
+        return info;
+    }
+
+    @Override
+    public SecurityInfo getByIdentity(String identity) {
+        long start = System.nanoTime();
+        try {
+            CacheEntry entry = get(byIdentity, identity);
+            if (entry != null) {
+                hits.incrementAndGet();
+                return entry.info;
+            }
+            misses.incrementAndGet();
+
+            long readEpoch = epoch.get();
+            SecurityInfo info = delegate.getByIdentity(identity);
+            put(byIdentity, identity, info, readEpoch);
+            return info;
+        } finally {
+            long duration = System.nanoTime() - start;
+            identityLookups.incrementAndGet();
+            identityLookupNanos.addAndGet(duration);
+            long max = maxIdentityLookupNanos.get();
+            while (duration > max && !maxIdentityLookupNanos.compareAndSet(max, duration)) {
+                max = maxIdentityLookupNanos.get();
+            }
+        }
+    }
+
+    @Override
+    public Collection<SecurityInfo> getAll() {
+        return delegate.getAll();
+    }
+
+    /*
+     * Invalidations happen after the modification: a security info read concurrently from the delegate before the
+     * modification is then never cached (see epoch).
+     */
+
+    @Override
+    public SecurityInfo add(SecurityInfo info) throws NonUniqueSecurityInfoException {
+        SecurityInfo previous = delegate.add(info);
+        changed(info.getEndpoint(), info.getIdentity(), previous == null ? null : previous.getIdentity());
+        return previous;
+    }
+
+    @Override
+    public SecurityInfo remove(String endpoint) {
+        SecurityInfo removed = delegate.remove(endpoint);
+        changed(endpoint, removed == null ? null : removed.getIdentity());
+        return removed;
+    }
+
+    private void changed(String endpoint, String... identities) {
+        invalidate(endpoint, identities);
+        if (pool == null) {
+            return;
+        }
+
+        JsonArray ids = new JsonArray();
+        for (String identity : identities) {
+            if (identity != null) {
+                ids.add(identity);
+            }
+        }
+        String message = new JsonObject().add("ep", endpoint).add("ids", ids).toString();
+        try (Jedis j = pool.getResource()) {
+            j.publish(CHANGE_EVENT, message);
+        } catch (RuntimeException e) {
+            LOG.warn("Unable to publish the modification of the security info of {}", endpoint, e);
+        }
+    }
+
+    /* *************** Invalidation by modification events **************** */
+
+    /**
+     * Starts the delegate store and the subscription to the modification events.
+     */
+    @Override
+    public synchronized void start() {
+        if (delegate instanceof Startable) {
+            ((Startable) delegate).start();
+        }
+        if (pool == null) {
+            return;
+        }
+        running = true;
+        subscriberThread = new NamedThreadFactory("CachingSecurityStore Subscriber").newThread(subscriber);
+        subscriberThread.setDaemon(true);
+        subscriberThread.start();
+    }
+
+    /**
+     * Stops the subscription to the modification events and the delegate store.
+     */
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (subscriber.isSubscribed()) {
+            subscriber.unsubscribe();
+        }
+        if (subscriberThread != null) {
+            subscriberThread.interrupt();
+            subscriberThread = null;
+        }
+        if (delegate instanceof Stoppable) {
+            ((Stoppable) delegate).stop();
+        }
+    }
+
+    private class Subscriber extends JedisPubSub implements Runnable {
+
+        @Override
+        public void run() {
+            while (running) {
+                try (Jedis j = pool.getResource()) {
+                    // blocks until unsubscribed
+                    j.subscribe(this, CHANGE_EVENT);
+                } catch (RuntimeException e) {
+                    if (!running) {
+                        return;
+                    }
+                    LOG.warn("Security info events subscription lost, retrying in 1s", e);
+                }
+                // the events published in the meantime are lost
+                clear();
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void onMessage(String channel, String message) {
+            try {
+                JsonObject event = Json.parse(message).asObject();
+                JsonArray ids = event.get("ids").asArray();
+                String[] identities = new String[ids.size()];
+                int i = 0;
+                for (JsonValue id : ids) {
+                    identities[i++] = id.asString();
+                }
+                invalidate(event.getString("ep", null), identities);
+            } catch (RuntimeException e) {
+                LOG.warn("Unable to handle security info event [{}]", message, e);
+            }
+        }
+    }
+}
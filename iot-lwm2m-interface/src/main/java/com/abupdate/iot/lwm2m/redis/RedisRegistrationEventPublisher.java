@@ -34,9 +34,11 @@ import redis.clients.util.Pool;
  */
 public class RedisRegistrationEventPublisher implements RegistrationListener {
 
-    private static String REGISTER_EVENT = "LESHAN_REG_NEW";
-    private static String UPDATE_EVENT = "LESHAN_REG_UP";
-    private static String DEREGISTER_EVENT = "LESHAN_REG_DEL";
+    static final String REGISTER_EVENT = "LESHAN_REG_NEW";
+    static final String UPDATE_EVENT = "LESHAN_REG_UP";
+    static final String DEREGISTER_EVENT = "LESHAN_REG_DEL";
+    // the id of the registration replaced by a new registration of the same endpoint
+    static final String PREVIOUS_REG_ID = "prevRegId";
     private Pool<Jedis> pool;
 
     public RedisRegistrationEventPublisher(Pool<Jedis> p) {
@@ -46,9 +48,12 @@ public class RedisRegistrationEventPublisher implements RegistrationListener {
     @Override
     public void registered(Registration registration, Registration previousReg,
                            Collection<Observation> previousObsersations) {
-        String payload = RegistrationSerDes.sSerialize(registration);
+        JsonObject value = RegistrationSerDes.jSerialize(registration);
+        if (previousReg != null) {
+            value.add(PREVIOUS_REG_ID, previousReg.getId());
+        }
         try (Jedis j = pool.getResource()) {
-            j.publish(REGISTER_EVENT, payload);
+            j.publish(REGISTER_EVENT, value.toString());
         }
     }
 
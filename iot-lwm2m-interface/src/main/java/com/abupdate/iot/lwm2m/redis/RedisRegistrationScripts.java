@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.redis;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+/**
+ * The Lua scripts used by {@link RedisRegistrationStore} to apply each registration and observation transition
+ * atomically, in a single round trip.
+ * <p>
+ * Registration scripts are compare-and-set operations: they are given the serialized registration read by the caller
+ * and do nothing if the stored value changed in the meantime. They reply with a table whose first element is
+ * <code>1</code> if the transition was applied, <code>0</code> otherwise, followed by the serialized observations
+ * removed if any.
+ */
+class RedisRegistrationScripts {
+
+    /*
+     * Removes all the observations of the token list KEYS[n] (ARGV[prefix] is the observation key prefix) and appends
+     * them to the result table.
+     */
+    private static String removeAllObservations(int tokensKey, int prefixArg) {
+        return "for _, token in ipairs(redis.call('LRANGE', KEYS[" + tokensKey + "], 0, -1)) do\n" //
+                + "  local obs = redis.call('GET', ARGV[" + prefixArg + "] .. token)\n" //
+                + "  if obs then\n" //
+                + "    table.insert(result, obs)\n" //
+                + "    redis.call('DEL', ARGV[" + prefixArg + "] .. token)\n" //
+                + "  end\n" //
+                + "end\n" //
+                + "redis.call('DEL', KEYS[" + tokensKey + "])\n";
+    }
+
+    /**
+     * KEYS: registration, registration id index, address index, expiration index, [previous registration id index,
+     * previous address index, previous token list]<br>
+     * ARGV: expected registration (empty if none), registration, endpoint, expiration date, observation key prefix
+     */
+    static final RedisScript ADD_REGISTRATION = new RedisScript("" //
+            + "if (redis.call('GET', KEYS[1]) or '') ~= ARGV[1] then return {0} end\n" //
+            + "redis.call('SET', KEYS[1], ARGV[2])\n" //
+            + "redis.call('SET', KEYS[2], ARGV[3])\n" //
+            + "redis.call('SET', KEYS[3], ARGV[3])\n" //
+            + "redis.call('ZADD', KEYS[4], ARGV[4], ARGV[3])\n" //
+            + "local result = {1}\n" //
+            + "if #KEYS > 4 then\n" //
+            + "  if KEYS[5] ~= KEYS[2] then redis.call('DEL', KEYS[5]) end\n" //
+            + "  if KEYS[6] ~= KEYS[3] and redis.call('GET', KEYS[6]) == ARGV[3] then redis.call('DEL', KEYS[6]) end\n"
+            + removeAllObservations(7, 5) //
+            + "end\n" //
+            + "return result\n");
+
+    /**
+     * KEYS: registration, address index, previous address index, expiration index<br>
+     * ARGV: expected registration, registration, endpoint, expiration date
+     */
+    static final RedisScript UPDATE_REGISTRATION = new RedisScript("" //
+            + "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return {0} end\n" //
+            + "redis.call('SET', KEYS[1], ARGV[2])\n" //
+            + "redis.call('SET', KEYS[2], ARGV[3])\n" //
+            + "if KEYS[3] ~= KEYS[2] and redis.call('GET', KEYS[3]) == ARGV[3] then redis.call('DEL', KEYS[3]) end\n"
+            + "redis.call('ZADD', KEYS[4], ARGV[4], ARGV[3])\n" //
+            + "return {1}\n");
+
+    /**
+     * KEYS: registration, expiration index<br>
+     * ARGV: expected registration, endpoint, expiration date
+     */
+    static final RedisScript SCORE_REGISTRATION = new RedisScript("" //
+            + "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return {0} end\n" //
+            + "redis.call('ZADD', KEYS[2], ARGV[3], ARGV[2])\n" //
+            + "return {1}\n");
+
+    /**
+     * KEYS: registration, registration id index, address index, expiration index, token list<br>
+     * ARGV: expected registration, endpoint, observation key prefix
+     */
+    static final RedisScript REMOVE_REGISTRATION = new RedisScript("" //
+            + "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return {0} end\n" //
+            + "redis.call('DEL', KEYS[1], KEYS[2])\n" //
+            + "if redis.call('GET', KEYS[3]) == ARGV[2] then redis.call('DEL', KEYS[3]) end\n" //
+            + "redis.call('ZREM', KEYS[4], ARGV[2])\n" //
+            + "local result = {1}\n" //
+            + removeAllObservations(5, 3) //
+            + "return result\n");
+
+    /**
+     * KEYS: registration id index, observation, token list<br>
+     * ARGV: observation, token
+     * <p>
+     * Replies <code>{0}</code> if the registration does not exist, <code>{1}</code> or <code>{1, replaced
+     * observation}</code> otherwise.
+     */
+    static final RedisScript ADD_OBSERVATION = new RedisScript("" //
+            + "if redis.call('EXISTS', KEYS[1]) == 0 then return {0} end\n" //
+            + "local previous = redis.call('GETSET', KEYS[2], ARGV[1])\n" //
+            + "redis.call('LPUSH', KEYS[3], ARGV[2])\n" //
+            + "if previous then return {1, previous} end\n" //
+            + "return {1}\n");
+
+    /**
+     * KEYS: observation, token list<br>
+     * ARGV: expected observation, token
+     */
+    static final RedisScript REMOVE_OBSERVATION = new RedisScript("" //
+            + "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return {0} end\n" //
+            + "redis.call('DEL', KEYS[1])\n" //
+            + "redis.call('LREM', KEYS[2], 0, ARGV[2])\n" //
+            + "return {1}\n");
+
+    /**
+     * KEYS: token list<br>
+     * ARGV: observation key prefix
+     */
+    static final RedisScript REMOVE_ALL_OBSERVATIONS = new RedisScript("" //
+            + "local result = {1}\n" //
+            + removeAllObservations(1, 1) //
+            + "return result\n");
+
+    private RedisRegistrationScripts() {
+    }
+
+    /**
+     * Loads all the scripts in the Redis script cache.
+     *
+     * @return <code>false</code> if the server does not support scripting.
+     */
+    static boolean load(Jedis j) {
+        try {
+            ADD_REGISTRATION.load(j);
+            UPDATE_REGISTRATION.load(j);
+            REMOVE_REGISTRATION.load(j);
+            SCORE_REGISTRATION.load(j);
+            ADD_OBSERVATION.load(j);
+            REMOVE_OBSERVATION.load(j);
+            REMOVE_ALL_OBSERVATIONS.load(j);
+            return true;
+        } catch (JedisDataException e) {
+            return false;
+        }
+    }
+}
@@ -19,6 +19,7 @@ import static com.abupdate.iot.lwm2m.coap.CoapRequestBuilder.CTX_LWM2M_PATH;
 import static com.abupdate.iot.lwm2m.coap.CoapRequestBuilder.CTX_REGID;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -30,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -57,6 +59,7 @@ import com.abupdate.iot.lwm2m.redis.serialization.RegistrationSerDes;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.Transaction;
 import redis.clients.util.Pool;
 
 /**
@@ -69,32 +72,63 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
     // Redis key prefixes
     private static final String REG_EP = "REG:EP:";
     private static final String REG_EP_REGID_IDX = "EP:REGID:"; // secondary index key (registration)
+    private static final String REG_ADDR_IDX = "ADDR:"; // secondary index key (registration by socket address)
+    private static final byte[] EXP_EP = "EXP:EP".getBytes(UTF_8); // sorted set (endpoint by expiration date)
+    private static final byte[] EXP_EP_BUILT = "EXP:EP:BUILT".getBytes(UTF_8); // set once EXP_EP indexes all endpoints
     private static final String LOCK_EP = "LOCK:EP:";
     private static final byte[] OBS_TKN = "OBS:TKN:".getBytes(UTF_8);
     private static final String OBS_TKNS_REGID_IDX = "TKNS:REGID:"; // secondary index (token list by registration)
 
+    // number of times a compare-and-set script is retried when the registration is modified concurrently
+    private static final int MAX_SCRIPT_ATTEMPTS = 10;
+
+    // maximum number of keys fetched by a single MGET
+    private static final int MGET_BATCH_SIZE = 500;
+
     private final Pool<Jedis> pool;
 
+    // whether the server supports Lua scripting, RedisLock is used otherwise (null until checked)
+    private volatile Boolean scripting;
+
     // Listener use to notify when a registration expires
     private ExpirationListener expirationListener;
 
     private final ScheduledExecutorService schedExecutor;
-    private final long cleanPeriod; // in seconds
+    private final long cleanPeriod; // in milliseconds
+    private final int cleanLimit; // maximum number of registrations expired per batch
 
     public RedisRegistrationStore(Pool<Jedis> p) {
-        this(p, 60); // default clean period 60s
+        this(p, 500, TimeUnit.MILLISECONDS); // default clean period 500ms
     }
 
     public RedisRegistrationStore(Pool<Jedis> p, long cleanPeriodInSec) {
+        this(p, cleanPeriodInSec, TimeUnit.SECONDS);
+    }
+
+    public RedisRegistrationStore(Pool<Jedis> p, long cleanPeriod, TimeUnit unit) {
         this(p, Executors.newScheduledThreadPool(1,
-                new NamedThreadFactory(String.format("RedisRegistrationStore Cleaner (%ds)", cleanPeriodInSec))),
-                cleanPeriodInSec);
+                new NamedThreadFactory(String.format("RedisRegistrationStore Cleaner (%dms)", unit.toMillis(cleanPeriod)))),
+                cleanPeriod, unit, 500);
     }
 
     public RedisRegistrationStore(Pool<Jedis> p, ScheduledExecutorService schedExecutor, long cleanPeriodInSec) {
+        this(p, schedExecutor, cleanPeriodInSec, TimeUnit.SECONDS, 500);
+    }
+
+    /**
+     * @param p             the Redis connection pool.
+     * @param schedExecutor the executor running the expiration task.
+     * @param cleanPeriod   the period between two expiration runs.
+     * @param unit          the unit of <code>cleanPeriod</code>.
+     * @param cleanLimit    the maximum number of registrations fetched from the expiration index per batch.
+     */
+    public RedisRegistrationStore(Pool<Jedis> p, ScheduledExecutorService schedExecutor, long cleanPeriod,
+            TimeUnit unit, int cleanLimit) {
+        Validate.isTrue(cleanLimit > 0, "cleanLimit must be positive");
         this.pool = p;
         this.schedExecutor = schedExecutor;
-        this.cleanPeriod = cleanPeriodInSec;
+        this.cleanPeriod = unit.toMillis(cleanPeriod);
+        this.cleanLimit = cleanLimit;
     }
 
     /* *************** Redis Key utility function **************** */
@@ -118,30 +152,77 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
         return toKey(LOCK_EP.getBytes(UTF_8), endpoint);
     }
 
+    /* *************** Lua script utility functions **************** */
+
+    private boolean useScripts(Jedis j) {
+        Boolean s = scripting;
+        if (s == null) {
+            s = RedisRegistrationScripts.load(j);
+            if (!s) {
+                LOG.warn("Redis server does not support Lua scripting, falling back to RedisLock");
+            }
+            scripting = s;
+        }
+        return s;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object> eval(Jedis j, RedisScript script, List<byte[]> keys, byte[]... args) {
+        return (List<Object>) script.eval(j, keys, Arrays.asList(args));
+    }
+
+    private boolean applied(List<Object> result) {
+        return ((Long) result.get(0)) == 1L;
+    }
+
+    private Collection<Observation> toObservations(List<Object> result) {
+        Collection<Observation> observations = new ArrayList<>(result.size() - 1);
+        for (Object obs : result.subList(1, result.size())) {
+            observations.add(build(deserializeObs((byte[]) obs)));
+        }
+        return observations;
+    }
+
     /* *************** Leshan Registration API **************** */
 
     @Override
     public Deregistration addRegistration(Registration registration, Object key) {
         try (Jedis j = pool.getResource()) {
+            byte[] ep = (registration.getEndpoint() + key).getBytes(UTF_8);
+            if (useScripts(j)) {
+                return scriptedAddRegistration(j, registration, ep);
+            }
+
             byte[] lockValue = null;
-            byte[] lockKey = toLockKey(registration.getEndpoint() + key);
+            byte[] lockKey = toLockKey(ep);
 
             try {
                 lockValue = RedisLock.acquire(j, lockKey);
 
+                byte[] k = toEndpointKey(ep);
+                byte[] old = j.get(k);
+                Registration oldRegistration = old == null ? null : deserializeReg(old);
+
+                Transaction tx = j.multi();
                 // add registration
-                byte[] k = toEndpointKey(registration.getEndpoint() + key);
-                byte[] old = j.getSet(k, serializeReg(registration));
-
-                // add registration: secondary index
-                byte[] idx = toRegIdKey(registration.getId() + key);
-                j.set(idx, (registration.getEndpoint() + key).getBytes(UTF_8));
-
-                if (old != null) {
-                    Registration oldRegistration = deserializeReg(old);
-                    // remove old secondary index
-                    if (registration.getId() != oldRegistration.getId())
-                        j.del(toRegIdKey(oldRegistration.getId()));
+                tx.set(k, serializeReg(registration));
+
+                // add registration: secondary indexes
+                tx.set(toRegIdKey(registration.getId()), ep);
+                tx.set(toAddrKey(registration), ep);
+
+                // add or update expiration
+                tx.zadd(EXP_EP, expirationTime(registration), ep);
+
+                if (oldRegistration != null) {
+                    // remove old secondary indexes
+                    if (!registration.getId().equals(oldRegistration.getId()))
+                        tx.del(toRegIdKey(oldRegistration.getId()));
+                }
+                tx.exec();
+
+                if (oldRegistration != null) {
+                    unsafeRemoveAddrIndex(j, oldRegistration, registration, ep);
                     // remove old observation
                     Collection<Observation> obsRemoved = unsafeRemoveAllObservations(j, oldRegistration.getId());
 
@@ -155,6 +236,30 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
         }
     }
 
+    private Deregistration scriptedAddRegistration(Jedis j, Registration registration, byte[] ep) {
+        byte[] k = toEndpointKey(ep);
+        byte[] data = serializeReg(registration);
+        for (int attempt = 0; attempt < MAX_SCRIPT_ATTEMPTS; attempt++) {
+            byte[] old = j.get(k);
+            Registration oldRegistration = old == null ? null : deserializeReg(old);
+
+            List<byte[]> keys = new ArrayList<>(Arrays.asList(k, toRegIdKey(registration.getId()),
+                    toAddrKey(registration), EXP_EP));
+            if (oldRegistration != null) {
+                keys.add(toRegIdKey(oldRegistration.getId()));
+                keys.add(toAddrKey(oldRegistration));
+                keys.add(toKey(OBS_TKNS_REGID_IDX, oldRegistration.getId()));
+            }
+            List<Object> result = eval(j, RedisRegistrationScripts.ADD_REGISTRATION, keys,
+                    old == null ? new byte[0] : old, data, ep, toScore(registration), OBS_TKN);
+            if (applied(result)) {
+                return oldRegistration == null ? null
+                        : new Deregistration(oldRegistration, toObservations(result));
+            }
+        }
+        throw new IllegalStateException("Too many concurrent modifications of registration " + new String(ep, UTF_8));
+    }
+
     @Override
     public UpdatedRegistration updateRegistration(RegistrationUpdate update) {
         try (Jedis j = pool.getResource()) {
@@ -165,6 +270,10 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
                 return null;
             }
 
+            if (useScripts(j)) {
+                return scriptedUpdateRegistration(j, update, ep);
+            }
+
             // fetch the client
             byte[] data = j.get(toEndpointKey(ep));
             if (data == null) {
@@ -174,14 +283,23 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
             Registration r = deserializeReg(data);
 
             byte[] lockValue = null;
-            byte[] lockKey = toLockKey(r.getEndpoint());
+            byte[] lockKey = toLockKey(ep);
             try {
                 lockValue = RedisLock.acquire(j, lockKey);
 
                 Registration updatedRegistration = update.update(r);
 
+                Transaction tx = j.multi();
                 // store the new client
-                j.set(toEndpointKey(updatedRegistration.getEndpoint()), serializeReg(updatedRegistration));
+                tx.set(toEndpointKey(ep), serializeReg(updatedRegistration));
+
+                // move the address index if the client changed its address or port
+                tx.set(toAddrKey(updatedRegistration), ep);
+
+                // update expiration
+                tx.zadd(EXP_EP, expirationTime(updatedRegistration), ep);
+                tx.exec();
+                unsafeRemoveAddrIndex(j, r, updatedRegistration, ep);
 
                 return new UpdatedRegistration(r, updatedRegistration);
 
@@ -191,6 +309,31 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
         }
     }
 
+    private UpdatedRegistration scriptedUpdateRegistration(Jedis j, RegistrationUpdate update, byte[] ep) {
+        byte[] k = toEndpointKey(ep);
+        for (int attempt = 0; attempt < MAX_SCRIPT_ATTEMPTS; attempt++) {
+            byte[] data = j.get(k);
+            if (data == null) {
+                return null;
+            }
+
+            Registration r = deserializeReg(data);
+            if (!r.getId().equals(update.getRegistrationId())) {
+                // the client registered again in the meantime
+                return null;
+            }
+            Registration updatedRegistration = update.update(r);
+
+            List<Object> result = eval(j, RedisRegistrationScripts.UPDATE_REGISTRATION,
+                    Arrays.asList(k, toAddrKey(updatedRegistration), toAddrKey(r), EXP_EP), data,
+                    serializeReg(updatedRegistration), ep, toScore(updatedRegistration));
+            if (applied(result)) {
+                return new UpdatedRegistration(r, updatedRegistration);
+            }
+        }
+        throw new IllegalStateException("Too many concurrent modifications of registration " + new String(ep, UTF_8));
+    }
+
     @Override
     public Registration getRegistration(String registrationId) {
         try (Jedis j = pool.getResource()) {
@@ -207,6 +350,48 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
         }
     }
 
+    @Override
+    public Map<String, Registration> getRegistrations(Collection<String> registrationIds) {
+        Map<String, Registration> result = new HashMap<>();
+        List<String> ids = new ArrayList<>(registrationIds);
+        try (Jedis j = pool.getResource()) {
+            for (int from = 0; from < ids.size(); from += MGET_BATCH_SIZE) {
+                List<String> batch = ids.subList(from, Math.min(from + MGET_BATCH_SIZE, ids.size()));
+
+                // fetch the client eps by registration ID index
+                byte[][] regIdKeys = new byte[batch.size()][];
+                for (int i = 0; i < regIdKeys.length; i++) {
+                    regIdKeys[i] = toRegIdKey(batch.get(i));
+                }
+                List<byte[]> eps = j.mget(regIdKeys);
+
+                // fetch the clients
+                List<String> foundIds = new ArrayList<>(batch.size());
+                List<byte[]> epKeys = new ArrayList<>(batch.size());
+                for (int i = 0; i < eps.size(); i++) {
+                    if (eps.get(i) != null) {
+                        foundIds.add(batch.get(i));
+                        epKeys.add(toEndpointKey(eps.get(i)));
+                    }
+                }
+                if (epKeys.isEmpty()) {
+                    continue;
+                }
+                List<byte[]> data = j.mget(epKeys.toArray(new byte[epKeys.size()][]));
+                for (int i = 0; i < data.size(); i++) {
+                    if (data.get(i) != null) {
+                        Registration r = deserializeReg(data.get(i));
+                        // the index may be stale if the client registered again in the meantime
+                        if (r.getId().equals(foundIds.get(i))) {
+                            result.put(r.getId(), r);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public Object getValue(Object key) {
         try (Jedis j = pool.getResource()) {
@@ -233,14 +418,23 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
 
     @Override
     public Registration getRegistrationByAdress(InetSocketAddress address) {
-        // TODO we should create an index instead of iterate all over the collection
-        for (Iterator<Registration> iterator = getAllRegistrations(); iterator.hasNext(); ) {
-            Registration r = iterator.next();
+        try (Jedis j = pool.getResource()) {
+            byte[] ep = j.get(toAddrKey(address.getAddress(), address.getPort()));
+            if (ep == null) {
+                return null;
+            }
+            byte[] data = j.get(toEndpointKey(ep));
+            if (data == null) {
+                return null;
+            }
+
+            // the index may be stale if the client moved in the meantime
+            Registration r = deserializeReg(data);
             if (address.getPort() == r.getPort() && address.getAddress().equals(r.getAddress())) {
                 return r;
             }
+            return null;
         }
-        return null;
     }
 
     @Override
@@ -319,37 +513,123 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
                 return null;
             }
 
+            if (useScripts(j)) {
+                return scriptedRemoveRegistration(j, registrationId, ep);
+            }
+
             byte[] data = j.get(toEndpointKey(ep));
             if (data == null) {
                 return null;
             }
 
             Registration r = deserializeReg(data);
-            deleteRegistration(j, r);
+            deleteRegistration(j, r, ep);
             Collection<Observation> obsRemoved = unsafeRemoveAllObservations(j, r.getId());
             return new Deregistration(r, obsRemoved);
         }
     }
 
-    private void deleteRegistration(Jedis j, Registration r) {
+    private Deregistration scriptedRemoveRegistration(Jedis j, String registrationId, byte[] ep) {
+        for (int attempt = 0; attempt < MAX_SCRIPT_ATTEMPTS; attempt++) {
+            byte[] data = j.get(toEndpointKey(ep));
+            if (data == null) {
+                return null;
+            }
+
+            Registration r = deserializeReg(data);
+            if (!r.getId().equals(registrationId)) {
+                // the client registered again in the meantime
+                return null;
+            }
+
+            Collection<Observation> obsRemoved = scriptedDeleteRegistration(j, r, ep, data);
+            if (obsRemoved != null) {
+                return new Deregistration(r, obsRemoved);
+            }
+        }
+        throw new IllegalStateException("Too many concurrent modifications of registration " + new String(ep, UTF_8));
+    }
+
+    /**
+     * Deletes the registration and its observations if it is still stored as <code>data</code>.
+     *
+     * @return the observations removed or <code>null</code> if the registration was modified in the meantime.
+     */
+    private Collection<Observation> scriptedDeleteRegistration(Jedis j, Registration r, byte[] ep, byte[] data) {
+        List<Object> result = eval(j, RedisRegistrationScripts.REMOVE_REGISTRATION,
+                Arrays.asList(toEndpointKey(ep), toRegIdKey(r.getId()), toAddrKey(r), EXP_EP,
+                        toKey(OBS_TKNS_REGID_IDX, r.getId())),
+                data, ep, OBS_TKN);
+        return applied(result) ? toObservations(result) : null;
+    }
+
+    private void deleteRegistration(Jedis j, Registration r, byte[] ep) {
         byte[] lockValue = null;
-        byte[] lockKey = toLockKey(r.getEndpoint());
+        byte[] lockKey = toLockKey(ep);
         try {
             lockValue = RedisLock.acquire(j, lockKey);
 
-            // delete all entries
-            j.del(toRegIdKey(r.getId()));
-            j.del(toEndpointKey(r.getEndpoint()));
+            unsafeDeleteRegistration(j, r, ep);
 
         } finally {
             RedisLock.release(j, lockKey, lockValue);
         }
     }
 
+    private void unsafeDeleteRegistration(Jedis j, Registration r, byte[] ep) {
+        // delete all entries
+        Transaction tx = j.multi();
+        tx.del(toRegIdKey(r.getId()));
+        tx.del(toEndpointKey(ep));
+        tx.zrem(EXP_EP, ep);
+        tx.exec();
+        unsafeRemoveAddrIndex(j, r, null, ep);
+    }
+
+    /**
+     * Removes the address index of <code>previous</code>, unless the index is still in use by <code>current</code>
+     * or has already been taken over by another endpoint.
+     * <p>
+     * The index is read outside of any transaction, and watched: its removal is discarded if another endpoint takes
+     * it over in the meantime. Must be called with the endpoint lock held, after the transaction modifying the
+     * registration.
+     */
+    private void unsafeRemoveAddrIndex(Jedis j, Registration previous, Registration current, byte[] ep) {
+        if (current != null && previous.getPort() == current.getPort()
+                && previous.getAddress().equals(current.getAddress())) {
+            return;
+        }
+        byte[] addrKey = toAddrKey(previous);
+        j.watch(addrKey);
+        if (Arrays.equals(ep, j.get(addrKey))) {
+            Transaction tx = j.multi();
+            tx.del(addrKey);
+            tx.exec();
+        } else {
+            j.unwatch();
+        }
+    }
+
     private byte[] toRegIdKey(String registrationId) {
         return toKey(REG_EP_REGID_IDX, registrationId);
     }
 
+    private static double expirationTime(Registration r) {
+        return r.getLastUpdate().getTime() + r.getLifeTimeInSec() * 1000;
+    }
+
+    private static byte[] toScore(Registration r) {
+        return String.valueOf((long) expirationTime(r)).getBytes(UTF_8);
+    }
+
+    private byte[] toAddrKey(Registration r) {
+        return toAddrKey(r.getAddress(), r.getPort());
+    }
+
+    private byte[] toAddrKey(InetAddress address, int port) {
+        return toKey(REG_ADDR_IDX, address.getHostAddress() + ":" + port);
+    }
+
     private byte[] toEndpointKey(String endpoint) {
         return toKey(REG_EP, endpoint);
     }
@@ -421,6 +701,16 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
                 return null;
             }
 
+            if (useScripts(j)) {
+                byte[] data = j.get(toKey(OBS_TKN, observationId));
+                Observation observation = data == null ? null : build(deserializeObs(data));
+                if (observation != null && registrationId.equals(observation.getRegistrationId())
+                        && scriptedRemoveObservation(j, registrationId, observationId, data)) {
+                    return observation;
+                }
+                return null;
+            }
+
             // remove observation
             byte[] lockValue = null;
             byte[] lockKey = toLockKey(ep);
@@ -453,14 +743,8 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
     }
 
     private Collection<Observation> getObservations(Jedis j, String registrationId) {
-        Collection<Observation> result = new ArrayList<>();
-        for (byte[] token : j.lrange(toKey(OBS_TKNS_REGID_IDX, registrationId), 0, -1)) {
-            byte[] obs = j.get(toKey(OBS_TKN, token));
-            if (obs != null) {
-                result.add(build(deserializeObs(obs)));
-            }
-        }
-        return result;
+        List<byte[]> tokens = j.lrange(toKey(OBS_TKNS_REGID_IDX, registrationId), 0, -1);
+        return fetchObservations(j, toObservationKeys(tokens, 0));
     }
 
     @Override
@@ -471,6 +755,11 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
             if (registration == null)
                 return Collections.emptyList();
 
+            if (useScripts(j)) {
+                return toObservations(eval(j, RedisRegistrationScripts.REMOVE_ALL_OBSERVATIONS,
+                        Collections.singletonList(toKey(OBS_TKNS_REGID_IDX, registrationId)), OBS_TKN));
+            }
+
             // get endpoint and create lock
             String endpoint = registration.getEndpoint();
             byte[] lockValue = null;
@@ -492,34 +781,50 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
         String endpoint = this.validateObservation(obs);
 
         try (Jedis j = pool.getResource()) {
+            String registrationId = obs.getRequest().getUserContext().get(CTX_REGID);
+            byte[] token = obs.getRequest().getToken();
+
+            if (useScripts(j)) {
+                List<Object> result = eval(j, RedisRegistrationScripts.ADD_OBSERVATION,
+                        Arrays.asList(toRegIdKey(registrationId), toKey(OBS_TKN, token),
+                                toKey(OBS_TKNS_REGID_IDX, registrationId)),
+                        serializeObs(obs), token);
+                if (!applied(result))
+                    throw new IllegalStateException("no registration for this Id");
+
+                logCollision(result.size() > 1 ? (byte[]) result.get(1) : null, obs);
+                return;
+            }
+
             byte[] lockValue = null;
             byte[] lockKey = toKey(LOCK_EP, endpoint);
             try {
                 lockValue = RedisLock.acquire(j, lockKey);
 
-                String registrationId = obs.getRequest().getUserContext().get(CTX_REGID);
                 if (!j.exists(toRegIdKey(registrationId)))
                     throw new IllegalStateException("no registration for this Id");
 
-                byte[] previousValue = j.getSet(toKey(OBS_TKN, obs.getRequest().getToken()), serializeObs(obs));
+                byte[] previousValue = j.getSet(toKey(OBS_TKN, token), serializeObs(obs));
 
                 // secondary index to get the list by registrationId
-                j.lpush(toKey(OBS_TKNS_REGID_IDX, registrationId), obs.getRequest().getToken());
-
-                // log any collisions
-                if (previousValue != null && previousValue.length != 0) {
-                    org.eclipse.californium.core.observe.Observation previousObservation = deserializeObs(
-                            previousValue);
-                    LOG.warn(
-                            "Token collision ? observation from request [{}] will be replaced by observation from request [{}] ",
-                            previousObservation.getRequest(), obs.getRequest());
-                }
+                j.lpush(toKey(OBS_TKNS_REGID_IDX, registrationId), token);
+
+                logCollision(previousValue, obs);
             } finally {
                 RedisLock.release(j, lockKey, lockValue);
             }
         }
     }
 
+    private void logCollision(byte[] previousValue, org.eclipse.californium.core.observe.Observation obs) {
+        if (previousValue != null && previousValue.length != 0) {
+            org.eclipse.californium.core.observe.Observation previousObservation = deserializeObs(previousValue);
+            LOG.warn(
+                    "Token collision ? observation from request [{}] will be replaced by observation from request [{}] ",
+                    previousObservation.getRequest(), obs.getRequest());
+        }
+    }
+
     @Override
     public void remove(byte[] token) {
         try (Jedis j = pool.getResource()) {
@@ -532,6 +837,13 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
 
             org.eclipse.californium.core.observe.Observation obs = deserializeObs(serializedObs);
             String registrationId = obs.getRequest().getUserContext().get(CoapRequestBuilder.CTX_REGID);
+
+            if (useScripts(j)) {
+                // a failed compare-and-set means the token was reused in the meantime: the new observation stays
+                scriptedRemoveObservation(j, registrationId, token, serializedObs);
+                return;
+            }
+
             Registration registration = getRegistration(registrationId);
             String endpoint = registration.getEndpoint();
 
@@ -562,6 +874,12 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
 
     /* *************** Observation utility functions **************** */
 
+    private boolean scriptedRemoveObservation(Jedis j, String registrationId, byte[] observationId, byte[] data) {
+        return applied(eval(j, RedisRegistrationScripts.REMOVE_OBSERVATION,
+                Arrays.asList(toKey(OBS_TKN, observationId), toKey(OBS_TKNS_REGID_IDX, registrationId)), data,
+                observationId));
+    }
+
     private void unsafeRemoveObservation(Jedis j, String registrationId, byte[] observationId) {
         if (j.del(toKey(OBS_TKN, observationId)) > 0L) {
             j.lrem(toKey(OBS_TKNS_REGID_IDX, registrationId), 0, observationId);
@@ -569,22 +887,44 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
     }
 
     private Collection<Observation> unsafeRemoveAllObservations(Jedis j, String registrationId) {
-        Collection<Observation> removed = new ArrayList<>();
         byte[] regIdKey = toKey(OBS_TKNS_REGID_IDX, registrationId);
+        List<byte[]> tokens = j.lrange(regIdKey, 0, -1);
 
         // fetch all observations by token
-        for (byte[] token : j.lrange(regIdKey, 0, -1)) {
-            byte[] obs = j.get(toKey(OBS_TKN, token));
-            if (obs != null) {
-                removed.add(build(deserializeObs(obs)));
-            }
-            j.del(toKey(OBS_TKN, token));
-        }
-        j.del(regIdKey);
+        byte[][] keys = toObservationKeys(tokens, 1);
+        Collection<Observation> removed = fetchObservations(j, Arrays.copyOf(keys, tokens.size()));
+
+        // then delete them along with the token list in a single command
+        keys[tokens.size()] = regIdKey;
+        j.del(keys);
 
         return removed;
     }
 
+    /**
+     * @param extra number of empty slots left at the end of the returned array
+     */
+    private byte[][] toObservationKeys(List<byte[]> tokens, int extra) {
+        byte[][] keys = new byte[tokens.size() + extra][];
+        for (int i = 0; i < tokens.size(); i++) {
+            keys[i] = toKey(OBS_TKN, tokens.get(i));
+        }
+        return keys;
+    }
+
+    private Collection<Observation> fetchObservations(Jedis j, byte[][] keys) {
+        Collection<Observation> result = new ArrayList<>(keys.length);
+        for (int from = 0; from < keys.length; from += MGET_BATCH_SIZE) {
+            byte[][] batch = Arrays.copyOfRange(keys, from, Math.min(from + MGET_BATCH_SIZE, keys.length));
+            for (byte[] obs : j.mget(batch)) {
+                if (obs != null) {
+                    result.add(build(deserializeObs(obs)));
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public void setContext(byte[] token, CorrelationContext correlationContext) {
         // TODO should be implemented
@@ -644,7 +984,8 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
      */
     @Override
     public void start() {
-        schedExecutor.scheduleAtFixedRate(new Cleaner(), cleanPeriod, cleanPeriod, TimeUnit.SECONDS);
+        schedExecutor.execute(new ExpirationIndexBuilder());
+        schedExecutor.scheduleAtFixedRate(new Cleaner(), cleanPeriod, cleanPeriod, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -660,28 +1001,120 @@ public class RedisRegistrationStore implements CaliforniumRegistrationStore, Sta
         }
     }
 
+    /**
+     * Removes the given registration and its observations if it is expired.
+     * <p>
+     * The removal acts as a claim: if several cluster nodes pick the same endpoint from the expiration index, only the
+     * first one finds the registration still stored and removes it, the others see nothing left to expire.
+     *
+     * @return the expired registration or <code>null</code> if this node did not expire it.
+     */
+    private Deregistration expireRegistration(Jedis j, byte[] ep) {
+        if (useScripts(j)) {
+            byte[] data = j.get(toEndpointKey(ep));
+            if (data == null) {
+                // stale entry, the registration was removed without going through this store
+                j.zrem(EXP_EP, ep);
+                return null;
+            }
+
+            Registration r = deserializeReg(data);
+            if (r.isAlive()) {
+                // the index is behind the stored registration, move its expiration or the cleaner would pick it again
+                eval(j, RedisRegistrationScripts.SCORE_REGISTRATION, Arrays.asList(toEndpointKey(ep), EXP_EP), data,
+                        ep, toScore(r));
+                return null;
+            }
+
+            Collection<Observation> obsRemoved = scriptedDeleteRegistration(j, r, ep, data);
+            return obsRemoved == null ? null : new Deregistration(r, obsRemoved);
+        }
+
+        byte[] lockValue = null;
+        byte[] lockKey = toLockKey(ep);
+        try {
+            lockValue = RedisLock.acquire(j, lockKey);
+
+            byte[] data = j.get(toEndpointKey(ep));
+            if (data == null) {
+                // stale entry, the registration was removed without going through this store
+                j.zrem(EXP_EP, ep);
+                return null;
+            }
+
+            Registration r = deserializeReg(data);
+            if (r.isAlive()) {
+                // the registration was updated in the meantime, make sure the index is up to date
+                j.zadd(EXP_EP, expirationTime(r), ep);
+                return null;
+            }
+
+            unsafeDeleteRegistration(j, r, ep);
+            return new Deregistration(r, unsafeRemoveAllObservations(j, r.getId()));
+        } finally {
+            RedisLock.release(j, lockKey, lockValue);
+        }
+    }
+
     private class Cleaner implements Runnable {
 
         @Override
         public void run() {
 
             try (Jedis j = pool.getResource()) {
+                Set<byte[]> endpointsExpired;
+                do {
+                    endpointsExpired = j.zrangeByScore(EXP_EP, Double.NEGATIVE_INFINITY, System.currentTimeMillis(),
+                            0, cleanLimit);
+                    for (byte[] ep : endpointsExpired) {
+                        Deregistration d = expireRegistration(j, ep);
+                        if (d != null) {
+                            expirationListener.registrationExpired(d.getRegistration(), d.getObservations());
+                        }
+                    }
+                } while (endpointsExpired.size() == cleanLimit && !Thread.currentThread().isInterrupted());
+            } catch (Exception e) {
+                LOG.warn("Unexpected Exception while registration cleaning", e);
+            }
+        }
+    }
+
+    /**
+     * Adds the registrations stored before the expiration index existed to this index.
+     * <p>
+     * This migration runs once for the whole cluster: its completion is recorded in {@link #EXP_EP_BUILT}. Deleting
+     * this key rebuilds the index on the next start.
+     */
+    private class ExpirationIndexBuilder implements Runnable {
+
+        @Override
+        public void run() {
+
+            try (Jedis j = pool.getResource()) {
+                if (j.exists(EXP_EP_BUILT)) {
+                    return;
+                }
                 ScanParams params = new ScanParams().match(REG_EP + "*").count(100);
                 String cursor = "0";
                 do {
-                    // TODO we probably need a lock here
                     ScanResult<byte[]> res = j.scan(cursor.getBytes(), params);
                     for (byte[] key : res.getResult()) {
-                        Registration r = deserializeReg(j.get(key));
-                        if (!r.isAlive()) {
-                            deleteRegistration(j, r);
-                            expirationListener.registrationExpired(r, new ArrayList<Observation>());
+                        byte[] ep = Arrays.copyOfRange(key, REG_EP.length(), key.length);
+                        if (j.zscore(EXP_EP, ep) == null) {
+                            byte[] data = j.get(key);
+                            if (data != null) {
+                                j.zadd(EXP_EP, expirationTime(deserializeReg(data)), ep);
+                            }
                         }
                     }
                     cursor = res.getStringCursor();
-                } while (!"0".equals(cursor));
+                } while (!"0".equals(cursor) && !Thread.currentThread().isInterrupted());
+                if ("0".equals(cursor)) {
+                    j.set(EXP_EP_BUILT, String.valueOf(System.currentTimeMillis()).getBytes(UTF_8));
+                    LOG.info("Registration expiration index built");
+                }
             } catch (Exception e) {
-                LOG.warn("Unexpected Exception while registration cleaning", e);
+                LOG.warn("Unexpected Exception while building registration expiration index", e);
             }
         }
     }
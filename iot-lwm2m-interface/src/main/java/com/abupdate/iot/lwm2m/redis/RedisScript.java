@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.redis;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.List;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+/**
+ * A Lua script executed server side with EVALSHA (see http://redis.io/commands/eval for more information).
+ * <p>
+ * The script is sent once with SCRIPT LOAD, and sent again transparently if the server lost it (restart, fail-over or
+ * SCRIPT FLUSH).
+ */
+public class RedisScript {
+
+    private static final String NOSCRIPT_ERROR = "NOSCRIPT";
+
+    private final byte[] source;
+    private volatile byte[] sha;
+
+    public RedisScript(String source) {
+        this.source = source.getBytes(UTF_8);
+    }
+
+    /**
+     * Loads the script in the Redis script cache.
+     *
+     * @param j a Redis connection
+     * @throws JedisDataException if the server does not support scripting
+     */
+    public void load(Jedis j) {
+        sha = j.scriptLoad(source);
+    }
+
+    /**
+     * Executes the script.
+     *
+     * @param j    a Redis connection
+     * @param keys the keys accessed by the script (KEYS table)
+     * @param args the additional arguments (ARGV table)
+     * @return the script reply
+     */
+    public Object eval(Jedis j, List<byte[]> keys, List<byte[]> args) {
+        if (sha == null) {
+            load(j);
+        }
+        try {
+            return j.evalsha(sha, keys, args);
+        } catch (JedisDataException e) {
+            if (e.getMessage() == null || !e.getMessage().startsWith(NOSCRIPT_ERROR)) {
+                throw e;
+            }
+            load(j);
+            return j.evalsha(sha, keys, args);
+        }
+    }
+}
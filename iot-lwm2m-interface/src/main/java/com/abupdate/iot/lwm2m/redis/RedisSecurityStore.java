@@ -84,9 +84,13 @@ public class RedisSecurityStore implements EditableSecurityStore {
             String cursor = "0";
             do {
                 ScanResult<byte[]> res = j.scan(cursor.getBytes(), params);
-                for (byte[] key : res.getResult()) {
-                    byte[] element = j.get(key);
-                    list.add(deserialize(element));
+                if (!res.getResult().isEmpty()) {
+                    for (byte[] element : j.mget(res.getResult().toArray(new byte[][] {}))) {
+                        // the entry may have been removed since the scan
+                        if (element != null) {
+                            list.add(deserialize(element));
+                        }
+                    }
                 }
                 cursor = res.getStringCursor();
             } while (!"0".equals(cursor));
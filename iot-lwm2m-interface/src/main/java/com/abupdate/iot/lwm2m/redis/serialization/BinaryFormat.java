@@ -0,0 +1,285 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.redis.serialization;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.lwm2m.Link;
+
+/**
+ * The compact binary format used to store records in Redis.
+ * <p>
+ * A record starts with a header made of a magic byte, a record type and a schema version. The magic byte can not start
+ * a JSON document, so readers can still accept the records written in JSON by previous versions. Integers are encoded
+ * as unsigned LEB128 varints, strings and byte arrays are prefixed by their length plus one (0 meaning
+ * <code>null</code>).
+ */
+class BinaryFormat {
+
+    static final byte MAGIC = (byte) 0xB1;
+
+    // record types
+    static final byte REGISTRATION = 'R';
+    static final byte REGISTRATION_UPDATE = 'U';
+    static final byte SECURITY_INFO = 'S';
+    static final byte OBSERVATION = 'O';
+
+    // link attribute value types
+    private static final int ATTR_INT = 0;
+    private static final int ATTR_STRING = 1;
+
+    /*
+     * Well-known object link URLs, encoded by their index. This table is part of schema version 1: entries must never be
+     * reordered or removed, new entries require a new version.
+     */
+    private static final String[] LINK_URLS = { "/", "/0", "/0/0", "/0/1", "/1", "/1/0", "/1/1", "/2", "/2/0", "/3",
+            "/3/0", "/4", "/4/0", "/5", "/5/0", "/6", "/6/0", "/7", "/7/0", "/9", "/9/0" };
+    private static final Map<String, Integer> LINK_URL_CODES = new HashMap<>();
+    static {
+        for (int i = 0; i < LINK_URLS.length; i++) {
+            LINK_URL_CODES.put(LINK_URLS[i], i + 1);
+        }
+    }
+
+    private BinaryFormat() {
+    }
+
+    /**
+     * @return <code>true</code> if <code>data</code> is a binary record (and not a legacy JSON record).
+     */
+    static boolean isBinary(byte[] data) {
+        return data.length > 0 && data[0] == MAGIC;
+    }
+
+    static class Writer {
+
+        private byte[] buf = new byte[128];
+        private int pos = 0;
+
+        Writer(byte type, int version) {
+            writeByte(MAGIC);
+            writeByte(type);
+            writeByte(version);
+        }
+
+        void writeByte(int b) {
+            if (pos == buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            buf[pos++] = (byte) b;
+        }
+
+        void writeVarLong(long v) {
+            while ((v & ~0x7FL) != 0) {
+                writeByte((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            writeByte((int) v);
+        }
+
+        void writeBoolean(boolean b) {
+            writeByte(b ? 1 : 0);
+        }
+
+        void writeBytes(byte[] b) {
+            if (b == null) {
+                writeVarLong(0);
+                return;
+            }
+            writeVarLong(b.length + 1L);
+            if (pos + b.length > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + b.length));
+            }
+            System.arraycopy(b, 0, buf, pos, b.length);
+            pos += b.length;
+        }
+
+        void writeString(String s) {
+            writeBytes(s == null ? null : s.getBytes(UTF_8));
+        }
+
+        void writeStringMap(Map<String, String> map) {
+            writeVarLong(map.size());
+            for (Map.Entry<String, String> e : map.entrySet()) {
+                writeString(e.getKey());
+                writeString(e.getValue());
+            }
+        }
+
+        void writeLinks(Link[] links) {
+            writeVarLong(links.length);
+            for (Link l : links) {
+                Integer code = LINK_URL_CODES.get(l.getUrl());
+                if (code != null) {
+                    writeVarLong(code);
+                } else {
+                    writeVarLong(0);
+                    writeString(l.getUrl());
+                }
+
+                writeVarLong(l.getAttributes().size());
+                for (Map.Entry<String, Object> e : l.getAttributes().entrySet()) {
+                    writeString(e.getKey());
+                    if (e.getValue() instanceof Integer) {
+                        writeByte(ATTR_INT);
+                        int v = (int) e.getValue();
+                        writeVarLong(((v << 1) ^ (v >> 31)) & 0xFFFFFFFFL); // zigzag
+                    } else {
+                        writeByte(ATTR_STRING);
+                        writeString(e.getValue().toString());
+                    }
+                }
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+    }
+
+    static class Reader {
+
+        private final byte[] buf;
+        private final int version;
+        private int pos;
+
+        /**
+         * @param expectedType the type of the record
+         * @param maxVersion   the latest schema version known by the caller
+         */
+        Reader(byte[] data, byte expectedType, int maxVersion) {
+            this.buf = data;
+            if (readByte() != MAGIC) {
+                throw new IllegalArgumentException("Not a binary record");
+            }
+            byte type = readByte();
+            if (type != expectedType) {
+                throw new IllegalArgumentException(
+                        String.format("Unexpected record type: %c instead of %c", type, expectedType));
+            }
+            version = readByte() & 0xFF;
+            if (version < 1 || version > maxVersion) {
+                throw new IllegalArgumentException("Unsupported record version: " + version);
+            }
+        }
+
+        /**
+         * @return the schema version of the record.
+         */
+        int getVersion() {
+            return version;
+        }
+
+        byte readByte() {
+            if (pos >= buf.length) {
+                throw new IllegalArgumentException("Truncated binary record");
+            }
+            return buf[pos++];
+        }
+
+        long readVarLong() {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                v |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return v;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        byte[] readBytes() {
+            int length = readVarInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length > buf.length - pos) {
+                throw new IllegalArgumentException("Truncated binary record");
+            }
+            byte[] b = Arrays.copyOfRange(buf, pos, pos + length);
+            pos += length;
+            return b;
+        }
+
+        String readString() {
+            int length = readVarInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length > buf.length - pos) {
+                throw new IllegalArgumentException("Truncated binary record");
+            }
+            String s = new String(buf, pos, length, UTF_8);
+            pos += length;
+            return s;
+        }
+
+        Map<String, String> readStringMap() {
+            int size = readVarInt();
+            Map<String, String> map = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                map.put(readString(), readString());
+            }
+            return map;
+        }
+
+        Link[] readLinks() {
+            Link[] links = new Link[readVarInt()];
+            for (int i = 0; i < links.length; i++) {
+                int code = readVarInt();
+                String url;
+                if (code == 0) {
+                    // links are repeated across thousands of registrations, share their instances
+                    url = readString().intern();
+                } else if (code <= LINK_URLS.length) {
+                    url = LINK_URLS[code - 1];
+                } else {
+                    throw new IllegalArgumentException("Unknown link url code: " + code);
+                }
+
+                int size = readVarInt();
+                Map<String, Object> attributes = new HashMap<>();
+                for (int j = 0; j < size; j++) {
+                    String key = readString().intern();
+                    byte type = readByte();
+                    if (type == ATTR_INT) {
+                        long v = readVarLong();
+                        attributes.put(key, (int) (v >>> 1) ^ -(int) (v & 1));
+                    } else if (type == ATTR_STRING) {
+                        attributes.put(key, readString());
+                    } else {
+                        throw new IllegalArgumentException("Unknown link attribute type: " + type);
+                    }
+                }
+                links[i] = new Link(url, attributes);
+            }
+            return links;
+        }
+    }
+}
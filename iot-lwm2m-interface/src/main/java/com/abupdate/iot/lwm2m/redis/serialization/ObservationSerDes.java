@@ -33,7 +33,8 @@ import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 
 /**
- * Functions for serializing and deserializing a Californium {@link Observation} in JSON.
+ * Functions for serializing and deserializing a Californium {@link Observation} in JSON or in the compact
+ * {@link BinaryFormat}.
  * <p>
  * The embedded CoAP request is serialized using the Californium network serialization (see {@link UdpDataParser} and
  * {@link UdpDataSerializer}).
@@ -43,7 +44,21 @@ public class ObservationSerDes {
     private static final DataSerializer serializer = new UdpDataSerializer();
     private static final DataParser parser = new UdpDataParser();
 
+    private static final int VERSION = 1;
+
     public static byte[] serialize(Observation obs) {
+        BinaryFormat.Writer w = new BinaryFormat.Writer(BinaryFormat.OBSERVATION, VERSION);
+        w.writeBytes(serializer.serializeRequest(obs.getRequest()).bytes);
+
+        Map<String, String> context = obs.getRequest().getUserContext();
+        w.writeBoolean(context != null);
+        if (context != null) {
+            w.writeStringMap(context);
+        }
+        return w.toByteArray();
+    }
+
+    public static JsonObject jSerialize(Observation obs) {
         JsonObject o = Json.object();
 
         o.set("request", Hex.encodeHexString(serializer.serializeRequest(obs.getRequest()).bytes));
@@ -55,10 +70,19 @@ public class ObservationSerDes {
             }
             o.set("context", ctxObject);
         }
-        return o.toString().getBytes();
+        return o;
     }
 
     public static Observation deserialize(byte[] data) {
+        if (BinaryFormat.isBinary(data)) {
+            BinaryFormat.Reader rd = new BinaryFormat.Reader(data, BinaryFormat.OBSERVATION, VERSION);
+            Request request = (Request) parser.parseMessage(new RawData(rd.readBytes(), null, 0));
+            if (rd.readBoolean()) {
+                request.setUserContext(rd.readStringMap());
+            }
+            return new Observation(request, null);
+        }
+
         JsonObject v = (JsonObject) Json.parse(new String(data));
 
         byte[] req = Hex.decodeHex(v.getString("request", null).toCharArray());
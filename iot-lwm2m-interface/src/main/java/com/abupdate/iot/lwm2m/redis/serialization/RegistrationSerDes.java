@@ -15,7 +15,9 @@
  *******************************************************************************/
 package com.abupdate.iot.lwm2m.redis.serialization;
 
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -30,10 +32,12 @@ import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 
 /**
- * Functions for serialize and deserialize a Client in JSON.
+ * Functions for serialize and deserialize a Client in JSON or in the compact {@link BinaryFormat}.
  */
 public class RegistrationSerDes {
 
+    private static final int VERSION = 1;
+
     public static JsonObject jSerialize(Registration r) {
         JsonObject o = Json.object();
         o.add("regDate", r.getRegistrationDate().getTime());
@@ -50,22 +54,24 @@ public class RegistrationSerDes {
         o.add("ep", r.getEndpoint());
         o.add("regId", r.getId());
 
-        JsonArray links = new JsonArray();
-        for (Link l : r.getObjectLinks()) {
-            JsonObject ol = Json.object();
-            ol.add("url", l.getUrl());
-            JsonObject at = Json.object();
-            for (Map.Entry<String, Object> e : l.getAttributes().entrySet()) {
-                if (e.getValue() instanceof Integer) {
-                    at.add(e.getKey(), (int) e.getValue());
-                } else {
-                    at.add(e.getKey(), e.getValue().toString());
+        if (r.getObjectLinks() != null) {
+            JsonArray links = new JsonArray();
+            for (Link l : r.getObjectLinks()) {
+                JsonObject ol = Json.object();
+                ol.add("url", l.getUrl());
+                JsonObject at = Json.object();
+                for (Map.Entry<String, Object> e : l.getAttributes().entrySet()) {
+                    if (e.getValue() instanceof Integer) {
+                        at.add(e.getKey(), (int) e.getValue());
+                    } else {
+                        at.add(e.getKey(), e.getValue().toString());
+                    }
                 }
+                ol.add("at", at);
+                links.add(ol);
             }
-            ol.add("at", at);
-            links.add(ol);
+            o.add("objLink", links);
         }
-        o.add("objLink", links);
         JsonObject addAttr = Json.object();
         for (Map.Entry<String, String> e : r.getAdditionalRegistrationAttributes().entrySet()) {
             addAttr.add(e.getKey(), e.getValue());
@@ -81,7 +87,25 @@ public class RegistrationSerDes {
     }
 
     public static byte[] bSerialize(Registration r) {
-        return jSerialize(r).toString().getBytes();
+        BinaryFormat.Writer w = new BinaryFormat.Writer(BinaryFormat.REGISTRATION, VERSION);
+        w.writeString(r.getId());
+        w.writeString(r.getEndpoint());
+        w.writeBytes(r.getAddress().getAddress());
+        w.writeVarLong(r.getPort());
+        w.writeString(r.getRegistrationEndpointAddress().getHostString());
+        w.writeVarLong(r.getRegistrationEndpointAddress().getPort());
+        w.writeVarLong(r.getLifeTimeInSec());
+        w.writeString(r.getSmsNumber());
+        w.writeString(r.getLwM2mVersion());
+        w.writeString(r.getBindingMode().name());
+        w.writeVarLong(r.getRegistrationDate().getTime());
+        w.writeVarLong(r.getLastUpdate().getTime());
+        w.writeBoolean(r.getObjectLinks() != null);
+        if (r.getObjectLinks() != null) {
+            w.writeLinks(r.getObjectLinks());
+        }
+        w.writeStringMap(r.getAdditionalRegistrationAttributes());
+        return w.toByteArray();
     }
 
     public static Registration deserialize(JsonObject jObj) {
@@ -99,24 +123,26 @@ public class RegistrationSerDes {
         }
 
         JsonArray links = (JsonArray) jObj.get("objLink");
-        Link[] linkObjs = new Link[links.size()];
-        for (int i = 0; i < links.size(); i++) {
-            JsonObject ol = (JsonObject) links.get(i);
-
-            Map<String, Object> attMap = new HashMap<>();
-            JsonObject att = (JsonObject) ol.get("at");
-            for (String k : att.names()) {
-                JsonValue jsonValue = att.get(k);
-                if (jsonValue.isNumber()) {
-                    attMap.put(k, jsonValue.asInt());
-                } else {
-                    attMap.put(k, jsonValue.asString());
+        if (links != null) {
+            Link[] linkObjs = new Link[links.size()];
+            for (int i = 0; i < links.size(); i++) {
+                JsonObject ol = (JsonObject) links.get(i);
+
+                Map<String, Object> attMap = new HashMap<>();
+                JsonObject att = (JsonObject) ol.get("at");
+                for (String k : att.names()) {
+                    JsonValue jsonValue = att.get(k);
+                    if (jsonValue.isNumber()) {
+                        attMap.put(k, jsonValue.asInt());
+                    } else {
+                        attMap.put(k, jsonValue.asString());
+                    }
                 }
+                Link o = new Link(ol.getString("url", null), attMap);
+                linkObjs[i] = o;
             }
-            Link o = new Link(ol.getString("url", null), attMap);
-            linkObjs[i] = o;
+            b.objectLinks(linkObjs);
         }
-        b.objectLinks(linkObjs);
         Map<String, String> addAttr = new HashMap<>();
         JsonObject o = (JsonObject) jObj.get("addAttr");
         for (String k : o.names()) {
@@ -128,6 +154,40 @@ public class RegistrationSerDes {
     }
 
     public static Registration deserialize(byte[] data) {
-        return deserialize((JsonObject) Json.parse(new String(data)));
+        if (!BinaryFormat.isBinary(data)) {
+            // record written in JSON by a previous version
+            return deserialize((JsonObject) Json.parse(new String(data)));
+        }
+
+        BinaryFormat.Reader rd = new BinaryFormat.Reader(data, BinaryFormat.REGISTRATION, VERSION);
+        String id = rd.readString();
+        String ep = rd.readString();
+        InetAddress address;
+        try {
+            address = InetAddress.getByAddress(rd.readBytes());
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Invalid registration address", e);
+        }
+        int port = rd.readVarInt();
+        String regAddr = rd.readString();
+        int regPort = rd.readVarInt();
+
+        Registration.Builder b = new Registration.Builder(id, ep, address, port,
+                new InetSocketAddress(regAddr, regPort));
+        b.lifeTimeInSec(rd.readVarLong());
+        String sms = rd.readString();
+        if (sms != null) {
+            b.smsNumber(sms);
+        }
+        b.lwM2mVersion(rd.readString());
+        b.bindingMode(BindingMode.valueOf(rd.readString()));
+        b.registrationDate(new Date(rd.readVarLong()));
+        b.lastUpdate(new Date(rd.readVarLong()));
+        if (rd.readBoolean()) {
+            b.objectLinks(rd.readLinks());
+        }
+        b.additionalRegistrationAttributes(rd.readStringMap());
+
+        return b.build();
     }
 }
\ No newline at end of file
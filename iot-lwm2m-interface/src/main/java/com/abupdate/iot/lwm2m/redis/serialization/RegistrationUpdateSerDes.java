@@ -30,10 +30,18 @@ import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 
 /**
- * Functions for serialize and deserialize a ClientUpdate in JSON.
+ * Functions for serialize and deserialize a ClientUpdate in JSON or in the compact {@link BinaryFormat}.
  */
 public class RegistrationUpdateSerDes {
 
+    private static final int VERSION = 1;
+
+    // optional fields present in a binary record
+    private static final int HAS_LIFETIME = 1;
+    private static final int HAS_SMS = 1 << 1;
+    private static final int HAS_BINDING = 1 << 2;
+    private static final int HAS_LINKS = 1 << 3;
+
     public static JsonObject jSerialize(RegistrationUpdate u) {
         JsonObject o = Json.object();
 
@@ -75,11 +83,43 @@ public class RegistrationUpdateSerDes {
         return jSerialize(r).toString();
     }
 
-    public static byte[] bSerialize(RegistrationUpdate r) {
-        return jSerialize(r).toString().getBytes();
+    public static byte[] bSerialize(RegistrationUpdate u) {
+        BinaryFormat.Writer w = new BinaryFormat.Writer(BinaryFormat.REGISTRATION_UPDATE, VERSION);
+
+        // mandatory fields
+        w.writeString(u.getRegistrationId());
+        w.writeBytes(u.getAddress().getAddress());
+        w.writeVarLong(u.getPort());
+
+        // optional fields
+        int flags = 0;
+        if (u.getLifeTimeInSec() != null)
+            flags |= HAS_LIFETIME;
+        if (u.getSmsNumber() != null)
+            flags |= HAS_SMS;
+        if (u.getBindingMode() != null)
+            flags |= HAS_BINDING;
+        if (u.getObjectLinks() != null)
+            flags |= HAS_LINKS;
+        w.writeByte(flags);
+
+        if (u.getLifeTimeInSec() != null)
+            w.writeVarLong(u.getLifeTimeInSec());
+        if (u.getSmsNumber() != null)
+            w.writeString(u.getSmsNumber());
+        if (u.getBindingMode() != null)
+            w.writeString(u.getBindingMode().name());
+        if (u.getObjectLinks() != null)
+            w.writeLinks(u.getObjectLinks());
+
+        return w.toByteArray();
     }
 
     public static RegistrationUpdate deserialize(byte[] data) throws UnknownHostException {
+        if (BinaryFormat.isBinary(data)) {
+            return bDeserialize(data);
+        }
+
         JsonObject v = (JsonObject) Json.parse(new String(data));
 
         // mandatory fields
@@ -126,4 +166,22 @@ public class RegistrationUpdateSerDes {
 
         return new RegistrationUpdate(regId, addr, port, lifetime, sms, b, linkObjs);
     }
+
+    private static RegistrationUpdate bDeserialize(byte[] data) throws UnknownHostException {
+        BinaryFormat.Reader rd = new BinaryFormat.Reader(data, BinaryFormat.REGISTRATION_UPDATE, VERSION);
+
+        // mandatory fields
+        String regId = rd.readString();
+        InetAddress addr = InetAddress.getByAddress(rd.readBytes());
+        int port = rd.readVarInt();
+
+        // optional fields
+        int flags = rd.readByte();
+        Long lifetime = (flags & HAS_LIFETIME) != 0 ? rd.readVarLong() : null;
+        String sms = (flags & HAS_SMS) != 0 ? rd.readString() : null;
+        BindingMode b = (flags & HAS_BINDING) != 0 ? BindingMode.valueOf(rd.readString()) : null;
+        Link[] linkObjs = (flags & HAS_LINKS) != 0 ? rd.readLinks() : null;
+
+        return new RegistrationUpdate(regId, addr, port, lifetime, sms, b, linkObjs);
+    }
 }
\ No newline at end of file
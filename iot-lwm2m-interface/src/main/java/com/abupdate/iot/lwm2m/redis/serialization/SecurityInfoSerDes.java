@@ -37,11 +37,39 @@ import com.eclipsesource.json.Json;
 import com.eclipsesource.json.JsonObject;
 
 /**
- * Functions for serialize and deserialize security information in JSON for storage.
+ * Functions for serialize and deserialize security information in JSON or in the compact {@link BinaryFormat} for
+ * storage.
  */
 public class SecurityInfoSerDes {
 
+    private static final int VERSION = 1;
+
+    // security modes of a binary record
+    private static final int PSK = 0;
+    private static final int RPK = 1;
+    private static final int X509 = 2;
+
     public static byte[] serialize(SecurityInfo s) {
+        BinaryFormat.Writer w = new BinaryFormat.Writer(BinaryFormat.SECURITY_INFO, VERSION);
+        w.writeString(s.getEndpoint());
+        w.writeString(s.getIdentity());
+        if (s.getPreSharedKey() != null) {
+            w.writeByte(PSK);
+            w.writeBytes(s.getPreSharedKey());
+        } else if (s.getRawPublicKey() != null) {
+            ECPublicKey ecPublicKey = (ECPublicKey) s.getRawPublicKey();
+            w.writeByte(RPK);
+            w.writeBytes(ecPublicKey.getW().getAffineX().toByteArray());
+            w.writeBytes(ecPublicKey.getW().getAffineY().toByteArray());
+            // use only the first part as the curve name
+            w.writeString(ecPublicKey.getParams().toString().split(" ")[0]);
+        } else {
+            w.writeByte(X509);
+        }
+        return w.toByteArray();
+    }
+
+    public static JsonObject jSerialize(SecurityInfo s) {
         JsonObject o = Json.object();
         o.set("ep", s.getEndpoint());
         if (s.getIdentity() != null) {
@@ -77,10 +105,14 @@ public class SecurityInfoSerDes {
             o.set("x509", true);
         }
 
-        return o.toString().getBytes();
+        return o;
     }
 
     public static SecurityInfo deserialize(byte[] data) {
+        if (BinaryFormat.isBinary(data)) {
+            return bDeserialize(data);
+        }
+
         JsonObject o = (JsonObject) Json.parse(new String(data));
 
         SecurityInfo i;
@@ -96,16 +128,8 @@ public class SecurityInfoSerDes {
             try {
                 byte[] x = Hex.decodeHex(rpk.getString("x", null).toCharArray());
                 byte[] y = Hex.decodeHex(rpk.getString("y", null).toCharArray());
-                String params = rpk.getString("params", null);
-                AlgorithmParameters algoParameters = AlgorithmParameters.getInstance("EC");
-                algoParameters.init(new ECGenParameterSpec(params));
-                ECParameterSpec parameterSpec = algoParameters.getParameterSpec(ECParameterSpec.class);
-
-                KeySpec keySpec = new ECPublicKeySpec(new ECPoint(new BigInteger(x), new BigInteger(y)), parameterSpec);
-
-                key = KeyFactory.getInstance("EC").generatePublic(keySpec);
-            } catch (IllegalArgumentException | InvalidKeySpecException | NoSuchAlgorithmException
-                    | InvalidParameterSpecException e) {
+                key = toPublicKey(x, y, rpk.getString("params", null));
+            } catch (IllegalArgumentException e) {
                 throw new IllegalStateException("Invalid security info content", e);
             }
             i = SecurityInfo.newRawPublicKeyInfo(ep, key);
@@ -113,4 +137,38 @@ public class SecurityInfoSerDes {
         return i;
     }
 
+    private static SecurityInfo bDeserialize(byte[] data) {
+        BinaryFormat.Reader rd = new BinaryFormat.Reader(data, BinaryFormat.SECURITY_INFO, VERSION);
+        String ep = rd.readString();
+        String identity = rd.readString();
+        int mode = rd.readByte();
+        switch (mode) {
+            case PSK:
+                return SecurityInfo.newPreSharedKeyInfo(ep, identity, rd.readBytes());
+            case RPK:
+                PublicKey key = toPublicKey(rd.readBytes(), rd.readBytes(), rd.readString());
+                return SecurityInfo.newRawPublicKeyInfo(ep, key);
+            case X509:
+                return SecurityInfo.newX509CertInfo(ep);
+            default:
+                throw new IllegalStateException("Invalid security info content: unknown mode " + mode);
+        }
+    }
+
+    private static PublicKey toPublicKey(byte[] x, byte[] y, String params) {
+        try {
+            AlgorithmParameters algoParameters = AlgorithmParameters.getInstance("EC");
+            algoParameters.init(new ECGenParameterSpec(params));
+            ECParameterSpec parameterSpec = algoParameters.getParameterSpec(ECParameterSpec.class);
+
+            // coordinates are unsigned, the JSON format strips their leading zero byte
+            KeySpec keySpec = new ECPublicKeySpec(new ECPoint(new BigInteger(1, x), new BigInteger(1, y)),
+                    parameterSpec);
+
+            return KeyFactory.getInstance("EC").generatePublic(keySpec);
+        } catch (InvalidKeySpecException | NoSuchAlgorithmException | InvalidParameterSpecException e) {
+            throw new IllegalStateException("Invalid security info content", e);
+        }
+    }
+
 }
@@ -1,6 +1,7 @@
 package com.abupdate.iot.lwm2m.resource;
 
 import com.abupdate.iot.lwm2m.server.LwM2mServer;
+import com.abupdate.iot.lwm2m.server.RequestPipeline;
 import org.eclipse.californium.core.coap.CoAP.ResponseCode;
 import org.eclipse.californium.core.server.resources.CoapExchange;
 import org.eclipse.lwm2m.core.node.LwM2mNode;
@@ -17,7 +18,6 @@ import org.slf4j.LoggerFactory;
 import com.abupdate.iot.lwm2m.bean.DownloadPost;
 import com.abupdate.iot.lwm2m.code.Codes;
 import com.abupdate.iot.lwm2m.ota.server.DownloadServer;
-import com.google.gson.Gson;
 
 /**
  * @author wangxiaojing
@@ -27,7 +27,7 @@ import com.google.gson.Gson;
 public class DownloadResource extends VariableBase {
     private static final Logger logger = LoggerFactory.getLogger(DownloadResource.class);
 
-    public static void downloadResource(DownloadPost downloadPost, CoapExchange exchange, LwM2mServer lwM2mServer, RegistrationHandler registrationHandler, Gson gson) {
+    public static void downloadResource(final DownloadPost downloadPost, CoapExchange exchange, LwM2mServer lwM2mServer, RegistrationHandler registrationHandler) {
         String mid = downloadPost.getMid();
         Long productId = downloadPost.getProductId();
         String key = REDIS_KEY + productId;
@@ -38,44 +38,55 @@ public class DownloadResource extends VariableBase {
 
         /*Download*/
         DownloadServer downloadServer = new DownloadServer();
-        String resultDownload = downloadServer.downloadReport(downloadPost);
+        final LwM2mNode resultDownload = downloadServer.downloadReport(downloadPost);
 
         Registration registration = registrationHandler.getByEndpoint(mid, key);
         if (registration != null) {
-            try {
-                LwM2mNode node = gson.fromJson(resultDownload, LwM2mNode.class);
-                WriteRequest writeRequest = new WriteRequest(Mode.REPLACE, contentFormat, Codes.UP_TARGET_SUCCESS, node);
-                WriteResponse writeResponse = lwM2mServer.send(registration, writeRequest, TIMEOUT);
-                if (writeResponse != null && Codes.WRITE_RESULT.equals(writeResponse.getCode().toString())) {
-                    logger.info("Write Download success" + LOGINFO, mid, productId, resultDownload);
-                } else {
-                    logger.info("Write Download failure" + LOGINFO, mid, productId, resultDownload);
+            new RequestPipeline(lwM2mServer, registration, TIMEOUT).then(new RequestPipeline.Step<WriteResponse>() {
+                @Override
+                protected WriteRequest createRequest() {
+                    return new WriteRequest(Mode.REPLACE, contentFormat, Codes.UP_TARGET_SUCCESS, resultDownload);
                 }
-            } catch (Exception e) {
-                //e.printStackTrace();
-                logger.info("Write Download failure" + LOGINFO, mid, productId, e.getMessage());
-                return;
-            }
 
-            try {
-                /*Exce*/
-                if (downloadPost.getState() == Codes.DOWN_SUCCESS_VALUE) {
-                    ExecuteRequest executeRequest = new ExecuteRequest(Codes.EXECUTE_TARGET, null);
-                    ExecuteResponse cResponse = lwM2mServer.send(registration, executeRequest, TIMEOUT);
-                    if (cResponse != null && Codes.WRITE_RESULT.equals(cResponse.getCode().toString())) {
+                @Override
+                protected boolean onResponse(WriteResponse writeResponse) {
+                    if (Codes.WRITE_RESULT.equals(writeResponse.getCode().toString())) {
+                        logger.info("Write Download success" + LOGINFO, mid, productId, resultDownload);
+                    } else {
+                        logger.info("Write Download failure" + LOGINFO, mid, productId, resultDownload);
+                    }
+                    return true;
+                }
+
+                @Override
+                protected void onError(Exception e) {
+                    logger.info("Write Download failure" + LOGINFO, mid, productId, e.getMessage());
+                }
+            }).then(new RequestPipeline.Step<ExecuteResponse>() {
+                @Override
+                protected ExecuteRequest createRequest() {
+                    /*Exce*/
+                    if (downloadPost.getState() != Codes.DOWN_SUCCESS_VALUE) {
+                        return null;
+                    }
+                    return new ExecuteRequest(Codes.EXECUTE_TARGET, null);
+                }
+
+                @Override
+                protected boolean onResponse(ExecuteResponse cResponse) {
+                    if (Codes.WRITE_RESULT.equals(cResponse.getCode().toString())) {
                         logger.info("Execute Upgrade success" + LOGINFO, mid, productId, cResponse.getCode());
-                        return;
                     } else {
                         logger.info("Execute Upgrade failure" + LOGINFO, mid, productId, cResponse.getCode());
-                        return;
                     }
+                    return true;
+                }
+
+                @Override
+                protected void onError(Exception e) {
+                    logger.info("Execute Upgrade failure" + LOGINFO, mid, productId, e.getMessage());
                 }
-            } catch (Exception e) {
-                //e.printStackTrace();
-                logger.info("Execute Upgrade failure" + LOGINFO, mid, productId, e.getMessage());
-                return;
-            }
-            return;
+            }).start();
         }
     }
 
@@ -1,29 +1,21 @@
 package com.abupdate.iot.lwm2m.resource;
 
 import com.abupdate.iot.lwm2m.bean.*;
-import com.abupdate.iot.lwm2m.json.LwM2mNodeDeserializer;
-import com.abupdate.iot.lwm2m.json.LwM2mNodeSerializer;
-import com.abupdate.iot.lwm2m.json.ResponseSerializer;
 import com.abupdate.iot.lwm2m.server.LwM2mServer;
-import com.abupdate.iot.lwm2m.util.UriQueryUtil;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import net.sf.json.JSONObject;
+import com.abupdate.iot.lwm2m.server.RequestHandlerExecutor;
+import com.abupdate.iot.lwm2m.util.UriQueryBinder;
 import org.eclipse.californium.core.CoapResource;
 import org.eclipse.californium.core.coap.CoAP.ResponseCode;
 import org.eclipse.californium.core.coap.CoAP.Type;
 import org.eclipse.californium.core.coap.Request;
 import org.eclipse.californium.core.server.resources.CoapExchange;
 import org.eclipse.californium.core.server.resources.Resource;
-import org.eclipse.lwm2m.core.node.LwM2mNode;
-import org.eclipse.lwm2m.core.response.LwM2mResponse;
 import org.eclipse.lwm2m.server.registration.RegistrationHandler;
 import org.eclipse.lwm2m.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
-import java.util.Map;
 
 import static com.abupdate.iot.lwm2m.resource.AuthResource.getKeyResource;
 import static com.abupdate.iot.lwm2m.resource.CheckResource.checkResource;
@@ -43,6 +35,8 @@ public class EntranceResource extends CoapResource {
 
     private final RegistrationHandler registrationHandler;
     private final LwM2mServer lwM2mServer;
+    // null to handle the requests on the protocol threads
+    private final RequestHandlerExecutor handlerExecutor;
 
     private static final String LOGINFO = " -->> mid={}, productId={}, responseCode={}";
     public static final String RESOURCE_NAME = "rd";
@@ -52,35 +46,34 @@ public class EntranceResource extends CoapResource {
     private static final String UPGRADE = "ru";
     private static final String UA = "ua";
 
-    private final Gson gson;
-
     public EntranceResource(RegistrationHandler registrationHandler, LwM2mServer lwM2mServer) {
+        this(registrationHandler, lwM2mServer, null);
+    }
+
+    public EntranceResource(RegistrationHandler registrationHandler, LwM2mServer lwM2mServer,
+                            RequestHandlerExecutor handlerExecutor) {
         super(RESOURCE_NAME);
         this.lwM2mServer = lwM2mServer;
         this.registrationHandler = registrationHandler;
-
-        GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.registerTypeHierarchyAdapter(LwM2mResponse.class, new ResponseSerializer());
-        gsonBuilder.registerTypeHierarchyAdapter(LwM2mNode.class, new LwM2mNodeSerializer());
-        gsonBuilder.registerTypeHierarchyAdapter(LwM2mNode.class, new LwM2mNodeDeserializer());
-        gsonBuilder.setDateFormat("yyyy-MM-dd HH:mm:ss");
-        this.gson = gsonBuilder.create();
+        this.handlerExecutor = handlerExecutor;
 
         getAttributes().addResourceType("core.rd");
     }
 
     @Override
-    public void handlePOST(CoapExchange exchange) {
+    public void handlePOST(final CoapExchange exchange) {
         //接收消息-->12，将请求交给自定义的Resource处理
         Request request = exchange.advanced().getRequest();
 
-        logger.info("Requset = {}, IP = {}", request, exchange.getSourceAddress());
+        logger.debug("Requset = {}, IP = {}", request, exchange.getSourceAddress());
 
-        Map<String, String> mapUriQuery = new UriQueryUtil().getUriQueryMap(request.getOptions().getUriQuery());
-        logger.info("uriQuery: {}", mapUriQuery.toString());
+        final List<String> queries = request.getOptions().getUriQuery();
+        logger.debug("uriQuery: {}", queries);
 
-        JSONObject jsonUriQuery = JSONObject.fromObject(mapUriQuery);
-        UriQuery uriQuery = this.gson.fromJson(jsonUriQuery.toString(), UriQuery.class);
+        final UriQuery uriQuery = bind(UriQueryBinder.URI_QUERY, queries, exchange);
+        if (uriQuery == null) {
+            return;
+        }
 
         String result = checkUriQuery(uriQuery);
         if (!"true".equals(result)) {
@@ -91,8 +84,8 @@ public class EntranceResource extends CoapResource {
 
         uriQuery.setProductId(Long.parseLong(uriQuery.getSms()));
 
-        String mid = uriQuery.getEp();
-        Long productId = uriQuery.getProductId();
+        final String mid = uriQuery.getEp();
+        final Long productId = uriQuery.getProductId();
 
         if (!Type.CON.equals(request.getType())) {
             logger.info("Type" + LOGINFO, mid, productId, ResponseCode.BAD_REQUEST);
@@ -113,6 +106,36 @@ public class EntranceResource extends CoapResource {
             return;
         }
 
+        if (handlerExecutor == null) {
+            handleOperation(exchange, uriQuery, queries, mid, productId);
+            return;
+        }
+
+        // the handlers wait for Redis, keep the protocol threads for the other messages
+        exchange.advanced().setCustomExecutor();
+        // acknowledge now, the device must not retransmit the request while it waits for a handler
+        exchange.accept();
+        boolean accepted = handlerExecutor.execute(uriQuery.getOp(), new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    handleOperation(exchange, uriQuery, queries, mid, productId);
+                } catch (RuntimeException e) {
+                    logger.error("Unexpected error" + LOGINFO, mid, productId, ResponseCode.INTERNAL_SERVER_ERROR, e);
+                    if (exchange.advanced().getResponse() == null) {
+                        exchange.respond(ResponseCode.INTERNAL_SERVER_ERROR);
+                    }
+                }
+            }
+        });
+        if (!accepted) {
+            logger.info("Too many requests" + LOGINFO, mid, productId, ResponseCode.SERVICE_UNAVAILABLE);
+            exchange.respond(ResponseCode.SERVICE_UNAVAILABLE, "Too many requests");
+        }
+    }
+
+    private void handleOperation(CoapExchange exchange, UriQuery uriQuery, List<String> queries, String mid,
+                                 Long productId) {
         if (StringUtils.isEmpty(uriQuery.getOp())) {
             //回复消息-->1，处理注册信息
             registerResource(uriQuery, exchange, lwM2mServer, registrationHandler);
@@ -127,33 +150,42 @@ public class EntranceResource extends CoapResource {
         }
 
         if (uriQuery.getOp().equals(UA)) {
-            logger.info("ua -->> data={}", jsonUriQuery.toString());
+            logger.info("ua -->> data={}", queries);
             /*TODO UA*/
-            Auth auth = this.gson.fromJson(jsonUriQuery.toString(), Auth.class);
+            Auth auth = bind(UriQueryBinder.AUTH, queries, exchange);
+            if (auth == null) {
+                return;
+            }
             auth.setMid(uriQuery.getEp());
             auth.setProductId(Integer.parseInt(uriQuery.getSms()));
             auth.setVersion(uriQuery.getV());
-            getKeyResource(auth, exchange, lwM2mServer, registrationHandler, gson);
+            getKeyResource(auth, exchange, lwM2mServer, registrationHandler);
         }
 
         if (uriQuery.getOp().equals(CHECK)) {
             /*TODO Check*/
             logger.info("check -->> mid={}, productId={}", mid, productId);
-            RegisterCheckPost registerCheck = this.gson.fromJson(jsonUriQuery.toString(), RegisterCheckPost.class);
+            RegisterCheckPost registerCheck = bind(UriQueryBinder.REGISTER_CHECK, queries, exchange);
+            if (registerCheck == null) {
+                return;
+            }
             registerCheck.setMid(uriQuery.getEp());
             registerCheck.setProductId(uriQuery.getSms());
-            checkResource(registerCheck, exchange, lwM2mServer, registrationHandler, gson);
+            checkResource(registerCheck, exchange, lwM2mServer, registrationHandler);
         }
 
         if (uriQuery.getOp().equals(DOWNLOAD)) {
             /*TODO Download*/
             logger.info("download -->> mid={}, productId={}", mid, productId);
             String deviceId = registerCheck(uriQuery.getProductId().toString(), uriQuery.getEp());
-            DownloadPost downloadPost = this.gson.fromJson(jsonUriQuery.toString(), DownloadPost.class);
+            DownloadPost downloadPost = bind(UriQueryBinder.DOWNLOAD, queries, exchange);
+            if (downloadPost == null) {
+                return;
+            }
             downloadPost.setDeviceId(deviceId);
             downloadPost.setMid(uriQuery.getEp());
             downloadPost.setProductId(Long.parseLong(uriQuery.getSms()));
-            downloadResource(downloadPost, exchange, lwM2mServer, registrationHandler, gson);
+            downloadResource(downloadPost, exchange, lwM2mServer, registrationHandler);
         }
 
         if (uriQuery.getOp().equals(UPGRADE)) {
@@ -161,11 +193,27 @@ public class EntranceResource extends CoapResource {
             logger.info("upgrade -->> mid={}, productId={}", mid, productId);
             String deviceId = registerCheck(uriQuery.getProductId().toString(), uriQuery.getEp());
             uriQuery.setDeviceId(deviceId);
-            UpgradePost upgradePost = this.gson.fromJson(jsonUriQuery.toString(), UpgradePost.class);
+            UpgradePost upgradePost = bind(UriQueryBinder.UPGRADE, queries, exchange);
+            if (upgradePost == null) {
+                return;
+            }
             upgradePost.setDeviceId(deviceId);
             upgradePost.setMid(uriQuery.getEp());
             upgradePost.setProductId(Long.parseLong(uriQuery.getSms()));
-            upgradeResource(upgradePost, exchange, lwM2mServer, registrationHandler, gson);
+            upgradeResource(upgradePost, exchange, lwM2mServer, registrationHandler);
+        }
+    }
+
+    /**
+     * @return the bean of the queries, or <code>null</code> if a query is invalid and the request has been answered.
+     */
+    private static <T> T bind(UriQueryBinder<T> binder, List<String> queries, CoapExchange exchange) {
+        try {
+            return binder.bind(queries);
+        } catch (IllegalArgumentException e) {
+            logger.info("UriQuery error -->> {}", e.getMessage());
+            exchange.respond(ResponseCode.BAD_REQUEST, e.getMessage());
+            return null;
         }
     }
 
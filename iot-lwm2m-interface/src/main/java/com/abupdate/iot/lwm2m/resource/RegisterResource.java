@@ -4,7 +4,6 @@ import static org.eclipse.lwm2m.core.californium.ExchangeUtil.extractIdentity;
 import static org.eclipse.lwm2m.core.californium.ResponseCodeUtil.fromLwM2mCode;
 
 import java.net.InetSocketAddress;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -25,6 +24,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.abupdate.iot.lwm2m.bean.UriQuery;
+import com.abupdate.iot.lwm2m.util.UriQueryBinder;
 
 /**
  * @author wangxiaojing
@@ -66,14 +66,8 @@ public class RegisterResource extends VariableBase {
         BindingMode binding = BindingMode.valueOf(uriQuery.getB());
         Long productId = uriQuery.getProductId();
 
-        Map<String, String> additionalParams = new HashMap<>();
         // Get parameters
-        for (String param : request.getOptions().getUriQuery()) {
-            String[] tokens = param.split("\\=");
-            if (tokens != null && tokens.length == 2) {
-                additionalParams.put(tokens[0], tokens[1]);
-            }
-        }
+        Map<String, String> additionalParams = UriQueryBinder.toMap(request.getOptions().getUriQuery());
 
         //create key
         String key = REDIS_KEY + productId;
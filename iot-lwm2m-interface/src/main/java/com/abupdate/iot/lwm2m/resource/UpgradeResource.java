@@ -1,6 +1,7 @@
 package com.abupdate.iot.lwm2m.resource;
 
 import com.abupdate.iot.lwm2m.server.LwM2mServer;
+import com.abupdate.iot.lwm2m.server.RequestPipeline;
 import org.eclipse.californium.core.coap.CoAP.ResponseCode;
 import org.eclipse.californium.core.server.resources.CoapExchange;
 import org.eclipse.lwm2m.core.node.LwM2mNode;
@@ -15,7 +16,6 @@ import org.slf4j.LoggerFactory;
 import com.abupdate.iot.lwm2m.bean.UpgradePost;
 import com.abupdate.iot.lwm2m.code.Codes;
 import com.abupdate.iot.lwm2m.ota.server.UpgradeServer;
-import com.google.gson.Gson;
 
 /**
  * @author wangxiaojing
@@ -25,7 +25,7 @@ import com.google.gson.Gson;
 public class UpgradeResource extends VariableBase {
     private static final Logger logger = LoggerFactory.getLogger(UpgradeResource.class);
 
-    public static void upgradeResource(UpgradePost upgradePost, CoapExchange exchange, LwM2mServer lwM2mServer, RegistrationHandler registrationHandler, Gson gson) {
+    public static void upgradeResource(final UpgradePost upgradePost, CoapExchange exchange, LwM2mServer lwM2mServer, RegistrationHandler registrationHandler) {
         String mid = upgradePost.getMid();
         Long productId = upgradePost.getProductId();
         String key = REDIS_KEY + productId;
@@ -35,54 +35,34 @@ public class UpgradeResource extends VariableBase {
         Registration registration = registrationHandler.getByEndpoint(mid, key);
         logger.info("Registration -->> {}", registration);
         if (registration != null) {
-            try {
-                /** // create & process request ************** TODO read
-                 ReadRequest readRequest = new ReadRequest(contentFormat, Codes.UP_TARGET);
-                 ReadResponse readResponse = lwM2mServer.send(registration, readRequest, TIMEOUT);
+            new RequestPipeline(lwM2mServer, registration, TIMEOUT).then(new RequestPipeline.Step<WriteResponse>() {
+                @Override
+                protected WriteRequest createRequest() {
+                    UpgradeServer upgradeServer = new UpgradeServer();
+                    LwM2mNode resultUpgrade = upgradeServer.upgradeReport(upgradePost);
 
-                 System.err.println(readResponse);
-
-                 if (readResponse == null) {
-                 logger.info("Read FirmwareUpdate failure" + LOGINFO, mid, productId, ResponseCode.CONTENT);
-                 exchange.respond(ResponseCode.NOT_FOUND, "Read device failure");
-                 return;
-                 }
-
-                 ReadInfo deviceInfo = gson.fromJson(gson.toJson(readResponse), ReadInfo.class);
-                 list = deviceInfo.getContent().getResources();
-
-                 if (list.size() == 0) {
-                 logger.info("Read FirmwareUpdate failure" + LOGINFO, mid, productId, ResponseCode.CONTENT);
-                 exchange.respond(ResponseCode.NOT_FOUND, "Read device failure");
-                 return;
-                 }
-
-                 list = addList(list, mid, ip, productId.toString(), uriQuery.getDeviceId());
-                 if (list != null) {
-                 **/
-                UpgradeServer upgradeServer = new UpgradeServer();
-                String resultUpgrade = upgradeServer.upgradeReport(upgradePost);
+                    if (resultUpgrade == null) {
+                        return null;
+                    }
+                    return new WriteRequest(Mode.REPLACE, contentFormat, Codes.UP_TARGET_SUCCESS, resultUpgrade);
+                }
 
-                if (resultUpgrade != null && !"".equals(resultUpgrade)) {
-                    LwM2mNode node = gson.fromJson(resultUpgrade, LwM2mNode.class);
-                    WriteRequest writeRequest = new WriteRequest(Mode.REPLACE, contentFormat, Codes.UP_TARGET_SUCCESS, node);
-                    WriteResponse writeResponse = lwM2mServer.send(registration, writeRequest, TIMEOUT);
-                    if (writeResponse != null && Codes.WRITE_RESULT.equals(writeResponse.getCode().toString())) {
+                @Override
+                protected boolean onResponse(WriteResponse writeResponse) {
+                    if (Codes.WRITE_RESULT.equals(writeResponse.getCode().toString())) {
                         logger.info("Write Upgrade success" + LOGINFO, mid, productId, ResponseCode.CONTENT);
-                        return;
                     } else {
                         logger.info("Write Upgrade failure" + LOGINFO, mid, productId, ResponseCode.CONTENT);
-                        return;
                     }
-                } else {
-                    return;
+                    return true;
+                }
+
+                @Override
+                protected void onError(Exception e) {
+                    logger.error("Read FirmwareUpdate exception ={}",e.getMessage());
+                    logger.info("Read FirmwareUpdate failure" + LOGINFO, mid, productId);
                 }
-            } catch (Exception e) {
-                //e.printStackTrace();
-                logger.error("Read FirmwareUpdate exception ={}",e.getMessage());
-                logger.info("Read FirmwareUpdate failure" + LOGINFO, mid, productId);
-                return;
-            }
+            }).start();
         }
     }
 
@@ -62,6 +62,7 @@ public class LeshanServerBuilder {
     private DtlsConnectorConfig.Builder dtlsConfigBuilder;
     private NetworkConfig coapConfig;
     private EndpointFactory endpointFactory;
+    private RequestHandlerExecutor requestHandlerExecutor;
 
     private boolean noSecuredEndpoint;
     private boolean noUnsecuredEndpoint;
@@ -245,6 +246,15 @@ public class LeshanServerBuilder {
         return this;
     }
 
+    /**
+     * Set the executor of the <code>/rd</code> request handlers. By default, it is created from the
+     * {@link RequestHandlerExecutor#RD_HANDLER_MODE} of the CoAP {@link NetworkConfig}.
+     */
+    public LeshanServerBuilder setRequestHandlerExecutor(RequestHandlerExecutor requestHandlerExecutor) {
+        this.requestHandlerExecutor = requestHandlerExecutor;
+        return this;
+    }
+
     /**
      * deactivate unsecured CoAP endpoint
      */
@@ -267,6 +277,7 @@ public class LeshanServerBuilder {
     public static NetworkConfig createDefaultNetworkConfig() {
         NetworkConfig networkConfig = new NetworkConfig();
         networkConfig.set(Keys.MID_TRACKER, "NULL");
+        RequestHandlerExecutor.setDefaults(networkConfig);
         return networkConfig;
     }
 
@@ -376,7 +387,11 @@ public class LeshanServerBuilder {
         if (securedEndpoint == null && unsecuredEndpoint == null) {
             throw new IllegalStateException("All CoAP enpoints are deactivated, at least one endpoint should be activated");
         }
+        if (requestHandlerExecutor == null) {
+            requestHandlerExecutor = RequestHandlerExecutor.fromConfig(coapConfig);
+        }
         //服务启动-->4
-        return new LwM2mServer(unsecuredEndpoint, securedEndpoint, registrationStore, securityStore, authorizer, modelProvider, encoder, decoder, coapConfig);
+        return new LwM2mServer(unsecuredEndpoint, securedEndpoint, registrationStore, securityStore, authorizer, modelProvider, encoder, decoder, coapConfig,
+                requestHandlerExecutor);
     }
 }
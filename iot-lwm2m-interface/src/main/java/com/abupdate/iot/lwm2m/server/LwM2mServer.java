@@ -12,6 +12,7 @@ import org.eclipse.californium.core.coap.CoAP.ResponseCode;
 import org.eclipse.californium.core.network.CoapEndpoint;
 import org.eclipse.californium.core.network.Endpoint;
 import org.eclipse.californium.core.network.config.NetworkConfig;
+import org.eclipse.californium.core.network.interceptors.SampledMessageTracer;
 import org.eclipse.californium.core.server.resources.CoapExchange;
 import org.eclipse.californium.core.server.resources.Resource;
 import org.eclipse.lwm2m.core.node.codec.CodecException;
@@ -75,6 +76,8 @@ public class LwM2mServer {
 
     private final CaliforniumRegistrationStore registrationStore;
 
+    private final RequestHandlerExecutor handlerExecutor;
+
     /**
      * Initialize a server which will bind to the specified address and port.
      *
@@ -91,6 +94,22 @@ public class LwM2mServer {
     public LwM2mServer(CoapEndpoint unsecuredEndpoint, CoapEndpoint securedEndpoint, CaliforniumRegistrationStore registrationStore,
                        SecurityStore securityStore, Authorizer authorizer, LwM2mModelProvider modelProvider, LwM2mNodeEncoder encoder,
                        LwM2mNodeDecoder decoder, NetworkConfig coapConfig) {
+        this(unsecuredEndpoint, securedEndpoint, registrationStore, securityStore, authorizer, modelProvider, encoder,
+                decoder, coapConfig, null);
+    }
+
+    /**
+     * Initialize a server which will bind to the specified address and port and run the handlers of the
+     * <code>/rd</code> requests with the given executor.
+     *
+     * @param handlerExecutor the executor of the <code>/rd</code> handlers, <code>null</code> to run them on the CoAP
+     *                        protocol threads.
+     * @see #LwM2mServer(CoapEndpoint, CoapEndpoint, CaliforniumRegistrationStore, SecurityStore, Authorizer,
+     * LwM2mModelProvider, LwM2mNodeEncoder, LwM2mNodeDecoder, NetworkConfig)
+     */
+    public LwM2mServer(CoapEndpoint unsecuredEndpoint, CoapEndpoint securedEndpoint, CaliforniumRegistrationStore registrationStore,
+                       SecurityStore securityStore, Authorizer authorizer, LwM2mModelProvider modelProvider, LwM2mNodeEncoder encoder,
+                       LwM2mNodeDecoder decoder, NetworkConfig coapConfig, RequestHandlerExecutor handlerExecutor) {
 
         Validate.notNull(registrationStore, "registration store cannot be null");
         Validate.notNull(authorizer, "authorizer cannot be null");
@@ -105,6 +124,7 @@ public class LwM2mServer {
         this.securityStore = securityStore;
         this.observationService = new ObservationServiceImpl(registrationStore, modelProvider, decoder);
         this.modelProvider = modelProvider;
+        this.handlerExecutor = handlerExecutor;
 
         // Cancel observations on client unregistering
         this.registrationService.addListener(new RegistrationListener() {
@@ -124,6 +144,10 @@ public class LwM2mServer {
                                    Collection<Observation> previousObsersations) {
             }
         });
+        if (modelProvider instanceof RegistrationListener) {
+            // evict the models of the removed registrations
+            this.registrationService.addListener((RegistrationListener) modelProvider);
+        }
 
         // define a set of endpoints
         Set<Endpoint> endpoints = new HashSet<>();
@@ -152,8 +176,15 @@ public class LwM2mServer {
             endpoints.add(securedEndpoint);
         }
 
+        // traces a sample of the messages when the FINE level of SampledMessageTracer is enabled
+        SampledMessageTracer tracer = new SampledMessageTracer();
+        for (Endpoint endpoint : endpoints) {
+            endpoint.addInterceptor(tracer);
+        }
+
         // define /rd resource
-        EntranceResource rdResource = new EntranceResource(new RegistrationHandler(this.registrationService, authorizer), this);
+        EntranceResource rdResource = new EntranceResource(new RegistrationHandler(this.registrationService, authorizer), this,
+                handlerExecutor);
         coapServer.add(rdResource);
 
         // create sender
@@ -197,6 +228,14 @@ public class LwM2mServer {
         // Destroy server
         coapServer.destroy();
 
+        if (handlerExecutor != null) {
+            handlerExecutor.shutdown();
+        }
+
+        if (requestSender instanceof Destroyable) {
+            ((Destroyable) requestSender).destroy();
+        }
+
         // Destroy stores
         if (registrationStore instanceof Destroyable) {
             ((Destroyable) registrationStore).destroy();
@@ -222,7 +261,7 @@ public class LwM2mServer {
     public <T extends LwM2mResponse> T send(Registration destination, DownlinkRequest<T> request, long timeout)
             throws InterruptedException, CodecException, InvalidResponseException, RequestCanceledException,
             RequestRejectedException {
-        LOG.info("LwM2mResponse==========>"+request+"destination====>"+destination);
+        LOG.debug("Sending {} to {}", request, destination);
         return requestSender.send(destination, request, timeout);
     }
 
@@ -231,6 +270,16 @@ public class LwM2mServer {
         requestSender.send(destination, request, responseCallback, errorCallback);
     }
 
+    /**
+     * Sends a request asynchronously. The error callback is called with a
+     * {@link org.eclipse.lwm2m.core.request.exception.TimeoutException} if no response is received after
+     * <code>timeout</code> milliseconds.
+     */
+    public <T extends LwM2mResponse> void send(Registration destination, DownlinkRequest<T> request, long timeout,
+                                               ResponseCallback<T> responseCallback, ErrorCallback errorCallback) throws CodecException {
+        requestSender.send(destination, request, timeout, responseCallback, errorCallback);
+    }
+
     public RegistrationService getRegistrationService() {
         return this.registrationService;
     }
@@ -243,6 +292,13 @@ public class LwM2mServer {
         return this.securityStore;
     }
 
+    /**
+     * @return the executor of the <code>/rd</code> handlers, <code>null</code> if they run on the CoAP protocol threads.
+     */
+    public RequestHandlerExecutor getRequestHandlerExecutor() {
+        return handlerExecutor;
+    }
+
     public LwM2mModelProvider getModelProvider() {
         return this.modelProvider;
     }
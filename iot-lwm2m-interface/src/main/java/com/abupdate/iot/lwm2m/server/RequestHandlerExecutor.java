@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.server;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.californium.core.network.config.NetworkConfig;
+import org.eclipse.lwm2m.util.NamedThreadFactory;
+import org.eclipse.lwm2m.util.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the handlers of the <code>/rd</code> requests out of the CoAP protocol threads, so a handler waiting for Redis
+ * or for a device does not hold a protocol thread.
+ * <p>
+ * Handlers run on virtual threads when the JVM provides them (Java 21 and later), else on an isolated bounded pool.
+ * The number of handlers running or waiting concurrently is limited per operation (<code>cv</code>, <code>rd</code>,
+ * <code>ru</code>, <code>ua</code>, ...). A request over the limit is not queued: {@link #execute(String, Runnable)}
+ * returns <code>false</code> and the caller should answer it right away.
+ * <p>
+ * A handler is running until it returns and the asynchronous work it started with {@link #continueAsync()}, as a
+ * {@link RequestPipeline}, completes.
+ */
+public class RequestHandlerExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RequestHandlerExecutor.class);
+
+    /* *************** NetworkConfig keys **************** */
+
+    /**
+     * How the <code>/rd</code> handlers are run, {@link #MODE_INLINE}, {@link #MODE_POOL} or {@link #MODE_VIRTUAL}.
+     * Handlers are run inline, on the protocol threads, if the key is missing.
+     */
+    public static final String RD_HANDLER_MODE = "RD_HANDLER_MODE";
+    public static final String MODE_INLINE = "INLINE";
+    public static final String MODE_POOL = "POOL";
+    /** Virtual threads, or a pool when the JVM does not support them. */
+    public static final String MODE_VIRTUAL = "VIRTUAL";
+    /** The number of threads of the pool. */
+    public static final String RD_HANDLER_THREADS = "RD_HANDLER_THREADS";
+    /** The number of handlers waiting for a thread of the pool. */
+    public static final String RD_HANDLER_QUEUE_SIZE = "RD_HANDLER_QUEUE_SIZE";
+    /** The limit of the operations without a limit of their own, followed by the operation for a specific one. */
+    public static final String RD_HANDLER_LIMIT = "RD_HANDLER_LIMIT";
+
+    public static final String[] OPERATIONS = { "cv", "rd", "ru", "ua" };
+
+    /** The operation of the registration requests, which have none. */
+    public static final String REGISTER = "";
+
+    private final ExecutorService executor;
+    private final boolean virtual;
+    private final Map<String, Semaphore> limits = new ConcurrentHashMap<>();
+    // shared by the unknown operations, the operation comes from the device
+    private final Semaphore otherLimit;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    // the permit of the handler running on the current thread
+    private static final ThreadLocal<Permit> CURRENT_PERMIT = new ThreadLocal<>();
+
+    private static final Runnable NOTHING = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    /**
+     * The permit of a handler, released once the handler and all its asynchronous continuations are done.
+     */
+    private static class Permit {
+        private final Semaphore limit;
+        private final AtomicInteger running = new AtomicInteger(1);
+
+        private Permit(Semaphore limit) {
+            this.limit = limit;
+        }
+
+        private void partDone() {
+            if (running.decrementAndGet() == 0) {
+                limit.release();
+            }
+        }
+    }
+
+    /**
+     * @param executor     the executor running the handlers, shut down with this one.
+     * @param virtual      whether the executor runs each handler on its own virtual thread.
+     * @param defaultLimit the maximum number of concurrent handlers of an operation without a limit of its own, and
+     *                     of all the unknown operations together.
+     */
+    public RequestHandlerExecutor(ExecutorService executor, boolean virtual, int defaultLimit) {
+        Validate.notNull(executor);
+        Validate.isTrue(defaultLimit > 0, "defaultLimit must be positive");
+        this.executor = executor;
+        this.virtual = virtual;
+        this.otherLimit = new Semaphore(defaultLimit);
+        limits.put(REGISTER, new Semaphore(defaultLimit));
+        for (String op : OPERATIONS) {
+            limits.put(op, new Semaphore(defaultLimit));
+        }
+    }
+
+    /**
+     * Creates an executor running the handlers on an isolated pool of threads.
+     *
+     * @param threads   the number of threads.
+     * @param queueSize the number of handlers waiting for a thread, further ones are rejected.
+     */
+    public static RequestHandlerExecutor pool(int threads, int queueSize, int defaultLimit) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize), new NamedThreadFactory("RD Handler %d"));
+        pool.allowCoreThreadTimeOut(true);
+        return new RequestHandlerExecutor(pool, false, defaultLimit);
+    }
+
+    /**
+     * Creates an executor running each handler on its own virtual thread, or on a pool as
+     * {@link #pool(int, int, int)} does if the JVM does not support virtual threads.
+     */
+    public static RequestHandlerExecutor virtualOrPool(int threads, int queueSize, int defaultLimit) {
+        try {
+            // Java 21 API, looked up as the code is compiled for Java 8
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return new RequestHandlerExecutor((ExecutorService) factory.invoke(null), true, defaultLimit);
+        } catch (ReflectiveOperationException e) {
+            LOG.info("Virtual threads are not supported, /rd handlers use a pool of {} threads", threads);
+            return pool(threads, queueSize, defaultLimit);
+        }
+    }
+
+    /**
+     * Creates the executor described by the {@link #RD_HANDLER_MODE} of the configuration.
+     *
+     * @return the executor, or <code>null</code> to run the handlers inline.
+     */
+    public static RequestHandlerExecutor fromConfig(NetworkConfig config) {
+        String mode = config.getString(RD_HANDLER_MODE, MODE_INLINE);
+        if (MODE_INLINE.equals(mode)) {
+            return null;
+        }
+
+        int threads = config.getInt(RD_HANDLER_THREADS, 4 * Runtime.getRuntime().availableProcessors());
+        int queueSize = config.getInt(RD_HANDLER_QUEUE_SIZE, 1000);
+        int defaultLimit = config.getInt(RD_HANDLER_LIMIT, 1000);
+        RequestHandlerExecutor executor;
+        if (MODE_VIRTUAL.equals(mode)) {
+            executor = virtualOrPool(threads, queueSize, defaultLimit);
+        } else if (MODE_POOL.equals(mode)) {
+            executor = pool(threads, queueSize, defaultLimit);
+        } else {
+            throw new IllegalArgumentException(String.format("Unknown %s: %s", RD_HANDLER_MODE, mode));
+        }
+        for (String op : OPERATIONS) {
+            int limit = config.getInt(RD_HANDLER_LIMIT + "_" + op.toUpperCase(), 0);
+            if (limit > 0) {
+                executor.setLimit(op, limit);
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Sets the default configuration of this executor, virtual threads and no specific limit per operation.
+     */
+    public static void setDefaults(NetworkConfig config) {
+        config.setString(RD_HANDLER_MODE, MODE_VIRTUAL);
+        config.setInt(RD_HANDLER_THREADS, 4 * Runtime.getRuntime().availableProcessors());
+        config.setInt(RD_HANDLER_QUEUE_SIZE, 1000);
+        config.setInt(RD_HANDLER_LIMIT, 1000);
+        for (String op : OPERATIONS) {
+            config.setInt(RD_HANDLER_LIMIT + "_" + op.toUpperCase(), 0);
+        }
+    }
+
+    /**
+     * Sets the maximum number of concurrent handlers of an operation.
+     */
+    public RequestHandlerExecutor setLimit(String op, int maxConcurrent) {
+        Validate.notNull(op);
+        Validate.isTrue(maxConcurrent > 0, "maxConcurrent must be positive");
+        limits.put(op, new Semaphore(maxConcurrent));
+        return this;
+    }
+
+    private Semaphore getLimit(String op) {
+        Semaphore limit = limits.get(op);
+        return limit == null ? otherLimit : limit;
+    }
+
+    /**
+     * Runs the handler of a request.
+     *
+     * @param op      the operation of the request, {@link #REGISTER} for a registration.
+     * @param handler the handler.
+     * @return <code>false</code> if the handler was not run, as the limit of the operation is reached or the pool is
+     *         saturated.
+     */
+    public boolean execute(String op, final Runnable handler) {
+        final Semaphore limit = getLimit(op == null ? REGISTER : op);
+        if (!limit.tryAcquire()) {
+            rejected.incrementAndGet();
+            return false;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Permit permit = new Permit(limit);
+                    CURRENT_PERMIT.set(permit);
+                    try {
+                        handler.run();
+                    } catch (RuntimeException e) {
+                        LOG.error("Unexpected error while handling a /rd request", e);
+                    } finally {
+                        CURRENT_PERMIT.remove();
+                        permit.partDone();
+                    }
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            limit.release();
+            rejected.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Called by a handler before it starts an asynchronous work, which then counts as part of the handler for the limit
+     * of its operation.
+     *
+     * @return the callback to run once the asynchronous work completes, successfully or not. Only its first run has an
+     *         effect. It does nothing if this is not called from a handler run by an executor.
+     */
+    public static Runnable continueAsync() {
+        final Permit permit = CURRENT_PERMIT.get();
+        if (permit == null) {
+            return NOTHING;
+        }
+        permit.running.incrementAndGet();
+        return new Runnable() {
+            private final AtomicBoolean done = new AtomicBoolean();
+
+            @Override
+            public void run() {
+                if (done.compareAndSet(false, true)) {
+                    permit.partDone();
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the number of requests not handled as the executor was busy.
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
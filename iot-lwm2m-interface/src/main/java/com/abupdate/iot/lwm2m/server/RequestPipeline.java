@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.server;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.lwm2m.core.request.DownlinkRequest;
+import org.eclipse.lwm2m.core.response.ErrorCallback;
+import org.eclipse.lwm2m.core.response.LwM2mResponse;
+import org.eclipse.lwm2m.core.response.ResponseCallback;
+import org.eclipse.lwm2m.server.registration.Registration;
+import org.eclipse.lwm2m.util.Validate;
+
+/**
+ * A chain of requests sent asynchronously to a registered client, one after the other.
+ * <p>
+ * Each step is sent once the response of the previous one is received, from the thread delivering that response, so
+ * the thread calling {@link #start()} never waits for the device. Each step has its own timeout: if no response is
+ * received in time, the request is cancelled and the step is given a
+ * {@link org.eclipse.lwm2m.core.request.exception.TimeoutException}. An error stops the pipeline.
+ * <p>
+ * A pipeline started by a handler of a {@link RequestHandlerExecutor} counts as part of the handler until it stops.
+ */
+public class RequestPipeline {
+
+    /**
+     * A request of the pipeline.
+     */
+    public abstract static class Step<T extends LwM2mResponse> {
+
+        /**
+         * Called when the step is reached.
+         *
+         * @return the request to send, or <code>null</code> to skip this step.
+         * @throws Exception stops the pipeline, the exception is given to {@link #onError(Exception)}.
+         */
+        protected abstract DownlinkRequest<T> createRequest() throws Exception;
+
+        /**
+         * @return <code>true</code> to continue with the next step.
+         */
+        protected abstract boolean onResponse(T response);
+
+        /**
+         * Called if the request could not be created or sent, was rejected, cancelled or timed out.
+         */
+        protected abstract void onError(Exception e);
+    }
+
+    /**
+     * Sends the requests of a pipeline, a {@link LwM2mServer} out of the tests.
+     */
+    interface Sender {
+        <T extends LwM2mResponse> void send(Registration destination, DownlinkRequest<T> request, long timeout,
+                ResponseCallback<T> responseCallback, ErrorCallback errorCallback);
+    }
+
+    private final Sender sender;
+    private final Registration destination;
+    private final long defaultTimeout;
+    private final List<Step<?>> steps = new ArrayList<>();
+    private final List<Long> timeouts = new ArrayList<>();
+    private Runnable done;
+
+    /**
+     * @param defaultTimeout the timeout in milliseconds of the steps added without an explicit one.
+     */
+    public RequestPipeline(LwM2mServer server, Registration destination, long defaultTimeout) {
+        this(sender(server), destination, defaultTimeout);
+    }
+
+    RequestPipeline(Sender sender, Registration destination, long defaultTimeout) {
+        Validate.notNull(sender);
+        Validate.notNull(destination);
+        this.sender = sender;
+        this.destination = destination;
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    private static Sender sender(final LwM2mServer server) {
+        Validate.notNull(server);
+        return new Sender() {
+            @Override
+            public <T extends LwM2mResponse> void send(Registration destination, DownlinkRequest<T> request,
+                    long timeout, ResponseCallback<T> responseCallback, ErrorCallback errorCallback) {
+                server.send(destination, request, timeout, responseCallback, errorCallback);
+            }
+        };
+    }
+
+    public RequestPipeline then(Step<?> step) {
+        return then(step, defaultTimeout);
+    }
+
+    public RequestPipeline then(Step<?> step, long timeout) {
+        Validate.notNull(step);
+        steps.add(step);
+        timeouts.add(timeout);
+        return this;
+    }
+
+    /**
+     * Starts the pipeline and returns without waiting for any response.
+     */
+    public void start() {
+        done = RequestHandlerExecutor.continueAsync();
+        next(0);
+    }
+
+    private void next(int index) {
+        // skipped steps are run in the same loop, sent steps continue from their callbacks
+        for (int i = index; i < steps.size(); i++) {
+            if (send(steps.get(i), i)) {
+                return;
+            }
+        }
+        done.run();
+    }
+
+    private void fail(Step<?> step, Exception e) {
+        try {
+            step.onError(e);
+        } finally {
+            done.run();
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the pipeline is waiting for the response of this step or was stopped.
+     */
+    private <T extends LwM2mResponse> boolean send(final Step<T> step, final int index) {
+        DownlinkRequest<T> request;
+        try {
+            request = step.createRequest();
+        } catch (Exception e) {
+            fail(step, e);
+            return true;
+        }
+        if (request == null) {
+            return false;
+        }
+
+        try {
+            sender.send(destination, request, timeouts.get(index), new ResponseCallback<T>() {
+                @Override
+                public void onResponse(T response) {
+                    boolean next;
+                    try {
+                        next = step.onResponse(response);
+                    } catch (RuntimeException e) {
+                        done.run();
+                        throw e;
+                    }
+                    if (next) {
+                        next(index + 1);
+                    } else {
+                        done.run();
+                    }
+                }
+            }, new ErrorCallback() {
+                @Override
+                public void onError(Exception e) {
+                    fail(step, e);
+                }
+            });
+        } catch (RuntimeException e) {
+            fail(step, e);
+        }
+        return true;
+    }
+}
@@ -39,13 +39,16 @@ import org.eclipse.lwm2m.core.model.ObjectModel;
 import org.eclipse.lwm2m.core.node.codec.DefaultLwM2mNodeDecoder;
 import org.eclipse.lwm2m.core.node.codec.DefaultLwM2mNodeEncoder;
 import org.eclipse.lwm2m.server.impl.FileSecurityStore;
+import org.eclipse.lwm2m.server.model.DynamicModelProvider;
 import org.eclipse.lwm2m.server.model.LwM2mModelProvider;
-import org.eclipse.lwm2m.server.model.StaticModelProvider;
 import org.eclipse.lwm2m.server.security.EditableSecurityStore;
 import org.eclipse.lwm2m.util.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.abupdate.iot.lwm2m.redis.CachingRegistrationStore;
+import com.abupdate.iot.lwm2m.redis.CachingSecurityStore;
+import com.abupdate.iot.lwm2m.redis.RedisRegistrationEventPublisher;
 import com.abupdate.iot.lwm2m.redis.RedisRegistrationStore;
 import com.abupdate.iot.lwm2m.redis.RedisSecurityStore;
 import com.abupdate.iot.lwm2m.server.LwM2mServer;
@@ -67,6 +70,11 @@ public class StartLwM2mServer {
 
     private final static String DEFAULT_KEYSTORE_ALIAS = "Abupdate";
 
+    private final static String PRODUCT_MODELS_FOLDER = "models";
+
+    private final static String[] VENDOR_DDF_FILES = new String[]{"10241.xml", "10242.xml", "10243.xml", "10244.xml",
+            "10245.xml", "10246.xml", "10247.xml", "10248.xml", "10249.xml", "10250.xml"};
+
     public static void startLwM2mServer(String redis) {
         // Define options for command line tools
         Options options = new Options();
@@ -166,8 +174,8 @@ public class StartLwM2mServer {
             securityStore = new FileSecurityStore();
         } else {
             //redis存储
-            securityStore = new RedisSecurityStore(jedis);
-            builder.setRegistrationStore(new RedisRegistrationStore(jedis));
+            securityStore = new CachingSecurityStore(new RedisSecurityStore(jedis), jedis);
+            builder.setRegistrationStore(new CachingRegistrationStore(new RedisRegistrationStore(jedis), jedis));
         }
         builder.setSecurityStore(securityStore);
 
@@ -243,15 +251,37 @@ public class StartLwM2mServer {
         }
 
         //加载模型
-        List<ObjectModel> models = ObjectLoader.loadDefault();
-        LwM2mModelProvider modelProvider = new StaticModelProvider(models);
-        builder.setObjectModelProvider(modelProvider);
+        builder.setObjectModelProvider(createModelProvider());
         //服务启动-->3
         LwM2mServer server = builder.build();
+        if (jedis != null) {
+            // registration events, also used to invalidate the registration caches of the cluster
+            server.getRegistrationService().addListener(new RedisRegistrationEventPublisher(jedis));
+        }
         //服务启动-->5
         server.start();
     }
 
+    /**
+     * The model of a client holds the OMA objects, and the vendor objects it announces. The vendor objects of a product
+     * are read from the {@value #PRODUCT_MODELS_FOLDER}/&lt;productId&gt; folder, if any.
+     */
+    private static LwM2mModelProvider createModelProvider() {
+        DynamicModelProvider modelProvider = new DynamicModelProvider(ObjectLoader.loadDefault());
+        modelProvider.addObjectModels(ObjectLoader.loadDdfResources("/models/", VENDOR_DDF_FILES));
+        File[] productFolders = new File(PRODUCT_MODELS_FOLDER).listFiles();
+        if (productFolders != null) {
+            for (File productFolder : productFolders) {
+                if (productFolder.isDirectory()) {
+                    List<ObjectModel> models = ObjectLoader.load(productFolder);
+                    logger.info("Loaded {} object models of product {}", models.size(), productFolder.getName());
+                    modelProvider.addObjectModels(productFolder.getName(), models);
+                }
+            }
+        }
+        return modelProvider;
+    }
+
     public static void main(String[] args) throws URISyntaxException {
         String redisUrl = "redis://127.0.0.1:6379";
         Pool<Jedis> jedis = null;
@@ -1,13 +1,22 @@
 package com.abupdate.iot.lwm2m.util;
 
+import org.eclipse.lwm2m.core.node.LwM2mNode;
+
+import com.abupdate.iot.lwm2m.json.LwM2mNodeSerializer;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
 /**
  * @author wangxiaojing
  * @company adups
  * @date 2018年1月10日
  **/
 public class ResultCode {
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeHierarchyAdapter(LwM2mNode.class, new LwM2mNodeSerializer()).create();
+
     private String id;
-    private String json;
+    private LwM2mNode node;
 
     public String getId() {
         return id;
@@ -17,11 +26,26 @@ public class ResultCode {
         this.id = id;
     }
 
+    /**
+     * @return the node to write at {@link #getId()}, <code>null</code> if the OTA platform could not be called.
+     */
+    public LwM2mNode getNode() {
+        return node;
+    }
+
+    public void setNode(LwM2mNode node) {
+        this.node = node;
+    }
+
+    /**
+     * @return the JSON form of the node, built on each call: only meant for logging.
+     */
     public String getJson() {
-        return json;
+        return node == null ? null : GSON.toJson(node);
     }
 
-    public void setJson(String json) {
-        this.json = json;
+    @Override
+    public String toString() {
+        return getJson();
     }
 }
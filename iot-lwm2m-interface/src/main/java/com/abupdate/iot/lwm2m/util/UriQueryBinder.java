@@ -0,0 +1,351 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.abupdate.iot.lwm2m.bean.Auth;
+import com.abupdate.iot.lwm2m.bean.DownloadPost;
+import com.abupdate.iot.lwm2m.bean.RegisterCheckPost;
+import com.abupdate.iot.lwm2m.bean.UpgradePost;
+import com.abupdate.iot.lwm2m.bean.UriQuery;
+
+/**
+ * Fills a bean from the <code>key=value</code> URI queries of a request, in one pass over the queries and without
+ * reflection.
+ * <p>
+ * The queries are bound as they used to be through a map, JSON and Gson: the trailing <code>=</code> of a query are
+ * ignored, as <code>String.split</code> dropped the trailing empty values, a query without value, or with an empty
+ * value, sets <code>null</code>, a query with more than one other <code>=</code> is ignored, the last one of a key
+ * wins and the unknown keys are ignored. Only the values of the string properties are copied, the keys are compared
+ * in place and the numbers parsed in place.
+ *
+ * <pre>
+ * UriQuery uriQuery = UriQueryBinder.URI_QUERY.bind(request.getOptions().getUriQuery());
+ * </pre>
+ */
+public abstract class UriQueryBinder<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UriQueryBinder.class);
+
+    /**
+     * Binds a query.
+     *
+     * @param target the bean.
+     * @param query  the query.
+     * @param keyEnd the index of the <code>=</code> of the query, or its length if it has none.
+     */
+    protected abstract void set(T target, String query, int keyEnd);
+
+    protected abstract T create();
+
+    /**
+     * @return a new bean filled from the queries.
+     * @throws IllegalArgumentException if the value of a number property is not a number.
+     */
+    public T bind(List<String> queries) {
+        T target = create();
+        for (int i = 0; i < queries.size(); i++) {
+            String query = trimEnd(queries.get(i));
+            if (query == null) {
+                LOG.info("uriQuery error -->> {}", queries.get(i));
+                continue;
+            }
+            int keyEnd = query.indexOf('=');
+            if (keyEnd < 0) {
+                keyEnd = query.length();
+            } else if (query.indexOf('=', keyEnd + 1) >= 0) {
+                LOG.info("uriQuery error -->> {}", query);
+                continue;
+            }
+            set(target, query, keyEnd);
+        }
+        return target;
+    }
+
+    /**
+     * @return the queries with exactly one <code>=</code> and a value, by key, the trailing <code>=</code> of a query
+     *         being ignored.
+     */
+    public static Map<String, String> toMap(List<String> queries) {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < queries.size(); i++) {
+            String query = trimEnd(queries.get(i));
+            int keyEnd = query == null ? -1 : query.indexOf('=');
+            if (keyEnd >= 0 && query.indexOf('=', keyEnd + 1) < 0) {
+                map.put(query.substring(0, keyEnd), query.substring(keyEnd + 1));
+            }
+        }
+        return map;
+    }
+
+    /**
+     * @return the query without its trailing <code>=</code>, or <code>null</code> if it has only <code>=</code>.
+     */
+    private static String trimEnd(String query) {
+        int end = query.length();
+        while (end > 0 && query.charAt(end - 1) == '=') {
+            end--;
+        }
+        if (end == query.length()) {
+            return query;
+        }
+        return end == 0 ? null : query.substring(0, end);
+    }
+
+    protected static boolean is(String query, int keyEnd, String key) {
+        return keyEnd == key.length() && query.startsWith(key);
+    }
+
+    protected static String stringValue(String query, int keyEnd) {
+        return keyEnd + 1 >= query.length() ? null : query.substring(keyEnd + 1);
+    }
+
+    protected static Long longValue(String query, int keyEnd) {
+        return keyEnd + 1 >= query.length() ? null : parseLong(query, keyEnd + 1);
+    }
+
+    protected static Integer intValue(String query, int keyEnd) {
+        if (keyEnd + 1 >= query.length()) {
+            return null;
+        }
+        long value = parseLong(query, keyEnd + 1);
+        if (value != (int) value) {
+            throw new IllegalArgumentException("Invalid integer value: " + query);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a decimal integer, as Gson reads a number from a string: <code>"12.0"</code> is 12, but
+     * <code>"12.5"</code> is rejected.
+     */
+    private static long parseLong(String query, int start) {
+        int end = query.length();
+        int i = start;
+        boolean negative = false;
+        if (query.charAt(i) == '-' || query.charAt(i) == '+') {
+            negative = query.charAt(i) == '-';
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        for (; i < end; i++, digits++) {
+            char c = query.charAt(i);
+            if (c < '0' || c > '9' || digits >= 18) {
+                return parseDecimal(query, start);
+            }
+            value = value * 10 + (c - '0');
+        }
+        if (digits == 0) {
+            throw new IllegalArgumentException("Invalid number value: " + query);
+        }
+        return negative ? -value : value;
+    }
+
+    // the unusual forms: decimals, exponents and numbers of 19 digits
+    private static long parseDecimal(String query, int start) {
+        String value = query.substring(start);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            try {
+                double decimal = Double.parseDouble(value);
+                if ((long) decimal == decimal) {
+                    return (long) decimal;
+                }
+            } catch (NumberFormatException ignored) {
+                // invalid in both forms
+            }
+            throw new IllegalArgumentException("Invalid number value: " + query);
+        }
+    }
+
+    public static final UriQueryBinder<UriQuery> URI_QUERY = new UriQueryBinder<UriQuery>() {
+        @Override
+        protected UriQuery create() {
+            return new UriQuery();
+        }
+
+        @Override
+        protected void set(UriQuery target, String query, int keyEnd) {
+            if (is(query, keyEnd, "ep")) {
+                target.setEp(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "lt")) {
+                target.setLt(longValue(query, keyEnd));
+            } else if (is(query, keyEnd, "op")) {
+                target.setOp(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "sms")) {
+                target.setSms(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "b")) {
+                target.setB(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "lwm2m")) {
+                target.setLwm2m(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "v")) {
+                target.setV(intValue(query, keyEnd));
+            } else if (is(query, keyEnd, "timestamp")) {
+                target.setTimestamp(longValue(query, keyEnd));
+            } else if (is(query, keyEnd, "sign")) {
+                target.setSign(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "productId")) {
+                target.setProductId(longValue(query, keyEnd));
+            } else if (is(query, keyEnd, "deviceId")) {
+                target.setDeviceId(stringValue(query, keyEnd));
+            }
+        }
+    };
+
+    public static final UriQueryBinder<Auth> AUTH = new UriQueryBinder<Auth>() {
+        @Override
+        protected Auth create() {
+            return new Auth();
+        }
+
+        @Override
+        protected void set(Auth target, String query, int keyEnd) {
+            if (is(query, keyEnd, "ip")) {
+                target.setIp(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "mid")) {
+                target.setMid(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "productId")) {
+                target.setProductId(intValue(query, keyEnd));
+            } else if (is(query, keyEnd, "version")) {
+                target.setVersion(intValue(query, keyEnd));
+            }
+        }
+    };
+
+    public static final UriQueryBinder<RegisterCheckPost> REGISTER_CHECK = new UriQueryBinder<RegisterCheckPost>() {
+        @Override
+        protected RegisterCheckPost create() {
+            return new RegisterCheckPost();
+        }
+
+        @Override
+        protected void set(RegisterCheckPost target, String query, int keyEnd) {
+            if (is(query, keyEnd, "oem")) {
+                target.setOem(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "models")) {
+                target.setModels(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "platform")) {
+                target.setPlatform(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "deviceType")) {
+                target.setDeviceType(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "timestamp")) {
+                target.setTimestamp(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "sign")) {
+                target.setSign(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "sdkversion")) {
+                target.setSdkversion(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "appversion")) {
+                target.setAppversion(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "version")) {
+                target.setVersion(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "networkType")) {
+                target.setNetworkType(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "mac")) {
+                target.setMac(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "ip")) {
+                target.setIp(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "mid")) {
+                target.setMid(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "productId")) {
+                target.setProductId(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "deviceId")) {
+                target.setDeviceId(stringValue(query, keyEnd));
+            }
+        }
+    };
+
+    public static final UriQueryBinder<DownloadPost> DOWNLOAD = new UriQueryBinder<DownloadPost>() {
+        @Override
+        protected DownloadPost create() {
+            return new DownloadPost();
+        }
+
+        @Override
+        protected void set(DownloadPost target, String query, int keyEnd) {
+            if (is(query, keyEnd, "deltaID")) {
+                target.setDeltaID(longValue(query, keyEnd));
+            } else if (is(query, keyEnd, "downStart")) {
+                target.setDownStart(longValue(query, keyEnd));
+            } else if (is(query, keyEnd, "downEnd")) {
+                target.setDownEnd(longValue(query, keyEnd));
+            } else if (is(query, keyEnd, "downSize")) {
+                target.setDownSize(longValue(query, keyEnd));
+            } else if (is(query, keyEnd, "downIp")) {
+                target.setDownIp(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "state")) {
+                target.setState(intValue(query, keyEnd));
+            } else if (is(query, keyEnd, "extStr")) {
+                target.setExtStr(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "timestamp")) {
+                target.setTimestamp(longValue(query, keyEnd));
+            } else if (is(query, keyEnd, "sign")) {
+                target.setSign(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "productId")) {
+                target.setProductId(longValue(query, keyEnd));
+            } else if (is(query, keyEnd, "deviceId")) {
+                target.setDeviceId(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "ip")) {
+                target.setIp(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "mid")) {
+                target.setMid(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "downloadStatus")) {
+                target.setDownloadStatus(stringValue(query, keyEnd));
+            }
+        }
+    };
+
+    public static final UriQueryBinder<UpgradePost> UPGRADE = new UriQueryBinder<UpgradePost>() {
+        @Override
+        protected UpgradePost create() {
+            return new UpgradePost();
+        }
+
+        @Override
+        protected void set(UpgradePost target, String query, int keyEnd) {
+            if (is(query, keyEnd, "deltaID")) {
+                target.setDeltaID(longValue(query, keyEnd));
+            } else if (is(query, keyEnd, "updateStatus")) {
+                // a primitive property is left unchanged without value
+                Integer updateStatus = intValue(query, keyEnd);
+                if (updateStatus != null) {
+                    target.setUpdateStatus(updateStatus);
+                }
+            } else if (is(query, keyEnd, "timestamp")) {
+                target.setTimestamp(longValue(query, keyEnd));
+            } else if (is(query, keyEnd, "sign")) {
+                target.setSign(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "extStr")) {
+                target.setExtStr(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "productId")) {
+                target.setProductId(longValue(query, keyEnd));
+            } else if (is(query, keyEnd, "deviceId")) {
+                target.setDeviceId(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "ip")) {
+                target.setIp(stringValue(query, keyEnd));
+            } else if (is(query, keyEnd, "mid")) {
+                target.setMid(stringValue(query, keyEnd));
+            }
+        }
+    };
+}
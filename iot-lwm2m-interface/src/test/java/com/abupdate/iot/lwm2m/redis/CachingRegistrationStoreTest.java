@@ -0,0 +1,368 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.californium.elements.CorrelationContext;
+import org.eclipse.lwm2m.core.observation.Observation;
+import org.eclipse.lwm2m.server.registration.Deregistration;
+import org.eclipse.lwm2m.server.registration.ExpirationListener;
+import org.eclipse.lwm2m.server.registration.Registration;
+import org.eclipse.lwm2m.server.registration.RegistrationUpdate;
+import org.eclipse.lwm2m.server.registration.UpdatedRegistration;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.abupdate.iot.lwm2m.impl.CaliforniumRegistrationStore;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.util.Pool;
+
+/**
+ * Two nodes sharing a registration store, each one with its own cache. The registration events published by a node are
+ * delivered to the caches of both nodes.
+ */
+public class CachingRegistrationStoreTest {
+
+    private static final String PRODUCT_KEY = "pk";
+
+    private SharedStore store;
+    private CachingRegistrationStore node1;
+    private CachingRegistrationStore node2;
+    private RedisRegistrationEventPublisher publisher1;
+
+    @Before
+    public void setUp() {
+        store = new SharedStore();
+        node1 = new CachingRegistrationStore(store, null);
+        node2 = new CachingRegistrationStore(store, null);
+        publisher1 = new RedisRegistrationEventPublisher(new EventPool(node1, node2));
+    }
+
+    @Test
+    public void re_registration_on_another_node_invalidates_the_cache() throws Exception {
+        Registration first = newRegistration("reg-1", 5683);
+        register(first);
+        assertEquals("reg-1", node2.getRegistrationByEndpoint("ep-1", PRODUCT_KEY).getId());
+        assertEquals(1, node2.size());
+
+        Registration second = newRegistration("reg-2", 5684);
+        register(second);
+
+        assertEquals("reg-2", node2.getRegistrationByEndpoint("ep-1", PRODUCT_KEY).getId());
+        assertEquals(5684, node2.getRegistrationByEndpoint("ep-1", PRODUCT_KEY).getPort());
+        assertNull(node2.getRegistration("reg-1"));
+        assertEquals(1, node2.getInvalidations());
+    }
+
+    @Test
+    public void update_on_another_node_invalidates_the_cache() throws Exception {
+        Registration registration = newRegistration("reg-1", 5683);
+        register(registration);
+        assertEquals(86400L, (long) node2.getRegistrationByEndpoint("ep-1", PRODUCT_KEY).getLifeTimeInSec());
+
+        RegistrationUpdate update = new RegistrationUpdate("reg-1", registration.getAddress(), 5683, 3600L, null,
+                null, null);
+        UpdatedRegistration updated = node1.updateRegistration(update);
+        publisher1.updated(update, updated.getUpdatedRegistration(), updated.getPreviousRegistration());
+
+        assertEquals(3600L, (long) node2.getRegistrationByEndpoint("ep-1", PRODUCT_KEY).getLifeTimeInSec());
+    }
+
+    @Test
+    public void deregistration_on_another_node_invalidates_the_cache() throws Exception {
+        Registration registration = newRegistration("reg-1", 5683);
+        register(registration);
+        assertEquals("reg-1", node2.getRegistrationByEndpoint("ep-1", PRODUCT_KEY).getId());
+
+        Deregistration deregistration = node1.removeRegistration("reg-1");
+        publisher1.unregistered(deregistration.getRegistration(), deregistration.getObservations(), false, null);
+
+        assertNull(node2.getRegistrationByEndpoint("ep-1", PRODUCT_KEY));
+        assertEquals(0, node2.size());
+    }
+
+    @Test
+    public void registration_read_by_id_is_cached_until_updated() throws Exception {
+        Registration registration = newRegistration("reg-1", 5683);
+        register(registration);
+        assertEquals("reg-1", node2.getRegistration("reg-1").getId());
+        assertEquals("reg-1", node2.getRegistration("reg-1").getId());
+        assertEquals(1, node2.getHits());
+        assertEquals(1, node2.size());
+
+        update("reg-1", 3600L);
+
+        assertEquals(0, node2.size());
+        assertEquals(3600L, (long) node2.getRegistration("reg-1").getLifeTimeInSec());
+    }
+
+    @Test
+    public void registration_invalidated_while_read_is_not_cached() throws Exception {
+        register(newRegistration("reg-1", 5683));
+        store.onNextRead(new Runnable() {
+            @Override
+            public void run() {
+                update("reg-1", 3600L);
+            }
+        });
+
+        // the stale registration read before the update is returned, but not cached
+        assertEquals(86400L, (long) node2.getRegistration("reg-1").getLifeTimeInSec());
+        assertEquals(0, node2.size());
+        assertEquals(3600L, (long) node2.getRegistration("reg-1").getLifeTimeInSec());
+
+        store.onNextRead(new Runnable() {
+            @Override
+            public void run() {
+                update("reg-1", 7200L);
+            }
+        });
+        node2.clear();
+        assertEquals(3600L, (long) node2.getRegistrationByEndpoint("ep-1", PRODUCT_KEY).getLifeTimeInSec());
+        assertEquals(0, node2.size());
+        assertEquals(7200L, (long) node2.getRegistrationByEndpoint("ep-1", PRODUCT_KEY).getLifeTimeInSec());
+    }
+
+    @Test
+    public void invalidation_of_another_endpoint_while_read_does_not_prevent_caching() throws Exception {
+        register(newRegistration("reg-1", 5683));
+        register(newRegistration("reg-2", "ep-2", 5684));
+        store.onNextRead(new Runnable() {
+            @Override
+            public void run() {
+                update("reg-2", 3600L);
+            }
+        });
+
+        assertEquals("reg-1", node2.getRegistrationByEndpoint("ep-1", PRODUCT_KEY).getId());
+        assertEquals(1, node2.size());
+        assertEquals("reg-1", node2.getRegistrationByEndpoint("ep-1", PRODUCT_KEY).getId());
+        assertEquals(1, node2.getHits());
+    }
+
+    private void update(String registrationId, long lifetime) {
+        Registration registration = store.getRegistration(registrationId);
+        RegistrationUpdate update = new RegistrationUpdate(registrationId, registration.getAddress(),
+                registration.getPort(), lifetime, null, null, null);
+        UpdatedRegistration updated = node1.updateRegistration(update);
+        publisher1.updated(update, updated.getUpdatedRegistration(), updated.getPreviousRegistration());
+    }
+
+    private void register(Registration registration) {
+        Deregistration deregistration = node1.addRegistration(registration, PRODUCT_KEY);
+        // the deregistration event of a replaced registration is not published: the registration event must be enough
+        if (deregistration != null) {
+            publisher1.registered(registration, deregistration.getRegistration(), deregistration.getObservations());
+        } else {
+            publisher1.registered(registration, null, null);
+        }
+    }
+
+    private static Registration newRegistration(String registrationId, int port) throws Exception {
+        return newRegistration(registrationId, "ep-1", port);
+    }
+
+    private static Registration newRegistration(String registrationId, String endpoint, int port) throws Exception {
+        return new Registration.Builder(registrationId, endpoint, InetAddress.getByName("10.0.0.1"), port,
+                new InetSocketAddress("127.0.0.1", 5683)).lifeTimeInSec(86400L).build();
+    }
+
+    /**
+     * A connection pool delivering the published registration events to caches.
+     */
+    private static class EventPool extends Pool<Jedis> {
+
+        private final List<CachingRegistrationStore> caches = new ArrayList<>();
+
+        private EventPool(CachingRegistrationStore... caches) {
+            Collections.addAll(this.caches, caches);
+        }
+
+        @Override
+        public Jedis getResource() {
+            return new Jedis() {
+                @Override
+                public Long publish(String channel, String message) {
+                    for (CachingRegistrationStore cache : caches) {
+                        cache.onRegistrationEvent(channel, message);
+                    }
+                    return (long) caches.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * An in-memory registration store shared by the nodes.
+     */
+    private static class SharedStore implements CaliforniumRegistrationStore {
+
+        private final Map<String, Registration> byEndpointKey = new HashMap<>();
+        private final Map<String, String> endpointKeys = new HashMap<>();
+        private Runnable onNextRead;
+
+        /**
+         * Runs a modification once, right after the next registration is read and before it is returned, as if it
+         * raced the read.
+         */
+        private void onNextRead(Runnable modification) {
+            this.onNextRead = modification;
+        }
+
+        private Registration afterRead(Registration registration) {
+            Runnable modification = onNextRead;
+            if (modification != null) {
+                onNextRead = null;
+                modification.run();
+            }
+            return registration;
+        }
+
+        @Override
+        public synchronized Deregistration addRegistration(Registration registration, Object key) {
+            String endpointKey = registration.getEndpoint() + key;
+            Registration previous = byEndpointKey.put(endpointKey, registration);
+            endpointKeys.put(registration.getId(), endpointKey);
+            if (previous == null) {
+                return null;
+            }
+            endpointKeys.remove(previous.getId());
+            return new Deregistration(previous, Collections.<Observation> emptyList());
+        }
+
+        @Override
+        public synchronized UpdatedRegistration updateRegistration(RegistrationUpdate update) {
+            String endpointKey = endpointKeys.get(update.getRegistrationId());
+            if (endpointKey == null) {
+                return null;
+            }
+            Registration previous = byEndpointKey.get(endpointKey);
+            Registration updated = update.update(previous);
+            byEndpointKey.put(endpointKey, updated);
+            return new UpdatedRegistration(previous, updated);
+        }
+
+        @Override
+        public Registration getRegistration(String registrationId) {
+            Registration registration;
+            synchronized (this) {
+                String endpointKey = endpointKeys.get(registrationId);
+                registration = endpointKey == null ? null : byEndpointKey.get(endpointKey);
+            }
+            return afterRead(registration);
+        }
+
+        @Override
+        public Map<String, Registration> getRegistrations(Collection<String> registrationIds) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Registration getRegistrationByEndpoint(String endpoint, Object key) {
+            Registration registration;
+            synchronized (this) {
+                registration = byEndpointKey.get(endpoint + key);
+            }
+            return afterRead(registration);
+        }
+
+        @Override
+        public Registration getRegistrationByAdress(InetSocketAddress address) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Iterator<Registration> getAllRegistrations() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public synchronized Deregistration removeRegistration(String registrationId) {
+            String endpointKey = endpointKeys.remove(registrationId);
+            if (endpointKey == null) {
+                return null;
+            }
+            return new Deregistration(byEndpointKey.remove(endpointKey), Collections.<Observation> emptyList());
+        }
+
+        @Override
+        public Collection<Observation> addObservation(String registrationId, Observation observation) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Observation getObservation(String registrationId, byte[] observationId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Observation removeObservation(String registrationId, byte[] observationId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Collection<Observation> getObservations(String registrationId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Collection<Observation> removeObservations(String registrationId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setExpirationListener(ExpirationListener listener) {
+        }
+
+        @Override
+        public Object getValue(Object key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(org.eclipse.californium.core.observe.Observation obs) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void remove(byte[] token) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public org.eclipse.californium.core.observe.Observation get(byte[] token) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setContext(byte[] token, CorrelationContext correlationContext) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.redis.serialization;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.lwm2m.Link;
+import org.junit.Test;
+
+public class BinaryFormatTest {
+
+    @Test
+    public void read_written_values() {
+        Map<String, String> map = new HashMap<>();
+        map.put("key", "value");
+        map.put("empty", "");
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("ct", 11543);
+        attributes.put("rt", "oma.lwm2m");
+        Link[] links = new Link[] { new Link("/", attributes), new Link("/3/0"), new Link("/custom") };
+
+        BinaryFormat.Writer w = new BinaryFormat.Writer(BinaryFormat.REGISTRATION, 1);
+        w.writeByte(0xFE);
+        w.writeVarLong(0);
+        w.writeVarLong(Long.MAX_VALUE);
+        w.writeBoolean(true);
+        w.writeBytes(null);
+        w.writeBytes(new byte[0]);
+        w.writeBytes(new byte[] { 1, 2, 3 });
+        w.writeString(null);
+        w.writeString("");
+        w.writeString("中文");
+        w.writeStringMap(map);
+        w.writeLinks(links);
+
+        BinaryFormat.Reader rd = new BinaryFormat.Reader(w.toByteArray(), BinaryFormat.REGISTRATION, 1);
+        assertEquals(1, rd.getVersion());
+        assertEquals((byte) 0xFE, rd.readByte());
+        assertEquals(0, rd.readVarLong());
+        assertEquals(Long.MAX_VALUE, rd.readVarLong());
+        assertTrue(rd.readBoolean());
+        assertNull(rd.readBytes());
+        assertArrayEquals(new byte[0], rd.readBytes());
+        assertArrayEquals(new byte[] { 1, 2, 3 }, rd.readBytes());
+        assertNull(rd.readString());
+        assertEquals("", rd.readString());
+        assertEquals("中文", rd.readString());
+        assertEquals(map, rd.readStringMap());
+        assertTrue(Arrays.equals(links, rd.readLinks()));
+    }
+
+    @Test
+    public void detect_binary_records() {
+        assertTrue(BinaryFormat.isBinary(new BinaryFormat.Writer(BinaryFormat.OBSERVATION, 1).toByteArray()));
+        assertFalse(BinaryFormat.isBinary("{\"ep\":\"ep-1\"}".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(BinaryFormat.isBinary(new byte[0]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reject_version_0() {
+        byte[] data = new BinaryFormat.Writer(BinaryFormat.REGISTRATION, 0).toByteArray();
+        new BinaryFormat.Reader(data, BinaryFormat.REGISTRATION, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reject_newer_version() {
+        byte[] data = new BinaryFormat.Writer(BinaryFormat.REGISTRATION, 2).toByteArray();
+        new BinaryFormat.Reader(data, BinaryFormat.REGISTRATION, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reject_other_record_type() {
+        byte[] data = new BinaryFormat.Writer(BinaryFormat.SECURITY_INFO, 1).toByteArray();
+        new BinaryFormat.Reader(data, BinaryFormat.REGISTRATION, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reject_json_record() {
+        byte[] data = "{\"ep\":\"ep-1\"}".getBytes(StandardCharsets.UTF_8);
+        new BinaryFormat.Reader(data, BinaryFormat.REGISTRATION, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reject_truncated_record() {
+        BinaryFormat.Writer w = new BinaryFormat.Writer(BinaryFormat.REGISTRATION, 1);
+        w.writeStringMap(Collections.singletonMap("key", "value"));
+        byte[] data = w.toByteArray();
+
+        BinaryFormat.Reader rd = new BinaryFormat.Reader(Arrays.copyOf(data, data.length - 1),
+                BinaryFormat.REGISTRATION, 1);
+        rd.readStringMap();
+    }
+}
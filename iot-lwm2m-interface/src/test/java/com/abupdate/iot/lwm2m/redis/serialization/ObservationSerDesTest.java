@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.redis.serialization;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.coap.CoAP.Code;
+import org.eclipse.californium.core.observe.Observation;
+import org.junit.Test;
+
+public class ObservationSerDesTest {
+
+    @Test
+    public void round_trip_with_context() {
+        Map<String, String> context = new HashMap<>();
+        context.put("regId", "reg-1");
+        context.put("lwm2mPath", "/3/0/13");
+        Request request = newRequest();
+        request.setUserContext(context);
+
+        Observation o = ObservationSerDes.deserialize(ObservationSerDes.serialize(new Observation(request, null)));
+        assertRequestEquals(request, o.getRequest());
+        assertEquals(context, o.getRequest().getUserContext());
+    }
+
+    @Test
+    public void round_trip_without_context() {
+        Request request = newRequest();
+
+        Observation o = ObservationSerDes.deserialize(ObservationSerDes.serialize(new Observation(request, null)));
+        assertRequestEquals(request, o.getRequest());
+        assertNull(o.getRequest().getUserContext());
+    }
+
+    @Test
+    public void json_round_trip() {
+        Map<String, String> context = new HashMap<>();
+        context.put("regId", "reg-1");
+        Request request = newRequest();
+        request.setUserContext(context);
+
+        byte[] json = ObservationSerDes.jSerialize(new Observation(request, null)).toString().getBytes();
+        Observation o = ObservationSerDes.deserialize(json);
+        assertRequestEquals(request, o.getRequest());
+        assertEquals(context, o.getRequest().getUserContext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reject_unsupported_version() {
+        byte[] data = ObservationSerDes.serialize(new Observation(newRequest(), null));
+        data[2] = (byte) (data[2] + 1);
+        ObservationSerDes.deserialize(data);
+    }
+
+    private static Request newRequest() {
+        Request request = new Request(Code.GET);
+        request.setMID(1234);
+        request.setToken(new byte[] { 1, 2, 3, 4 });
+        request.getOptions().setUriPath("3/0/13").setObserve(0);
+        return request;
+    }
+
+    private static void assertRequestEquals(Request expected, Request actual) {
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getCode(), actual.getCode());
+        assertEquals(expected.getMID(), actual.getMID());
+        assertArrayEquals(expected.getToken(), actual.getToken());
+        assertEquals(expected.getOptions().getUriPathString(), actual.getOptions().getUriPathString());
+        assertEquals(expected.getOptions().getObserve(), actual.getOptions().getObserve());
+    }
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.redis.serialization;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.lwm2m.Link;
+import org.eclipse.lwm2m.core.request.BindingMode;
+import org.eclipse.lwm2m.server.registration.Registration;
+import org.eclipse.lwm2m.util.Hex;
+import org.junit.Test;
+
+public class RegistrationSerDesTest {
+
+    // the registration of #newRegistration() as written by the schema version 1
+    private static final String VERSION_1_RECORD =
+            "b15201067265672d310565702d31050a000001b32c0a3132372e302e302e31b32c80a305092b3836313233343504312e"
+            + "30035551c0f9d08d8a2ca881d18d8a2c010300072f6c776d326d0203637400aeb401037274010a6f6d612e6c776d326d"
+            + "000b2f6c776d326d2f332f30000b00010a70726f6475637449640b31353130323834353531";
+
+    @Test
+    public void binary_round_trip() throws Exception {
+        Registration r = newRegistration().build();
+
+        assertRegistrationEquals(r, RegistrationSerDes.deserialize(RegistrationSerDes.bSerialize(r)));
+    }
+
+    @Test
+    public void json_round_trip() throws Exception {
+        Registration r = newRegistration().build();
+
+        byte[] json = RegistrationSerDes.sSerialize(r).getBytes(StandardCharsets.UTF_8);
+        assertRegistrationEquals(r, RegistrationSerDes.deserialize(json));
+    }
+
+    @Test
+    public void binary_round_trip_without_optional_fields() throws Exception {
+        Registration r = new Registration.Builder("reg-2", "ep-2", InetAddress.getByName("10.0.0.2"), 5684,
+                new InetSocketAddress("127.0.0.1", 5683)).build();
+
+        Registration d = RegistrationSerDes.deserialize(RegistrationSerDes.bSerialize(r));
+        assertRegistrationEquals(r, d);
+        assertNull(d.getSmsNumber());
+        assertNull(d.getObjectLinks());
+        assertTrue(d.getAdditionalRegistrationAttributes().isEmpty());
+    }
+
+    @Test
+    public void json_round_trip_without_optional_fields() throws Exception {
+        Registration r = new Registration.Builder("reg-2", "ep-2", InetAddress.getByName("10.0.0.2"), 5684,
+                new InetSocketAddress("127.0.0.1", 5683)).build();
+
+        byte[] json = RegistrationSerDes.sSerialize(r).getBytes(StandardCharsets.UTF_8);
+        Registration d = RegistrationSerDes.deserialize(json);
+        assertRegistrationEquals(r, d);
+        assertNull(d.getSmsNumber());
+        assertNull(d.getObjectLinks());
+    }
+
+    @Test
+    public void binary_round_trip_with_ipv6_address_and_unknown_links() throws Exception {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("ver", "2.0");
+        Registration r = new Registration.Builder("reg-3", "ep-3", InetAddress.getByName("2001:db8::1"), 56830,
+                new InetSocketAddress("::1", 5683))
+                        .objectLinks(new Link[] { new Link("/10250/0", attributes), new Link("/3/0"),
+                                new Link("/custom/path") })
+                        .additionalRegistrationAttributes(Collections.singletonMap("imei", "")).build();
+
+        assertRegistrationEquals(r, RegistrationSerDes.deserialize(RegistrationSerDes.bSerialize(r)));
+    }
+
+    @Test
+    public void read_version_1_record() throws Exception {
+        Registration expected = newRegistration().build();
+
+        byte[] data = Hex.decodeHex(VERSION_1_RECORD.toCharArray());
+        assertRegistrationEquals(expected, RegistrationSerDes.deserialize(data));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reject_unsupported_version() throws Exception {
+        byte[] data = RegistrationSerDes.bSerialize(newRegistration().build());
+        data[2] = (byte) (data[2] + 1);
+        RegistrationSerDes.deserialize(data);
+    }
+
+    private static Registration.Builder newRegistration() throws Exception {
+        Map<String, Object> rootAttributes = new HashMap<>();
+        rootAttributes.put("rt", "oma.lwm2m");
+        rootAttributes.put("ct", 11543);
+        Map<String, String> additionalAttributes = new HashMap<>();
+        additionalAttributes.put("productId", "1510284551");
+
+        return new Registration.Builder("reg-1", "ep-1", InetAddress.getByName("10.0.0.1"), 5683,
+                new InetSocketAddress("127.0.0.1", 5683)).registrationDate(new Date(1514541432000L))
+                        .lastUpdate(new Date(1514541433000L)).lifeTimeInSec(86400L).smsNumber("+8612345")
+                        .lwM2mVersion("1.0").bindingMode(BindingMode.UQ)
+                        .objectLinks(new Link[] { new Link("/lwm2m", rootAttributes), new Link("/lwm2m/3/0"),
+                                new Link("/3/0") })
+                        .additionalRegistrationAttributes(additionalAttributes);
+    }
+
+    private static void assertRegistrationEquals(Registration expected, Registration actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getEndpoint(), actual.getEndpoint());
+        assertEquals(expected.getAddress(), actual.getAddress());
+        assertEquals(expected.getPort(), actual.getPort());
+        assertEquals(expected.getRegistrationEndpointAddress(), actual.getRegistrationEndpointAddress());
+        assertEquals(expected.getRegistrationDate(), actual.getRegistrationDate());
+        assertEquals(expected.getLastUpdate(), actual.getLastUpdate());
+        assertEquals(expected.getLifeTimeInSec(), actual.getLifeTimeInSec());
+        assertEquals(expected.getSmsNumber(), actual.getSmsNumber());
+        assertEquals(expected.getLwM2mVersion(), actual.getLwM2mVersion());
+        assertEquals(expected.getBindingMode(), actual.getBindingMode());
+        assertArrayEquals(expected.getObjectLinks(), actual.getObjectLinks());
+        assertEquals(expected.getRootPath(), actual.getRootPath());
+        assertEquals(expected.getAdditionalRegistrationAttributes(), actual.getAdditionalRegistrationAttributes());
+    }
+}
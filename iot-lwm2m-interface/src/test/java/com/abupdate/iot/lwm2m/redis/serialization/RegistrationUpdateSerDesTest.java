@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.redis.serialization;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.lwm2m.Link;
+import org.eclipse.lwm2m.core.request.BindingMode;
+import org.eclipse.lwm2m.server.registration.RegistrationUpdate;
+import org.junit.Test;
+
+public class RegistrationUpdateSerDesTest {
+
+    @Test
+    public void binary_round_trip() throws Exception {
+        RegistrationUpdate u = newUpdate();
+
+        assertEquals(u, RegistrationUpdateSerDes.deserialize(RegistrationUpdateSerDes.bSerialize(u)));
+    }
+
+    @Test
+    public void json_round_trip() throws Exception {
+        RegistrationUpdate u = newUpdate();
+
+        byte[] json = RegistrationUpdateSerDes.sSerialize(u).getBytes(StandardCharsets.UTF_8);
+        assertEquals(u, RegistrationUpdateSerDes.deserialize(json));
+    }
+
+    @Test
+    public void binary_round_trip_without_optional_fields() throws Exception {
+        RegistrationUpdate u = new RegistrationUpdate("reg-1", InetAddress.getByName("10.0.0.1"), 5683, null, null,
+                null, null);
+
+        assertEquals(u, RegistrationUpdateSerDes.deserialize(RegistrationUpdateSerDes.bSerialize(u)));
+    }
+
+    @Test
+    public void json_round_trip_without_optional_fields() throws Exception {
+        RegistrationUpdate u = new RegistrationUpdate("reg-1", InetAddress.getByName("10.0.0.1"), 5683, null, null,
+                null, null);
+
+        byte[] json = RegistrationUpdateSerDes.sSerialize(u).getBytes(StandardCharsets.UTF_8);
+        assertEquals(u, RegistrationUpdateSerDes.deserialize(json));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reject_unsupported_version() throws Exception {
+        byte[] data = RegistrationUpdateSerDes.bSerialize(newUpdate());
+        data[2] = (byte) (data[2] + 1);
+        RegistrationUpdateSerDes.deserialize(data);
+    }
+
+    private static RegistrationUpdate newUpdate() throws Exception {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("rt", "oma.lwm2m");
+        attributes.put("ct", 11543);
+        Link[] links = new Link[] { new Link("/", attributes), new Link("/3/0"), new Link("/10250/0") };
+        return new RegistrationUpdate("reg-1", InetAddress.getByName("2001:db8::1"), 56830, 3600L, "+8612345",
+                BindingMode.UQ, links);
+    }
+}
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.redis.serialization;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+
+import org.eclipse.lwm2m.server.security.SecurityInfo;
+import org.junit.Test;
+
+public class SecurityInfoSerDesTest {
+
+    @Test
+    public void psk_round_trip() {
+        SecurityInfo s = SecurityInfo.newPreSharedKeyInfo("ep-1", "identity", new byte[] { 0, 1, 2, (byte) 0xFF });
+
+        assertEquals(s, SecurityInfoSerDes.deserialize(SecurityInfoSerDes.serialize(s)));
+        assertEquals(s, SecurityInfoSerDes.deserialize(toJson(s)));
+    }
+
+    @Test
+    public void rpk_round_trip() throws Exception {
+        // 100 keys, so that some of the coordinates start with a zero byte
+        for (int i = 0; i < 100; i++) {
+            SecurityInfo s = SecurityInfo.newRawPublicKeyInfo("ep-1", newPublicKey());
+
+            assertEquals(s, SecurityInfoSerDes.deserialize(SecurityInfoSerDes.serialize(s)));
+            assertEquals(s, SecurityInfoSerDes.deserialize(toJson(s)));
+        }
+    }
+
+    @Test
+    public void x509_round_trip() {
+        SecurityInfo s = SecurityInfo.newX509CertInfo("ep-1");
+
+        assertEquals(s, SecurityInfoSerDes.deserialize(SecurityInfoSerDes.serialize(s)));
+        assertEquals(s, SecurityInfoSerDes.deserialize(toJson(s)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reject_unsupported_version() {
+        byte[] data = SecurityInfoSerDes.serialize(SecurityInfo.newX509CertInfo("ep-1"));
+        data[2] = (byte) (data[2] + 1);
+        SecurityInfoSerDes.deserialize(data);
+    }
+
+    private static byte[] toJson(SecurityInfo s) {
+        return SecurityInfoSerDes.jSerialize(s).toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static PublicKey newPublicKey() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair().getPublic();
+    }
+}
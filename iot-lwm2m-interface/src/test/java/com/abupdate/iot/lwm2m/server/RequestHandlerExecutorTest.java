@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.lwm2m.core.request.DownlinkRequest;
+import org.eclipse.lwm2m.core.request.WriteRequest;
+import org.eclipse.lwm2m.core.request.exception.TimeoutException;
+import org.eclipse.lwm2m.core.response.WriteResponse;
+import org.eclipse.lwm2m.server.registration.Registration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.abupdate.iot.lwm2m.server.RequestPipelineTest.RecordingSender;
+
+public class RequestHandlerExecutorTest {
+
+    private static final Runnable NOTHING = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private final RecordingSender sender = new RecordingSender();
+    private ExecutorService pool;
+    private RequestHandlerExecutor executor;
+    private Registration registration;
+
+    @Before
+    public void setUp() throws Exception {
+        pool = Executors.newSingleThreadExecutor();
+        executor = new RequestHandlerExecutor(pool, false, 10).setLimit("cv", 1);
+        registration = new Registration.Builder("reg-1", "ep-1", InetAddress.getByName("10.0.0.1"), 5683,
+                new InetSocketAddress("127.0.0.1", 5683)).lifeTimeInSec(86400L).build();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void the_permit_is_released_when_the_handler_returns() throws Exception {
+        assertTrue(executor.execute("cv", NOTHING));
+        awaitHandlers();
+
+        assertTrue(executor.execute("cv", NOTHING));
+        assertEquals(0, executor.getRejectedCount());
+    }
+
+    @Test
+    public void the_permit_is_held_until_the_pipeline_completes() throws Exception {
+        assertTrue(executor.execute("cv", startPipeline(2)));
+        awaitHandlers();
+
+        // the handler returned, its pipeline waits for the device
+        assertFalse(executor.execute("cv", NOTHING));
+        sender.respond(0, WriteResponse.success());
+        assertFalse(executor.execute("cv", NOTHING));
+        assertEquals(2, executor.getRejectedCount());
+
+        sender.respond(1, WriteResponse.success());
+        assertTrue(executor.execute("cv", NOTHING));
+    }
+
+    @Test
+    public void the_permit_is_released_when_the_pipeline_fails() throws Exception {
+        assertTrue(executor.execute("cv", startPipeline(2)));
+        awaitHandlers();
+        assertFalse(executor.execute("cv", NOTHING));
+
+        sender.fail(0, new TimeoutException("no response"));
+        assertTrue(executor.execute("cv", NOTHING));
+    }
+
+    @Test
+    public void the_pipeline_of_an_operation_does_not_hold_the_others() throws Exception {
+        assertTrue(executor.execute("cv", startPipeline(1)));
+        awaitHandlers();
+
+        assertFalse(executor.execute("cv", NOTHING));
+        assertTrue(executor.execute("ru", NOTHING));
+    }
+
+    /**
+     * @return a handler starting a pipeline of the given number of steps.
+     */
+    private Runnable startPipeline(final int steps) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                RequestPipeline pipeline = new RequestPipeline(sender, registration, 1000L);
+                for (int i = 0; i < steps; i++) {
+                    pipeline.then(new WriteStep());
+                }
+                pipeline.start();
+            }
+        };
+    }
+
+    /**
+     * Waits for the handlers already queued to return, the pool runs them in order on a single thread.
+     */
+    private void awaitHandlers() throws Exception {
+        pool.submit(NOTHING).get();
+    }
+
+    private static class WriteStep extends RequestPipeline.Step<WriteResponse> {
+
+        @Override
+        protected DownlinkRequest<WriteResponse> createRequest() throws Exception {
+            return new WriteRequest(5, 0, 1, "coap://firmware");
+        }
+
+        @Override
+        protected boolean onResponse(WriteResponse response) {
+            return true;
+        }
+
+        @Override
+        protected void onError(Exception e) {
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.lwm2m.core.request.DownlinkRequest;
+import org.eclipse.lwm2m.core.request.WriteRequest;
+import org.eclipse.lwm2m.core.request.exception.TimeoutException;
+import org.eclipse.lwm2m.core.response.ErrorCallback;
+import org.eclipse.lwm2m.core.response.LwM2mResponse;
+import org.eclipse.lwm2m.core.response.ResponseCallback;
+import org.eclipse.lwm2m.core.response.WriteResponse;
+import org.eclipse.lwm2m.server.registration.Registration;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RequestPipelineTest {
+
+    private final RecordingSender sender = new RecordingSender();
+    private final List<String> events = new ArrayList<>();
+    private RequestPipeline pipeline;
+
+    @Before
+    public void setUp() throws Exception {
+        Registration registration = new Registration.Builder("reg-1", "ep-1", InetAddress.getByName("10.0.0.1"), 5683,
+                new InetSocketAddress("127.0.0.1", 5683)).lifeTimeInSec(86400L).build();
+        pipeline = new RequestPipeline(sender, registration, 1000L);
+    }
+
+    @Test
+    public void steps_are_sent_one_after_the_other() {
+        pipeline.then(new RecordingStep("auth")).then(new RecordingStep("check"), 5000L)
+                .then(new RecordingStep("download"));
+        pipeline.start();
+
+        assertEquals(Arrays.asList("create auth"), events);
+        assertEquals(1, sender.sent.size());
+        assertEquals(1000L, sender.sent.get(0).timeout);
+
+        sender.respond(0, WriteResponse.success());
+        assertEquals(Arrays.asList("create auth", "response auth", "create check"), events);
+        assertEquals(5000L, sender.sent.get(1).timeout);
+
+        sender.respond(1, WriteResponse.success());
+        sender.respond(2, WriteResponse.success());
+        assertEquals(Arrays.asList("create auth", "response auth", "create check", "response check",
+                "create download", "response download"), events);
+        assertEquals(3, sender.sent.size());
+    }
+
+    @Test
+    public void a_step_without_request_is_skipped() {
+        pipeline.then(new RecordingStep("auth")).then(new RecordingStep("check") {
+            @Override
+            protected DownlinkRequest<WriteResponse> createRequest() throws Exception {
+                super.createRequest();
+                return null;
+            }
+        }).then(new RecordingStep("download"));
+        pipeline.start();
+        sender.respond(0, WriteResponse.success());
+
+        assertEquals(Arrays.asList("create auth", "response auth", "create check", "create download"), events);
+        assertEquals(2, sender.sent.size());
+    }
+
+    @Test
+    public void a_response_can_stop_the_pipeline() {
+        pipeline.then(new RecordingStep("auth") {
+            @Override
+            protected boolean onResponse(WriteResponse response) {
+                super.onResponse(response);
+                return response.isSuccess();
+            }
+        }).then(new RecordingStep("check"));
+        pipeline.start();
+        sender.respond(0, WriteResponse.unauthorized());
+
+        assertEquals(Arrays.asList("create auth", "response auth"), events);
+        assertEquals(1, sender.sent.size());
+    }
+
+    @Test
+    public void an_error_callback_stops_the_pipeline() {
+        pipeline.then(new RecordingStep("auth")).then(new RecordingStep("check"));
+        pipeline.start();
+        sender.fail(0, new TimeoutException("no response"));
+
+        assertEquals(Arrays.asList("create auth", "error auth TimeoutException"), events);
+        assertEquals(1, sender.sent.size());
+    }
+
+    @Test
+    public void a_failure_to_create_the_request_stops_the_pipeline() {
+        pipeline.then(new RecordingStep("auth") {
+            @Override
+            protected DownlinkRequest<WriteResponse> createRequest() throws Exception {
+                super.createRequest();
+                throw new IllegalStateException("no firmware");
+            }
+        }).then(new RecordingStep("check"));
+        pipeline.start();
+
+        assertEquals(Arrays.asList("create auth", "error auth IllegalStateException"), events);
+        assertEquals(0, sender.sent.size());
+    }
+
+    @Test
+    public void a_failure_to_send_the_request_stops_the_pipeline() {
+        pipeline.then(new RecordingStep("auth")).then(new RecordingStep("check"));
+        sender.failure = new IllegalStateException("server stopped");
+        pipeline.start();
+
+        assertEquals(Arrays.asList("create auth", "error auth IllegalStateException"), events);
+        assertEquals(0, sender.sent.size());
+    }
+
+    @Test
+    public void each_step_gets_the_response_of_its_own_request() {
+        final WriteResponse[] responses = new WriteResponse[2];
+        pipeline.then(new RecordingStep("auth") {
+            @Override
+            protected boolean onResponse(WriteResponse response) {
+                responses[0] = response;
+                return true;
+            }
+        }).then(new RecordingStep("check") {
+            @Override
+            protected boolean onResponse(WriteResponse response) {
+                responses[1] = response;
+                return true;
+            }
+        });
+        pipeline.start();
+        WriteResponse first = WriteResponse.success();
+        WriteResponse second = WriteResponse.success();
+        sender.respond(0, first);
+        sender.respond(1, second);
+
+        assertSame(first, responses[0]);
+        assertSame(second, responses[1]);
+    }
+
+    /**
+     * A step recording its callbacks in {@link #events}.
+     */
+    private class RecordingStep extends RequestPipeline.Step<WriteResponse> {
+        private final String name;
+
+        private RecordingStep(String name) {
+            this.name = name;
+        }
+
+        @Override
+        protected DownlinkRequest<WriteResponse> createRequest() throws Exception {
+            events.add("create " + name);
+            return new WriteRequest(5, 0, 1, name);
+        }
+
+        @Override
+        protected boolean onResponse(WriteResponse response) {
+            events.add("response " + name);
+            return true;
+        }
+
+        @Override
+        protected void onError(Exception e) {
+            events.add("error " + name + " " + e.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * A sender keeping the requests, answered by the tests.
+     */
+    static class RecordingSender implements RequestPipeline.Sender {
+
+        static class Sent {
+            final DownlinkRequest<?> request;
+            final long timeout;
+            final ResponseCallback<?> responseCallback;
+            final ErrorCallback errorCallback;
+
+            Sent(DownlinkRequest<?> request, long timeout, ResponseCallback<?> responseCallback,
+                    ErrorCallback errorCallback) {
+                this.request = request;
+                this.timeout = timeout;
+                this.responseCallback = responseCallback;
+                this.errorCallback = errorCallback;
+            }
+        }
+
+        final List<Sent> sent = new ArrayList<>();
+        RuntimeException failure;
+
+        @Override
+        public synchronized <T extends LwM2mResponse> void send(Registration destination, DownlinkRequest<T> request,
+                long timeout, ResponseCallback<T> responseCallback, ErrorCallback errorCallback) {
+            if (failure != null) {
+                throw failure;
+            }
+            sent.add(new Sent(request, timeout, responseCallback, errorCallback));
+        }
+
+        @SuppressWarnings("unchecked")
+        <T extends LwM2mResponse> void respond(int index, T response) {
+            Sent s;
+            synchronized (this) {
+                s = sent.get(index);
+            }
+            ((ResponseCallback<T>) s.responseCallback).onResponse(response);
+        }
+
+        void fail(int index, Exception e) {
+            Sent s;
+            synchronized (this) {
+                s = sent.get(index);
+            }
+            s.errorCallback.onError(e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.abupdate.iot.lwm2m.bean.UriQuery;
+
+public class UriQueryBinderTest {
+
+    @Test
+    public void bind_queries() {
+        UriQuery uriQuery = UriQueryBinder.URI_QUERY.bind(Arrays.asList("ep=imei-1", "lt=86400", "b=U", "v=2",
+                "productId=1510284551", "unknown=1"));
+
+        assertEquals("imei-1", uriQuery.getEp());
+        assertEquals(Long.valueOf(86400), uriQuery.getLt());
+        assertEquals("U", uriQuery.getB());
+        assertEquals(Integer.valueOf(2), uriQuery.getV());
+        assertEquals(Long.valueOf(1510284551), uriQuery.getProductId());
+    }
+
+    @Test
+    public void bind_ignores_trailing_equals() {
+        UriQuery uriQuery = UriQueryBinder.URI_QUERY.bind(Arrays.asList("ep=imei-1=", "sms==", "lt=86400=="));
+
+        assertEquals("imei-1", uriQuery.getEp());
+        assertNull(uriQuery.getSms());
+        assertEquals(Long.valueOf(86400), uriQuery.getLt());
+    }
+
+    @Test
+    public void bind_skips_queries_with_more_than_one_equals() {
+        UriQuery uriQuery = UriQueryBinder.URI_QUERY.bind(Arrays.asList("ep=imei-1", "ep=a=b", "sms==1", "="));
+
+        assertEquals("imei-1", uriQuery.getEp());
+        assertNull(uriQuery.getSms());
+    }
+
+    @Test
+    public void bind_without_value() {
+        UriQuery uriQuery = UriQueryBinder.URI_QUERY.bind(Arrays.asList("ep", "lt=", "sms=+8612345", "sms"));
+
+        assertNull(uriQuery.getEp());
+        assertNull(uriQuery.getLt());
+        assertNull(uriQuery.getSms());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bind_rejects_invalid_number() {
+        UriQueryBinder.URI_QUERY.bind(Arrays.asList("lt=one"));
+    }
+
+    @Test
+    public void to_map() {
+        Map<String, String> expected = new HashMap<>();
+        expected.put("ep", "imei-1");
+        expected.put("lt", "86400");
+        expected.put("", "x");
+
+        assertEquals(expected, UriQueryBinder.toMap(Arrays.asList("ep=imei-1", "lt=86400==", "=x", "b", "sms=",
+                "a=b=c", "==")));
+    }
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Adups and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *    http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *    http://www.eclipse.org/org/documents/edl-v10.html.
+ *
+ * Contributors:
+ *     Adups - initial creation
+ *******************************************************************************/
+package com.abupdate.iot.lwm2m.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.abupdate.iot.lwm2m.bean.RegisterCheckPost;
+import com.abupdate.iot.lwm2m.bean.UriQuery;
+import com.google.gson.Gson;
+
+import net.sf.json.JSONObject;
+
+/**
+ * Compares the binding of the URI queries of a <code>cv</code> request by {@link UriQueryBinder} with the map, JSON
+ * and Gson round trips <code>EntranceResource.handlePOST</code> did before, for the {@link UriQuery} and the
+ * {@link RegisterCheckPost}.
+ * <p>
+ * Both ways must give the same beans. The time and the bytes allocated per request are logged.
+ */
+public class UriQueryBinderThroughputTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UriQueryBinderThroughputTest.class);
+
+    private static final int REQUESTS = 50000;
+
+    private static final List<String> QUERIES = Arrays.asList("ep=864230031234567", "lt=86400", "b=U", "v=2",
+            "productId=1510284551", "sms=1510284551", "op=cv", "oem=adups", "models=m1", "platform=mtk",
+            "deviceType=phone", "version=1.0.2", "sdkversion=3", "appversion=5", "mac=00:11:22:33:44:55");
+
+    private final Gson gson = new Gson();
+
+    private interface Binding {
+        Object[] bind(List<String> queries);
+    }
+
+    @Test
+    public void bind_cv_request() {
+        Binding roundTrip = new Binding() {
+            @Override
+            public Object[] bind(List<String> queries) {
+                Map<String, String> map = new HashMap<>();
+                for (String query : queries) {
+                    String[] parts = query.split("=");
+                    if (parts.length == 2) {
+                        map.put(parts[0], parts[1]);
+                    } else if (parts.length == 1) {
+                        map.put(parts[0], null);
+                    }
+                }
+                String json = JSONObject.fromObject(map).toString();
+                return new Object[] { gson.fromJson(json, UriQuery.class), gson.fromJson(json, RegisterCheckPost.class) };
+            }
+        };
+        Binding binder = new Binding() {
+            @Override
+            public Object[] bind(List<String> queries) {
+                return new Object[] { UriQueryBinder.URI_QUERY.bind(queries),
+                        UriQueryBinder.REGISTER_CHECK.bind(queries) };
+            }
+        };
+
+        assertSameBeans(roundTrip.bind(QUERIES), binder.bind(QUERIES));
+        for (int i = 0; i < 3; i++) {
+            LOG.info("map + JSON + Gson: {}; UriQueryBinder: {}", measure(roundTrip), measure(binder));
+        }
+    }
+
+    private static void assertSameBeans(Object[] expected, Object[] actual) {
+        UriQuery expectedQuery = (UriQuery) expected[0];
+        UriQuery actualQuery = (UriQuery) actual[0];
+        assertEquals(expectedQuery.getEp(), actualQuery.getEp());
+        assertEquals(expectedQuery.getLt(), actualQuery.getLt());
+        assertEquals(expectedQuery.getV(), actualQuery.getV());
+        assertEquals(expectedQuery.getProductId(), actualQuery.getProductId());
+        assertEquals(expectedQuery.getOp(), actualQuery.getOp());
+
+        RegisterCheckPost expectedCheck = (RegisterCheckPost) expected[1];
+        RegisterCheckPost actualCheck = (RegisterCheckPost) actual[1];
+        assertEquals(expectedCheck.getOem(), actualCheck.getOem());
+        assertEquals(expectedCheck.getModels(), actualCheck.getModels());
+        assertEquals(expectedCheck.getVersion(), actualCheck.getVersion());
+        assertEquals(expectedCheck.getMac(), actualCheck.getMac());
+        assertEquals(expectedCheck.getNetworkType(), actualCheck.getNetworkType());
+    }
+
+    private static String measure(Binding binding) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        int bound = 0;
+        for (int i = 0; i < REQUESTS; i++) {
+            bound += binding.bind(QUERIES).length;
+        }
+        long nanos = (System.nanoTime() - start) / REQUESTS;
+        allocated = (threads.getCurrentThreadAllocatedBytes() - allocated) / REQUESTS;
+        assertEquals(2 * REQUESTS, bound);
+        return String.format("%d ns, %d bytes per request", nanos, allocated);
+    }
+}